@@ -49,11 +49,31 @@ public class SimpleMarshalledValue<T> implements MarshalledValue<T, MarshallingC
         this.object = object;
     }
 
+    private SimpleMarshalledValue(byte[] bytes, MarshallingContext context) {
+        this.context = context;
+        this.bytes = bytes;
+    }
+
+    /**
+     * Creates a marshalled value from the already serialized form of its object.
+     * @param bytes the serialized object
+     * @param context the context with which the object was serialized
+     * @return a marshalled value
+     */
+    public static <T> SimpleMarshalledValue<T> fromBytes(byte[] bytes, MarshallingContext context) {
+        return new SimpleMarshalledValue<T>(bytes, context);
+    }
+
     T peek() {
         return this.object;
     }
 
-    byte[] getBytes() throws IOException {
+    /**
+     * Returns the serialized form of this value's object.
+     * @return a byte array, or null if the object is null
+     * @throws IOException if the object could not be serialized
+     */
+    public byte[] getBytes() throws IOException {
         byte[] bytes = this.bytes;
         if (bytes != null) return bytes;
         if (this.object == null) return null;
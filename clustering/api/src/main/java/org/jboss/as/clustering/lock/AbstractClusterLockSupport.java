@@ -26,10 +26,14 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.jboss.as.clustering.ClusterNode;
 import org.jboss.as.clustering.GroupMembershipListener;
@@ -49,8 +53,17 @@ import static org.jboss.as.clustering.ClusteringApiMessages.MESSAGES;
  */
 public abstract class AbstractClusterLockSupport implements GroupMembershipListener {
     public static final Class<?>[] REMOTE_LOCK_TYPES = new Class[] { Serializable.class, ClusterNode.class, long.class };
+    public static final Class<?>[] REMOTE_LOCKS_TYPES = new Class[] { Serializable[].class, ClusterNode.class, long[].class };
     public static final Class<?>[] RELEASE_REMOTE_LOCK_TYPES = new Class[] { Serializable.class, ClusterNode.class };
 
+    /**
+     * Enables sending the remote lock requests made concurrently by several threads of this node in a single "remoteLocks"
+     * RPC, instead of one "remoteLock" RPC per request. Nodes that do not have this support cannot answer such RPCs, so only
+     * enable it once every node of the cluster has been upgraded. Incoming RPCs of both kinds are always handled, so nodes
+     * can be switched over one at a time.
+     */
+    public static final String BATCH_REMOTE_LOCKS = "jboss.clustering.lock.batch-remote-locks";
+
     /**
      * Object the HAPartition can invoke on. This class is static as an aid in unit testing.
      */
@@ -65,6 +78,10 @@ public abstract class AbstractClusterLockSupport implements GroupMembershipListe
             return mgr.remoteLock(categoryName, caller, timeout);
         }
 
+        public RemoteLockResponse[] remoteLocks(Serializable[] categoryNames, ClusterNode caller, long[] timeouts) {
+            return mgr.remoteLocks(categoryNames, caller, timeouts);
+        }
+
         public void releaseRemoteLock(Serializable categoryName, ClusterNode caller) {
             mgr.releaseRemoteLock(categoryName, caller);
         }
@@ -80,6 +97,9 @@ public abstract class AbstractClusterLockSupport implements GroupMembershipListe
     private final List<ClusterNode> members = new CopyOnWriteArrayList<ClusterNode>();
     // private final boolean supportLocalOnly;
     private RpcTarget rpcTarget;
+    private volatile boolean batchRemoteLocks = Boolean.getBoolean(BATCH_REMOTE_LOCKS);
+    private final Queue<RemoteLockRequest> remoteLockRequests = new ConcurrentLinkedQueue<RemoteLockRequest>();
+    private final AtomicBoolean sendingRemoteLockRequests = new AtomicBoolean();
 
     public AbstractClusterLockSupport(String serviceHAName, GroupRpcDispatcher rpcDispatcher,
             GroupMembershipNotifier membershipNotifier, LocalLockHandler handler) {
@@ -124,6 +144,17 @@ public abstract class AbstractClusterLockSupport implements GroupMembershipListe
         return localHandler;
     }
 
+    public boolean isBatchRemoteLocks() {
+        return batchRemoteLocks;
+    }
+
+    /**
+     * @see #BATCH_REMOTE_LOCKS
+     */
+    public void setBatchRemoteLocks(boolean batchRemoteLocks) {
+        this.batchRemoteLocks = batchRemoteLocks;
+    }
+
     // ------------------------------------------------------ ClusterLockManager
 
     public boolean lock(Serializable lockId, long timeout) {
@@ -148,8 +179,7 @@ public abstract class AbstractClusterLockSupport implements GroupMembershipListe
                 try {
                     // Get the lock on all other nodes in the cluster
 
-                    List<RemoteLockResponse> rsps = rpcDispatcher.callMethodOnCluster(getServiceHAName(), "remoteLock",
-                            new Object[] { lockId, me, new Long(left) }, REMOTE_LOCK_TYPES, true, null, rpcDispatcher.getMethodCallTimeout(), false);
+                    List<RemoteLockResponse> rsps = requestRemoteLock(lockId, left);
 
                     boolean remoteLocked = true;
                     if (rsps != null) {
@@ -399,6 +429,60 @@ public abstract class AbstractClusterLockSupport implements GroupMembershipListe
         return response;
     }
 
+    /**
+     * Called by a remote node via RpcTarget. Every lock is first tried without waiting, so the uncontended locks of the batch
+     * are granted right away. The locks that could not be acquired immediately are then requested again with their own
+     * timeouts, in parallel, so a lock held by a local thread does not delay the responses for the rest of the batch beyond
+     * its own timeout.
+     */
+    RemoteLockResponse[] remoteLocks(final Serializable[] lockNames, final ClusterNode caller, final long[] timeouts) {
+        final RemoteLockResponse[] responses = new RemoteLockResponse[lockNames.length];
+        List<Integer> contended = null;
+        for (int i = 0; i < lockNames.length; i++) {
+            responses[i] = remoteLock(lockNames[i], caller, 0);
+            if (responses[i].flag == RemoteLockResponse.Flag.FAIL && timeouts[i] > 0) {
+                if (contended == null) {
+                    contended = new ArrayList<Integer>();
+                }
+                contended.add(i);
+            }
+        }
+        if (contended == null) {
+            return responses;
+        }
+
+        // The last contended lock is waited for by the calling thread
+        List<Thread> waiters = new ArrayList<Thread>(contended.size() - 1);
+        for (final int i : contended.subList(0, contended.size() - 1)) {
+            Thread waiter = new Thread(new Runnable() {
+                public void run() {
+                    responses[i] = remoteLock(lockNames[i], caller, timeouts[i]);
+                }
+            }, getServiceHAName() + " remote lock " + lockNames[i]);
+            waiter.setDaemon(true);
+            waiter.start();
+            waiters.add(waiter);
+        }
+        int last = contended.get(contended.size() - 1);
+        responses[last] = remoteLock(lockNames[last], caller, timeouts[last]);
+
+        boolean interrupted = false;
+        for (Thread waiter : waiters) {
+            for (;;) {
+                try {
+                    waiter.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return responses;
+    }
+
     /**
      * Called by a remote node via RpcTarget.
      */
@@ -419,6 +503,74 @@ public abstract class AbstractClusterLockSupport implements GroupMembershipListe
 
     }
 
+    /** Get the lock on all other nodes in the cluster */
+    private List<RemoteLockResponse> requestRemoteLock(Serializable lockId, long timeout) throws Exception {
+        if (!batchRemoteLocks) {
+            return rpcDispatcher.callMethodOnCluster(getServiceHAName(), "remoteLock", new Object[] { lockId, me, new Long(timeout) },
+                    REMOTE_LOCK_TYPES, true, null, rpcDispatcher.getMethodCallTimeout(), false);
+        }
+        RemoteLockRequest request = new RemoteLockRequest(lockId, timeout);
+        remoteLockRequests.add(request);
+        sendRemoteLockRequests();
+        return request.getResponses();
+    }
+
+    /**
+     * Sends all queued remote lock requests in a single RPC, unless another thread is already sending a batch. That thread
+     * checks the queue again once its RPC returns, so requests queued in the meantime go out with the next batch.
+     */
+    private void sendRemoteLockRequests() {
+        while (!remoteLockRequests.isEmpty() && sendingRemoteLockRequests.compareAndSet(false, true)) {
+            try {
+                List<RemoteLockRequest> batch = new ArrayList<RemoteLockRequest>();
+                RemoteLockRequest request = remoteLockRequests.poll();
+                while (request != null) {
+                    batch.add(request);
+                    request = remoteLockRequests.poll();
+                }
+                if (!batch.isEmpty()) {
+                    sendRemoteLockRequests(batch);
+                }
+            } finally {
+                sendingRemoteLockRequests.set(false);
+            }
+        }
+    }
+
+    private void sendRemoteLockRequests(List<RemoteLockRequest> batch) {
+        Serializable[] lockIds = new Serializable[batch.size()];
+        long[] timeouts = new long[batch.size()];
+        for (int i = 0; i < lockIds.length; i++) {
+            RemoteLockRequest request = batch.get(i);
+            lockIds[i] = request.lockId;
+            timeouts[i] = request.timeout;
+        }
+        List<RemoteLockResponse[]> rsps;
+        try {
+            rsps = rpcDispatcher.callMethodOnCluster(getServiceHAName(), "remoteLocks", new Object[] { lockIds, me, timeouts },
+                    REMOTE_LOCKS_TYPES, true, null, rpcDispatcher.getMethodCallTimeout(), false);
+        } catch (Throwable e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            for (RemoteLockRequest request : batch) {
+                request.failed(e);
+            }
+            return;
+        }
+        // Each node answers with one response per requested lock, in request order
+        for (int i = 0; i < lockIds.length; i++) {
+            List<RemoteLockResponse> responses = null;
+            if (rsps != null) {
+                responses = new ArrayList<RemoteLockResponse>(rsps.size());
+                for (RemoteLockResponse[] rsp : rsps) {
+                    responses.add(rsp[i]);
+                }
+            }
+            batch.get(i).completed(responses);
+        }
+    }
+
     /** See if <code>caller</code> comes before us in the members list */
     private ClusterNode getSuperiorCompetitor(ClusterNode caller) {
         if (caller == null)
@@ -493,4 +645,52 @@ public abstract class AbstractClusterLockSupport implements GroupMembershipListe
         long min = remain / 3;
         return Math.min(max, min);
     }
+
+    /** A remote lock request waiting to be sent with the next batch */
+    private static class RemoteLockRequest {
+        final Serializable lockId;
+        final long timeout;
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile List<RemoteLockResponse> responses;
+        private volatile Throwable failure;
+
+        RemoteLockRequest(Serializable lockId, long timeout) {
+            this.lockId = lockId;
+            this.timeout = timeout;
+        }
+
+        void completed(List<RemoteLockResponse> responses) {
+            this.responses = responses;
+            done.countDown();
+        }
+
+        void failed(Throwable failure) {
+            this.failure = failure;
+            done.countDown();
+        }
+
+        List<RemoteLockResponse> getResponses() throws Exception {
+            // Wait for the thread sending the batch, whose RPC is bounded by the method call timeout, even if interrupted;
+            // otherwise remote nodes could grant us a lock after we gave up on it
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    done.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            if (failure instanceof Exception) {
+                throw (Exception) failure;
+            }
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            return responses;
+        }
+    }
 }
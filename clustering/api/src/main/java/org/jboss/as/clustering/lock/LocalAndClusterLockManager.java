@@ -83,7 +83,7 @@ public class LocalAndClusterLockManager {
                     throw new TimeoutException(this.holder);
                 }
             } finally {
-                waiters.remove();
+                waiters.remove(current);
                 if (wasInterrupted) // reassert interrupt status on exit
                     current.interrupt();
             }
@@ -27,6 +27,7 @@ import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.LockSupport;
 
@@ -124,7 +125,7 @@ public class SharedLocalYieldingClusterLockManager {
                     }
                 }
             } finally {
-                waiters.remove();
+                waiters.remove(currentThread);
                 if (wasInterrupted) // reassert interrupt status on exit
                     currentThread.interrupt();
             }
@@ -319,6 +320,7 @@ public class SharedLocalYieldingClusterLockManager {
                 }
             } else {
                 LockState currentState = lock.lockForRemoteNode(caller, timeout);
+                yieldCount.incrementAndGet();
 
                 // Any local thread who has a ref to lock will now need to request it
                 // remotely from caller, which won't grant it until this method returns.
@@ -367,6 +369,13 @@ public class SharedLocalYieldingClusterLockManager {
     ConcurrentMap<Serializable, LocalLock> localLocks = new ConcurrentHashMap<Serializable, LocalLock>();
     private final YieldingGloballyExclusiveClusterLockSupport clusterSupport;
 
+    // statistics
+    private final AtomicLong localAcquisitionCount = new AtomicLong();
+    private final AtomicLong localAcquisitionTime = new AtomicLong();
+    private final AtomicLong clusterAcquisitionCount = new AtomicLong();
+    private final AtomicLong clusterAcquisitionTime = new AtomicLong();
+    final AtomicLong yieldCount = new AtomicLong();
+
     public SharedLocalYieldingClusterLockManager(String serviceHAName, GroupRpcDispatcher rpcDispatcher, GroupMembershipNotifier membershipNotifier) {
         ClusterHandler handler = new ClusterHandler();
         clusterSupport = new YieldingGloballyExclusiveClusterLockSupport(serviceHAName, rpcDispatcher, membershipNotifier,
@@ -399,6 +408,20 @@ public class SharedLocalYieldingClusterLockManager {
      * @throws InterruptedException if the thread is interrupted while trying to acquire the lock
      */
     public LockResult lock(Serializable lockName, long timeout, boolean newLock) throws TimeoutException, InterruptedException {
+        long start = System.nanoTime();
+        LockResult result = acquire(lockName, timeout, newLock);
+        long elapsed = System.nanoTime() - start;
+        if (result == LockResult.ACQUIRED_FROM_CLUSTER) {
+            clusterAcquisitionCount.incrementAndGet();
+            clusterAcquisitionTime.addAndGet(elapsed);
+        } else {
+            localAcquisitionCount.incrementAndGet();
+            localAcquisitionTime.addAndGet(elapsed);
+        }
+        return result;
+    }
+
+    private LockResult acquire(Serializable lockName, long timeout, boolean newLock) throws TimeoutException, InterruptedException {
         LockResult result = null;
         LocalLock localLock = getLocalLock(lockName, false);
         if (localLock == null) {
@@ -424,12 +447,12 @@ public class SharedLocalYieldingClusterLockManager {
                         // Check for race where we registered for something that's been removed
                         if (localLock.removable && localLock != getLocalLock(lockName, false)) {
                             // oops; try again
-                            result = lock(lockName, remaining, newLock);
+                            result = acquire(lockName, remaining, newLock);
                         }
                     } else {
                         if (lockState.invalid) {
                             // the lock was removed; start over
-                            result = lock(lockName, remaining, newLock);
+                            result = acquire(lockName, remaining, newLock);
                         } else if (lockState.localLockCount == 1) {
                             // Only one thread should ask the cluster for the lock;
                             // we were first so it's our task
@@ -508,6 +531,55 @@ public class SharedLocalYieldingClusterLockManager {
         }
     }
 
+    /**
+     * Returns the number of lock acquisitions that did not require a request to the cluster.
+     */
+    public long getLocalAcquisitionCount() {
+        return localAcquisitionCount.get();
+    }
+
+    /**
+     * Returns the total time in ms spent in lock acquisitions that did not require a request to the cluster.
+     */
+    public long getLocalAcquisitionTime() {
+        return localAcquisitionTime.get() / 1000000;
+    }
+
+    /**
+     * Returns the number of lock acquisitions that required a request to the cluster.
+     */
+    public long getClusterAcquisitionCount() {
+        return clusterAcquisitionCount.get();
+    }
+
+    /**
+     * Returns the total time in ms spent in lock acquisitions that required a request to the cluster.
+     */
+    public long getClusterAcquisitionTime() {
+        return clusterAcquisitionTime.get() / 1000000;
+    }
+
+    /**
+     * Returns the number of locks this node has yielded to other nodes.
+     */
+    public long getYieldCount() {
+        return yieldCount.get();
+    }
+
+    /**
+     * Whether concurrent requests for locks this node does not hold are sent to the cluster in a single RPC.
+     */
+    public boolean isBatchRemoteLocks() {
+        return this.clusterSupport.isBatchRemoteLocks();
+    }
+
+    /**
+     * @see AbstractClusterLockSupport#BATCH_REMOTE_LOCKS
+     */
+    public void setBatchRemoteLocks(boolean batchRemoteLocks) {
+        this.clusterSupport.setBatchRemoteLocks(batchRemoteLocks);
+    }
+
     /**
      * Brings this object to a state where it is ready for normal operation.
      * @throws Exception
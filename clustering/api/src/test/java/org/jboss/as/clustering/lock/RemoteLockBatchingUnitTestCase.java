@@ -0,0 +1,286 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.clustering.lock;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyLong;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.same;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.as.clustering.ClusterNode;
+import org.jboss.as.clustering.GroupMembershipNotifier;
+import org.jboss.as.clustering.GroupRpcDispatcher;
+import org.jboss.as.clustering.MockClusterNode;
+import org.jboss.as.clustering.ResponseFilter;
+import org.jboss.as.clustering.lock.AbstractClusterLockSupport.RpcTarget;
+import org.jboss.as.clustering.lock.SharedLocalYieldingClusterLockManager.LockResult;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+/**
+ * Compares the number of RPCs sent by {@link SharedLocalYieldingClusterLockManager} when several threads concurrently
+ * request locks held by no node, with and without {@link AbstractClusterLockSupport#BATCH_REMOTE_LOCKS batching}, and checks
+ * how a batch of remote lock requests is answered when some of its locks are held locally.
+ */
+public class RemoteLockBatchingUnitTestCase {
+    private static final ResponseFilter NULL_FILTER = null;
+    private static final int LOCKS = 8;
+
+    private final ClusterNode node1 = new MockClusterNode(1);
+    private final ClusterNode node2 = new MockClusterNode(2);
+    private final ClusterNode node3 = new MockClusterNode(3);
+
+    @Test
+    public void testUnbatched() throws Exception {
+        GroupRpcDispatcher rpcDispatcher = getRpcDispatcher();
+        List<RemoteLockResponse> rspList = Arrays.asList(new RemoteLockResponse(node2, RemoteLockResponse.Flag.OK),
+                new RemoteLockResponse(node3, RemoteLockResponse.Flag.OK));
+        when(rpcDispatcher.<RemoteLockResponse>callMethodOnCluster(eq("test"), eq("remoteLock"), any(Object[].class),
+                aryEq(AbstractClusterLockSupport.REMOTE_LOCK_TYPES), eq(true), eq(NULL_FILTER), anyLong(), eq(false))).thenReturn(rspList);
+
+        SharedLocalYieldingClusterLockManager testee = start(rpcDispatcher, false);
+
+        lockConcurrently(testee, new ArrayList<Thread>());
+
+        // One RPC per lock
+        verify(rpcDispatcher, times(LOCKS)).callMethodOnCluster(eq("test"), eq("remoteLock"), any(Object[].class),
+                aryEq(AbstractClusterLockSupport.REMOTE_LOCK_TYPES), eq(true), eq(NULL_FILTER), anyLong(), eq(false));
+        assertEquals(LOCKS, testee.getClusterAcquisitionCount());
+    }
+
+    @Test
+    public void testBatched() throws Exception {
+        GroupRpcDispatcher rpcDispatcher = getRpcDispatcher();
+        final List<Thread> lockers = new ArrayList<Thread>();
+        final AtomicInteger calls = new AtomicInteger();
+        final AtomicInteger requests = new AtomicInteger();
+        Answer<List<RemoteLockResponse[]>> answer = new Answer<List<RemoteLockResponse[]>>() {
+            @Override
+            public List<RemoteLockResponse[]> answer(InvocationOnMock invocation) throws Throwable {
+                if (calls.getAndIncrement() == 0) {
+                    // Hold the first RPC until every other locker has queued its request
+                    awaitWaiting(lockers, Thread.currentThread());
+                }
+                Serializable[] lockIds = (Serializable[]) ((Object[]) invocation.getArguments()[2])[0];
+                requests.addAndGet(lockIds.length);
+                return Arrays.asList(getOKResponses(node2, lockIds.length), getOKResponses(node3, lockIds.length));
+            }
+        };
+        when(rpcDispatcher.<RemoteLockResponse[]>callMethodOnCluster(eq("test"), eq("remoteLocks"), any(Object[].class),
+                aryEq(AbstractClusterLockSupport.REMOTE_LOCKS_TYPES), eq(true), eq(NULL_FILTER), anyLong(), eq(false))).thenAnswer(answer);
+
+        SharedLocalYieldingClusterLockManager testee = start(rpcDispatcher, true);
+
+        lockConcurrently(testee, lockers);
+
+        // The first lock is sent on its own, or with whatever was queued by then; the rest go out together
+        assertTrue(calls.get() + " RPCs", calls.get() <= 2);
+        assertEquals(LOCKS, requests.get());
+        verify(rpcDispatcher, never()).callMethodOnCluster(eq("test"), eq("remoteLock"), any(Object[].class),
+                aryEq(AbstractClusterLockSupport.REMOTE_LOCK_TYPES), eq(true), eq(NULL_FILTER), anyLong(), eq(false));
+        assertEquals(LOCKS, testee.getClusterAcquisitionCount());
+    }
+
+    @Test
+    public void testRemoteLocks() throws Exception {
+        GroupRpcDispatcher rpcDispatcher = getRpcDispatcher();
+        SharedLocalYieldingClusterLockManager testee = start(rpcDispatcher, false);
+
+        ArgumentCaptor<RpcTarget> c = ArgumentCaptor.forClass(RpcTarget.class);
+        verify(rpcDispatcher).registerRPCHandler(eq("test"), c.capture(), same(rpcDispatcher.getClass().getClassLoader()));
+
+        RemoteLockResponse[] rsps = c.getValue().remoteLocks(new Serializable[] { "a", "b" }, node2, new long[] { 1000, 1000 });
+
+        assertEquals(2, rsps.length);
+        for (RemoteLockResponse rsp : rsps) {
+            assertEquals(RemoteLockResponse.Flag.OK, rsp.flag);
+            assertSame(node1, rsp.responder);
+            assertNull(rsp.holder);
+        }
+        assertEquals(2, testee.getYieldCount());
+        assertEquals(0, testee.getClusterAcquisitionCount());
+    }
+
+    @Test
+    public void testRemoteLocksWaitForContendedLocksInParallel() throws Exception {
+        GroupRpcDispatcher rpcDispatcher = getRpcDispatcher();
+        SharedLocalYieldingClusterLockManager testee = start(rpcDispatcher, false);
+
+        ArgumentCaptor<RpcTarget> c = ArgumentCaptor.forClass(RpcTarget.class);
+        verify(rpcDispatcher).registerRPCHandler(eq("test"), c.capture(), same(rpcDispatcher.getClass().getClassLoader()));
+
+        // Held by a local thread, so node2 has to wait for them
+        testee.lock("a", 1000, true);
+        testee.lock("b", 1000, true);
+
+        long timeout = 1000;
+        long start = System.currentTimeMillis();
+        RemoteLockResponse[] rsps = c.getValue().remoteLocks(new Serializable[] { "a", "b", "c" }, node2,
+                new long[] { timeout, timeout, timeout });
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertEquals(3, rsps.length);
+        assertEquals(RemoteLockResponse.Flag.FAIL, rsps[0].flag);
+        assertSame(node1, rsps[0].holder);
+        assertEquals(RemoteLockResponse.Flag.FAIL, rsps[1].flag);
+        assertSame(node1, rsps[1].holder);
+        assertEquals(RemoteLockResponse.Flag.OK, rsps[2].flag);
+        // Waiting for both contended locks one after the other would take twice the timeout
+        assertTrue(elapsed + " ms", elapsed < 2 * timeout);
+        assertEquals(1, testee.getYieldCount());
+    }
+
+    @Test
+    public void testRemoteLocksGrantContendedLockOnceReleased() throws Exception {
+        GroupRpcDispatcher rpcDispatcher = getRpcDispatcher();
+        final SharedLocalYieldingClusterLockManager testee = start(rpcDispatcher, false);
+
+        ArgumentCaptor<RpcTarget> c = ArgumentCaptor.forClass(RpcTarget.class);
+        verify(rpcDispatcher).registerRPCHandler(eq("test"), c.capture(), same(rpcDispatcher.getClass().getClassLoader()));
+
+        testee.lock("a", 1000, true);
+        Thread unlocker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                testee.unlock("a", false);
+            }
+        });
+        unlocker.setDaemon(true);
+        unlocker.start();
+
+        RemoteLockResponse[] rsps = c.getValue().remoteLocks(new Serializable[] { "a", "b" }, node2,
+                new long[] { 10000, 10000 });
+        unlocker.join(TimeUnit.SECONDS.toMillis(10));
+
+        assertEquals(2, rsps.length);
+        for (RemoteLockResponse rsp : rsps) {
+            assertEquals(RemoteLockResponse.Flag.OK, rsp.flag);
+            assertSame(node1, rsp.responder);
+        }
+        assertEquals(2, testee.getYieldCount());
+    }
+
+    private GroupRpcDispatcher getRpcDispatcher() {
+        GroupRpcDispatcher rpcDispatcher = mock(GroupRpcDispatcher.class);
+        when(rpcDispatcher.getClusterNode()).thenReturn(node1);
+        when(rpcDispatcher.getClusterNodes()).thenReturn(new ClusterNode[] { node1, node2, node3 });
+        when(rpcDispatcher.getMethodCallTimeout()).thenReturn(60000L);
+        return rpcDispatcher;
+    }
+
+    private static SharedLocalYieldingClusterLockManager start(GroupRpcDispatcher rpcDispatcher, boolean batch) throws Exception {
+        GroupMembershipNotifier notifier = mock(GroupMembershipNotifier.class);
+        when(rpcDispatcher.isConsistentWith(notifier)).thenReturn(true);
+
+        SharedLocalYieldingClusterLockManager testee = new SharedLocalYieldingClusterLockManager("test", rpcDispatcher, notifier);
+        testee.setBatchRemoteLocks(batch);
+        testee.start();
+        return testee;
+    }
+
+    /**
+     * Acquires {@value #LOCKS} distinct locks, each from its own thread. The threads are all added to the given list before
+     * any of them is started.
+     */
+    private static void lockConcurrently(final SharedLocalYieldingClusterLockManager testee, List<Thread> threads) throws Exception {
+        final LockResult[] results = new LockResult[LOCKS];
+        final Exception[] exceptions = new Exception[LOCKS];
+        for (int i = 0; i < LOCKS; i++) {
+            final int index = i;
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        results[index] = testee.lock("lock" + index, 10000);
+                    } catch (Exception e) {
+                        exceptions[index] = e;
+                    }
+                }
+            });
+            thread.setDaemon(true);
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        for (int i = 0; i < LOCKS; i++) {
+            if (exceptions[i] != null) {
+                throw exceptions[i];
+            }
+            assertEquals(LockResult.ACQUIRED_FROM_CLUSTER, results[i]);
+        }
+    }
+
+    /**
+     * Waits until all threads but the given one are parked, i.e. waiting for their remote lock requests to be sent.
+     */
+    private static void awaitWaiting(List<Thread> threads, Thread self) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (System.currentTimeMillis() < deadline) {
+            boolean waiting = (threads.size() == LOCKS);
+            for (Thread thread : threads) {
+                if (thread != self && thread.getState() != Thread.State.WAITING && thread.getState() != Thread.State.TERMINATED) {
+                    waiting = false;
+                }
+            }
+            if (waiting) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static RemoteLockResponse[] getOKResponses(ClusterNode responder, int count) {
+        RemoteLockResponse[] rsps = new RemoteLockResponse[count];
+        for (int i = 0; i < count; i++) {
+            rsps[i] = new RemoteLockResponse(responder, RemoteLockResponse.Flag.OK);
+        }
+        return rsps;
+    }
+}
@@ -51,6 +51,7 @@ import static org.mockito.AdditionalMatchers.aryEq;
 import static org.mockito.Mockito.anyInt;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -87,6 +88,12 @@ public class SharedLocalYieldingClusterLockManagerUnitTestCase {
 
         // Even though we fully released, we can still reacquire without asking cluster
         assertEquals(LockResult.ALREADY_HELD, ts.testee.lock("test", 1000, false));
+
+        verify(ts.rpcDispatcher, times(1)).callMethodOnCluster(eq("test"), eq("remoteLock"), eqLockParams(node1, 200000),
+                aryEq(AbstractClusterLockSupport.REMOTE_LOCK_TYPES), eq(true), eq(NULL_FILTER), anyInt(), eq(false));
+        assertEquals(1, ts.testee.getClusterAcquisitionCount());
+        assertEquals(2, ts.testee.getLocalAcquisitionCount());
+        assertEquals(0, ts.testee.getYieldCount());
     }
 
     @Test
@@ -180,6 +187,7 @@ public class SharedLocalYieldingClusterLockManagerUnitTestCase {
 
         assertNotNull(locker.result);
         assertEquals(RemoteLockResponse.Flag.OK, locker.result.flag);
+        assertEquals(1, ts.testee.getYieldCount());
     }
 
     @Test
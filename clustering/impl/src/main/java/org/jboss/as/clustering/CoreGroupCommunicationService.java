@@ -104,6 +104,14 @@ import org.jgroups.util.RspList;
 public class CoreGroupCommunicationService implements GroupRpcDispatcher, GroupMembershipNotifier, GroupStateTransferService {
     // Constants -----------------------------------------------------
 
+    /**
+     * Enables sending RPCs as a {@link MethodInvocation}, dispatched through the {@link RpcMethodTable} of the target handler,
+     * instead of a serialized {@link MethodCall}. Nodes that do not have this support reject such RPCs and answer them with
+     * {@code null}, so only enable it once every node of the cluster has been upgraded. Incoming RPCs of both kinds are always
+     * handled, so nodes can be switched over one at a time.
+     */
+    public static final String METHOD_INVOCATION_RPC = "jboss.clustering.rpc.method-invocation";
+
     private static final byte NULL_VALUE = 0;
     private static final byte SERIALIZABLE_VALUE = 1;
     // TODO add Streamable support
@@ -146,9 +154,11 @@ public class CoreGroupCommunicationService implements GroupRpcDispatcher, GroupM
     private volatile GroupView groupView = new GroupView();
 
     private long method_call_timeout = 60000;
+    private boolean sendMethodInvocations = Boolean.getBoolean(METHOD_INVOCATION_RPC);
     Short scopeId;
     private RpcDispatcher dispatcher = null;
     final Map<String, Object> rpcHandlers = new ConcurrentHashMap<String, Object>();
+    final Map<String, RpcMethodTable> rpcMethodTables = new ConcurrentHashMap<String, RpcMethodTable>();
     private boolean directlyInvokeLocal;
     final Map<String, WeakReference<ClassLoader>> clmap = new ConcurrentHashMap<String, WeakReference<ClassLoader>>();
 
@@ -247,6 +257,7 @@ public class CoreGroupCommunicationService implements GroupRpcDispatcher, GroupM
      */
     @Override
     public void registerRPCHandler(String objName, Object subscriber) {
+        this.rpcMethodTables.put(objName, new RpcMethodTable(subscriber.getClass()));
         this.rpcHandlers.put(objName, subscriber);
     }
 
@@ -265,6 +276,7 @@ public class CoreGroupCommunicationService implements GroupRpcDispatcher, GroupM
     @Override
     public void unregisterRPCHandler(String objName, Object subscriber) {
         this.rpcHandlers.remove(objName);
+        this.rpcMethodTables.remove(objName);
         this.clmap.remove(objName);
     }
 
@@ -289,7 +301,7 @@ public class CoreGroupCommunicationService implements GroupRpcDispatcher, GroupM
      */
     @Override
     public <T> List<T> callMethodOnCluster(String serviceName, String methodName, Object[] args, Class<?>[] types, boolean excludeSelf, ResponseFilter filter, long methodTimeout, boolean unordered) throws InterruptedException {
-        MethodCall m = new MethodCall(serviceName + "." + methodName, args, types);
+        MethodCall m = this.createMethodCall(serviceName, methodName, args, types);
         RequestOptions options = new RequestOptions(ResponseMode.GET_ALL, methodTimeout, false, new NoHandlerForRPCRspFilter(filter));
         if (excludeSelf) {
             options.setExclusionList(this.localJGAddress);
@@ -361,7 +373,7 @@ public class CoreGroupCommunicationService implements GroupRpcDispatcher, GroupM
     public <T> T callMethodOnCoordinatorNode(String serviceName, String methodName, Object[] args, Class<?>[] types, boolean excludeSelf, long methodTimeout, boolean unordered) throws Exception {
         boolean trace = this.log.isTraceEnabled();
 
-        MethodCall m = new MethodCall(serviceName + "." + methodName, args, types);
+        MethodCall m = this.createMethodCall(serviceName, methodName, args, types);
 
         if (trace) {
             this.log.tracef("callMethodOnCoordinatorNode(false), objName=%s, methodName=%s", serviceName, methodName);
@@ -420,7 +432,7 @@ public class CoreGroupCommunicationService implements GroupRpcDispatcher, GroupM
         }
         boolean trace = this.log.isTraceEnabled();
 
-        MethodCall m = new MethodCall(serviceName + "." + methodName, args, types);
+        MethodCall m = this.createMethodCall(serviceName, methodName, args, types);
 
         if (trace) {
             this.log.tracef("callMethodOnNode( objName=%s, methodName=%s )", serviceName, methodName);
@@ -464,7 +476,7 @@ public class CoreGroupCommunicationService implements GroupRpcDispatcher, GroupM
         }
         boolean trace = this.log.isTraceEnabled();
 
-        MethodCall m = new MethodCall(serviceName + "." + methodName, args, types);
+        MethodCall m = this.createMethodCall(serviceName, methodName, args, types);
 
         if (trace) {
             this.log.tracef("callAsyncMethodOnNode( objName=%s, methodName=%s )" + methodName, serviceName, methodName);
@@ -503,7 +515,7 @@ public class CoreGroupCommunicationService implements GroupRpcDispatcher, GroupM
      */
     @Override
     public void callAsynchMethodOnCluster(final String serviceName, final String methodName, final Object[] args, final Class<?>[] types, boolean excludeSelf, boolean unordered) throws InterruptedException {
-        MethodCall m = new MethodCall(serviceName + "." + methodName, args, types);
+        MethodCall m = this.createMethodCall(serviceName, methodName, args, types);
         RequestOptions options = new RequestOptions(ResponseMode.GET_NONE, this.getMethodCallTimeout(), false, new NoHandlerForRPCRspFilter());
         if (excludeSelf) {
             options.setExclusionList(this.localJGAddress);
@@ -544,7 +556,7 @@ public class CoreGroupCommunicationService implements GroupRpcDispatcher, GroupM
 
         boolean trace = this.log.isTraceEnabled();
 
-        MethodCall m = new MethodCall(serviceName + "." + methodName, args, types);
+        MethodCall m = this.createMethodCall(serviceName, methodName, args, types);
 
         if (trace) {
             this.log.tracef("callMethodOnCoordinatorNode(false), objName=%s, methodName=%s", serviceName, methodName);
@@ -767,6 +779,17 @@ public class CoreGroupCommunicationService implements GroupRpcDispatcher, GroupM
         this.method_call_timeout = timeout;
     }
 
+    public boolean isSendMethodInvocations() {
+        return this.sendMethodInvocations;
+    }
+
+    /**
+     * @see #METHOD_INVOCATION_RPC
+     */
+    public void setSendMethodInvocations(boolean sendMethodInvocations) {
+        this.sendMethodInvocations = sendMethodInvocations;
+    }
+
     public void setGroupName(String groupName) {
         this.groupName = groupName;
     }
@@ -1083,6 +1106,10 @@ public class CoreGroupCommunicationService implements GroupRpcDispatcher, GroupM
         return output.toByteArray();
     }
 
+    private MethodCall createMethodCall(String serviceName, String methodName, Object[] args, Class<?>[] types) {
+        return this.sendMethodInvocations ? new ServiceMethodCall(serviceName, methodName, args, types) : new MethodCall(serviceName + "." + methodName, args, types);
+    }
+
     private void notifyChannelLock() {
         synchronized (this.channelLock) {
             this.channelLock.notifyAll();
@@ -1322,6 +1349,10 @@ public class CoreGroupCommunicationService implements GroupRpcDispatcher, GroupM
         @Override
         public Buffer objectToBuffer(Object obj) throws Exception {
             // wrap MethodCall in Object[service_name, byte[]] so that service name is available during demarshalling
+            if (obj instanceof ServiceMethodCall) {
+                ServiceMethodCall call = (ServiceMethodCall) obj;
+                return new Buffer(CoreGroupCommunicationService.this.objectToByteBufferInternal(new Object[] { call.getServiceName(), CoreGroupCommunicationService.this.objectToByteBufferInternal(call.getInvocation()) }));
+            }
             if (obj instanceof MethodCall) {
                 String name = ((MethodCall) obj).getName();
                 int idx = name.lastIndexOf('.');
@@ -1453,6 +1484,36 @@ public class CoreGroupCommunicationService implements GroupRpcDispatcher, GroupM
                 return null;
             }
 
+            if (body instanceof MethodInvocation) {
+                MethodInvocation invocation = (MethodInvocation) body;
+                RpcMethodTable methods = CoreGroupCommunicationService.this.rpcMethodTables.get(service);
+                if (methods == null) {
+                    // handler was unregistered concurrently
+                    return new NoHandlerForRPC();
+                }
+                if (trace) {
+                    CoreGroupCommunicationService.this.log.tracef("handlerName: %s methodId: %s", service, invocation.getMethodId());
+                }
+                try {
+                    // exceptions are returned wrapped, as for a MethodCall
+                    retval = methods.getMethod(invocation.getMethodId()).invoke(handler, invocation.getArgs());
+                    if (weak != null) {
+                        // wrap the response so that the service name can be accessed during unmarshalling of the response
+                        byte[] retbytes = CoreGroupCommunicationService.this.objectToByteBufferResponseInternal(retval);
+                        retval = new HAServiceResponse(service, retbytes);
+                    }
+                    if (trace) {
+                        CoreGroupCommunicationService.this.log.tracef("rpc call return value: %s", retval);
+                    }
+                } catch (Throwable t) {
+                    if (trace) {
+                        CoreGroupCommunicationService.this.log.tracef(t, "Partition %s rpc call threw exception", CoreGroupCommunicationService.this.getGroupName());
+                    }
+                    retval = t;
+                }
+                return retval;
+            }
+
             if (body == null || !(body instanceof MethodCall)) {
                 CoreGroupCommunicationService.this.log.invalidPartitionMessage(CoreGroupCommunicationService.this.getGroupName());
                 return null;
@@ -1597,6 +1658,52 @@ public class CoreGroupCommunicationService implements GroupRpcDispatcher, GroupM
         static final long serialVersionUID = -1263095408483622838L;
     }
 
+    /**
+     * A {@link MethodCall} that retains its service name and the identifier of its target method, so that the request marshaller
+     * can send a {@link MethodInvocation} instead of the method call itself.
+     */
+    static class ServiceMethodCall extends MethodCall {
+        private static final long serialVersionUID = 3545164937651364493L;
+        private final String serviceName;
+        private final MethodInvocation invocation;
+
+        ServiceMethodCall(String serviceName, String methodName, Object[] args, Class<?>[] types) {
+            super(serviceName + "." + methodName, args, types);
+            this.serviceName = serviceName;
+            this.invocation = new MethodInvocation(RpcMethodTable.methodId(methodName, types), args);
+        }
+
+        String getServiceName() {
+            return this.serviceName;
+        }
+
+        MethodInvocation getInvocation() {
+            return this.invocation;
+        }
+    }
+
+    /**
+     * RPC request payload, identifying the target method of the registered handler by its {@link RpcMethodTable} identifier
+     */
+    static class MethodInvocation implements Serializable {
+        private static final long serialVersionUID = -2793423915785154117L;
+        private final String methodId;
+        private final Object[] args;
+
+        MethodInvocation(String methodId, Object[] args) {
+            this.methodId = methodId;
+            this.args = args;
+        }
+
+        String getMethodId() {
+            return this.methodId;
+        }
+
+        Object[] getArgs() {
+            return this.args;
+        }
+    }
+
     /**
      * Used internally when an RPC call requires a custom classloader for unmarshalling
      */
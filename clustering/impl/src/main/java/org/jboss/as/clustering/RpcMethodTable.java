@@ -0,0 +1,105 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.clustering;
+
+import java.lang.reflect.Method;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Table of the methods of a registered RPC handler, keyed by method identifier. Built when the handler is registered so that
+ * incoming RPCs are dispatched via a map lookup rather than a reflective method search per call.
+ */
+class RpcMethodTable {
+    private final Class<?> handlerClass;
+    private final ConcurrentMap<String, Method> methods = new ConcurrentHashMap<String, Method>();
+
+    RpcMethodTable(Class<?> handlerClass) {
+        this.handlerClass = handlerClass;
+        for (Method method : handlerClass.getMethods()) {
+            if (method.getDeclaringClass() != Object.class) {
+                this.register(method);
+            }
+        }
+    }
+
+    /**
+     * Returns the identifier of the method with the specified name and parameter types.
+     * @param name a method name
+     * @param types the method parameter types
+     * @return a method identifier
+     */
+    static String methodId(String name, Class<?>[] types) {
+        StringBuilder builder = new StringBuilder(name).append('(');
+        if (types != null) {
+            for (int i = 0; i < types.length; ++i) {
+                if (i > 0) {
+                    builder.append(',');
+                }
+                builder.append(types[i].getName());
+            }
+        }
+        return builder.append(')').toString();
+    }
+
+    /**
+     * Returns the handler method with the specified identifier.
+     * @param methodId a method identifier
+     * @return a handler method
+     * @throws NoSuchMethodException if the handler has no such method
+     */
+    Method getMethod(String methodId) throws NoSuchMethodException {
+        Method method = this.methods.get(methodId);
+        if (method != null) {
+            return method;
+        }
+        // Non-public methods are not registered up front, but are resolved on demand, as MethodCall would
+        for (Class<?> targetClass = this.handlerClass; (targetClass != null) && (targetClass != Object.class); targetClass = targetClass.getSuperclass()) {
+            for (Method declaredMethod : targetClass.getDeclaredMethods()) {
+                if (methodId(declaredMethod.getName(), declaredMethod.getParameterTypes()).equals(methodId)) {
+                    return this.register(declaredMethod);
+                }
+            }
+        }
+        throw new NoSuchMethodException(this.handlerClass.getName() + "." + methodId);
+    }
+
+    private Method register(Method method) {
+        // Handlers are commonly non-public classes
+        setAccessible(method);
+        Method existing = this.methods.putIfAbsent(methodId(method.getName(), method.getParameterTypes()), method);
+        return (existing != null) ? existing : method;
+    }
+
+    private static void setAccessible(final Method method) {
+        PrivilegedAction<Void> action = new PrivilegedAction<Void>() {
+            @Override
+            public Void run() {
+                method.setAccessible(true);
+                return null;
+            }
+        };
+        AccessController.doPrivileged(action);
+    }
+}
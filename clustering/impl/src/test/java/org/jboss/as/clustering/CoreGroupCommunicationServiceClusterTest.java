@@ -0,0 +1,99 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.clustering;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.jgroups.JChannel;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests group RPCs sent as a serialized {@link org.jgroups.blocks.MethodCall} and as a method invocation dispatched
+ * through an {@link RpcMethodTable}, between two nodes connected by an in-memory JGroups stack.
+ */
+public class CoreGroupCommunicationServiceClusterTest {
+    private static final String GROUP_NAME = "cluster-test";
+    private static final String SERVICE_NAME = "cluster-test-service";
+    private static final String STACK = "SHARED_LOOPBACK:PING(timeout=500;num_initial_members=2):pbcast.NAKACK(use_mcast_xmit=false):UNICAST:pbcast.STABLE:pbcast.GMS(print_local_addr=false;join_timeout=1000):FRAG2";
+    private static final int INVOCATIONS = 10;
+
+    private CoreGroupCommunicationService sender;
+    private CoreGroupCommunicationService receiver;
+
+    @Before
+    public void setUp() throws Exception {
+        this.receiver = start();
+        this.sender = start();
+    }
+
+    @After
+    public void tearDown() {
+        if (this.sender != null) {
+            this.sender.stop();
+        }
+        if (this.receiver != null) {
+            this.receiver.stop();
+        }
+    }
+
+    @Test
+    public void methodCall() throws Exception {
+        this.sender.setSendMethodInvocations(false);
+        this.callEcho();
+    }
+
+    @Test
+    public void methodInvocation() throws Exception {
+        this.sender.setSendMethodInvocations(true);
+        this.callEcho();
+    }
+
+    private void callEcho() throws Exception {
+        Class<?>[] types = new Class<?>[] { String.class, int.class };
+        for (int i = 0; i < INVOCATIONS; ++i) {
+            Object[] args = new Object[] { "value", Integer.valueOf(i) };
+            List<String> responses = this.sender.callMethodOnCluster(SERVICE_NAME, "echo", args, types, true);
+            assertEquals(1, responses.size());
+            assertEquals("value" + i, responses.get(0));
+        }
+    }
+
+    private static CoreGroupCommunicationService start() throws Exception {
+        CoreGroupCommunicationService service = new CoreGroupCommunicationService();
+        service.setChannel(new JChannel(STACK));
+        service.setGroupName(GROUP_NAME);
+        service.setScopeId(Short.valueOf((short) 1));
+        service.registerRPCHandler(SERVICE_NAME, new Handler());
+        service.start();
+        return service;
+    }
+
+    public static class Handler {
+        public String echo(String value, int count) {
+            return value + count;
+        }
+    }
+}
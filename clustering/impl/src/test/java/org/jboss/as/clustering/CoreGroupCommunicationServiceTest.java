@@ -0,0 +1,115 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.clustering;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jgroups.util.Buffer;
+import org.junit.Test;
+
+/**
+ * Tests the dispatching of RPCs to registered handlers via their {@link RpcMethodTable}.
+ */
+public class CoreGroupCommunicationServiceTest {
+    private static final String SERVICE_NAME = "test-service";
+
+    private final CoreGroupCommunicationService service = new CoreGroupCommunicationService();
+
+    @Test
+    public void methodInvocationWirePath() throws Throwable {
+        Handler handler = new Handler();
+        this.service.registerRPCHandler(SERVICE_NAME, handler);
+
+        Object[] args = new Object[] { "a", Integer.valueOf(3) };
+        Class<?>[] types = new Class<?>[] { String.class, int.class };
+        Buffer buffer = this.service.new RequestMarshallerImpl().objectToBuffer(new CoreGroupCommunicationService.ServiceMethodCall(SERVICE_NAME, "echo", args, types));
+
+        // As received by the RPC handler of another node
+        Object[] wrapper = (Object[]) this.service.new RequestMarshallerImpl().objectFromBuffer(buffer.getBuf(), buffer.getOffset(), buffer.getLength());
+        assertEquals(SERVICE_NAME, wrapper[0]);
+        byte[] request = (byte[]) wrapper[1];
+        Object body = this.service.objectFromByteBufferInternal(Handler.class.getClassLoader(), request, 0, request.length);
+
+        assertTrue(body instanceof CoreGroupCommunicationService.MethodInvocation);
+        CoreGroupCommunicationService.MethodInvocation invocation = (CoreGroupCommunicationService.MethodInvocation) body;
+        assertEquals("echo(java.lang.String,int)", invocation.getMethodId());
+
+        RpcMethodTable methods = this.service.rpcMethodTables.get(wrapper[0]);
+        assertNotNull(methods);
+        assertEquals("aaa", methods.getMethod(invocation.getMethodId()).invoke(handler, invocation.getArgs()));
+    }
+
+    @Test
+    public void invokeDirectly() throws Exception {
+        this.service.registerRPCHandler(SERVICE_NAME, new Handler());
+        List<String> responses = new ArrayList<String>();
+
+        assertEquals("a", this.service.<String>invokeDirectly(SERVICE_NAME, "echo", new Object[] { "a" }, new Class<?>[] { String.class }, responses, null));
+        assertEquals("aaa", this.service.<String>invokeDirectly(SERVICE_NAME, "echo", new Object[] { "a", 3 }, new Class<?>[] { String.class, int.class }, responses, null));
+        assertEquals(2, responses.size());
+    }
+
+    @Test
+    public void invokeDirectlyWrapsHandlerException() throws Exception {
+        this.service.registerRPCHandler(SERVICE_NAME, new Handler());
+
+        try {
+            this.service.invokeDirectly(SERVICE_NAME, "fail", new Object[0], new Class<?>[0], null, null);
+            fail("Expected InvocationTargetException");
+        } catch (InvocationTargetException e) {
+            // callers expect the exception of the handler wrapped, as thrown by a local MethodCall
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void invokeDirectlyUnregistered() throws Exception {
+        Handler handler = new Handler();
+        this.service.registerRPCHandler(SERVICE_NAME, handler);
+        this.service.unregisterRPCHandler(SERVICE_NAME, handler);
+
+        assertNull(this.service.invokeDirectly(SERVICE_NAME, "echo", new Object[] { "a" }, new Class<?>[] { String.class }, null, null));
+        assertNull(this.service.rpcMethodTables.get(SERVICE_NAME));
+    }
+
+    static class Handler {
+        public String echo(String value) {
+            return value;
+        }
+
+        public String echo(String value, int count) {
+            StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < count; ++i) {
+                builder.append(value);
+            }
+            return builder.toString();
+        }
+
+        public void fail() {
+            throw new IllegalStateException();
+        }
+    }
+}
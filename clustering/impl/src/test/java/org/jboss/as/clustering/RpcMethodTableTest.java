@@ -0,0 +1,112 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.clustering;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Method;
+
+import org.junit.Test;
+
+public class RpcMethodTableTest {
+    private final RpcMethodTable table = new RpcMethodTable(Handler.class);
+
+    @Test
+    public void methodId() {
+        assertEquals("echo()", RpcMethodTable.methodId("echo", null));
+        assertEquals("echo()", RpcMethodTable.methodId("echo", new Class<?>[0]));
+        assertEquals("echo(java.lang.String,int)", RpcMethodTable.methodId("echo", new Class<?>[] { String.class, int.class }));
+    }
+
+    @Test
+    public void overloads() throws Exception {
+        Handler handler = new Handler();
+        Method noArgs = this.table.getMethod(RpcMethodTable.methodId("echo", new Class<?>[0]));
+        Method string = this.table.getMethod(RpcMethodTable.methodId("echo", new Class<?>[] { String.class }));
+        Method stringInt = this.table.getMethod(RpcMethodTable.methodId("echo", new Class<?>[] { String.class, int.class }));
+
+        assertEquals("none", noArgs.invoke(handler));
+        assertEquals("a", string.invoke(handler, "a"));
+        assertEquals("aaa", stringInt.invoke(handler, "a", 3));
+    }
+
+    @Test
+    public void nonPublicMethods() throws Exception {
+        Handler handler = new Handler();
+
+        assertEquals("package", this.table.getMethod("packageMethod()").invoke(handler));
+        assertEquals("private", this.table.getMethod("privateMethod()").invoke(handler));
+        assertEquals("inherited", this.table.getMethod("inheritedMethod()").invoke(handler));
+    }
+
+    @Test
+    public void onDemandLookup() throws Exception {
+        // Resolved on first lookup, then served from the table
+        Method method = this.table.getMethod("privateMethod()");
+        assertSame(method, this.table.getMethod("privateMethod()"));
+        assertSame(this.table.getMethod("echo()"), this.table.getMethod("echo()"));
+    }
+
+    @Test(expected = NoSuchMethodException.class)
+    public void missingMethod() throws Exception {
+        this.table.getMethod("echo(java.lang.Integer)");
+    }
+
+    @Test(expected = NoSuchMethodException.class)
+    public void objectMethodsAreNotDispatched() throws Exception {
+        this.table.getMethod("wait()");
+    }
+
+    static class BaseHandler {
+        @SuppressWarnings("unused")
+        private String inheritedMethod() {
+            return "inherited";
+        }
+    }
+
+    static class Handler extends BaseHandler {
+        public String echo() {
+            return "none";
+        }
+
+        public String echo(String value) {
+            return value;
+        }
+
+        public String echo(String value, int count) {
+            StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < count; ++i) {
+                builder.append(value);
+            }
+            return builder.toString();
+        }
+
+        String packageMethod() {
+            return "package";
+        }
+
+        @SuppressWarnings("unused")
+        private String privateMethod() {
+            return "private";
+        }
+    }
+}
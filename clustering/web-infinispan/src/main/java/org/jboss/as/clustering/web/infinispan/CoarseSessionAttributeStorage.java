@@ -22,6 +22,7 @@
 package org.jboss.as.clustering.web.infinispan;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.Map;
 
 import org.jboss.as.clustering.web.OutgoingSessionGranularitySessionData;
@@ -30,6 +31,8 @@ import org.jboss.metadata.web.jboss.ReplicationGranularity;
 
 /**
  * Handles session attribute load/store operations for {@link ReplicationGranularity#SESSION} distributed session managers.
+ * Attributes stored as chunks by a node using {@link DeltaSessionAttributeStorage} are loaded as well, and their chunks are
+ * removed when the attributes are next stored whole.
  *
  * @author Paul Ferraro
  */
@@ -50,7 +53,8 @@ public class CoarseSessionAttributeStorage implements SessionAttributeStorage<Ou
     public void store(Map<Object, Object> map, OutgoingSessionGranularitySessionData sessionData) throws IOException {
         Map<String, Object> attributes = sessionData.getSessionAttributes();
         if (attributes != null) {
-            SessionMapEntry.ATTRIBUTES.put(map, this.marshaller.marshal(attributes));
+            Object previous = SessionMapEntry.ATTRIBUTES.put(map, this.marshaller.marshal(attributes));
+            DeltaSessionAttributeStorage.removeChunks(map, previous, Collections.<Long>emptySet());
         }
     }
 
@@ -59,9 +63,8 @@ public class CoarseSessionAttributeStorage implements SessionAttributeStorage<Ou
      *
      * @see org.jboss.web.tomcat.service.session.distributedcache.ispn.SessionAttributeStorage#load(org.infinispan.atomic.AtomicMap)
      */
-    @SuppressWarnings("unchecked")
     @Override
     public Map<String, Object> load(Map<Object, Object> map) throws IOException, ClassNotFoundException {
-        return (Map<String, Object>) this.marshaller.unmarshal(SessionMapEntry.ATTRIBUTES.get(map));
+        return DeltaSessionAttributeStorage.load(map, this.marshaller);
     }
 }
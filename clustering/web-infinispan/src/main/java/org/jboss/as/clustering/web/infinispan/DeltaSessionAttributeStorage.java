@@ -0,0 +1,245 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.clustering.web.infinispan;
+
+import static org.jboss.as.clustering.web.infinispan.InfinispanWebLogger.ROOT_LOGGER;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import org.jboss.as.clustering.SimpleMarshalledValue;
+import org.jboss.as.clustering.web.OutgoingSessionGranularitySessionData;
+import org.jboss.as.clustering.web.SessionAttributeMarshaller;
+import org.jboss.metadata.web.jboss.ReplicationGranularity;
+
+/**
+ * Handles session attribute load/store operations for {@link ReplicationGranularity#SESSION} distributed session managers,
+ * replicating only the parts of the serialized session attributes that changed since they were last stored.
+ * <p>
+ * The serialized attributes are split into chunks at content defined boundaries, so that a change to one attribute only
+ * alters the chunks around it. Each chunk is stored in its own entry of the session's atomic map, keyed by a hash of its
+ * content, and the {@link SessionMapEntry#ATTRIBUTES} entry holds a manifest listing the chunks in order. Since the atomic
+ * map only replicates the entries modified by a transaction, only new chunks and the manifest are sent to other nodes.
+ * If the chunks of the previous manifest are not all present, this node's copy of the session does not match what was last
+ * replicated, so every chunk is written again and the full state is replicated instead.
+ * <p>
+ * A node whose copy lacks some chunks of the current manifest cannot rebuild the attributes from it; {@link #load(Map)} then
+ * returns null so that the caller can discard that copy and read the full state again.
+ * Attributes that were stored whole, e.g. by {@link CoarseSessionAttributeStorage}, are still loaded as is, and
+ * {@link CoarseSessionAttributeStorage} can load manifests, so nodes may enable this strategy one at a time.
+ */
+public class DeltaSessionAttributeStorage implements SessionAttributeStorage<OutgoingSessionGranularitySessionData> {
+    static final int MIN_CHUNK_SIZE = 512;
+    static final int MAX_CHUNK_SIZE = 16 * 1024;
+    // Average chunk size is about MIN_CHUNK_SIZE + 2K
+    private static final int CHUNK_MASK = (1 << 11) - 1;
+    private static final int[] GEAR = new int[256];
+
+    static {
+        // Boundaries must be computed identically on every node, so use a fixed seed
+        Random random = new Random(0x5EED);
+        for (int i = 0; i < GEAR.length; ++i) {
+            GEAR[i] = random.nextInt();
+        }
+    }
+
+    private final SessionAttributeMarshaller marshaller;
+
+    public DeltaSessionAttributeStorage(SessionAttributeMarshaller marshaller) {
+        this.marshaller = marshaller;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.jboss.as.clustering.web.infinispan.SessionAttributeStorage#store(java.util.Map,
+     *      org.jboss.as.clustering.web.OutgoingDistributableSessionData)
+     */
+    @Override
+    public void store(Map<Object, Object> map, OutgoingSessionGranularitySessionData sessionData) throws IOException {
+        Map<String, Object> attributes = sessionData.getSessionAttributes();
+        if (attributes == null) return;
+
+        Object value = this.marshaller.marshal(attributes);
+        Object previous = SessionMapEntry.ATTRIBUTES.get(map);
+
+        if (!(value instanceof SimpleMarshalledValue)) {
+            // Not something we can split, so store it whole
+            removeChunks(map, previous, Collections.<Long>emptySet());
+            SessionMapEntry.ATTRIBUTES.put(map, value);
+            return;
+        }
+
+        byte[] bytes = ((SimpleMarshalledValue<?>) value).getBytes();
+        // Fall back to the full state if our copy does not match the last replicated one
+        boolean full = !isComplete(map, previous);
+        MessageDigest digest = createDigest();
+        long[] chunks = new long[(bytes.length / MIN_CHUNK_SIZE) + 1];
+        int count = 0;
+        int written = 0;
+        Set<Long> ids = new HashSet<Long>();
+        int start = 0;
+        while (start < bytes.length) {
+            int end = nextBoundary(bytes, start);
+            digest.update(bytes, start, end - start);
+            long id = toLong(digest.digest());
+            chunks[count++] = id;
+            Long key = Long.valueOf(id);
+            if (ids.add(key) && (full || !map.containsKey(key))) {
+                map.put(key, Arrays.copyOfRange(bytes, start, end));
+                written += end - start;
+            }
+            start = end;
+        }
+        removeChunks(map, previous, ids);
+
+        CRC32 checksum = new CRC32();
+        checksum.update(bytes, 0, bytes.length);
+        SessionMapEntry.ATTRIBUTES.put(map, new Manifest(Arrays.copyOf(chunks, count), bytes.length, checksum.getValue()));
+
+        ROOT_LOGGER.tracef("Stored %d bytes of session attributes as %d chunks, %d bytes of which changed", bytes.length, count, written);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.jboss.as.clustering.web.infinispan.SessionAttributeStorage#load(java.util.Map)
+     */
+    @Override
+    public Map<String, Object> load(Map<Object, Object> map) throws IOException, ClassNotFoundException {
+        return load(map, this.marshaller);
+    }
+
+    /**
+     * Loads session attributes stored either whole or as chunks.
+     * @return the session attributes, or null if the chunks listed by the manifest are not all present
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> load(Map<Object, Object> map, SessionAttributeMarshaller marshaller) throws IOException, ClassNotFoundException {
+        Object value = SessionMapEntry.ATTRIBUTES.get(map);
+        if (!(value instanceof Manifest)) {
+            return (Map<String, Object>) marshaller.unmarshal(value);
+        }
+        Manifest manifest = (Manifest) value;
+        byte[] bytes = new byte[manifest.length];
+        int offset = 0;
+        for (long id : manifest.chunks) {
+            byte[] chunk = (byte[]) map.get(Long.valueOf(id));
+            if ((chunk == null) || (offset + chunk.length > bytes.length)) {
+                ROOT_LOGGER.debugf("Session attribute chunks do not match their manifest of %d bytes with checksum %x", manifest.length, manifest.checksum);
+                return null;
+            }
+            System.arraycopy(chunk, 0, bytes, offset, chunk.length);
+            offset += chunk.length;
+        }
+        CRC32 checksum = new CRC32();
+        checksum.update(bytes, 0, bytes.length);
+        if ((offset != bytes.length) || (checksum.getValue() != manifest.checksum)) {
+            ROOT_LOGGER.debugf("Session attribute chunks do not match their manifest of %d bytes with checksum %x", manifest.length, manifest.checksum);
+            return null;
+        }
+        return (Map<String, Object>) marshaller.unmarshal(SimpleMarshalledValue.fromBytes(bytes, null));
+    }
+
+    /**
+     * Returns the end of the chunk starting at the specified offset.
+     * A boundary is placed where a rolling hash of the preceding bytes matches a fixed bit pattern, within the bounds
+     * of the minimum and maximum chunk size.
+     */
+    static int nextBoundary(byte[] bytes, int start) {
+        int limit = Math.min(bytes.length, start + MAX_CHUNK_SIZE);
+        int i = Math.min(limit, start + MIN_CHUNK_SIZE);
+        int hash = 0;
+        while (i < limit) {
+            hash = (hash << 1) + GEAR[bytes[i] & 0xFF];
+            i += 1;
+            if ((hash & CHUNK_MASK) == 0) {
+                return i;
+            }
+        }
+        return limit;
+    }
+
+    private static boolean isComplete(Map<Object, Object> map, Object previous) {
+        if (previous instanceof Manifest) {
+            for (long id : ((Manifest) previous).chunks) {
+                if (!map.containsKey(Long.valueOf(id))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    static void removeChunks(Map<Object, Object> map, Object previous, Set<Long> retained) {
+        if (previous instanceof Manifest) {
+            for (long id : ((Manifest) previous).chunks) {
+                Long key = Long.valueOf(id);
+                if (!retained.contains(key)) {
+                    map.remove(key);
+                }
+            }
+        }
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long toLong(byte[] digest) {
+        long result = 0;
+        for (int i = 0; i < 8; ++i) {
+            result = (result << 8) | (digest[i] & 0xFF);
+        }
+        return result;
+    }
+
+    /**
+     * Lists the chunks that make up the serialized session attributes.
+     */
+    static class Manifest implements Serializable {
+        private static final long serialVersionUID = 4707476011374431208L;
+
+        final long[] chunks;
+        final int length;
+        final long checksum;
+
+        Manifest(long[] chunks, int length, long checksum) {
+            this.chunks = chunks;
+            this.length = length;
+            this.checksum = checksum;
+        }
+    }
+}
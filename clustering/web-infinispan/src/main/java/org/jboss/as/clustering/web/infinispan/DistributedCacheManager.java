@@ -57,6 +57,8 @@ import org.jboss.as.clustering.web.DistributableSessionMetadata;
 import org.jboss.as.clustering.web.IncomingDistributableSessionData;
 import org.jboss.as.clustering.web.LocalDistributableSessionManager;
 import org.jboss.as.clustering.web.OutgoingDistributableSessionData;
+import org.jboss.as.clustering.web.SessionAttributeMarshallingStatistics;
+import org.jboss.as.clustering.web.SessionOwnershipStatistics;
 import org.jboss.as.clustering.web.SessionOwnershipSupport;
 import org.jboss.as.clustering.web.impl.IncomingDistributableSessionDataImpl;
 import org.jboss.msc.service.ServiceRegistry;
@@ -70,7 +72,7 @@ import static org.jboss.as.clustering.web.infinispan.InfinispanWebMessages.MESSA
  * @author Paul Ferraro
  */
 @Listener
-public class DistributedCacheManager<T extends OutgoingDistributableSessionData, K extends SessionKey> implements org.jboss.as.clustering.web.DistributedCacheManager<T>, SessionOwnershipSupport {
+public class DistributedCacheManager<T extends OutgoingDistributableSessionData, K extends SessionKey> implements org.jboss.as.clustering.web.DistributedCacheManager<T>, SessionOwnershipSupport, SessionOwnershipStatistics {
     static String mask(String sessionId) {
         if (sessionId == null) return null;
         int length = sessionId.length();
@@ -93,6 +95,7 @@ public class DistributedCacheManager<T extends OutgoingDistributableSessionData,
     }
 
     final SessionAttributeStorage<T> attributeStorage;
+    private final SessionAttributeMarshallingStatistics marshallingStatistics;
     private final LocalDistributableSessionManager manager;
     private final SharedLocalYieldingClusterLockManager lockManager;
     private final Cache<K, Map<Object, Object>> sessionCache;
@@ -106,11 +109,13 @@ public class DistributedCacheManager<T extends OutgoingDistributableSessionData,
     public DistributedCacheManager(ServiceRegistry registry, LocalDistributableSessionManager manager,
             Cache<K, Map<Object, Object>> sessionCache, CacheSource jvmRouteCacheSource,
             SharedLocalYieldingClusterLockManager lockManager, SessionAttributeStorage<T> attributeStorage,
-            BatchingManager batchingManager, SessionKeyFactory<K> keyFactory, CacheInvoker invoker) {
+            SessionAttributeMarshallingStatistics marshallingStatistics, BatchingManager batchingManager,
+            SessionKeyFactory<K> keyFactory, CacheInvoker invoker) {
         this.manager = manager;
         this.lockManager = lockManager;
         this.sessionCache = sessionCache;
         this.attributeStorage = attributeStorage;
+        this.marshallingStatistics = marshallingStatistics;
         this.batchingManager = batchingManager;
         this.keyFactory = keyFactory;
         this.invoker = new ForceSynchronousCacheInvoker(invoker);
@@ -265,21 +270,39 @@ public class DistributedCacheManager<T extends OutgoingDistributableSessionData,
                 // If requested session is no longer in the cache; return null
                 if (map == null) return null;
 
+                Map<String, Object> attributes = null;
+                if (includeAttributes) {
+                    attributes = this.load(map);
+                    if ((attributes == null) && (SessionMapEntry.ATTRIBUTES.get(map) != null)) {
+                        // Our copy of the session is incomplete, so discard it and read the full state
+                        ROOT_LOGGER.debugf("Reloading incomplete session attributes of %s", mask(key.getSessionId()));
+                        cache.evict(key);
+                        map = cache.get(key);
+                        if (map == null) return null;
+                        attributes = this.load(map);
+                        if ((attributes == null) && (SessionMapEntry.ATTRIBUTES.get(map) != null)) return null;
+                    }
+                }
+
                 Integer version = SessionMapEntry.VERSION.get(map);
                 Long timestamp = SessionMapEntry.TIMESTAMP.get(map);
                 DistributableSessionMetadata metadata = SessionMapEntry.METADATA.get(map);
                 IncomingDistributableSessionDataImpl result = new IncomingDistributableSessionDataImpl(version, timestamp, metadata);
 
                 if (includeAttributes) {
-                    try {
-                        result.setSessionAttributes(DistributedCacheManager.this.attributeStorage.load(map));
-                    } catch (Exception e) {
-                        throw MESSAGES.failedToStoreSessionAttributes(e, mask(key.getSessionId()));
-                    }
+                    result.setSessionAttributes(attributes);
                 }
 
                 return result;
             }
+
+            private Map<String, Object> load(Map<Object, Object> map) {
+                try {
+                    return DistributedCacheManager.this.attributeStorage.load(map);
+                } catch (Exception e) {
+                    throw MESSAGES.failedToStoreSessionAttributes(e, mask(key.getSessionId()));
+                }
+            }
         };
 
         try {
@@ -427,6 +450,16 @@ public class DistributedCacheManager<T extends OutgoingDistributableSessionData,
         return (this.lockManager != null) ? this : null;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.jboss.as.clustering.web.DistributedCacheManager#getSessionAttributeMarshallingStatistics()
+     */
+    @Override
+    public SessionAttributeMarshallingStatistics getSessionAttributeMarshallingStatistics() {
+        return this.marshallingStatistics;
+    }
+
     @Override
     public LockResult acquireSessionOwnership(String sessionId, boolean newLock) throws TimeoutException, InterruptedException {
         ROOT_LOGGER.tracef("acquireSessionOwnership(%s, %s)", sessionId, newLock);
@@ -447,6 +480,36 @@ public class DistributedCacheManager<T extends OutgoingDistributableSessionData,
         this.lockManager.unlock(this.keyFactory.createKey(sessionId).toString(), remove);
     }
 
+    @Override
+    public SessionOwnershipStatistics getSessionOwnershipStatistics() {
+        return this;
+    }
+
+    @Override
+    public long getLocalAcquisitionCount() {
+        return this.lockManager.getLocalAcquisitionCount();
+    }
+
+    @Override
+    public long getLocalAcquisitionTime() {
+        return this.lockManager.getLocalAcquisitionTime();
+    }
+
+    @Override
+    public long getClusterAcquisitionCount() {
+        return this.lockManager.getClusterAcquisitionCount();
+    }
+
+    @Override
+    public long getClusterAcquisitionTime() {
+        return this.lockManager.getClusterAcquisitionTime();
+    }
+
+    @Override
+    public long getYieldCount() {
+        return this.lockManager.getYieldCount();
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -37,7 +37,9 @@ import org.jboss.as.clustering.web.BatchingManager;
 import org.jboss.as.clustering.web.ClusteringNotSupportedException;
 import org.jboss.as.clustering.web.LocalDistributableSessionManager;
 import org.jboss.as.clustering.web.OutgoingDistributableSessionData;
+import org.jboss.as.clustering.web.SessionAttributeMarshaller;
 import org.jboss.as.clustering.web.SessionAttributeMarshallerFactory;
+import org.jboss.as.clustering.web.SessionAttributeMarshallingStatistics;
 import org.jboss.as.clustering.web.impl.SessionAttributeMarshallerFactoryImpl;
 import org.jboss.as.clustering.web.impl.TransactionBatchingManager;
 import org.jboss.metadata.web.jboss.JBossWebMetaData;
@@ -94,9 +96,11 @@ public class DistributedCacheManagerFactory implements org.jboss.as.clustering.w
         }
         SharedLocalYieldingClusterLockManager lockManager = this.lockManagerSource.getLockManager(sessionCache);
         BatchingManager batchingManager = new TransactionBatchingManager(sessionCache.getTransactionManager());
-        SessionAttributeStorage<T> storage = this.storageFactory.createStorage(manager.getReplicationConfig().getReplicationGranularity(), this.marshallerFactory.createMarshaller(manager));
+        SessionAttributeMarshaller marshaller = this.marshallerFactory.createMarshaller(manager);
+        SessionAttributeStorage<T> storage = this.storageFactory.createStorage(manager.getReplicationConfig().getReplicationGranularity(), marshaller);
+        SessionAttributeMarshallingStatistics statistics = (marshaller instanceof SessionAttributeMarshallingStatistics) ? (SessionAttributeMarshallingStatistics) marshaller : null;
 
-        return new DistributedCacheManager<T, SessionKeyImpl>(registry, manager, new AtomicMapCache<SessionKeyImpl, Object, Object>(sessionCache), this.jvmRouteCacheSource, lockManager, storage, batchingManager, new SessionKeyFactoryImpl(manager), this.invoker);
+        return new DistributedCacheManager<T, SessionKeyImpl>(registry, manager, new AtomicMapCache<SessionKeyImpl, Object, Object>(sessionCache), this.jvmRouteCacheSource, lockManager, storage, statistics, batchingManager, new SessionKeyFactoryImpl(manager), this.invoker);
     }
 
     @Override
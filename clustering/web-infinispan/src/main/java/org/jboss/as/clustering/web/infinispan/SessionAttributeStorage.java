@@ -34,5 +34,10 @@ import org.jboss.as.clustering.web.OutgoingDistributableSessionData;
 public interface SessionAttributeStorage<T extends OutgoingDistributableSessionData> {
     void store(Map<Object, Object> data, T sessionData) throws IOException;
 
+    /**
+     * Loads the session attributes from the specified map.
+     * @param data an atomic map
+     * @return the session attributes, or null if this node's copy of the map does not hold all of them
+     */
     Map<String, Object> load(Map<Object, Object> data) throws IOException, ClassNotFoundException;
 }
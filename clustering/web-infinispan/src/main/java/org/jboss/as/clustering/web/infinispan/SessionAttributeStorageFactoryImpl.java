@@ -34,6 +34,21 @@ import static org.jboss.as.clustering.web.infinispan.InfinispanWebMessages.MESSA
  * @author Paul Ferraro
  */
 public class SessionAttributeStorageFactoryImpl implements SessionAttributeStorageFactory {
+    /**
+     * Enables replication of only the changed parts of the session attributes for SESSION granularity.
+     * Nodes with and without this property can share sessions, so it can be enabled across a cluster one node at a time.
+     */
+    public static final String DELTA_REPLICATION = "jboss.web.session.delta-replication";
+
+    private final boolean delta;
+
+    public SessionAttributeStorageFactoryImpl() {
+        this(Boolean.getBoolean(DELTA_REPLICATION));
+    }
+
+    public SessionAttributeStorageFactoryImpl(boolean delta) {
+        this.delta = delta;
+    }
 
     /**
      * {@inheritDoc}
@@ -46,7 +61,7 @@ public class SessionAttributeStorageFactoryImpl implements SessionAttributeStora
     public <T extends OutgoingDistributableSessionData> SessionAttributeStorage<T> createStorage(ReplicationGranularity granularity, SessionAttributeMarshaller marshaller) {
         switch ((granularity != null) ? granularity : ReplicationGranularity.SESSION) {
             case SESSION: {
-                return (SessionAttributeStorage<T>) new CoarseSessionAttributeStorage(marshaller);
+                return (SessionAttributeStorage<T>) (this.delta ? new DeltaSessionAttributeStorage(marshaller) : new CoarseSessionAttributeStorage(marshaller));
             }
             case ATTRIBUTE: {
                 return (SessionAttributeStorage<T>) new FineSessionAttributeStorage(marshaller);
@@ -0,0 +1,182 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.clustering.web.infinispan;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.jboss.as.clustering.MarshallingContext;
+import org.jboss.as.clustering.web.OutgoingSessionGranularitySessionData;
+import org.jboss.as.clustering.web.SessionAttributeMarshaller;
+import org.jboss.as.clustering.web.impl.SessionAttributeMarshallerImpl;
+import org.jboss.marshalling.Marshalling;
+import org.jboss.marshalling.MarshallingConfiguration;
+import org.junit.Test;
+
+public class DeltaSessionAttributeStorageTest {
+    private final SessionAttributeMarshaller marshaller = new SessionAttributeMarshallerImpl(new MarshallingContext(Marshalling.getMarshallerFactory("river", Marshalling.class.getClassLoader()), new MarshallingConfiguration()));
+    private final SessionAttributeStorage<OutgoingSessionGranularitySessionData> storage = new DeltaSessionAttributeStorage(this.marshaller);
+
+    @Test
+    public void storeAndLoad() throws Exception {
+        Map<Object, Object> map = new HashMap<Object, Object>();
+        Map<String, Object> attributes = createAttributes(20, 2048);
+
+        this.storage.store(map, createSessionData(attributes));
+
+        assertTrue(SessionMapEntry.ATTRIBUTES.get(map) instanceof DeltaSessionAttributeStorage.Manifest);
+        assertTrue(map.size() > 2);
+        assertEquals(attributes, this.storage.load(map));
+    }
+
+    @Test
+    public void storeChangedAttribute() throws Exception {
+        Map<Object, Object> map = new HashMap<Object, Object>();
+        Map<String, Object> attributes = createAttributes(50, 2048);
+        this.storage.store(map, createSessionData(attributes));
+        int total = chunkBytes(map, new HashMap<Object, Object>());
+
+        Map<Object, Object> before = new HashMap<Object, Object>(map);
+        byte[] changed = ((byte[]) attributes.get("attribute25")).clone();
+        changed[100] += 1;
+        attributes.put("attribute25", changed);
+        this.storage.store(map, createSessionData(attributes));
+
+        int written = chunkBytes(map, before);
+        assertTrue(String.format("%d of %d bytes rewritten", written, total), written < total / 4);
+        assertEquals(attributes.keySet(), this.storage.load(map).keySet());
+        assertArrayEquals(changed, (byte[]) this.storage.load(map).get("attribute25"));
+
+        // Unreferenced chunks are removed
+        int referenced = ((DeltaSessionAttributeStorage.Manifest) SessionMapEntry.ATTRIBUTES.get(map)).chunks.length;
+        assertTrue(map.size() - 1 <= referenced);
+    }
+
+    @Test
+    public void loadWholeAttributes() throws Exception {
+        Map<Object, Object> map = new HashMap<Object, Object>();
+        Map<String, Object> attributes = createAttributes(2, 16);
+        new CoarseSessionAttributeStorage(this.marshaller).store(map, createSessionData(attributes));
+
+        assertEquals(attributes.keySet(), this.storage.load(map).keySet());
+    }
+
+    @Test
+    public void loadMissingChunk() throws Exception {
+        Map<Object, Object> map = new HashMap<Object, Object>();
+        this.storage.store(map, createSessionData(createAttributes(20, 2048)));
+        long[] chunks = ((DeltaSessionAttributeStorage.Manifest) SessionMapEntry.ATTRIBUTES.get(map)).chunks;
+        map.remove(Long.valueOf(chunks[chunks.length / 2]));
+
+        assertNull(this.storage.load(map));
+    }
+
+    @Test
+    public void storeFullStateAfterMissingChunk() throws Exception {
+        Map<Object, Object> map = new HashMap<Object, Object>();
+        Map<String, Object> attributes = createAttributes(20, 2048);
+        this.storage.store(map, createSessionData(attributes));
+        long[] chunks = ((DeltaSessionAttributeStorage.Manifest) SessionMapEntry.ATTRIBUTES.get(map)).chunks;
+        map.remove(Long.valueOf(chunks[chunks.length / 2]));
+
+        // Record which chunks get written, as a replicated atomic map would
+        final Set<Object> written = new HashSet<Object>();
+        Map<Object, Object> recorder = new HashMap<Object, Object>(map) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public Object put(Object key, Object value) {
+                written.add(key);
+                return super.put(key, value);
+            }
+        };
+        this.storage.store(recorder, createSessionData(attributes));
+
+        for (long id : ((DeltaSessionAttributeStorage.Manifest) SessionMapEntry.ATTRIBUTES.get(recorder)).chunks) {
+            assertTrue(written.contains(Long.valueOf(id)));
+        }
+        assertEquals(attributes.keySet(), this.storage.load(recorder).keySet());
+    }
+
+    @Test
+    public void loadChunksWithoutDelta() throws Exception {
+        Map<Object, Object> map = new HashMap<Object, Object>();
+        Map<String, Object> attributes = createAttributes(20, 2048);
+        this.storage.store(map, createSessionData(attributes));
+
+        // A node that does not enable delta replication can still read and replace the chunked attributes
+        SessionAttributeStorage<OutgoingSessionGranularitySessionData> coarse = new CoarseSessionAttributeStorage(this.marshaller);
+        assertEquals(attributes.keySet(), coarse.load(map).keySet());
+
+        coarse.store(map, createSessionData(attributes));
+        for (Object key : map.keySet()) {
+            assertFalse(key instanceof Long);
+        }
+    }
+
+    @Test
+    public void boundaries() {
+        byte[] bytes = new byte[100000];
+        new Random(1).nextBytes(bytes);
+        int start = 0;
+        while (start < bytes.length) {
+            int end = DeltaSessionAttributeStorage.nextBoundary(bytes, start);
+            assertTrue(end <= bytes.length);
+            assertTrue(end - start <= DeltaSessionAttributeStorage.MAX_CHUNK_SIZE);
+            assertTrue((end == bytes.length) || (end - start >= DeltaSessionAttributeStorage.MIN_CHUNK_SIZE));
+            start = end;
+        }
+    }
+
+    private static int chunkBytes(Map<Object, Object> map, Map<Object, Object> before) {
+        int bytes = 0;
+        for (Map.Entry<Object, Object> entry : map.entrySet()) {
+            if ((entry.getKey() instanceof Long) && !before.containsKey(entry.getKey())) {
+                bytes += ((byte[]) entry.getValue()).length;
+            }
+        }
+        return bytes;
+    }
+
+    private static Map<String, Object> createAttributes(int count, int size) {
+        Random random = new Random(count);
+        Map<String, Object> attributes = new HashMap<String, Object>();
+        for (int i = 0; i < count; ++i) {
+            byte[] value = new byte[size];
+            random.nextBytes(value);
+            attributes.put("attribute" + i, value);
+        }
+        return attributes;
+    }
+
+    private static OutgoingSessionGranularitySessionData createSessionData(Map<String, Object> attributes) {
+        OutgoingSessionGranularitySessionData data = mock(OutgoingSessionGranularitySessionData.class);
+        when(data.getSessionAttributes()).thenReturn(attributes);
+        return data;
+    }
+}
@@ -52,6 +52,8 @@ import org.jboss.as.clustering.web.DistributableSessionMetadata;
 import org.jboss.as.clustering.web.IncomingDistributableSessionData;
 import org.jboss.as.clustering.web.LocalDistributableSessionManager;
 import org.jboss.as.clustering.web.OutgoingDistributableSessionData;
+import org.jboss.as.clustering.web.SessionAttributeMarshallingStatistics;
+import org.jboss.as.clustering.web.SessionOwnershipStatistics;
 import org.jboss.as.clustering.web.SessionOwnershipSupport;
 import org.jboss.msc.service.ServiceRegistry;
 import org.junit.After;
@@ -71,6 +73,7 @@ public class DistributedCacheManagerTest {
     private LocalDistributableSessionManager sessionManager = mock(LocalDistributableSessionManager.class);
     @SuppressWarnings("unchecked")
     private SessionAttributeStorage<OutgoingDistributableSessionData> storage = mock(SessionAttributeStorage.class);
+    private SessionAttributeMarshallingStatistics marshallingStatistics = mock(SessionAttributeMarshallingStatistics.class);
     @SuppressWarnings("unchecked")
     private AdvancedCache<SessionKey, Map<Object, Object>> sessionCache = mock(AdvancedCache.class);
     private CacheSource jvmRouteCacheSource = mock(CacheSource.class);
@@ -87,14 +90,14 @@ public class DistributedCacheManagerTest {
 
         when(this.sessionCache.getConfiguration()).thenReturn(configuration);
 
-        this.manager = new DistributedCacheManager<OutgoingDistributableSessionData, SessionKey>(this.registry, this.sessionManager, this.sessionCache, this.jvmRouteCacheSource, this.lockManager, this.storage, this.batchingManager, this.keyFactory, this.invoker);
+        this.manager = new DistributedCacheManager<OutgoingDistributableSessionData, SessionKey>(this.registry, this.sessionManager, this.sessionCache, this.jvmRouteCacheSource, this.lockManager, this.storage, this.marshallingStatistics, this.batchingManager, this.keyFactory, this.invoker);
 
         reset(this.sessionCache);
     }
 
     @After
     public void after() {
-        reset(this.registry, this.keyFactory, this.sessionManager, this.storage, this.sessionCache, this.jvmRouteCacheSource, this.lockManager, this.batchingManager, this.invoker);
+        reset(this.registry, this.keyFactory, this.sessionManager, this.storage, this.marshallingStatistics, this.sessionCache, this.jvmRouteCacheSource, this.lockManager, this.batchingManager, this.invoker);
     }
 
     @Test
@@ -258,6 +261,40 @@ public class DistributedCacheManagerTest {
         }
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    public void getIncompleteSessionData() throws Exception {
+        String sessionId = "abc";
+        SessionKey key = mock(SessionKey.class);
+        @SuppressWarnings("rawtypes")
+        ArgumentCaptor<DistributedCacheManager.Operation> capturedOperation = ArgumentCaptor.forClass(DistributedCacheManager.Operation.class);
+
+        when(this.keyFactory.createKey(sessionId)).thenReturn(key);
+        when(this.invoker.invoke(same(this.sessionCache), capturedOperation.capture())).thenReturn(null);
+
+        this.manager.getSessionData(sessionId, null, true);
+
+        Map<Object, Object> incompleteMap = mock(Map.class);
+        Map<Object, Object> map = mock(Map.class);
+        Map<String, Object> attributes = Collections.emptyMap();
+        Byte attributesKey = Byte.valueOf((byte) SessionMapEntry.ATTRIBUTES.ordinal());
+        DistributedCacheManager<OutgoingDistributableSessionData, SessionKey>.Operation<IncomingDistributableSessionData> operation = capturedOperation.getValue();
+
+        when(this.sessionCache.get(key)).thenReturn(incompleteMap, map);
+        when(incompleteMap.get(attributesKey)).thenReturn(new Object());
+        when(this.storage.load(incompleteMap)).thenReturn(null);
+        when(map.get(Byte.valueOf((byte) SessionMapEntry.VERSION.ordinal()))).thenReturn(Integer.valueOf(10));
+        when(map.get(attributesKey)).thenReturn(new Object());
+        when(this.storage.load(map)).thenReturn(attributes);
+
+        IncomingDistributableSessionData result = operation.invoke(this.sessionCache);
+
+        verify(this.sessionCache).evict(key);
+        assertNotNull(result);
+        assertEquals(10, result.getVersion());
+        assertSame(attributes, result.getSessionAttributes());
+    }
+
     @Test
     public void getMissingSessionDataNoOwner() {
         this.getMissingSessionDataNoOwner(true);
@@ -493,6 +530,28 @@ public class DistributedCacheManagerTest {
         assertSame(this.manager, support);
     }
 
+    @Test
+    public void getSessionOwnershipStatistics() {
+        when(this.lockManager.getLocalAcquisitionCount()).thenReturn(1L);
+        when(this.lockManager.getLocalAcquisitionTime()).thenReturn(2L);
+        when(this.lockManager.getClusterAcquisitionCount()).thenReturn(3L);
+        when(this.lockManager.getClusterAcquisitionTime()).thenReturn(4L);
+        when(this.lockManager.getYieldCount()).thenReturn(5L);
+
+        SessionOwnershipStatistics statistics = this.manager.getSessionOwnershipSupport().getSessionOwnershipStatistics();
+
+        assertEquals(1L, statistics.getLocalAcquisitionCount());
+        assertEquals(2L, statistics.getLocalAcquisitionTime());
+        assertEquals(3L, statistics.getClusterAcquisitionCount());
+        assertEquals(4L, statistics.getClusterAcquisitionTime());
+        assertEquals(5L, statistics.getYieldCount());
+    }
+
+    @Test
+    public void getSessionAttributeMarshallingStatistics() {
+        assertSame(this.marshallingStatistics, this.manager.getSessionAttributeMarshallingStatistics());
+    }
+
     @Test
     public void removed() {
         @SuppressWarnings("unchecked")
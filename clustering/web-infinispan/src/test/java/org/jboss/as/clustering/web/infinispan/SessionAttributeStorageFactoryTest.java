@@ -38,6 +38,11 @@ public class SessionAttributeStorageFactoryTest {
         this.test(ReplicationGranularity.SESSION, CoarseSessionAttributeStorage.class);
     }
 
+    @Test
+    public void testSessionDelta() {
+        this.test(new SessionAttributeStorageFactoryImpl(true), ReplicationGranularity.SESSION, DeltaSessionAttributeStorage.class);
+    }
+
     @Test
     public void testAttribute() {
         this.test(ReplicationGranularity.ATTRIBUTE, FineSessionAttributeStorage.class);
@@ -49,9 +54,11 @@ public class SessionAttributeStorageFactoryTest {
     }
 
     private void test(ReplicationGranularity granularity, Class<? extends SessionAttributeStorage<?>> expectedClass) {
-        SessionAttributeMarshaller marshaller = mock(SessionAttributeMarshaller.class);
+        this.test(new SessionAttributeStorageFactoryImpl(false), granularity, expectedClass);
+    }
 
-        SessionAttributeStorageFactory factory = new SessionAttributeStorageFactoryImpl();
+    private void test(SessionAttributeStorageFactory factory, ReplicationGranularity granularity, Class<? extends SessionAttributeStorage<?>> expectedClass) {
+        SessionAttributeMarshaller marshaller = mock(SessionAttributeMarshaller.class);
 
         try {
             SessionAttributeStorage<?> storage = factory.createStorage(granularity, marshaller);
@@ -133,6 +133,12 @@ public interface DistributedCacheManager<T extends OutgoingDistributableSessionD
      */
     SessionOwnershipSupport getSessionOwnershipSupport();
 
+    /**
+     * Returns statistics about the session attributes marshalled by this distributed cache manager.
+     * @return the marshalling statistics, or null if the session attribute marshaller does not collect them.
+     */
+    SessionAttributeMarshallingStatistics getSessionAttributeMarshallingStatistics();
+
     /**
      * Indicates whether a session with the specified identifier will cache locally.
      * @param sessionId a session identifier
@@ -0,0 +1,43 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.clustering.web;
+
+import java.util.List;
+
+import org.jboss.marshalling.ClassExternalizerFactory;
+
+/**
+ * Allows an application to speed up the marshalling of its session attributes.
+ * Implementations are located via {@link java.util.ServiceLoader} using the application's class loader.
+ * <p>
+ * Classes returned by {@link #getClasses()} are written to the replication stream as a compact index instead of a full
+ * class descriptor, and any {@link org.jboss.marshalling.Externalizer} returned by
+ * {@link #getExternalizer(Class)} replaces the default serialization of its class.
+ * Every node of the cluster must deploy the same extensions, returning the same classes in the same order.
+ */
+public interface SessionAttributeMarshallingExtension extends ClassExternalizerFactory {
+    /**
+     * Returns the classes of commonly replicated session attribute values and the objects they reference.
+     * @return an ordered list of classes
+     */
+    List<Class<?>> getClasses();
+}
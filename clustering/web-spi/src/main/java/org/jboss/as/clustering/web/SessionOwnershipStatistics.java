@@ -0,0 +1,58 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.clustering.web;
+
+/**
+ * Statistics about the acquisition of session ownership. Ownership is tracked by a lock manager shared by all web
+ * applications using the same cache container, so these statistics cover all of them.
+ */
+public interface SessionOwnershipStatistics {
+    /**
+     * Returns the number of times ownership of a session was acquired without a request to the cluster.
+     * @return a number of acquisitions
+     */
+    long getLocalAcquisitionCount();
+
+    /**
+     * Returns the total time spent acquiring ownership of sessions without a request to the cluster.
+     * @return a duration in milliseconds
+     */
+    long getLocalAcquisitionTime();
+
+    /**
+     * Returns the number of times ownership of a session was acquired from the cluster.
+     * @return a number of acquisitions
+     */
+    long getClusterAcquisitionCount();
+
+    /**
+     * Returns the total time spent acquiring ownership of sessions from the cluster.
+     * @return a duration in milliseconds
+     */
+    long getClusterAcquisitionTime();
+
+    /**
+     * Returns the number of times this node gave up ownership of a session to another node.
+     * @return a number of sessions
+     */
+    long getYieldCount();
+}
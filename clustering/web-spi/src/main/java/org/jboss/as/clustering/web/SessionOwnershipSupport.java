@@ -62,4 +62,10 @@ public interface SessionOwnershipSupport {
      *        manager can stop tracking ownership
      */
     void relinquishSessionOwnership(String realId, boolean remove);
+
+    /**
+     * Returns statistics about the acquisition of session ownership.
+     * @return the ownership statistics
+     */
+    SessionOwnershipStatistics getSessionOwnershipStatistics();
 }
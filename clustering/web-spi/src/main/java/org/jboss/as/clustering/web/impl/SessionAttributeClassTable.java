@@ -0,0 +1,113 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.clustering.web.impl;
+
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+import org.jboss.marshalling.ClassTable;
+import org.jboss.marshalling.Marshaller;
+import org.jboss.marshalling.Unmarshaller;
+
+/**
+ * Class table that writes known session attribute classes as an index into a fixed list of classes,
+ * instead of as a full class descriptor.
+ * The list is made of a few common JDK value types, followed by the classes contributed by the application.
+ * Since the index is all that is replicated, the list must be identical on every node of the cluster.
+ */
+public class SessionAttributeClassTable implements ClassTable {
+    // Collections and boxed types are omitted, since river already writes them compactly
+    private static final List<Class<?>> DEFAULT_CLASSES = Arrays.<Class<?>>asList(Date.class, GregorianCalendar.class, BigDecimal.class, BigInteger.class, Locale.class, UUID.class);
+
+    private final List<Class<?>> classes;
+    private final Map<Class<?>, Writer> writers = new IdentityHashMap<Class<?>, Writer>();
+    private final boolean wide;
+
+    public SessionAttributeClassTable(List<Class<?>> classes) {
+        List<Class<?>> list = new ArrayList<Class<?>>(DEFAULT_CLASSES.size() + classes.size());
+        list.addAll(DEFAULT_CLASSES);
+        list.addAll(classes);
+        if (list.size() > 0xFFFF) {
+            throw new IllegalArgumentException(String.format("Class table cannot hold %d classes", list.size()));
+        }
+        this.classes = Collections.unmodifiableList(list);
+        this.wide = list.size() > 0xFF;
+        for (int i = 0; i < list.size(); ++i) {
+            final int index = i;
+            Class<?> type = list.get(i);
+            if (!this.writers.containsKey(type)) {
+                this.writers.put(type, new Writer() {
+                    @Override
+                    public void writeClass(Marshaller marshaller, Class<?> clazz) throws IOException {
+                        SessionAttributeClassTable.this.writeIndex(marshaller, index);
+                    }
+                });
+            }
+        }
+    }
+
+    List<Class<?>> getClasses() {
+        return this.classes;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see org.jboss.marshalling.ClassTable#getClassWriter(java.lang.Class)
+     */
+    @Override
+    public Writer getClassWriter(Class<?> clazz) {
+        return this.writers.get(clazz);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see org.jboss.marshalling.ClassTable#readClass(org.jboss.marshalling.Unmarshaller)
+     */
+    @Override
+    public Class<?> readClass(Unmarshaller unmarshaller) throws IOException, ClassNotFoundException {
+        int index = this.wide ? unmarshaller.readUnsignedShort() : unmarshaller.readUnsignedByte();
+        if (index >= this.classes.size()) {
+            throw new InvalidClassException(String.valueOf(index));
+        }
+        return this.classes.get(index);
+    }
+
+    void writeIndex(Marshaller marshaller, int index) throws IOException {
+        if (this.wide) {
+            marshaller.writeShort(index);
+        } else {
+            marshaller.writeByte(index);
+        }
+    }
+}
@@ -21,11 +21,18 @@
  */
 package org.jboss.as.clustering.web.impl;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+
 import org.jboss.as.clustering.MarshallingContext;
 import org.jboss.as.clustering.web.LocalDistributableSessionManager;
 import org.jboss.as.clustering.web.SessionAttributeMarshaller;
 import org.jboss.as.clustering.web.SessionAttributeMarshallerFactory;
+import org.jboss.as.clustering.web.SessionAttributeMarshallingExtension;
 import org.jboss.marshalling.AbstractClassResolver;
+import org.jboss.marshalling.ClassExternalizerFactory;
+import org.jboss.marshalling.Externalizer;
 import org.jboss.marshalling.MarshallerFactory;
 import org.jboss.marshalling.Marshalling;
 import org.jboss.marshalling.MarshallingConfiguration;
@@ -56,9 +63,40 @@ public class SessionAttributeMarshallerFactoryImpl implements SessionAttributeMa
         MarshallingConfiguration configuration = new MarshallingConfiguration();
         ApplicationClassResolver resolver = new ApplicationClassResolver(manager);
         configuration.setClassResolver(resolver);
+        List<SessionAttributeMarshallingExtension> extensions = new ArrayList<SessionAttributeMarshallingExtension>();
+        List<Class<?>> classes = new ArrayList<Class<?>>();
+        for (SessionAttributeMarshallingExtension extension : ServiceLoader.load(SessionAttributeMarshallingExtension.class, manager.getApplicationClassLoader())) {
+            extensions.add(extension);
+            classes.addAll(extension.getClasses());
+        }
+        // Only change the stream format for applications that provide extensions, so that their sessions remain
+        // readable by nodes that do not use a class table
+        if (!extensions.isEmpty()) {
+            configuration.setClassTable(new SessionAttributeClassTable(classes));
+            configuration.setClassExternalizerFactory(new ExtensionClassExternalizerFactory(extensions));
+        }
         return new SessionAttributeMarshallerImpl(new MarshallingContext(this.factory, configuration));
     }
 
+    private static class ExtensionClassExternalizerFactory implements ClassExternalizerFactory {
+        private final List<SessionAttributeMarshallingExtension> extensions;
+
+        ExtensionClassExternalizerFactory(List<SessionAttributeMarshallingExtension> extensions) {
+            this.extensions = extensions;
+        }
+
+        @Override
+        public Externalizer getExternalizer(Class<?> type) {
+            for (SessionAttributeMarshallingExtension extension : this.extensions) {
+                Externalizer externalizer = extension.getExternalizer(type);
+                if (externalizer != null) {
+                    return externalizer;
+                }
+            }
+            return null;
+        }
+    }
+
     private static class ApplicationClassResolver extends AbstractClassResolver {
         private final LocalDistributableSessionManager manager;
 
@@ -21,22 +21,39 @@
  */
 package org.jboss.as.clustering.web.impl;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.jboss.as.clustering.MarshallingContext;
 import org.jboss.as.clustering.SimpleMarshalledValue;
 import org.jboss.as.clustering.web.SessionAttributeMarshaller;
+import org.jboss.as.clustering.web.SessionAttributeMarshallingStatistics;
+import org.jboss.marshalling.Marshaller;
+import org.jboss.marshalling.Marshalling;
 
 import static org.jboss.as.clustering.web.impl.ClusteringWebMessages.MESSAGES;
 
 /**
  * Session attribute marshaller that marshals attribute values using a {@link SimpleCachableMarshalledValue}.
+ * Values are serialized once, when marshalled, so that replicating them to several nodes or to a cache store does not
+ * serialize them again.
  *
  * @author Paul Ferraro
  */
-public class SessionAttributeMarshallerImpl implements SessionAttributeMarshaller {
+public class SessionAttributeMarshallerImpl implements SessionAttributeMarshaller, SessionAttributeMarshallingStatistics {
+    private static final Set<Class<?>> EXCLUDED_TYPES = Collections.<Class<?>>unmodifiableSet(new HashSet<Class<?>>(Arrays.<Class<?>>asList(
+            String.class, Void.class, Boolean.class, Character.class, Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class)));
+
     private final MarshallingContext context;
+    private final AtomicLong marshalledCount = new AtomicLong();
+    private final AtomicLong marshalledBytes = new AtomicLong();
+    private final AtomicLong marshalTime = new AtomicLong();
 
     public SessionAttributeMarshallerImpl(MarshallingContext context) {
         this.context = context;
@@ -55,7 +72,21 @@ public class SessionAttributeMarshallerImpl implements SessionAttributeMarshalle
         if (!(value instanceof Serializable)) {
             throw MESSAGES.interfaceNotImplemented(value, Serializable.class.getName());
         }
-        return new SimpleMarshalledValue<Object>(value, this.context);
+        long start = System.nanoTime();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Marshaller marshaller = this.context.createMarshaller();
+        try {
+            marshaller.start(Marshalling.createByteOutput(output));
+            marshaller.writeObject(value);
+            marshaller.finish();
+        } finally {
+            marshaller.close();
+        }
+        byte[] bytes = output.toByteArray();
+        this.marshalledCount.incrementAndGet();
+        this.marshalledBytes.addAndGet(bytes.length);
+        this.marshalTime.addAndGet(System.nanoTime() - start);
+        return SimpleMarshalledValue.fromBytes(bytes, this.context);
     }
 
     /**
@@ -72,10 +103,37 @@ public class SessionAttributeMarshallerImpl implements SessionAttributeMarshalle
         return value.get(this.context);
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.jboss.as.clustering.web.SessionAttributeMarshallingStatistics#getMarshalledCount()
+     */
+    @Override
+    public long getMarshalledCount() {
+        return this.marshalledCount.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.jboss.as.clustering.web.SessionAttributeMarshallingStatistics#getMarshalledBytes()
+     */
+    @Override
+    public long getMarshalledBytes() {
+        return this.marshalledBytes.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.jboss.as.clustering.web.SessionAttributeMarshallingStatistics#getMarshalTime()
+     */
+    @Override
+    public long getMarshalTime() {
+        return this.marshalTime.get() / 1000000;
+    }
+
     public static boolean isTypeExcluded(Class<?> type) {
-        return type.equals(String.class) || type.isPrimitive() || type.equals(Void.class) || type.equals(Boolean.class)
-                || type.equals(Character.class) || type.equals(Byte.class) || type.equals(Short.class)
-                || type.equals(Integer.class) || type.equals(Long.class) || type.equals(Float.class)
-                || type.equals(Double.class) || (type.isArray() && isTypeExcluded(type.getComponentType()));
+        return type.isPrimitive() || EXCLUDED_TYPES.contains(type) || (type.isArray() && isTypeExcluded(type.getComponentType()));
     }
 }
@@ -23,6 +23,7 @@ package org.jboss.as.clustering.web.impl;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.Date;
 
 import org.jboss.as.clustering.MarshallingContext;
@@ -74,6 +75,57 @@ public class SessionAttributeMarshallerTest {
         this.test(new Object(), false);
     }
 
+    @Test
+    public void metrics() throws IOException, ClassNotFoundException {
+        SessionAttributeMarshallerImpl marshaller = new SessionAttributeMarshallerImpl(new MarshallingContext(Marshalling.getMarshallerFactory("river", Marshalling.class.getClassLoader()), new MarshallingConfiguration()));
+        marshaller.marshal("test");
+        assertEquals(0, marshaller.getMarshalledCount());
+        assertEquals(0, marshaller.getMarshalledBytes());
+        marshaller.marshal(new Date());
+        assertEquals(1, marshaller.getMarshalledCount());
+        assertTrue(marshaller.getMarshalledBytes() > 0);
+    }
+
+    @Test
+    public void classTable() throws IOException, ClassNotFoundException {
+        MarshallingConfiguration configuration = new MarshallingConfiguration();
+        configuration.setClassTable(new SessionAttributeClassTable(Collections.<Class<?>>singletonList(Person.class)));
+        SessionAttributeMarshallerImpl tableMarshaller = new SessionAttributeMarshallerImpl(new MarshallingContext(Marshalling.getMarshallerFactory("river", Marshalling.class.getClassLoader()), configuration));
+        SessionAttributeMarshallerImpl defaultMarshaller = new SessionAttributeMarshallerImpl(new MarshallingContext(Marshalling.getMarshallerFactory("river", Marshalling.class.getClassLoader()), new MarshallingConfiguration()));
+
+        Person person = new Person("test", new Date(0));
+        Object marshalled = tableMarshaller.marshal(person);
+        defaultMarshaller.marshal(person);
+        assertTrue(tableMarshaller.getMarshalledBytes() < defaultMarshaller.getMarshalledBytes());
+
+        Object unmarshalled = tableMarshaller.unmarshal(marshalled);
+        assertNotSame(person, unmarshalled);
+        assertEquals(person, unmarshalled);
+    }
+
+    static class Person implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final String name;
+        private final Date birthday;
+
+        Person(String name, Date birthday) {
+            this.name = name;
+            this.birthday = birthday;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (!(object instanceof Person)) return false;
+            Person person = (Person) object;
+            return this.name.equals(person.name) && this.birthday.equals(person.birthday);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.name.hashCode();
+        }
+    }
+
     private void test(Object original, boolean same) throws IOException, ClassNotFoundException {
         try {
             Object marshalled = this.marshaller.marshal(original);
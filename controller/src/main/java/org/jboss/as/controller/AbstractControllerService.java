@@ -29,6 +29,7 @@ import org.jboss.as.controller.client.OperationMessageHandler;
 import org.jboss.as.controller.descriptions.DescriptionProvider;
 import org.jboss.as.controller.persistence.ConfigurationPersistenceException;
 import org.jboss.as.controller.persistence.ConfigurationPersister;
+import org.jboss.as.controller.persistence.JournalingConfigurationPersister;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.controller.registry.Resource;
 import org.jboss.dmr.ModelNode;
@@ -41,8 +42,14 @@ import org.jboss.msc.service.StartException;
 import org.jboss.msc.service.StopContext;
 import org.jboss.msc.value.InjectedValue;
 
+import static org.jboss.as.controller.ControllerLogger.MGMT_OP_LOGGER;
 import static org.jboss.as.controller.ControllerLogger.ROOT_LOGGER;
 import static org.jboss.as.controller.ControllerMessages.MESSAGES;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.FAILURE_DESCRIPTION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OUTCOME;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUCCESS;
 
 /**
  * A base class for controller services.
@@ -223,10 +230,34 @@ public abstract class AbstractControllerService implements Service<ModelControll
     protected void finishBoot() throws ConfigurationPersistenceException {
         controller.finishBoot();
         configurationPersister.successfulBoot();
+        if (configurationPersister instanceof JournalingConfigurationPersister) {
+            replayJournal((JournalingConfigurationPersister) configurationPersister);
+        }
+    }
+
+    /**
+     * Executes the operations recovered from the configuration journal again, stopping at the first one that fails.
+     */
+    private void replayJournal(final JournalingConfigurationPersister persister) {
+        try {
+            for (ModelNode operation : persister.getRecoveredOperations()) {
+                final ModelNode result = controller.execute(operation, OperationMessageHandler.logging, ModelController.OperationTransactionControl.COMMIT, null);
+                if (!SUCCESS.equals(result.get(OUTCOME).asString())) {
+                    MGMT_OP_LOGGER.operationFailed(operation.get(OP), operation.get(OP_ADDR), result.get(FAILURE_DESCRIPTION));
+                    break;
+                }
+            }
+        } finally {
+            persister.recoveryComplete();
+        }
     }
 
     public void stop(final StopContext context) {
         controller = null;
+        if (configurationPersister instanceof JournalingConfigurationPersister) {
+            // Make sure the configuration file reflects all journalled changes
+            ((JournalingConfigurationPersister) configurationPersister).stop();
+        }
     }
 
     public ModelController getValue() throws IllegalStateException, IllegalArgumentException {
@@ -34,6 +34,7 @@ import javax.xml.stream.XMLStreamWriter;
 import java.io.Closeable;
 
 import static org.jboss.logging.Logger.Level.ERROR;
+import static org.jboss.logging.Logger.Level.INFO;
 import static org.jboss.logging.Logger.Level.WARN;
 
 /**
@@ -273,4 +274,67 @@ public interface ControllerLogger extends BasicLogger {
     @LogMessage(level = Logger.Level.DEBUG)
     @Message(id = 14616, value = "Operation (%s) failed - address: (%s) - failure description: %s")
     void operationFailedOnClientError(ModelNode op, ModelNode opAddress, ModelNode failureDescription);
+
+    /**
+     * Logs an informational message indicating configuration changes were recovered from a configuration journal.
+     *
+     * @param count   the number of recovered changes.
+     * @param journal the name of the journal file.
+     * @param name    the name of the configuration file the changes were written to.
+     */
+    @LogMessage(level = INFO)
+    @Message(id = 14617, value = "Recovered %d configuration changes from %s into %s")
+    void recoveredConfigurationJournal(int count, String journal, String name);
+
+    /**
+     * Logs a warning message indicating a configuration journal was discarded, because the process boots from a
+     * different configuration file than the one the journal belongs to.
+     *
+     * @param journal the name of the journal file.
+     * @param name    the name of the configuration file the journal belongs to.
+     */
+    @LogMessage(level = WARN)
+    @Message(id = 14618, value = "Discarding configuration journal %s, as the configuration is not booted from %s")
+    void discardingConfigurationJournal(String journal, String name);
+
+    /**
+     * Logs a warning message indicating an incomplete record at the end of a configuration journal was ignored.
+     *
+     * @param journal the name of the journal file.
+     */
+    @LogMessage(level = WARN)
+    @Message(id = 14619, value = "Ignoring incomplete record at the end of configuration journal %s")
+    void incompleteConfigurationJournalRecord(String journal);
+
+    /**
+     * Logs an error message indicating a failure to write to a configuration journal.
+     *
+     * @param cause   the cause of the error.
+     * @param journal the name of the journal file.
+     */
+    @LogMessage(level = ERROR)
+    @Message(id = 14620, value = "Failed to write configuration journal %s")
+    void failedToWriteConfigurationJournal(@Cause Throwable cause, String journal);
+
+    /**
+     * Logs a warning message indicating configuration changes recovered from a configuration journal were discarded,
+     * because one of them could not be applied again.
+     *
+     * @param count   the number of discarded changes.
+     * @param journal the name of the journal file.
+     */
+    @LogMessage(level = WARN)
+    @Message(id = 14621, value = "Discarding %d configuration changes recovered from %s, as they could not all be applied again")
+    void discardingRecoveredConfigurationChanges(int count, String journal);
+
+    /**
+     * Logs a warning message indicating the records of a configuration journal were ignored from the given one onwards,
+     * because it does not directly follow the previous one.
+     *
+     * @param sequence the sequence number of the record.
+     * @param journal  the name of the journal file.
+     */
+    @LogMessage(level = WARN)
+    @Message(id = 14622, value = "Ignoring configuration journal %2$s from record %1$d onwards, as it does not follow the previous record")
+    void unexpectedConfigurationJournalRecord(long sequence, String journal);
 }
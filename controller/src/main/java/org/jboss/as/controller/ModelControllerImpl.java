@@ -54,7 +54,9 @@ import org.jboss.as.controller.operations.common.ParallelExtensionAddHandler;
 import org.jboss.as.controller.operations.common.Util;
 import org.jboss.as.controller.persistence.ConfigurationPersistenceException;
 import org.jboss.as.controller.persistence.ConfigurationPersister;
+import org.jboss.as.controller.persistence.JournalingConfigurationPersister;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
+import org.jboss.as.controller.registry.OperationEntry;
 import org.jboss.as.controller.registry.Resource;
 import org.jboss.dmr.ModelNode;
 import org.jboss.msc.service.ServiceListener;
@@ -109,7 +111,7 @@ class ModelControllerImpl implements ModelController {
         if (restartResourceServices) {
             contextFlags.add(OperationContextImpl.ContextFlag.ALLOW_RESOURCE_SERVICE_RESTART);
         }
-        OperationContextImpl context = new OperationContextImpl(this, controllerType, contextFlags, handler, attachments, model, control, processState, bootingFlag.get());
+        OperationContextImpl context = new OperationContextImpl(this, controllerType, contextFlags, handler, attachments, model, control, processState, bootingFlag.get(), journaledOperation(operation));
         ModelNode response = new ModelNode();
         context.addStep(response, operation, prepareStep, OperationContext.Stage.MODEL);
 
@@ -127,10 +129,33 @@ class ModelControllerImpl implements ModelController {
         return response;
     }
 
+    /**
+     * Copies the operation so the journaling persister can record it as it was before execution. No copy is made if
+     * the persister does not journal operations, or if the operation does not modify the model.
+     *
+     * @param operation the operation
+     * @return the copy, or {@code null} if the operation will not be journaled
+     */
+    private ModelNode journaledOperation(final ModelNode operation) {
+        if (!(persister instanceof JournalingConfigurationPersister) || !operation.hasDefined(OP)) {
+            return null;
+        }
+        try {
+            final PathAddress address = operation.hasDefined(OP_ADDR) ? PathAddress.pathAddress(operation.get(OP_ADDR)) : PathAddress.EMPTY_ADDRESS;
+            final Set<OperationEntry.Flag> flags = rootRegistration.getOperationFlags(address, operation.get(OP).asString());
+            if (flags != null && flags.contains(OperationEntry.Flag.READ_ONLY)) {
+                return null;
+            }
+        } catch (IllegalArgumentException e) {
+            // an invalid address, the operation will fail and report it
+        }
+        return operation.clone();
+    }
+
     void boot(final List<ModelNode> bootList, final OperationMessageHandler handler, final OperationTransactionControl control) {
 
         final OperationContextImpl context = new OperationContextImpl(this, controllerType, EnumSet.noneOf(OperationContextImpl.ContextFlag.class),
-                handler, null, model, control, processState, bootingFlag.get());
+                handler, null, model, control, processState, bootingFlag.get(), null);
 
         // Add to the context all ops prior to the first ExtensionAddHandler as well as all ExtensionAddHandlers; save the rest.
         // This gets extensions registered before proceeding to other ops that count on these registrations
@@ -141,7 +166,7 @@ class ModelControllerImpl implements ModelController {
 
             // Success. Now any extension handlers are registered. Continue with remaining ops
             final OperationContextImpl postExtContext = new OperationContextImpl(this, controllerType, EnumSet.noneOf(OperationContextImpl.ContextFlag.class),
-                    handler, null, model, control, processState, bootingFlag.get());
+                    handler, null, model, control, processState, bootingFlag.get(), null);
 
             for (ParsedBootOp parsedOp : postExtensionOps) {
                 final OperationStepHandler stepHandler = parsedOp.handler == null ? rootRegistration.getOperationHandler(parsedOp.address, parsedOp.operationName) : parsedOp.handler;
@@ -344,9 +369,14 @@ class ModelControllerImpl implements ModelController {
         };
     }
 
-    ConfigurationPersister.PersistenceResource writeModel(final Resource resource, Set<PathAddress> affectedAddresses) throws ConfigurationPersistenceException {
+    ConfigurationPersister.PersistenceResource writeModel(final Resource resource, Set<PathAddress> affectedAddresses, final ModelNode operation) throws ConfigurationPersistenceException {
         final ModelNode newModel = Resource.Tools.readModel(resource);  // Get the model representation
-        final ConfigurationPersister.PersistenceResource delegate = persister.store(newModel, affectedAddresses);
+        final ConfigurationPersister.PersistenceResource delegate;
+        if (operation != null && persister instanceof JournalingConfigurationPersister) {
+            delegate = ((JournalingConfigurationPersister) persister).store(newModel, affectedAddresses, operation);
+        } else {
+            delegate = persister.store(newModel, affectedAddresses);
+        }
         return new ConfigurationPersister.PersistenceResource() {
 
             @Override
@@ -362,6 +392,17 @@ class ModelControllerImpl implements ModelController {
         };
     }
 
+    /**
+     * Get a copy of the current model that can be modified by an operation holding the controller lock.
+     *
+     * @return the copy
+     *
+     * @see Resource.Tools#copyForUpdate(Resource)
+     */
+    Resource copyModelForUpdate() {
+        return Resource.Tools.copyForUpdate(model.getDelegate());
+    }
+
     void acquireLock(final boolean interruptibly) throws InterruptedException {
         if (interruptibly) {
             //noinspection LockAcquiredButNotSafelyReleased
@@ -430,7 +471,7 @@ class ModelControllerImpl implements ModelController {
 
     /**
      * The root resource, maintains a read-only reference to the current model. All write operations have to performed
-     * after acquiring the write lock on a clone of the underlying model.
+     * after acquiring the write lock on a copy of the underlying model, obtained through {@link #copyModelForUpdate()}.
      */
     private class RootResource implements Resource {
 
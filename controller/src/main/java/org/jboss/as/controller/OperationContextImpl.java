@@ -97,11 +97,13 @@ final class OperationContextImpl extends AbstractOperationContext {
     private Step lockStep;
     /** The step that acquired the container monitor  */
     private Step containerMonitorStep;
+    /** The operation executed by this context, {@code null} for boot */
+    private final ModelNode operation;
 
     OperationContextImpl(final ModelControllerImpl modelController, final Type contextType, final EnumSet<ContextFlag> contextFlags,
                             final OperationMessageHandler messageHandler, final OperationAttachments attachments,
                             final Resource model, final ModelController.OperationTransactionControl transactionControl,
-                            final ControlledProcessState processState, final boolean booting) {
+                            final ControlledProcessState processState, final boolean booting, final ModelNode operation) {
         super(contextType, transactionControl, processState);
         this.booting = booting;
         this.model = model;
@@ -112,6 +114,7 @@ final class OperationContextImpl extends AbstractOperationContext {
         this.affectsModel = booting ? new ConcurrentHashMap<PathAddress, Object>(16 * 16) : new HashMap<PathAddress, Object>(1);
         this.contextFlags = contextFlags;
         this.serviceTarget = new ContextServiceTarget(modelController);
+        this.operation = operation;
     }
 
     public InputStream getAttachmentStream(final int index) {
@@ -148,7 +151,9 @@ final class OperationContextImpl extends AbstractOperationContext {
 
     @Override
     ConfigurationPersister.PersistenceResource createPersistenceResource() throws ConfigurationPersistenceException {
-        return modelController.writeModel(model, affectsModel.keySet());
+        // An operation with attachments cannot be executed again, so it cannot be persisted in place of the model
+        final ModelNode operation = getAttachmentStreamCount() == 0 ? this.operation : null;
+        return modelController.writeModel(model, affectsModel.keySet(), operation);
     }
 
     public boolean isBooting() {
@@ -388,7 +393,7 @@ final class OperationContextImpl extends AbstractOperationContext {
         }
         if (!isModelAffected()) {
             takeWriteLock();
-            model = model.clone();
+            model = modelController.copyModelForUpdate();
         }
         affectsModel.put(address, NULL);
         Resource model = this.model;
@@ -410,10 +415,10 @@ final class OperationContextImpl extends AbstractOperationContext {
                     model.registerChild(element, newModel);
                     model = newModel;
                 } else {
-                    model = requireChild(model, element, address);
+                    model = requireChildForUpdate(model, element, address);
                 }
             } else {
-                model = requireChild(model, element, address);
+                model = requireChildForUpdate(model, element, address);
             }
         }
         if(model == null) {
@@ -448,7 +453,7 @@ final class OperationContextImpl extends AbstractOperationContext {
         }
         if (!isModelAffected()) {
             takeWriteLock();
-            model = model.clone();
+            model = modelController.copyModelForUpdate();
         }
         affectsModel.put(address, NULL);
         Resource resource = this.model;
@@ -456,8 +461,10 @@ final class OperationContextImpl extends AbstractOperationContext {
             if (element.isMultiTarget()) {
                 throw MESSAGES.cannotWriteTo("*");
             }
-            resource = requireChild(resource, element, address);
+            resource = requireChildForUpdate(resource, element, address);
         }
+        // The caller may modify any descendant, not just the resource itself
+        Resource.Tools.copyDescendants(resource);
         return resource;
     }
 
@@ -487,7 +494,7 @@ final class OperationContextImpl extends AbstractOperationContext {
         }
         if (!isModelAffected()) {
             takeWriteLock();
-            model = model.clone();
+            model = modelController.copyModelForUpdate();
         }
         affectsModel.put(absoluteAddress, NULL);
         Resource model = this.model;
@@ -511,7 +518,7 @@ final class OperationContextImpl extends AbstractOperationContext {
                     model = toAdd;
                 }
             } else {
-                model = model.getChild(element);
+                model = model.hasChild(element) ? Resource.Tools.requireChildForUpdate(model, element) : null;
                 if (model == null) {
                     PathAddress ancestor = PathAddress.EMPTY_ADDRESS;
                     for (PathElement pe : absoluteAddress) {
@@ -538,7 +545,7 @@ final class OperationContextImpl extends AbstractOperationContext {
         }
         if (!isModelAffected()) {
             takeWriteLock();
-            model = model.clone();
+            model = modelController.copyModelForUpdate();
         }
         affectsModel.put(address, NULL);
         Resource model = this.model;
@@ -551,7 +558,7 @@ final class OperationContextImpl extends AbstractOperationContext {
             if (! i.hasNext()) {
                 model = model.removeChild(element);
             } else {
-                model = requireChild(model, element, address);
+                model = requireChildForUpdate(model, element, address);
             }
         }
         return model;
@@ -606,6 +613,12 @@ final class OperationContextImpl extends AbstractOperationContext {
         }
     }
 
+    private static Resource requireChildForUpdate(final Resource resource, final PathElement childPath, final PathAddress fullAddress) {
+        // Check for the child first, to get the same failure as requireChild
+        requireChild(resource, childPath, fullAddress);
+        return Resource.Tools.requireChildForUpdate(resource, childPath);
+    }
+
     private static Resource requireChild(final Resource resource, final PathElement childPath, final PathAddress fullAddress) {
         if (resource.hasChild(childPath)) {
             return resource.requireChild(childPath);
@@ -0,0 +1,73 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.controller.persistence;
+
+import java.util.List;
+import java.util.Set;
+
+import org.jboss.as.controller.PathAddress;
+import org.jboss.dmr.ModelNode;
+
+/**
+ * A {@link ConfigurationPersister} that can persist a change to the model by recording the operation that made it,
+ * instead of storing the whole model.
+ */
+public interface JournalingConfigurationPersister extends ConfigurationPersister {
+
+    /**
+     * Persist the given configuration model, which is the result of executing the given operation.
+     *
+     * @param model the model to persist
+     * @param affectedAddresses the addresses of the resources the operation changed
+     * @param operation the operation. Executing it again against the previous configuration must reproduce the model
+     *
+     * @return callback to use to control whether the stored model should be flushed to persistent storage
+     */
+    PersistenceResource store(ModelNode model, Set<PathAddress> affectedAddresses, ModelNode operation) throws ConfigurationPersistenceException;
+
+    /**
+     * Write any changes that have only been recorded as operations so far to permanent storage.
+     */
+    void flush();
+
+    /**
+     * Get the operations recovered by {@link #load()}, which were recorded after the configuration was last written to
+     * permanent storage. They are not part of the boot operations; the controller executes them again, in order, once
+     * the boot has completed, and stops at the first one that fails.
+     *
+     * @return the recovered operations, or an empty list if there are none
+     */
+    List<ModelNode> getRecoveredOperations();
+
+    /**
+     * Called once the controller has stopped executing the {@link #getRecoveredOperations() recovered operations}. The
+     * recovered operations which have not been executed again, i.e. the one that failed and those after it, are
+     * discarded.
+     */
+    void recoveryComplete();
+
+    /**
+     * Write any changes that have only been recorded as operations so far to permanent storage, and stop any background
+     * activity. Changes persisted afterwards are written to permanent storage right away, until the next boot.
+     */
+    void stop();
+}
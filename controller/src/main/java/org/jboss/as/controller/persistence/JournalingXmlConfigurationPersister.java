@@ -0,0 +1,640 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.persistence;
+
+import static org.jboss.as.controller.ControllerLogger.MGMT_OP_LOGGER;
+import static org.jboss.as.controller.ControllerLogger.ROOT_LOGGER;
+import static org.jboss.as.controller.ControllerMessages.MESSAGES;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OPERATION_HEADERS;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import javax.xml.namespace.QName;
+
+import org.jboss.as.controller.PathAddress;
+import org.jboss.dmr.ModelNode;
+import org.jboss.staxmapper.XMLElementReader;
+import org.jboss.staxmapper.XMLElementWriter;
+
+/**
+ * A {@link BackupXmlConfigurationPersister} which does not rewrite the configuration file for every change. Instead, the
+ * operations that changed the model are appended to a journal next to the configuration file when they commit, and the
+ * configuration file is rewritten in the background at a fixed interval, and when the persister is flushed.
+ * <p/>
+ * Each configuration file written is identified in the journal by a snapshot record, holding its hash and the sequence
+ * number of the last operation it includes. When the configuration is loaded, the journalled operations that are newer
+ * than the snapshot matching the configuration file, and follow it without a gap, are {@link #getRecoveredOperations()
+ * recovered}. They are not part of the boot operations: the controller executes them again once the boot has completed,
+ * so they are validated against the booted model, and stops at the first one that fails. A journal that matches no
+ * snapshot, e.g. because the configuration file was edited while the process was down, is discarded.
+ * <p/>
+ * Operations that cannot be executed again, e.g. because they have attachments, are not journalled. The configuration
+ * file is written as soon as they commit instead.
+ * <p/>
+ * Only the standalone server uses this persister. The host controller keeps writing its host and domain configuration
+ * files with a {@link BackupXmlConfigurationPersister}, whatever the value of {@link #JOURNAL_PROPERTY}.
+ */
+public class JournalingXmlConfigurationPersister extends BackupXmlConfigurationPersister implements JournalingConfigurationPersister {
+
+    /** System property which enables the configuration journal when set to {@code true}. */
+    public static final String JOURNAL_PROPERTY = "jboss.config.journal";
+    /** System property holding the interval in milliseconds at which journalled changes are written to the configuration file. */
+    public static final String JOURNAL_INTERVAL_PROPERTY = "jboss.config.journal.interval";
+
+    private static final long DEFAULT_INTERVAL = 30000;
+    private static final String JOURNAL_SUFFIX = ".journal";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final byte SNAPSHOT = 1;
+    private static final byte OPERATION = 2;
+
+    private final File mainFile;
+    private final File journalFile;
+    private final long interval;
+    /** Guards the journal and the state below */
+    private final Object lock = new Object();
+    /** Serializes writes of the configuration file */
+    private final Object writeLock = new Object();
+    private FileOutputStream journalOutput;
+    private DataOutputStream journal;
+    /** The snapshot matching the current configuration file */
+    private Record snapshot;
+    /** The operation records committed after the current snapshot */
+    private final List<Record> operations = new ArrayList<Record>();
+    /** The recovered operation records which have not been executed again yet */
+    private final List<Record> recovered = new ArrayList<Record>();
+    private long sequence;
+    /** The latest committed model, if it has not been written to the configuration file yet */
+    private ModelNode latestModel;
+    private long latestSequence;
+    private ScheduledExecutorService executor;
+
+    /**
+     * Construct a new instance.
+     *
+     * @param file the configuration base file
+     * @param rootElement the root element of the configuration file
+     * @param rootParser the root model parser
+     * @param rootDeparser the root model deparser
+     */
+    public JournalingXmlConfigurationPersister(final ConfigurationFile file, final QName rootElement, final XMLElementReader<List<ModelNode>> rootParser, final XMLElementWriter<ModelMarshallingContext> rootDeparser) {
+        super(file, rootElement, rootParser, rootDeparser);
+        this.mainFile = file.getMainFile();
+        this.journalFile = new File(mainFile.getParentFile(), mainFile.getName() + JOURNAL_SUFFIX);
+        this.interval = Long.getLong(JOURNAL_INTERVAL_PROPERTY, DEFAULT_INTERVAL);
+    }
+
+    /**
+     * Determine whether the configuration journal is enabled.
+     *
+     * @return {@code true} if the {@link #JOURNAL_PROPERTY} system property is set to {@code true}. Only the standalone
+     *         server checks it
+     */
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(JOURNAL_PROPERTY);
+    }
+
+    @Override
+    public List<ModelNode> load() throws ConfigurationPersistenceException {
+        final List<ModelNode> updates = super.load();
+        recover();
+        return updates;
+    }
+
+    @Override
+    public List<ModelNode> getRecoveredOperations() {
+        synchronized (lock) {
+            final List<ModelNode> result = new ArrayList<ModelNode>(recovered.size());
+            for (Record record : recovered) {
+                result.add(record.getReplayOperation());
+            }
+            return result;
+        }
+    }
+
+    @Override
+    public void recoveryComplete() {
+        synchronized (lock) {
+            if (recovered.isEmpty()) {
+                return;
+            }
+            ROOT_LOGGER.discardingRecoveredConfigurationChanges(recovered.size(), journalFile.getName());
+            operations.removeAll(recovered);
+            recovered.clear();
+            if (journal != null) {
+                try {
+                    rewriteJournal();
+                } catch (IOException e) {
+                    ROOT_LOGGER.failedToWriteConfigurationJournal(e, journalFile.getName());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void successfulBoot() throws ConfigurationPersistenceException {
+        super.successfulBoot();
+        synchronized (lock) {
+            if (journal != null) {
+                return;
+            }
+            try {
+                if (snapshot == null) {
+                    snapshot = new Record(SNAPSHOT, sequence, hash(mainFile), null);
+                }
+                rewriteJournal();
+            } catch (IOException e) {
+                throw MESSAGES.failedToStoreConfiguration(e);
+            }
+            if (executor == null) {
+                executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                    public Thread newThread(final Runnable r) {
+                        final Thread thread = new Thread(r, "Configuration Journal Writer");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+                executor.scheduleWithFixedDelay(new Runnable() {
+                    public void run() {
+                        writeConfiguration();
+                    }
+                }, interval, interval, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    @Override
+    public PersistenceResource store(final ModelNode model, final Set<PathAddress> affectedAddresses) throws ConfigurationPersistenceException {
+        return store(model, affectedAddresses, null);
+    }
+
+    @Override
+    public PersistenceResource store(final ModelNode model, final Set<PathAddress> affectedAddresses, final ModelNode operation) throws ConfigurationPersistenceException {
+        synchronized (lock) {
+            if (journal == null) {
+                // Not booted yet
+                return super.store(model, affectedAddresses);
+            }
+        }
+        final Record record;
+        if (operation != null) {
+            try {
+                record = new Record(OPERATION, 0, null, operation);
+            } catch (IOException e) {
+                throw MESSAGES.failedToMarshalConfiguration(e);
+            }
+        } else {
+            record = null;
+        }
+        return new PersistenceResource() {
+            @Override
+            public void commit() {
+                if (!append(model, record)) {
+                    // Not journalled, so write the configuration file right away
+                    writeConfiguration();
+                }
+            }
+
+            @Override
+            public void rollback() {
+            }
+        };
+    }
+
+    @Override
+    public void flush() {
+        writeConfiguration();
+    }
+
+    @Override
+    public void stop() {
+        final ScheduledExecutorService executor;
+        synchronized (lock) {
+            executor = this.executor;
+            this.executor = null;
+        }
+        if (executor != null) {
+            // A write in progress completes before the one below starts
+            executor.shutdown();
+        }
+        writeConfiguration();
+        synchronized (lock) {
+            // Stores go straight to the configuration file until the next boot opens the journal again
+            safeClose(journal);
+            journal = null;
+            journalOutput = null;
+            recovered.clear();
+        }
+    }
+
+    @Override
+    public String snapshot() throws ConfigurationPersistenceException {
+        writeConfiguration();
+        return super.snapshot();
+    }
+
+    private boolean append(final ModelNode model, final Record record) {
+        synchronized (lock) {
+            latestModel = model;
+            if (record != null && !recovered.isEmpty() && recovered.get(0).getReplayOperation().equals(record.getReplayOperation())) {
+                // The replay of a recovered operation, which is still in the journal
+                latestSequence = recovered.remove(0).sequence;
+                return journal != null;
+            }
+            latestSequence = ++sequence;
+            if (record == null || journal == null) {
+                return false;
+            }
+            try {
+                final Record sequenced = record.withSequence(latestSequence);
+                writeRecord(sequenced);
+                operations.add(sequenced);
+                return true;
+            } catch (IOException e) {
+                ROOT_LOGGER.failedToWriteConfigurationJournal(e, journalFile.getName());
+                return false;
+            }
+        }
+    }
+
+    private void writeConfiguration() {
+        synchronized (writeLock) {
+            final ModelNode model;
+            final long modelSequence;
+            synchronized (lock) {
+                if (latestModel == null) {
+                    return;
+                }
+                model = latestModel;
+                modelSequence = latestSequence;
+                latestModel = null;
+            }
+            try {
+                final ExposedByteArrayOutputStream marshalled = new ExposedByteArrayOutputStream(1024 * 8);
+                try {
+                    final BufferedOutputStream output = new BufferedOutputStream(marshalled);
+                    marshallAsXml(model, output);
+                    output.close();
+                    marshalled.close();
+                } finally {
+                    safeClose(marshalled);
+                }
+                final Record written = new Record(SNAPSHOT, modelSequence, hash(marshalled.getInputStream()), null);
+
+                // Record the snapshot before writing the file, so recovery still works after a crash in between
+                synchronized (lock) {
+                    if (journal != null) {
+                        writeRecord(written);
+                    }
+                }
+                writeFile(marshalled.getInputStream());
+                configurationFile.fileWritten();
+
+                // Only compact the journal once the new configuration file is durable
+                synchronized (lock) {
+                    snapshot = written;
+                    final Iterator<Record> iterator = operations.iterator();
+                    while (iterator.hasNext()) {
+                        if (iterator.next().sequence <= modelSequence) {
+                            iterator.remove();
+                        }
+                    }
+                    if (journal != null) {
+                        rewriteJournal();
+                    }
+                }
+            } catch (Exception e) {
+                MGMT_OP_LOGGER.failedToStoreConfiguration(e, mainFile.getName());
+                synchronized (lock) {
+                    // Try again next time, unless a newer model was committed meanwhile
+                    if (latestModel == null) {
+                        latestModel = model;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the configuration file to a temporary file first, and only replaces the configuration file with it once it
+     * has been synced to disk, so a crash never leaves a partially written configuration file behind.
+     */
+    private void writeFile(final InputStream is) throws IOException, ConfigurationPersistenceException {
+        final File temp = new File(mainFile.getParentFile(), mainFile.getName() + TEMP_SUFFIX);
+        final FileOutputStream fos = new FileOutputStream(temp);
+        try {
+            final BufferedOutputStream output = new BufferedOutputStream(fos);
+            final byte[] bytes = new byte[1024];
+            int read;
+            while ((read = is.read(bytes)) > -1) {
+                output.write(bytes, 0, read);
+            }
+            output.flush();
+            fos.getFD().sync();
+            output.close();
+            is.close();
+        } finally {
+            safeClose(fos);
+            safeClose(is);
+        }
+        configurationFile.backup();
+        rename(temp, mainFile);
+    }
+
+    /**
+     * Reads the journal, and recovers the operations which are not included in the configuration file yet. Only the
+     * operations which directly follow the snapshot matching the configuration file, without a gap in their sequence
+     * numbers, are recovered.
+     */
+    private void recover() throws ConfigurationPersistenceException {
+        synchronized (lock) {
+            recovered.clear();
+        }
+        if (!journalFile.exists()) {
+            return;
+        }
+        if (!mainFile.equals(configurationFile.getBootFile())) {
+            // The main file will be replaced with the boot file
+            ROOT_LOGGER.discardingConfigurationJournal(journalFile.getName(), mainFile.getName());
+            journalFile.delete();
+            return;
+        }
+        final List<Record> records = new ArrayList<Record>();
+        final byte[] hash;
+        try {
+            readJournal(records);
+            hash = hash(mainFile);
+        } catch (IOException e) {
+            throw MESSAGES.failedToParseConfiguration(e);
+        }
+        Record current = null;
+        for (Record record : records) {
+            if (record.type == SNAPSHOT && Arrays.equals(record.hash, hash)) {
+                current = record;
+            }
+        }
+        if (current == null) {
+            ROOT_LOGGER.discardingConfigurationJournal(journalFile.getName(), mainFile.getName());
+            journalFile.delete();
+            return;
+        }
+        final int count;
+        synchronized (lock) {
+            snapshot = current;
+            sequence = current.sequence;
+            operations.clear();
+            // Operations are appended in sequence, a snapshot record may follow operations committed after it
+            for (Record record : records) {
+                if (record.type == OPERATION && record.sequence > current.sequence) {
+                    if (record.sequence != sequence + 1) {
+                        // Not appended by this persister right after the previous operation
+                        ROOT_LOGGER.unexpectedConfigurationJournalRecord(record.sequence, journalFile.getName());
+                        break;
+                    }
+                    operations.add(record);
+                    sequence = record.sequence;
+                }
+            }
+            recovered.addAll(operations);
+            count = recovered.size();
+        }
+        if (count > 0) {
+            ROOT_LOGGER.recoveredConfigurationJournal(count, journalFile.getName(), mainFile.getName());
+        }
+    }
+
+    private void readJournal(final List<Record> records) throws IOException {
+        final DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(journalFile)));
+        try {
+            for (;;) {
+                final int type = input.read();
+                if (type == -1) {
+                    break;
+                }
+                final Record record = Record.read((byte) type, input, journalFile.length());
+                if (record == null) {
+                    // A torn write at the end of the journal, from a crash while appending to it
+                    ROOT_LOGGER.incompleteConfigurationJournalRecord(journalFile.getName());
+                    break;
+                }
+                records.add(record);
+            }
+        } finally {
+            safeClose(input);
+        }
+    }
+
+    private void writeRecord(final Record record) throws IOException {
+        journal.write(record.encoded);
+        journal.flush();
+        journalOutput.getFD().sync();
+    }
+
+    /**
+     * Replaces the journal with one that only holds the current snapshot and the operations committed after it.
+     */
+    private void rewriteJournal() throws IOException {
+        final File temp = new File(journalFile.getParentFile(), journalFile.getName() + ".tmp");
+        final FileOutputStream fos = new FileOutputStream(temp);
+        try {
+            final BufferedOutputStream output = new BufferedOutputStream(fos);
+            output.write(snapshot.encoded);
+            for (Record record : operations) {
+                output.write(record.encoded);
+            }
+            output.flush();
+            fos.getFD().sync();
+            output.close();
+        } finally {
+            safeClose(fos);
+        }
+        if (journal != null) {
+            safeClose(journal);
+            journal = null;
+            journalOutput = null;
+        }
+        rename(temp, journalFile);
+        journalOutput = new FileOutputStream(journalFile, true);
+        journal = new DataOutputStream(new BufferedOutputStream(journalOutput));
+    }
+
+    private static void rename(final File source, final File target) throws IOException {
+        if (!source.renameTo(target)) {
+            // Windows does not rename over an existing file
+            target.delete();
+            if (!source.renameTo(target)) {
+                throw new IOException(source.getAbsolutePath());
+            }
+        }
+    }
+
+    private static byte[] hash(final File file) throws IOException {
+        return hash(new FileInputStream(file));
+    }
+
+    private static byte[] hash(final InputStream is) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try {
+            final byte[] bytes = new byte[8192];
+            int read;
+            while ((read = is.read(bytes)) > -1) {
+                digest.update(bytes, 0, read);
+            }
+        } finally {
+            safeClose(is);
+        }
+        return digest.digest();
+    }
+
+    private static void safeClose(final Closeable closeable) {
+        if (closeable != null) try {
+            closeable.close();
+        } catch (Throwable t) {
+            ROOT_LOGGER.failedToCloseResource(t, closeable);
+        }
+    }
+
+    /**
+     * A journal record. Either a snapshot, holding the hash of a configuration file and the sequence number of the last
+     * operation included in it, or an operation and its sequence number.
+     * <p/>
+     * Records are encoded as their type, the length of the payload, the payload and a CRC32 checksum of the payload.
+     */
+    private static final class Record {
+
+        private final byte type;
+        private final long sequence;
+        private final byte[] hash;
+        private final ModelNode operation;
+        private final byte[] encoded;
+
+        private Record(final byte type, final long sequence, final byte[] hash, final ModelNode operation) throws IOException {
+            this.type = type;
+            this.sequence = sequence;
+            this.hash = hash;
+            this.operation = operation;
+
+            final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+            final DataOutputStream out = new DataOutputStream(payload);
+            out.writeLong(sequence);
+            if (type == SNAPSHOT) {
+                out.writeShort(hash.length);
+                out.write(hash);
+            } else {
+                operation.writeExternal(out);
+            }
+            out.close();
+            final byte[] bytes = payload.toByteArray();
+            final CRC32 crc = new CRC32();
+            crc.update(bytes);
+
+            final ByteArrayOutputStream record = new ByteArrayOutputStream(bytes.length + 13);
+            final DataOutputStream recordOut = new DataOutputStream(record);
+            recordOut.writeByte(type);
+            recordOut.writeInt(bytes.length);
+            recordOut.write(bytes);
+            recordOut.writeLong(crc.getValue());
+            recordOut.close();
+            this.encoded = record.toByteArray();
+        }
+
+        Record withSequence(final long sequence) throws IOException {
+            return new Record(type, sequence, hash, operation);
+        }
+
+        /**
+         * @return a copy of the operation, as it is executed again after it has been recovered
+         */
+        ModelNode getReplayOperation() {
+            final ModelNode replay = operation.clone();
+            replay.remove(OPERATION_HEADERS);
+            return replay;
+        }
+
+        /**
+         * Reads the remainder of a record of the given type.
+         *
+         * @return the record, or {@code null} if the record is incomplete or corrupt
+         */
+        static Record read(final byte type, final DataInputStream input, final long maxLength) throws IOException {
+            if (type != SNAPSHOT && type != OPERATION) {
+                return null;
+            }
+            final byte[] bytes;
+            final long checksum;
+            try {
+                final int length = input.readInt();
+                if (length < 0 || length > maxLength) {
+                    return null;
+                }
+                bytes = new byte[length];
+                input.readFully(bytes);
+                checksum = input.readLong();
+            } catch (IOException e) {
+                return null;
+            }
+            final CRC32 crc = new CRC32();
+            crc.update(bytes);
+            if (crc.getValue() != checksum) {
+                return null;
+            }
+            final DataInputStream payload = new DataInputStream(new ByteArrayInputStream(bytes));
+            final long sequence = payload.readLong();
+            if (type == SNAPSHOT) {
+                final byte[] hash = new byte[payload.readShort()];
+                payload.readFully(hash);
+                return new Record(type, sequence, hash, null);
+            }
+            final ModelNode operation = new ModelNode();
+            operation.readExternal(payload);
+            return new Record(type, sequence, null, operation);
+        }
+    }
+}
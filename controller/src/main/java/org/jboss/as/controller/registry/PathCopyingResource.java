@@ -0,0 +1,299 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.controller.registry;
+
+import static org.jboss.as.controller.ControllerMessages.MESSAGES;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.dmr.ModelNode;
+
+/**
+ * {@link Resource} implementation that supports cheap copies for update through structural sharing.
+ * <p>
+ * A {@link #copyForUpdate() copy for update} only copies the local model, and shares the child resources with the
+ * original. Children are copied on demand, when they are navigated to with {@link #requireChildForUpdate(PathElement)}.
+ * Updating a single resource therefore only copies that resource and its ancestors, instead of the whole tree.
+ * </p>
+ * <p>
+ * Each copy tracks which of its children it owns, i.e. which are private copies it may modify in place. Children that
+ * are not owned may be shared with other copies, and must not be modified. Modifying a resource obtained through
+ * {@link #getChild(PathElement)} rather than {@link #requireChildForUpdate(PathElement)} is only safe if the whole
+ * subtree has been made private with {@link #copyDescendants()}. {@link #clone()} still returns a deep copy.
+ * </p>
+ * <p>Concurrency note: as with {@link BasicResource}, a copy cannot be made visible to other threads until all writes
+ * are complete. After that it must not be modified anymore, only copied.</p>
+ */
+class PathCopyingResource implements Resource {
+
+    /** The local model. */
+    private final ModelNode model = new ModelNode();
+    /** The children, by type and name. */
+    private final Map<String, Map<String, Resource>> children = new LinkedHashMap<String, Map<String, Resource>>();
+    /** The children this resource may modify in place. Guarded by children. */
+    private final Set<Resource> owned = Collections.newSetFromMap(new IdentityHashMap<Resource, Boolean>());
+
+    protected PathCopyingResource() {
+    }
+
+    @Override
+    public ModelNode getModel() {
+        return model;
+    }
+
+    @Override
+    public void writeModel(ModelNode newModel) {
+        model.set(newModel);
+    }
+
+    @Override
+    public boolean isModelDefined() {
+        return model.isDefined();
+    }
+
+    @Override
+    public Resource getChild(final PathElement address) {
+        synchronized (children) {
+            final Map<String, Resource> type = children.get(address.getKey());
+            return type == null ? null : type.get(address.getValue());
+        }
+    }
+
+    @Override
+    public boolean hasChild(final PathElement address) {
+        synchronized (children) {
+            final Map<String, Resource> type = children.get(address.getKey());
+            if(type == null) {
+                return false;
+            }
+            if(address.isWildcard()) {
+                return ! type.isEmpty();
+            }
+            return type.get(address.getValue()) != null;
+        }
+    }
+
+    @Override
+    public Resource requireChild(final PathElement address) {
+        final Resource resource = getChild(address);
+        if(resource == null) {
+            throw new NoSuchResourceException(address);
+        }
+        return resource;
+    }
+
+    @Override
+    public boolean hasChildren(final String childType) {
+        synchronized (children) {
+            final Map<String, Resource> type = children.get(childType);
+            return type != null && ! type.isEmpty();
+        }
+    }
+
+    @Override
+    public Resource navigate(final PathAddress address) {
+        return Resource.Tools.navigate(this, address);
+    }
+
+    @Override
+    public Set<String> getChildrenNames(final String childType) {
+        synchronized (children) {
+            final Map<String, Resource> type = children.get(childType);
+            if(type == null) {
+                return Collections.emptySet();
+            }
+            return new LinkedHashSet<String>(type.keySet());
+        }
+    }
+
+    @Override
+    public Set<String> getChildTypes() {
+        synchronized (children) {
+            return new LinkedHashSet<String>(children.keySet());
+        }
+    }
+
+    @Override
+    public Set<ResourceEntry> getChildren(final String childType) {
+        final Map<String, Resource> snapshot;
+        synchronized (children) {
+            final Map<String, Resource> type = children.get(childType);
+            if(type == null) {
+                return Collections.emptySet();
+            }
+            snapshot = new LinkedHashMap<String, Resource>(type);
+        }
+        final Set<ResourceEntry> entries = new LinkedHashSet<ResourceEntry>();
+        for(final Map.Entry<String, Resource> child : snapshot.entrySet()) {
+            final String name = child.getKey();
+            entries.add(new BasicResource.DelegateResource(child.getValue()) {
+                @Override
+                public String getName() {
+                    return name;
+                }
+
+                @Override
+                public PathElement getPathElement() {
+                    return PathElement.pathElement(childType, name);
+                }
+            });
+        }
+        return entries;
+    }
+
+    @Override
+    public void registerChild(final PathElement address, final Resource resource) {
+        if(address.isMultiTarget()) {
+            throw new IllegalArgumentException();
+        }
+        synchronized (children) {
+            Map<String, Resource> type = children.get(address.getKey());
+            if(type == null) {
+                type = new LinkedHashMap<String, Resource>();
+                children.put(address.getKey(), type);
+            } else if(type.containsKey(address.getValue())) {
+                throw MESSAGES.duplicateResource(address.getValue());
+            }
+            type.put(address.getValue(), resource);
+            // A newly registered resource belongs to whoever registers it
+            owned.add(resource);
+        }
+    }
+
+    @Override
+    public Resource removeChild(PathElement address) {
+        synchronized (children) {
+            final Map<String, Resource> type = children.get(address.getKey());
+            if(type == null) {
+                return null;
+            }
+            final Resource removed = type.remove(address.getValue());
+            if(removed != null) {
+                owned.remove(removed);
+            }
+            return removed;
+        }
+    }
+
+    @Override
+    public boolean isProxy() {
+        return false;
+    }
+
+    @Override
+    public boolean isRuntime() {
+        return false;
+    }
+
+    @SuppressWarnings({"CloneDoesntCallSuperClone"})
+    @Override
+    public Resource clone() {
+        final Resource clone = new PathCopyingResource();
+        clone.writeModel(model);
+        for(final String childType : getChildTypes()) {
+            for(final ResourceEntry child : getChildren(childType)) {
+                clone.registerChild(child.getPathElement(), child.clone());
+            }
+        }
+        return clone;
+    }
+
+    /**
+     * Create a copy of this resource that shares all children with this resource. The copy can be modified without
+     * affecting this resource, as long as its children are only modified after obtaining them with
+     * {@link #requireChildForUpdate(PathElement)}.
+     *
+     * @return the copy
+     */
+    PathCopyingResource copyForUpdate() {
+        final PathCopyingResource copy = new PathCopyingResource();
+        copy.writeModel(model);
+        synchronized (children) {
+            for(final Map.Entry<String, Map<String, Resource>> type : children.entrySet()) {
+                copy.children.put(type.getKey(), new LinkedHashMap<String, Resource>(type.getValue()));
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Get a child of this resource that can be modified in place. If this resource does not own the child yet, the child
+     * is replaced with a copy that it does own.
+     *
+     * @param address the path element
+     * @return the resource
+     * @throws NoSuchResourceException if the child does not exist
+     */
+    Resource requireChildForUpdate(final PathElement address) {
+        synchronized (children) {
+            final Map<String, Resource> type = children.get(address.getKey());
+            final Resource child = type == null ? null : type.get(address.getValue());
+            if(child == null) {
+                throw new NoSuchResourceException(address);
+            }
+            if(owned.contains(child)) {
+                return child;
+            }
+            final Resource copy = copy(child);
+            type.put(address.getValue(), copy);
+            owned.add(copy);
+            return copy;
+        }
+    }
+
+    /**
+     * Make all descendants of this resource private, so they can be modified in place.
+     */
+    void copyDescendants() {
+        synchronized (children) {
+            for(final Map<String, Resource> type : children.values()) {
+                for(final Map.Entry<String, Resource> child : type.entrySet()) {
+                    final Resource resource = child.getValue();
+                    if(owned.contains(resource)) {
+                        if(resource instanceof PathCopyingResource) {
+                            ((PathCopyingResource) resource).copyDescendants();
+                        }
+                    } else {
+                        final Resource copy = resource.clone();
+                        child.setValue(copy);
+                        owned.add(copy);
+                    }
+                }
+            }
+        }
+    }
+
+    private static Resource copy(final Resource resource) {
+        if(resource instanceof PathCopyingResource) {
+            return ((PathCopyingResource) resource).copyForUpdate();
+        }
+        return resource.clone();
+    }
+
+}
@@ -180,7 +180,7 @@ public interface Resource extends Cloneable {
          * @return the resource
          */
         public static Resource create() {
-            return new BasicResource();
+            return new PathCopyingResource();
         }
     }
 
@@ -271,6 +271,49 @@ public interface Resource extends Cloneable {
             return r;
         }
 
+        /**
+         * Get a copy of a resource that can be modified without affecting the original. Where supported, only the local
+         * model is copied and the children are shared with the original, until they are obtained for update through
+         * {@link #requireChildForUpdate(Resource, PathElement)}. Otherwise this is equivalent to {@link Resource#clone()}.
+         *
+         * @param resource the resource. Cannot be {@code null}
+         * @return the copy
+         */
+        public static Resource copyForUpdate(final Resource resource) {
+            if(resource instanceof PathCopyingResource) {
+                return ((PathCopyingResource) resource).copyForUpdate();
+            }
+            return resource.clone();
+        }
+
+        /**
+         * Get a child of a resource obtained through {@link #copyForUpdate(Resource)}, or through this method, such that
+         * the child's local model and its own children can be modified without affecting the original resource.
+         *
+         * @param resource the parent resource. Cannot be {@code null}
+         * @param element the path element of the child
+         * @return the child resource. Will not be {@code null}
+         * @throws java.util.NoSuchElementException if the child does not exist
+         */
+        public static Resource requireChildForUpdate(final Resource resource, final PathElement element) {
+            if(resource instanceof PathCopyingResource) {
+                return ((PathCopyingResource) resource).requireChildForUpdate(element);
+            }
+            return resource.requireChild(element);
+        }
+
+        /**
+         * Make sure all descendants of a resource obtained for update can be modified in place, even when navigated to
+         * through the regular {@link Resource} methods.
+         *
+         * @param resource the resource. Cannot be {@code null}
+         */
+        public static void copyDescendants(final Resource resource) {
+            if(resource instanceof PathCopyingResource) {
+                ((PathCopyingResource) resource).copyDescendants();
+            }
+        }
+
     }
 
     /**
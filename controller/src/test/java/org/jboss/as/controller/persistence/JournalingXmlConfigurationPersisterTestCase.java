@@ -0,0 +1,380 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.persistence;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OPERATION_HEADERS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Collections;
+import java.util.List;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.parsing.ParseUtils;
+import org.jboss.dmr.ModelNode;
+import org.jboss.staxmapper.XMLElementReader;
+import org.jboss.staxmapper.XMLElementWriter;
+import org.jboss.staxmapper.XMLExtendedStreamReader;
+import org.jboss.staxmapper.XMLExtendedStreamWriter;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests that {@link JournalingXmlConfigurationPersister} recovers the journalled operations which are not included in the
+ * configuration file, and only those, and that replaying them does not journal them twice.
+ */
+public class JournalingXmlConfigurationPersisterTestCase {
+
+    private static final String NAMESPACE = "urn:jboss:test:journal:1.0";
+    private static final QName ROOT = new QName(NAMESPACE, "config");
+    private static final String FILE_NAME = "test.xml";
+    private static final String VALUE = "value";
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private File configurationDir;
+    private File mainFile;
+    private File journalFile;
+
+    @Before
+    public void setUp() throws Exception {
+        configurationDir = folder.newFolder("configuration");
+        mainFile = new File(configurationDir, FILE_NAME);
+        journalFile = new File(configurationDir, FILE_NAME + ".journal");
+        writeConfiguration("initial");
+    }
+
+    @Test
+    public void testCommittedOperationsAreRecovered() throws Exception {
+        final JournalingXmlConfigurationPersister persister = boot();
+        commit(persister, "a");
+        commit(persister, "b");
+        assertTrue(journalFile.exists());
+
+        final JournalingXmlConfigurationPersister recovering = createPersister();
+        final List<ModelNode> operations = recovering.load();
+        assertEquals(1, operations.size());
+        assertBootOperation("initial", operations.get(0));
+        final List<ModelNode> recovered = recovering.getRecoveredOperations();
+        assertEquals(2, recovered.size());
+        assertJournalledOperation("a", recovered.get(0));
+        assertJournalledOperation("b", recovered.get(1));
+    }
+
+    @Test
+    public void testReplayedOperationsAreNotJournalledAgain() throws Exception {
+        final JournalingXmlConfigurationPersister persister = boot();
+        commit(persister, "a");
+        commit(persister, "b");
+
+        final JournalingXmlConfigurationPersister replaying = boot();
+        final List<ModelNode> recovered = replaying.getRecoveredOperations();
+        replay(replaying, "a", recovered.get(0));
+        replay(replaying, "b", recovered.get(1));
+        replaying.recoveryComplete();
+        commit(replaying, "c");
+
+        final List<ModelNode> operations = recover();
+        assertEquals(3, operations.size());
+        assertJournalledOperation("a", operations.get(0));
+        assertJournalledOperation("b", operations.get(1));
+        assertJournalledOperation("c", operations.get(2));
+    }
+
+    @Test
+    public void testOperationsAfterFailedReplayAreDiscarded() throws Exception {
+        final JournalingXmlConfigurationPersister persister = boot();
+        commit(persister, "a");
+        commit(persister, "b");
+        commit(persister, "c");
+
+        final JournalingXmlConfigurationPersister replaying = boot();
+        final List<ModelNode> recovered = replaying.getRecoveredOperations();
+        assertEquals(3, recovered.size());
+        // the replay of b fails, so it is never stored
+        replay(replaying, "a", recovered.get(0));
+        replaying.recoveryComplete();
+        assertTrue(replaying.getRecoveredOperations().isEmpty());
+
+        final List<ModelNode> operations = recover();
+        assertEquals(1, operations.size());
+        assertJournalledOperation("a", operations.get(0));
+
+        replaying.flush();
+        final JournalingXmlConfigurationPersister flushed = createPersister();
+        assertBootOperation("a", flushed.load().get(0));
+        assertTrue(flushed.getRecoveredOperations().isEmpty());
+    }
+
+    @Test
+    public void testRecoveryStopsAtGap() throws Exception {
+        final JournalingXmlConfigurationPersister persister = boot();
+        commit(persister, "a");
+        commit(persister, "b");
+        commit(persister, "c");
+        // the snapshot, then a, b and c
+        removeJournalRecord(2);
+
+        final List<ModelNode> operations = recover();
+        assertEquals(1, operations.size());
+        assertJournalledOperation("a", operations.get(0));
+    }
+
+    @Test
+    public void testStopWritesConfiguration() throws Exception {
+        final JournalingXmlConfigurationPersister persister = boot();
+        commit(persister, "a");
+        persister.stop();
+
+        JournalingXmlConfigurationPersister stopped = createPersister();
+        assertBootOperation("a", stopped.load().get(0));
+        assertTrue(stopped.getRecoveredOperations().isEmpty());
+
+        // without the journal, changes are written right away
+        commit(persister, "b");
+        stopped = createPersister();
+        assertBootOperation("b", stopped.load().get(0));
+        assertTrue(stopped.getRecoveredOperations().isEmpty());
+    }
+
+    @Test
+    public void testFlushWritesConfigurationAndCompactsJournal() throws Exception {
+        final JournalingXmlConfigurationPersister persister = boot();
+        commit(persister, "a");
+        commit(persister, "b");
+        final long journalLength = journalFile.length();
+        persister.flush();
+        assertTrue(journalFile.length() < journalLength);
+        assertFalse(new File(configurationDir, FILE_NAME + ".tmp").exists());
+
+        final JournalingXmlConfigurationPersister recovering = createPersister();
+        final List<ModelNode> operations = recovering.load();
+        assertEquals(1, operations.size());
+        assertBootOperation("b", operations.get(0));
+        assertTrue(recovering.getRecoveredOperations().isEmpty());
+    }
+
+    @Test
+    public void testOnlyOperationsAfterMatchingSnapshotAreReplayed() throws Exception {
+        final JournalingXmlConfigurationPersister persister = boot();
+        commit(persister, "a");
+        persister.flush();
+        commit(persister, "b");
+
+        final JournalingXmlConfigurationPersister recovering = createPersister();
+        final List<ModelNode> operations = recovering.load();
+        assertEquals(1, operations.size());
+        assertBootOperation("a", operations.get(0));
+        final List<ModelNode> recovered = recovering.getRecoveredOperations();
+        assertEquals(1, recovered.size());
+        assertJournalledOperation("b", recovered.get(0));
+    }
+
+    @Test
+    public void testJournalIsDiscardedWhenConfigurationFileWasEdited() throws Exception {
+        final JournalingXmlConfigurationPersister persister = boot();
+        commit(persister, "a");
+        writeConfiguration("edited");
+
+        final JournalingXmlConfigurationPersister recovering = createPersister();
+        final List<ModelNode> operations = recovering.load();
+        assertEquals(1, operations.size());
+        assertBootOperation("edited", operations.get(0));
+        assertTrue(recovering.getRecoveredOperations().isEmpty());
+        assertFalse(journalFile.exists());
+    }
+
+    @Test
+    public void testTornRecordIsIgnored() throws Exception {
+        final JournalingXmlConfigurationPersister persister = boot();
+        commit(persister, "a");
+        commit(persister, "b");
+        final RandomAccessFile journal = new RandomAccessFile(journalFile, "rw");
+        try {
+            journal.setLength(journal.length() - 3);
+        } finally {
+            journal.close();
+        }
+
+        final List<ModelNode> operations = recover();
+        assertEquals(1, operations.size());
+        assertJournalledOperation("a", operations.get(0));
+    }
+
+    @Test
+    public void testCorruptRecordIsIgnored() throws Exception {
+        final JournalingXmlConfigurationPersister persister = boot();
+        commit(persister, "a");
+        commit(persister, "b");
+        final RandomAccessFile journal = new RandomAccessFile(journalFile, "rw");
+        try {
+            // the last byte belongs to the checksum of the last record
+            journal.seek(journal.length() - 1);
+            final int last = journal.read();
+            journal.seek(journal.length() - 1);
+            journal.write(last ^ 0xff);
+        } finally {
+            journal.close();
+        }
+
+        final List<ModelNode> operations = recover();
+        assertEquals(1, operations.size());
+        assertJournalledOperation("a", operations.get(0));
+    }
+
+    private JournalingXmlConfigurationPersister createPersister() {
+        return new JournalingXmlConfigurationPersister(new ConfigurationFile(configurationDir, FILE_NAME, null), ROOT, new TestParser(), new TestWriter());
+    }
+
+    private JournalingXmlConfigurationPersister boot() throws ConfigurationPersistenceException {
+        final JournalingXmlConfigurationPersister persister = createPersister();
+        persister.load();
+        persister.successfulBoot();
+        return persister;
+    }
+
+    /**
+     * Loads the configuration with a new persister.
+     *
+     * @return the operations it recovered from the journal
+     */
+    private List<ModelNode> recover() throws ConfigurationPersistenceException {
+        final JournalingXmlConfigurationPersister persister = createPersister();
+        persister.load();
+        return persister.getRecoveredOperations();
+    }
+
+    /**
+     * Stores the given recovered operation, as the controller does when it executes it again successfully.
+     */
+    private static void replay(final JournalingXmlConfigurationPersister persister, final String value, final ModelNode operation) throws ConfigurationPersistenceException {
+        final ModelNode model = new ModelNode();
+        model.get(VALUE).set(value);
+        persister.store(model, Collections.<PathAddress>emptySet(), operation).commit();
+    }
+
+    private static void commit(final JournalingXmlConfigurationPersister persister, final String value) throws ConfigurationPersistenceException {
+        final ModelNode model = new ModelNode();
+        model.get(VALUE).set(value);
+        final ModelNode operation = new ModelNode();
+        operation.get(OP).set("write");
+        operation.get(VALUE).set(value);
+        operation.get(OPERATION_HEADERS, "rollback-on-runtime-failure").set(true);
+        persister.store(model, Collections.<PathAddress>emptySet(), operation).commit();
+    }
+
+    private static void assertBootOperation(final String value, final ModelNode operation) {
+        assertEquals("boot", operation.get(OP).asString());
+        assertEquals(value, operation.get(VALUE).asString());
+    }
+
+    private static void assertJournalledOperation(final String value, final ModelNode operation) {
+        assertEquals("write", operation.get(OP).asString());
+        assertEquals(value, operation.get(VALUE).asString());
+        assertFalse(operation.has(OPERATION_HEADERS));
+    }
+
+    /**
+     * Rewrites the journal without the record at the given index.
+     */
+    private void removeJournalRecord(final int index) throws IOException {
+        final DataInputStream input = new DataInputStream(new FileInputStream(journalFile));
+        final ByteArrayOutputStream kept = new ByteArrayOutputStream();
+        try {
+            for (int i = 0; ; i++) {
+                final int type = input.read();
+                if (type == -1) {
+                    break;
+                }
+                // type, payload length, payload and checksum
+                final byte[] payload = new byte[input.readInt()];
+                input.readFully(payload);
+                final long checksum = input.readLong();
+                if (i != index) {
+                    final DataOutputStream output = new DataOutputStream(kept);
+                    output.writeByte(type);
+                    output.writeInt(payload.length);
+                    output.write(payload);
+                    output.writeLong(checksum);
+                    output.flush();
+                }
+            }
+        } finally {
+            input.close();
+        }
+        final FileOutputStream output = new FileOutputStream(journalFile);
+        try {
+            output.write(kept.toByteArray());
+        } finally {
+            output.close();
+        }
+    }
+
+    private void writeConfiguration(final String value) throws IOException {
+        final FileOutputStream output = new FileOutputStream(mainFile);
+        try {
+            output.write(("<?xml version=\"1.0\" ?><config xmlns=\"" + NAMESPACE + "\" value=\"" + value + "\"/>").getBytes("UTF-8"));
+        } finally {
+            output.close();
+        }
+    }
+
+    private static class TestParser implements XMLElementReader<List<ModelNode>> {
+        @Override
+        public void readElement(final XMLExtendedStreamReader reader, final List<ModelNode> operations) throws XMLStreamException {
+            final ModelNode operation = new ModelNode();
+            operation.get(OP).set("boot");
+            operation.get(VALUE).set(reader.getAttributeValue(null, VALUE));
+            ParseUtils.requireNoContent(reader);
+            operations.add(operation);
+        }
+    }
+
+    private static class TestWriter implements XMLElementWriter<ModelMarshallingContext> {
+        @Override
+        public void writeContent(final XMLExtendedStreamWriter writer, final ModelMarshallingContext context) throws XMLStreamException {
+            writer.writeStartDocument();
+            writer.writeStartElement(ROOT.getLocalPart());
+            writer.writeDefaultNamespace(NAMESPACE);
+            writer.writeAttribute(VALUE, context.getModelNode().get(VALUE).asString());
+            writer.writeEndElement();
+            writer.writeEndDocument();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.controller.registry;
+
+import static org.junit.Assert.*;
+
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.dmr.ModelNode;
+import org.junit.Test;
+
+/**
+ * Unit tests of {@link PathCopyingResource}.
+ */
+public class PathCopyingResourceUnitTestCase {
+
+    private static final PathElement SUBSYSTEM = PathElement.pathElement("subsystem", "test");
+    private static final PathElement OTHER = PathElement.pathElement("subsystem", "other");
+    private static final PathElement CHILD = PathElement.pathElement("child", "a");
+
+    @Test
+    public void testCopyForUpdateSharesUntouchedChildren() {
+        Resource root = createModel(10);
+        Resource copy = Resource.Tools.copyForUpdate(root);
+
+        assertNotSame(root, copy);
+        assertSame(root.getChild(SUBSYSTEM), copy.getChild(SUBSYSTEM));
+        assertSame(root.getChild(OTHER), copy.getChild(OTHER));
+        assertEquals(Resource.Tools.readModel(root), Resource.Tools.readModel(copy));
+    }
+
+    @Test
+    public void testUpdateOnlyCopiesPath() {
+        Resource root = createModel(10);
+        Resource copy = Resource.Tools.copyForUpdate(root);
+
+        Resource subsystem = Resource.Tools.requireChildForUpdate(copy, SUBSYSTEM);
+        Resource child = Resource.Tools.requireChildForUpdate(subsystem, CHILD);
+        child.getModel().get("attr").set("changed");
+
+        assertEquals("value", root.navigate(PathAddress.pathAddress(SUBSYSTEM, CHILD)).getModel().get("attr").asString());
+        assertEquals("changed", copy.navigate(PathAddress.pathAddress(SUBSYSTEM, CHILD)).getModel().get("attr").asString());
+
+        // Only the path to the modified resource was copied
+        assertNotSame(root.getChild(SUBSYSTEM), copy.getChild(SUBSYSTEM));
+        assertSame(root.getChild(OTHER), copy.getChild(OTHER));
+        PathElement sibling = PathElement.pathElement("child", "b");
+        assertSame(root.getChild(SUBSYSTEM).getChild(sibling), copy.getChild(SUBSYSTEM).getChild(sibling));
+
+        // Owned children are not copied again
+        assertSame(subsystem, Resource.Tools.requireChildForUpdate(copy, SUBSYSTEM));
+        assertSame(child, Resource.Tools.requireChildForUpdate(subsystem, CHILD));
+    }
+
+    @Test
+    public void testRegisterAndRemoveDoNotAffectOriginal() {
+        Resource root = createModel(10);
+        Resource copy = Resource.Tools.copyForUpdate(root);
+
+        Resource subsystem = Resource.Tools.requireChildForUpdate(copy, SUBSYSTEM);
+        subsystem.removeChild(CHILD);
+        subsystem.registerChild(PathElement.pathElement("child", "new"), Resource.Factory.create());
+
+        assertTrue(root.getChild(SUBSYSTEM).hasChild(CHILD));
+        assertFalse(root.getChild(SUBSYSTEM).hasChild(PathElement.pathElement("child", "new")));
+        assertFalse(copy.getChild(SUBSYSTEM).hasChild(CHILD));
+        assertTrue(copy.getChild(SUBSYSTEM).hasChild(PathElement.pathElement("child", "new")));
+        assertEquals(10, root.getChild(SUBSYSTEM).getChildrenNames("child").size());
+    }
+
+    @Test
+    public void testCopyOfCopy() {
+        Resource root = createModel(10);
+        Resource first = Resource.Tools.copyForUpdate(root);
+        Resource.Tools.requireChildForUpdate(Resource.Tools.requireChildForUpdate(first, SUBSYSTEM), CHILD).getModel().get("attr").set("first");
+
+        // The second copy shares the children of the first one, and copies them again on update
+        Resource second = Resource.Tools.copyForUpdate(first);
+        Resource.Tools.requireChildForUpdate(Resource.Tools.requireChildForUpdate(second, SUBSYSTEM), CHILD).getModel().get("attr").set("second");
+
+        assertEquals("value", root.navigate(PathAddress.pathAddress(SUBSYSTEM, CHILD)).getModel().get("attr").asString());
+        assertEquals("first", first.navigate(PathAddress.pathAddress(SUBSYSTEM, CHILD)).getModel().get("attr").asString());
+        assertEquals("second", second.navigate(PathAddress.pathAddress(SUBSYSTEM, CHILD)).getModel().get("attr").asString());
+    }
+
+    @Test
+    public void testCopyDescendants() {
+        Resource root = createModel(10);
+        Resource copy = Resource.Tools.copyForUpdate(root);
+
+        Resource subsystem = Resource.Tools.requireChildForUpdate(copy, SUBSYSTEM);
+        Resource.Tools.copyDescendants(subsystem);
+        subsystem.requireChild(CHILD).getModel().get("attr").set("changed");
+
+        assertEquals("value", root.navigate(PathAddress.pathAddress(SUBSYSTEM, CHILD)).getModel().get("attr").asString());
+        assertEquals("changed", copy.navigate(PathAddress.pathAddress(SUBSYSTEM, CHILD)).getModel().get("attr").asString());
+    }
+
+    @Test
+    public void testCloneIsDeep() {
+        Resource root = createModel(10);
+        Resource clone = root.clone();
+
+        assertNotSame(root.getChild(SUBSYSTEM), clone.getChild(SUBSYSTEM));
+        clone.navigate(PathAddress.pathAddress(SUBSYSTEM, CHILD)).getModel().get("attr").set("changed");
+        assertEquals("value", root.navigate(PathAddress.pathAddress(SUBSYSTEM, CHILD)).getModel().get("attr").asString());
+        assertEquals(Resource.Tools.readModel(createModel(10)), Resource.Tools.readModel(root));
+    }
+
+    @Test
+    public void testSuccessiveUpdatesKeepEarlierVersions() {
+        final int updates = 20;
+        final PathAddress target = PathAddress.pathAddress(SUBSYSTEM, CHILD);
+        final PathAddress sibling = PathAddress.pathAddress(SUBSYSTEM, PathElement.pathElement("child", "b"));
+        final Resource[] versions = new Resource[updates + 1];
+        versions[0] = createModel(100);
+        for (int i = 1; i <= updates; i++) {
+            Resource copy = Resource.Tools.copyForUpdate(versions[i - 1]);
+            Resource.Tools.requireChildForUpdate(Resource.Tools.requireChildForUpdate(copy, SUBSYSTEM), CHILD).getModel().get("attr").set(i);
+            versions[i] = copy;
+        }
+
+        assertEquals("value", versions[0].navigate(target).getModel().get("attr").asString());
+        for (int i = 1; i <= updates; i++) {
+            assertEquals(i, versions[i].navigate(target).getModel().get("attr").asInt());
+            // only the path to the written resource is copied, everything else is shared with the first version
+            assertNotSame(versions[i - 1].navigate(target), versions[i].navigate(target));
+            assertSame(versions[0].navigate(sibling), versions[i].navigate(sibling));
+            assertSame(versions[0].getChild(OTHER), versions[i].getChild(OTHER));
+        }
+    }
+
+    private static Resource createModel(int children) {
+        Resource root = Resource.Factory.create();
+        root.getModel().get("name").set("root");
+        Resource subsystem = Resource.Factory.create();
+        Resource other = Resource.Factory.create();
+        root.registerChild(SUBSYSTEM, subsystem);
+        root.registerChild(OTHER, other);
+        for (int i = 0; i < children; i++) {
+            String name = i == 0 ? "a" : i == 1 ? "b" : String.valueOf(i);
+            subsystem.registerChild(PathElement.pathElement("child", name), createLeaf());
+            other.registerChild(PathElement.pathElement("child", name), createLeaf());
+        }
+        return root;
+    }
+
+    private static Resource createLeaf() {
+        Resource leaf = Resource.Factory.create();
+        ModelNode model = new ModelNode();
+        model.get("attr").set("value");
+        model.get("other").set(true);
+        leaf.writeModel(model);
+        return leaf;
+    }
+}
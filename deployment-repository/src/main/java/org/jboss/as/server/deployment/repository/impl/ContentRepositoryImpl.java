@@ -39,9 +39,13 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.security.DigestOutputStream;
+import java.io.OutputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.jboss.as.server.deployment.repository.impl.DeploymentRepositoryLogger.ROOT_LOGGER;
 import static org.jboss.as.server.deployment.repository.impl.DeploymentRepositoryMessages.MESSAGES;
@@ -53,8 +57,22 @@ import static org.jboss.as.server.deployment.repository.impl.DeploymentRepositor
 public class ContentRepositoryImpl implements ContentRepository, Service<ContentRepository> {
 
     protected static final String CONTENT = "content";
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final int MAX_POOLED_BUFFERS = 4;
     private final File repoRoot;
+    /**
+     * A digest that is never used directly, only copied for each upload.
+     */
     protected final MessageDigest messageDigest;
+    /**
+     * Buffers released by completed uploads, a few of them are kept for the next uploads rather than allocating a
+     * large array for each one. The content is hashed as well as written, so plain arrays are used: both the digest
+     * and the file stream work on heap arrays, through which a direct buffer would have to be copied.
+     */
+    private final BlockingQueue<byte[]> buffers = new ArrayBlockingQueue<byte[]>(MAX_POOLED_BUFFERS);
+    private final AtomicLong addedContentCount = new AtomicLong();
+    private final AtomicLong addedContentBytes = new AtomicLong();
+    private final AtomicLong addedContentTime = new AtomicLong();
 
     // TODO: return void
     public static ContentRepositoryImpl addService(final ServiceTarget serviceTarget, final File repoRoot) {
@@ -88,25 +106,18 @@ public class ContentRepositoryImpl implements ContentRepository, Service<Content
 
     @Override
     public byte[] addContent(InputStream stream) throws IOException {
-        byte[] sha1Bytes = null;
-        File tmp = File.createTempFile(CONTENT, "tmp", repoRoot);
-        FileOutputStream fos = new FileOutputStream(tmp);
-        synchronized (messageDigest) {
-            messageDigest.reset();
-            try {
-                DigestOutputStream dos = new DigestOutputStream(fos, messageDigest);
-                BufferedInputStream bis = new BufferedInputStream(stream);
-                byte[] bytes = new byte[8192];
-                int read;
-                while ((read = bis.read(bytes)) > -1) {
-                    dos.write(bytes, 0, read);
-                }
-            }
-            finally {
-                safeClose(fos);
-            }
-            sha1Bytes = messageDigest.digest();
+        final long start = System.nanoTime();
+        // each upload gets its own digest so concurrent uploads do not wait for each other
+        final MessageDigest digest = createDigest();
+        final File tmp = File.createTempFile(CONTENT, "tmp", repoRoot);
+        final long size;
+        final FileOutputStream fos = new FileOutputStream(tmp);
+        try {
+            size = copy(stream, fos, digest);
+        } finally {
+            safeClose(fos);
         }
+        final byte[] sha1Bytes = digest.digest();
         final File realFile = getDeploymentContentFile(sha1Bytes, true);
         if(hasContent(sha1Bytes)) {
             // we've already got this content
@@ -118,10 +129,76 @@ public class ContentRepositoryImpl implements ContentRepository, Service<Content
             moveTempToPermanent(tmp, realFile);
             ROOT_LOGGER.contentAdded(realFile.getAbsolutePath());
         }
+        final long time = System.nanoTime() - start;
+        addedContentCount.incrementAndGet();
+        addedContentBytes.addAndGet(size);
+        addedContentTime.addAndGet(time);
+        ROOT_LOGGER.debugf("Added %d bytes of content in %d ms", size, TimeUnit.NANOSECONDS.toMillis(time));
 
         return sha1Bytes;
     }
 
+    /**
+     * Get the number of {@link #addContent(InputStream) add-content} calls completed since the repository was created.
+     *
+     * @return the number of calls
+     */
+    public long getAddedContentCount() {
+        return addedContentCount.get();
+    }
+
+    /**
+     * Get the number of bytes read by {@link #addContent(InputStream) add-content} since the repository was created,
+     * including content that turned out to be already present.
+     *
+     * @return the number of bytes
+     */
+    public long getAddedContentBytes() {
+        return addedContentBytes.get();
+    }
+
+    /**
+     * Get the total time spent in {@link #addContent(InputStream) add-content} since the repository was created.
+     *
+     * @return the time in milliseconds
+     */
+    public long getAddedContentTime() {
+        return TimeUnit.NANOSECONDS.toMillis(addedContentTime.get());
+    }
+
+    private MessageDigest createDigest() {
+        try {
+            return (MessageDigest) messageDigest.clone();
+        } catch (CloneNotSupportedException e) {
+            try {
+                return MessageDigest.getInstance(messageDigest.getAlgorithm());
+            } catch (NoSuchAlgorithmException nsae) {
+                throw MESSAGES.cannotObtainSha1(nsae, MessageDigest.class.getSimpleName());
+            }
+        }
+    }
+
+    private long copy(final InputStream in, final OutputStream out, final MessageDigest digest) throws IOException {
+        byte[] buffer = buffers.poll();
+        if (buffer == null) {
+            buffer = new byte[BUFFER_SIZE];
+        }
+        try {
+            long total = 0;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                // hash and write the same bytes, so the content is only read once
+                digest.update(buffer, 0, read);
+                out.write(buffer, 0, read);
+                total += read;
+            }
+            return total;
+        } finally {
+            // dropped when the pool is full
+            buffers.offer(buffer);
+        }
+    }
+
     @Override
     public VirtualFile getContent(byte[] hash) {
         if (hash == null)
@@ -177,6 +254,13 @@ public class ContentRepositoryImpl implements ContentRepository, Service<Content
     private void moveTempToPermanent(File tmpFile, File permanentFile) throws IOException {
 
         if (!tmpFile.renameTo(permanentFile)) {
+            if (permanentFile.exists()) {
+                // a concurrent upload of the same content got there first
+                if (!tmpFile.delete()) {
+                    tmpFile.deleteOnExit();
+                }
+                return;
+            }
             FileOutputStream fos = null;
             BufferedOutputStream bos = null;
             FileInputStream fis = null;
@@ -206,6 +290,25 @@ public class ContentRepositoryImpl implements ContentRepository, Service<Content
         File file = getDeploymentContentFile(hash, true);
         if(!file.delete())
             file.deleteOnExit();
+        // drop anything derived from the content, such as cached annotation indexes
+        final File[] derived = file.getParentFile().listFiles();
+        if (derived != null) {
+            for (File child : derived) {
+                deleteRecursively(child);
+            }
+        }
+    }
+
+    private static void deleteRecursively(final File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        if (!file.delete()) {
+            file.deleteOnExit();
+        }
     }
 
     protected static void safeClose(final Closeable closeable) {
@@ -109,6 +109,12 @@ class FileSystemDeploymentService implements DeploymentScanner {
     /** Default timeout for deployments to execute in seconds */
     static final long DEFAULT_DEPLOYMENT_TIMEOUT = 60;
 
+    /** Max period between full scans when only scanning on detected changes */
+    static final long FULL_SCAN_INTERVAL = 60000;
+
+    /** Period a detected change must be left alone before it is scanned, so files still being copied are not picked up */
+    static final long CHANGE_QUIET_PERIOD = 1000;
+
     private File deploymentDir;
     private long scanInterval = 0;
     private volatile boolean scanEnabled = false;
@@ -137,6 +143,10 @@ class FileSystemDeploymentService implements DeploymentScanner {
 
     private volatile long deploymentTimeout = DEFAULT_DEPLOYMENT_TIMEOUT;
 
+    private volatile boolean detectChanges = Boolean.getBoolean("jboss.deployment.scanner.detect-changes");
+    private long lastFingerprint;
+    private long lastFullScan;
+
     private final String relativeTo;
     private final String relativePath;
 
@@ -279,6 +289,11 @@ class FileSystemDeploymentService implements DeploymentScanner {
         this.maxNoProgress = max;
     }
 
+    /** Hook solely for unit test to turn on scanning only when the deployment directory has changed */
+    void setDetectChanges(boolean detectChanges) {
+        this.detectChanges = detectChanges;
+    }
+
     private void establishDeployedContentList(File dir) throws OperationFailedException {
         final Set<String> deploymentNames = getDeploymentNames();
         final File[] children = dir.listFiles();
@@ -323,6 +338,15 @@ class FileSystemDeploymentService implements DeploymentScanner {
         boolean scheduleRescan = false;
         try {
             if (scanEnabled) { // confirm the scan is still wanted
+                if (detectChanges && !firstScan) {
+                    final ScanStatus status = checkForChanges();
+                    if (status != ScanStatus.PROCEED) {
+                        // a change that is still in progress is looked at again shortly
+                        scheduleRescan = status == ScanStatus.RETRY && scanInterval > 1000;
+                        return;
+                    }
+                }
+
                 ROOT_LOGGER.tracef("Scanning directory %s for deployment content changes", deploymentDir.getAbsolutePath());
 
                 ScanContext scanContext = new ScanContext();
@@ -587,6 +611,65 @@ class FileSystemDeploymentService implements DeploymentScanner {
         }
     }
 
+    /**
+     * Decide whether the full scan is needed, based on a cheap fingerprint of the names, sizes and modification
+     * times of the entries in the deployment directory. Exploded content is not walked, so when exploded content
+     * is auto-deployed, or incomplete content is still waiting, every scan is a full scan. A full scan is also done
+     * at least every {@link #FULL_SCAN_INTERVAL} as a safety net.
+     *
+     * @return {@code PROCEED} to do the full scan, {@code RETRY} if the directory is still changing, or
+     *         {@code ABORT} if nothing changed
+     */
+    private ScanStatus checkForChanges() {
+        final long now = System.currentTimeMillis();
+        if (autoDeployExploded || !incompleteDeployments.isEmpty() || now - lastFullScan >= FULL_SCAN_INTERVAL) {
+            lastFingerprint = fingerprint(deploymentDir, new long[1]);
+            lastFullScan = now;
+            return ScanStatus.PROCEED;
+        }
+        final long[] lastModified = new long[1];
+        final long fingerprint = fingerprint(deploymentDir, lastModified);
+        if (fingerprint == lastFingerprint) {
+            return ScanStatus.ABORT;
+        }
+        if (now >= lastModified[0] && now - lastModified[0] < CHANGE_QUIET_PERIOD) {
+            ROOT_LOGGER.tracef("Deployment directory %s is still changing", deploymentDir.getAbsolutePath());
+            return ScanStatus.RETRY;
+        }
+        lastFingerprint = fingerprint;
+        lastFullScan = now;
+        return ScanStatus.PROCEED;
+    }
+
+    /**
+     * Compute a fingerprint of the entries {@link #scanDirectory(File, String, ScanContext)} would look at.
+     *
+     * @param directory the directory
+     * @param lastModified holder for the most recent modification time seen
+     * @return the fingerprint
+     */
+    private long fingerprint(final File directory, final long[] lastModified) {
+        final File[] children = directory.listFiles(filter);
+        if (children == null) {
+            return 0;
+        }
+        long fingerprint = children.length;
+        for (File child : children) {
+            final String fileName = child.getName();
+            final long modified = child.lastModified();
+            if (modified > lastModified[0]) {
+                lastModified[0] = modified;
+            }
+            fingerprint = 31 * fingerprint + fileName.hashCode();
+            fingerprint = 31 * fingerprint + modified;
+            fingerprint = 31 * fingerprint + child.length();
+            if (child.isDirectory() && !isEEArchive(fileName) && !WEB_INF.equalsIgnoreCase(fileName) && !META_INF.equalsIgnoreCase(fileName)) {
+                fingerprint = 31 * fingerprint + fingerprint(child, lastModified);
+            }
+        }
+        return fingerprint;
+    }
+
     private long addContentAddingTask(final String path, final boolean archive, final String deploymentName,
             final File deploymentFile, final long timestamp, final ScanContext scanContext) {
         if (scanContext.registeredDeployments.contains(deploymentName)) {
@@ -183,6 +183,44 @@ public class FileSystemDeploymentServiceUnitTestCase {
         assertTrue(deployed2.exists());
     }
 
+    @Test
+    public void testDetectChanges() throws Exception {
+        File war1 = createFile("foo.war");
+        File dodeploy1 = createFile("foo.war" + FileSystemDeploymentService.DO_DEPLOY);
+        File deployed1 = new File(tmpDir, "foo.war" + FileSystemDeploymentService.DEPLOYED);
+        TesteeSet ts = createTestee();
+        ts.testee.setDetectChanges(true);
+        ts.controller.addCompositeSuccessResponse(1);
+        ts.testee.scan();
+        assertTrue(war1.exists());
+        assertFalse(dodeploy1.exists());
+        assertTrue(deployed1.exists());
+
+        // the markers written by the first scan are a change; let it settle
+        settle();
+        ts.testee.scan();
+
+        // nothing changed, so the directory is not scanned
+        int requests = ts.controller.requests.size();
+        ts.testee.scan();
+        assertEquals(requests, ts.controller.requests.size());
+
+        // a change that is still in progress is not picked up
+        File war2 = createFile("bar.war");
+        File dodeploy2 = createFile("bar.war" + FileSystemDeploymentService.DO_DEPLOY);
+        File deployed2 = new File(tmpDir, "bar.war" + FileSystemDeploymentService.DEPLOYED);
+        ts.testee.scan();
+        assertEquals(requests, ts.controller.requests.size());
+        assertTrue(dodeploy2.exists());
+
+        settle();
+        ts.controller.addCompositeSuccessResponse(1);
+        ts.testee.scan();
+        assertTrue(war2.exists());
+        assertFalse(dodeploy2.exists());
+        assertTrue(deployed2.exists());
+    }
+
     @Test
     public void testBasicFailure() throws Exception {
         File war = createFile("foo.war");
@@ -1353,6 +1391,11 @@ public class FileSystemDeploymentServiceUnitTestCase {
         return new TesteeSet(testee, repo, sc);
     }
 
+    /** Wait until the deployment directory is no longer considered to be changing */
+    private void settle() throws InterruptedException {
+        Thread.sleep(FileSystemDeploymentService.CHANGE_QUIET_PERIOD + 100);
+    }
+
     private File createFile(String fileName) throws IOException {
         return createFile(tmpDir, fileName);
     }
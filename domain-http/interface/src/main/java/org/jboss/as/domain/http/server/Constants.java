@@ -49,12 +49,15 @@ public interface Constants {
      */
 
     String ACCEPT = "Accept";
+    String ACCEPT_ENCODING = "Accept-Encoding";
     String AUTHORIZATION_HEADER = "Authorization";
     String CONTENT_DISPOSITION = "Content-Disposition";
+    String CONTENT_ENCODING = "Content-Encoding";
     String CONTENT_TYPE = "Content-Type";
     String HOST = "Host";
     String LOCATION = "Location";
     String ORIGIN = "Origin";
+    String VARY = "Vary";
     String VIA = "Via";
     String WWW_AUTHENTICATE_HEADER = "WWW-Authenticate";
 
@@ -72,6 +75,12 @@ public interface Constants {
     String TEXT_CSS = "text/css";
     String TEXT_HTML = "text/html";
 
+    /*
+     * Content Encodings
+     */
+
+    String GZIP = "gzip";
+
     /*
      * Charsets
      */
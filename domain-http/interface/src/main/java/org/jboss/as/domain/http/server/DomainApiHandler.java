@@ -25,12 +25,15 @@ package org.jboss.as.domain.http.server;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.FAILED;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OUTCOME;
 import static org.jboss.as.domain.http.server.Constants.ACCEPT;
+import static org.jboss.as.domain.http.server.Constants.ACCEPT_ENCODING;
 import static org.jboss.as.domain.http.server.Constants.APPLICATION_DMR_ENCODED;
 import static org.jboss.as.domain.http.server.Constants.APPLICATION_JSON;
 import static org.jboss.as.domain.http.server.Constants.CONTENT_DISPOSITION;
+import static org.jboss.as.domain.http.server.Constants.CONTENT_ENCODING;
 import static org.jboss.as.domain.http.server.Constants.CONTENT_TYPE;
 import static org.jboss.as.domain.http.server.Constants.FORBIDDEN;
 import static org.jboss.as.domain.http.server.Constants.GET;
+import static org.jboss.as.domain.http.server.Constants.GZIP;
 import static org.jboss.as.domain.http.server.Constants.HOST;
 import static org.jboss.as.domain.http.server.Constants.HTTP;
 import static org.jboss.as.domain.http.server.Constants.HTTPS;
@@ -43,6 +46,7 @@ import static org.jboss.as.domain.http.server.Constants.POST;
 import static org.jboss.as.domain.http.server.Constants.TEXT_HTML;
 import static org.jboss.as.domain.http.server.Constants.US_ASCII;
 import static org.jboss.as.domain.http.server.Constants.UTF_8;
+import static org.jboss.as.domain.http.server.Constants.VARY;
 import static org.jboss.as.domain.http.server.ErrorHandler.ERROR_CONTEXT;
 import static org.jboss.as.domain.http.server.HttpServerLogger.ROOT_LOGGER;
 import static org.jboss.as.domain.http.server.HttpServerMessages.MESSAGES;
@@ -58,10 +62,14 @@ import java.net.URLDecoder;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
 
 import org.jboss.as.controller.client.ModelControllerClient;
 import org.jboss.as.controller.client.OperationBuilder;
@@ -120,11 +128,51 @@ class DomainApiHandler implements ManagementHttpHandler {
 
     private ModelControllerClient modelController;
 
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong totalRequestTime = new AtomicLong();
+    private final AtomicLong maxRequestTime = new AtomicLong();
+
     DomainApiHandler(ModelControllerClient modelController) {
         this.modelController = modelController;
     }
 
     public void handle(HttpExchange http) throws IOException {
+        final long start = System.nanoTime();
+        try {
+            handleRequest(http);
+        } finally {
+            final long time = System.nanoTime() - start;
+            requestCount.incrementAndGet();
+            totalRequestTime.addAndGet(time);
+            long max;
+            while (time > (max = maxRequestTime.get()) && !maxRequestTime.compareAndSet(max, time)) {
+            }
+            ROOT_LOGGER.tracef("%s %s completed in %d ms", http.getRequestMethod(), http.getRequestURI(), TimeUnit.NANOSECONDS.toMillis(time));
+        }
+    }
+
+    /**
+     * @return the number of management API requests handled
+     */
+    long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * @return the total time spent handling management API requests, in milliseconds
+     */
+    long getTotalRequestTime() {
+        return TimeUnit.NANOSECONDS.toMillis(totalRequestTime.get());
+    }
+
+    /**
+     * @return the time taken by the slowest management API request, in milliseconds
+     */
+    long getMaxRequestTime() {
+        return TimeUnit.NANOSECONDS.toMillis(maxRequestTime.get());
+    }
+
+    private void handleRequest(HttpExchange http) throws IOException {
         /**
          *  Request Verification - before the request is handled a set of checks are performed for
          *  CSRF and XSS
@@ -307,9 +355,16 @@ class DomainApiHandler implements ManagementHttpHandler {
             boolean encode, String contentType) throws IOException {
         final Headers responseHeaders = http.getResponseHeaders();
         responseHeaders.add(CONTENT_TYPE, contentType);
+        final boolean gzip = acceptsGzip(http.getRequestHeaders());
+        // the encoding depends on the request, so caches must not serve a gzipped response to a client that did not ask for it
+        responseHeaders.add(VARY, ACCEPT_ENCODING);
+        if (gzip) {
+            responseHeaders.add(CONTENT_ENCODING, GZIP);
+        }
         http.sendResponseHeaders(status, 0);
 
-        final OutputStream out = http.getResponseBody();
+        // the response is written as the model is walked, so it is never held in memory as a whole
+        final OutputStream out = gzip ? new GZIPOutputStream(http.getResponseBody(), 8192) : http.getResponseBody();
         final PrintWriter print = new PrintWriter(out);
 
         // GET (read) operations will never have a compensating update, and the status is already
@@ -331,6 +386,35 @@ class DomainApiHandler implements ManagementHttpHandler {
         }
     }
 
+    /**
+     * Checks whether the client listed gzip in its Accept-Encoding header without disabling it with a zero quality.
+     */
+    private static boolean acceptsGzip(final Headers requestHeaders) {
+        final List<String> values = requestHeaders.get(ACCEPT_ENCODING);
+        if (values == null) {
+            return false;
+        }
+        for (String value : values) {
+            for (String coding : value.split(",")) {
+                final String[] parts = coding.split(";");
+                if (GZIP.equalsIgnoreCase(parts[0].trim())) {
+                    for (int i = 1; i < parts.length; i++) {
+                        final String param = parts[i].trim();
+                        if (param.startsWith("q=")) {
+                            try {
+                                return Double.parseDouble(param.substring(2).trim()) > 0;
+                            } catch (NumberFormatException e) {
+                                return false;
+                            }
+                        }
+                    }
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     private static final class SeekResult {
         BoundaryDelimitedInputStream stream;
         String fileName;
@@ -55,12 +55,35 @@ public class ManagementHttpServer {
 
     private List<ManagementHttpHandler> handlers = new LinkedList<ManagementHttpHandler>();
 
+    private DomainApiHandler domainApiHandler;
+
     private ManagementHttpServer(HttpServer httpServer, HttpServer secureHttpServer, SecurityRealm securityRealm) {
         this.httpServer = httpServer;
         this.secureHttpServer = secureHttpServer;
         this.securityRealm = securityRealm;
     }
 
+    /**
+     * @return the number of management API requests handled since the server was created
+     */
+    public long getRequestCount() {
+        return domainApiHandler.getRequestCount();
+    }
+
+    /**
+     * @return the total time spent handling management API requests, in milliseconds
+     */
+    public long getTotalRequestTime() {
+        return domainApiHandler.getTotalRequestTime();
+    }
+
+    /**
+     * @return the time taken by the slowest management API request, in milliseconds
+     */
+    public long getMaxRequestTime() {
+        return domainApiHandler.getMaxRequestTime();
+    }
+
     private void addHandler(ManagementHttpHandler handler) {
         handlers.add(handler);
     }
@@ -163,7 +186,8 @@ public class ManagementHttpServer {
 
         ManagementHttpServer managementHttpServer = new ManagementHttpServer(httpServer, secureHttpServer, securityRealm);
         managementHttpServer.addHandler(new RootHandler());
-        managementHttpServer.addHandler(new DomainApiHandler(modelControllerClient));
+        managementHttpServer.domainApiHandler = new DomainApiHandler(modelControllerClient);
+        managementHttpServer.addHandler(managementHttpServer.domainApiHandler);
 
         try {
             managementHttpServer.addHandler(new ConsoleHandler());
@@ -63,6 +63,8 @@ public class ComponentConfiguration {
     // Interceptor config
     private final OrderedItemContainer<InterceptorFactory> postConstructInterceptors = new OrderedItemContainer<InterceptorFactory>();
     private final OrderedItemContainer<InterceptorFactory> preDestroyInterceptors = new OrderedItemContainer<InterceptorFactory>();
+    private final OrderedItemContainer<InterceptorFactory> prePassivateInterceptors = new OrderedItemContainer<InterceptorFactory>();
+    private final OrderedItemContainer<InterceptorFactory> postActivateInterceptors = new OrderedItemContainer<InterceptorFactory>();
     private final Map<Method, OrderedItemContainer<InterceptorFactory>> componentInterceptors = new IdentityHashMap<Method, OrderedItemContainer<InterceptorFactory>>();
 
     //TODO: move this into an EJB specific configuration
@@ -297,6 +299,48 @@ public class ComponentConfiguration {
         preDestroyInterceptors.add(interceptorFactory, priority);
     }
 
+    /**
+     * Get the pre-passivate interceptors, which are empty unless the component has pre-passivate callbacks.
+     * <p/>
+     * This method should only be called after all interceptors have been added
+     *
+     * @return the sorted interceptors
+     */
+    public List<InterceptorFactory> getPrePassivateInterceptors() {
+        return prePassivateInterceptors.getSortedItems();
+    }
+
+    /**
+     * Adds a pre passivate interceptor
+     *
+     * @param interceptorFactory The interceptor factory to add
+     * @param priority           The factories priority
+     */
+    public void addPrePassivateInterceptor(InterceptorFactory interceptorFactory, int priority) {
+        prePassivateInterceptors.add(interceptorFactory, priority);
+    }
+
+    /**
+     * Get the post-activate interceptors, which are empty unless the component has post-activate callbacks.
+     * <p/>
+     * This method should only be called after all interceptors have been added
+     *
+     * @return the sorted interceptors
+     */
+    public List<InterceptorFactory> getPostActivateInterceptors() {
+        return postActivateInterceptors.getSortedItems();
+    }
+
+    /**
+     * Adds a post activate interceptor
+     *
+     * @param interceptorFactory The interceptor factory to add
+     * @param priority           The factories priority
+     */
+    public void addPostActivateInterceptor(InterceptorFactory interceptorFactory, int priority) {
+        postActivateInterceptors.add(interceptorFactory, priority);
+    }
+
     /**
      * Get the application name.
      *
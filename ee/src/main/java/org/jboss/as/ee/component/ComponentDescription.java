@@ -83,6 +83,12 @@ public class ComponentDescription {
 
     private static final DefaultComponentConfigurator FIRST_CONFIGURATOR = new DefaultComponentConfigurator();
     private static final AtomicInteger PROXY_ID = new AtomicInteger(0);
+
+    /**
+     * Part of the name of every generated view proxy class.
+     */
+    public static final String VIEW_PROXY_NAME_MARKER = "$$$view";
+
     private static final Class[] EMPTY_CLASS_ARRAY = new Class[0];
 
     private final ServiceName serviceName;
@@ -506,6 +512,13 @@ public class ComponentDescription {
         return false;
     }
 
+    /**
+     * @return true if pre-passivate and post-activate interceptor chains should be built for this component
+     */
+    public boolean isPassivationApplicable() {
+        return false;
+    }
+
     /**
      * Get the configurators for this component.
      *
@@ -570,6 +583,8 @@ public class ComponentDescription {
 
             final Map<String, List<InterceptorFactory>> userPostConstructByInterceptorClass = new HashMap<String, List<InterceptorFactory>>();
             final Map<String, List<InterceptorFactory>> userPreDestroyByInterceptorClass = new HashMap<String, List<InterceptorFactory>>();
+            final Map<String, List<InterceptorFactory>> userPrePassivateByInterceptorClass = new HashMap<String, List<InterceptorFactory>>();
+            final Map<String, List<InterceptorFactory>> userPostActivateByInterceptorClass = new HashMap<String, List<InterceptorFactory>>();
 
             if (description.isTimerServiceApplicable()) {
                 componentUserAroundTimeout = new ArrayList<InterceptorFactory>();
@@ -674,6 +689,30 @@ public class ComponentDescription {
                                     userPreDestroy.add(interceptorFactory);
                                 }
                             }
+                            if (description.isPassivationApplicable()) {
+                                final MethodIdentifier prePassivateMethodIdentifier = interceptorConfig.getPrePassivate();
+                                if (prePassivateMethodIdentifier != null) {
+                                    final Method method = ClassReflectionIndexUtil.findRequiredMethod(deploymentReflectionIndex, clazz, prePassivateMethodIdentifier);
+                                    if (isNotOverriden(clazz, method, interceptorClass.getModuleClass(), deploymentReflectionIndex)) {
+                                        List<InterceptorFactory> userPrePassivate = userPrePassivateByInterceptorClass.get(interceptorClassName);
+                                        if (userPrePassivate == null) {
+                                            userPrePassivateByInterceptorClass.put(interceptorClassName, userPrePassivate = new ArrayList<InterceptorFactory>());
+                                        }
+                                        userPrePassivate.add(new ManagedReferenceLifecycleMethodInterceptorFactory(contextKey, method, true, true));
+                                    }
+                                }
+                                final MethodIdentifier postActivateMethodIdentifier = interceptorConfig.getPostActivate();
+                                if (postActivateMethodIdentifier != null) {
+                                    final Method method = ClassReflectionIndexUtil.findRequiredMethod(deploymentReflectionIndex, clazz, postActivateMethodIdentifier);
+                                    if (isNotOverriden(clazz, method, interceptorClass.getModuleClass(), deploymentReflectionIndex)) {
+                                        List<InterceptorFactory> userPostActivate = userPostActivateByInterceptorClass.get(interceptorClassName);
+                                        if (userPostActivate == null) {
+                                            userPostActivateByInterceptorClass.put(interceptorClassName, userPostActivate = new ArrayList<InterceptorFactory>());
+                                        }
+                                        userPostActivate.add(new ManagedReferenceLifecycleMethodInterceptorFactory(contextKey, method, true, true));
+                                    }
+                                }
+                            }
                         }
                         final MethodIdentifier aroundInvokeMethodIdentifier = interceptorConfig.getAroundInvoke();
                         if (aroundInvokeMethodIdentifier != null) {
@@ -705,6 +744,8 @@ public class ComponentDescription {
 
             final Deque<InterceptorFactory> userPostConstruct = new ArrayDeque<InterceptorFactory>();
             final Deque<InterceptorFactory> userPreDestroy = new ArrayDeque<InterceptorFactory>();
+            final Deque<InterceptorFactory> userPrePassivate = new ArrayDeque<InterceptorFactory>();
+            final Deque<InterceptorFactory> userPostActivate = new ArrayDeque<InterceptorFactory>();
 
             //now add the lifecycle interceptors in the correct order
 
@@ -716,6 +757,12 @@ public class ComponentDescription {
                 if (userPreDestroyByInterceptorClass.containsKey(interceptorClass.getInterceptorClassName())) {
                     userPreDestroy.addAll(userPreDestroyByInterceptorClass.get(interceptorClass.getInterceptorClassName()));
                 }
+                if (userPrePassivateByInterceptorClass.containsKey(interceptorClass.getInterceptorClassName())) {
+                    userPrePassivate.addAll(userPrePassivateByInterceptorClass.get(interceptorClass.getInterceptorClassName()));
+                }
+                if (userPostActivateByInterceptorClass.containsKey(interceptorClass.getInterceptorClassName())) {
+                    userPostActivate.addAll(userPostActivateByInterceptorClass.get(interceptorClass.getInterceptorClassName()));
+                }
             }
 
 
@@ -742,6 +789,22 @@ public class ComponentDescription {
                             userPreDestroy.addLast(interceptorFactory);
                         }
                     }
+                    if (description.isPassivationApplicable()) {
+                        final MethodIdentifier componentPrePassivateMethodIdentifier = interceptorConfig.getPrePassivate();
+                        if (componentPrePassivateMethodIdentifier != null) {
+                            final Method method = ClassReflectionIndexUtil.findRequiredMethod(deploymentReflectionIndex, clazz, componentPrePassivateMethodIdentifier);
+                            if (isNotOverriden(clazz, method, componentClassIndex.getIndexedClass(), deploymentReflectionIndex)) {
+                                userPrePassivate.addLast(new ManagedReferenceLifecycleMethodInterceptorFactory(instanceKey, method, true, true));
+                            }
+                        }
+                        final MethodIdentifier componentPostActivateMethodIdentifier = interceptorConfig.getPostActivate();
+                        if (componentPostActivateMethodIdentifier != null) {
+                            final Method method = ClassReflectionIndexUtil.findRequiredMethod(deploymentReflectionIndex, clazz, componentPostActivateMethodIdentifier);
+                            if (isNotOverriden(clazz, method, componentClassIndex.getIndexedClass(), deploymentReflectionIndex)) {
+                                userPostActivate.addLast(new ManagedReferenceLifecycleMethodInterceptorFactory(instanceKey, method, true, true));
+                            }
+                        }
+                    }
                     final MethodIdentifier componentAroundInvokeMethodIdentifier = interceptorConfig.getAroundInvoke();
                     if (componentAroundInvokeMethodIdentifier != null) {
                         final Method method = ClassReflectionIndexUtil.findRequiredMethod(deploymentReflectionIndex, clazz, componentAroundInvokeMethodIdentifier);
@@ -794,6 +857,18 @@ public class ComponentDescription {
             configuration.addPreDestroyInterceptor(Interceptors.getTerminalInterceptorFactory(), InterceptorOrder.ComponentPreDestroy.TERMINAL_INTERCEPTOR);
             configuration.addPreDestroyInterceptor(tcclInterceptor, InterceptorOrder.ComponentPreDestroy.TCCL_INTERCEPTOR);
 
+            // Apply pre-passivate and post-activate, the chains are left empty if there are no callbacks
+            if (!userPrePassivate.isEmpty()) {
+                configuration.addPrePassivateInterceptor(weaved(userPrePassivate), InterceptorOrder.ComponentPassivation.USER_INTERCEPTORS);
+                configuration.addPrePassivateInterceptor(Interceptors.getTerminalInterceptorFactory(), InterceptorOrder.ComponentPassivation.TERMINAL_INTERCEPTOR);
+                configuration.addPrePassivateInterceptor(tcclInterceptor, InterceptorOrder.ComponentPassivation.TCCL_INTERCEPTOR);
+            }
+            if (!userPostActivate.isEmpty()) {
+                configuration.addPostActivateInterceptor(weaved(userPostActivate), InterceptorOrder.ComponentPassivation.USER_INTERCEPTORS);
+                configuration.addPostActivateInterceptor(Interceptors.getTerminalInterceptorFactory(), InterceptorOrder.ComponentPassivation.TERMINAL_INTERCEPTOR);
+                configuration.addPostActivateInterceptor(tcclInterceptor, InterceptorOrder.ComponentPassivation.TCCL_INTERCEPTOR);
+            }
+
             // @AroundInvoke interceptors
             final List<InterceptorDescription> classInterceptors = description.getClassInterceptors();
             final Map<MethodIdentifier, List<InterceptorDescription>> methodInterceptors = description.getMethodInterceptors();
@@ -895,7 +970,7 @@ public class ComponentDescription {
                 final ViewConfiguration viewConfiguration;
 
                 final ProxyConfiguration proxyConfiguration = new ProxyConfiguration();
-                proxyConfiguration.setProxyName(viewClass.getName() + "$$$view" + PROXY_ID.incrementAndGet());
+                proxyConfiguration.setProxyName(viewClass.getName() + VIEW_PROXY_NAME_MARKER + PROXY_ID.incrementAndGet());
                 proxyConfiguration.setClassLoader(module.getClassLoader());
                 proxyConfiguration.setProtectionDomain(viewClass.getProtectionDomain());
                 proxyConfiguration.setMetadataSource(proxyReflectionIndex);
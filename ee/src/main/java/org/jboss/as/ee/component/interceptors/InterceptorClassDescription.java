@@ -35,12 +35,20 @@ public class InterceptorClassDescription {
     private final MethodIdentifier aroundTimeout;
     private final MethodIdentifier preDestroy;
     private final MethodIdentifier postConstruct;
+    private final MethodIdentifier prePassivate;
+    private final MethodIdentifier postActivate;
 
     public InterceptorClassDescription(final MethodIdentifier aroundInvoke, final MethodIdentifier aroundTimeout, final MethodIdentifier preDestroy, final MethodIdentifier postConstruct) {
+        this(aroundInvoke, aroundTimeout, preDestroy, postConstruct, null, null);
+    }
+
+    public InterceptorClassDescription(final MethodIdentifier aroundInvoke, final MethodIdentifier aroundTimeout, final MethodIdentifier preDestroy, final MethodIdentifier postConstruct, final MethodIdentifier prePassivate, final MethodIdentifier postActivate) {
         this.aroundInvoke = aroundInvoke;
         this.aroundTimeout = aroundTimeout;
         this.preDestroy = preDestroy;
         this.postConstruct = postConstruct;
+        this.prePassivate = prePassivate;
+        this.postActivate = postActivate;
     }
 
     /**
@@ -74,6 +82,12 @@ public class InterceptorClassDescription {
         if(override.getPreDestroy() != null) {
             builder.setPreDestroy(override.getPreDestroy());
         }
+        if(override.getPrePassivate() != null) {
+            builder.setPrePassivate(override.getPrePassivate());
+        }
+        if(override.getPostActivate() != null) {
+            builder.setPostActivate(override.getPostActivate());
+        }
         return builder.build();
     }
 
@@ -104,6 +118,8 @@ public class InterceptorClassDescription {
         private MethodIdentifier aroundTimeout;
         private MethodIdentifier preDestroy;
         private MethodIdentifier postConstruct;
+        private MethodIdentifier prePassivate;
+        private MethodIdentifier postActivate;
 
         Builder() {
 
@@ -114,10 +130,12 @@ public class InterceptorClassDescription {
             this.aroundTimeout = existing.aroundTimeout;
             this.preDestroy = existing.preDestroy;
             this.postConstruct = existing.postConstruct;
+            this.prePassivate = existing.prePassivate;
+            this.postActivate = existing.postActivate;
         }
 
         public InterceptorClassDescription build() {
-            return new InterceptorClassDescription(aroundInvoke, aroundTimeout, preDestroy, postConstruct);
+            return new InterceptorClassDescription(aroundInvoke, aroundTimeout, preDestroy, postConstruct, prePassivate, postActivate);
         }
 
 
@@ -152,6 +170,22 @@ public class InterceptorClassDescription {
         public void setPreDestroy(final MethodIdentifier preDestroy) {
             this.preDestroy = preDestroy;
         }
+
+        public MethodIdentifier getPrePassivate() {
+            return prePassivate;
+        }
+
+        public void setPrePassivate(final MethodIdentifier prePassivate) {
+            this.prePassivate = prePassivate;
+        }
+
+        public MethodIdentifier getPostActivate() {
+            return postActivate;
+        }
+
+        public void setPostActivate(final MethodIdentifier postActivate) {
+            this.postActivate = postActivate;
+        }
     }
 
     public MethodIdentifier getAroundInvoke() {
@@ -169,4 +203,12 @@ public class InterceptorClassDescription {
     public MethodIdentifier getPreDestroy() {
         return preDestroy;
     }
+
+    public MethodIdentifier getPrePassivate() {
+        return prePassivate;
+    }
+
+    public MethodIdentifier getPostActivate() {
+        return postActivate;
+    }
 }
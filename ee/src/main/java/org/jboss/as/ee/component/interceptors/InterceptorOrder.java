@@ -111,6 +111,20 @@ public class
 
     }
 
+    /**
+     * Order of the pre-passivate and post-activate interceptor chains
+     */
+    public static final class ComponentPassivation {
+
+        public static final int TCCL_INTERCEPTOR = 0x100;
+        public static final int USER_INTERCEPTORS = 0x200;
+        public static final int TERMINAL_INTERCEPTOR = 0x300;
+
+        private ComponentPassivation() {
+        }
+
+    }
+
     public static final class View {
         public static final int EJB_EXCEPTION_LOGGING_INTERCEPTOR                       = 0x000;
         public static final int TCCL_INTERCEPTOR                                        = 0x001;
@@ -346,4 +346,92 @@ public interface EjbLogger extends BasicLogger {
     @LogMessage(level = WARN)
     @Message(id = 14136, value = "EJB %s is not being replaced with a Stub as it is not exposed over IIOP")
     void ejbNotExposedOverIIOP(EJBLocator locator);
+
+    /**
+     * Logs an error message indicating that a task scheduled with the stateful session expiration scheduler failed
+     *
+     * @param task  the task that failed
+     * @param cause the cause of the error
+     */
+    @LogMessage(level = ERROR)
+    @Message(id = 14137, value = "Stateful session expiration task %s failed")
+    void expirationTaskFailed(Object task, @Cause Throwable cause);
+
+    /**
+     * Logs a warning message indicating that a stateful session could not be passivated and will stay in memory
+     *
+     * @param session the session that could not be passivated
+     * @param cause   the cause of the error
+     */
+    @LogMessage(level = WARN)
+    @Message(id = 14138, value = "Could not passivate stateful session %s, it will be kept in memory")
+    void failedToPassivateStatefulSession(Object session, @Cause Throwable cause);
+
+    /**
+     * Logs an error message indicating that a passivated stateful session could not be activated
+     *
+     * @param session the session that could not be activated
+     * @param cause   the cause of the error
+     */
+    @LogMessage(level = ERROR)
+    @Message(id = 14139, value = "Could not activate passivated stateful session %s, the session has been removed")
+    void failedToActivateStatefulSession(Object session, @Cause Throwable cause);
+
+    /**
+     * Logs a warning message indicating that the passivated state of a stateful session could not be deleted
+     *
+     * @param file the file that could not be deleted
+     */
+    @LogMessage(level = WARN)
+    @Message(id = 14140, value = "Could not delete passivated stateful session state %s")
+    void failedToDeletePassivatedState(File file);
+
+    /**
+     * Logs an error message indicating that a due timer could not be handed to its executor
+     *
+     * @param timeout the timeout that could not be dispatched
+     * @param cause   the cause of the error
+     */
+    @LogMessage(level = ERROR)
+    @Message(id = 14141, value = "Failed to dispatch timeout %s")
+    void timeoutDispatchFailed(Object timeout, @Cause Throwable cause);
+
+    /**
+     * Logs a warning message indicating that the rest of a timer journal segment could not be read
+     *
+     * @param file   the segment
+     * @param offset the offset of the first record that could not be read
+     */
+    @LogMessage(level = WARN)
+    @Message(id = 14142, value = "Ignoring the remainder of timer journal segment %s from offset %d, which is truncated or corrupt")
+    void corruptTimerJournalSegment(File file, long offset);
+
+    /**
+     * Logs an error message indicating that the timer journal could not be compacted
+     *
+     * @param cause the cause of the error
+     */
+    @LogMessage(level = ERROR)
+    @Message(id = 14143, value = "Failed to compact the timer journal")
+    void timerJournalCompactionFailed(@Cause Throwable cause);
+
+    /**
+     * Logs a warning message indicating that a compacted timer journal segment could not be deleted
+     *
+     * @param file the segment
+     */
+    @LogMessage(level = WARN)
+    @Message(id = 14144, value = "Could not delete compacted timer journal segment %s")
+    void failedToDeleteTimerJournalSegment(File file);
+
+    /**
+     * Logs a warning message indicating that an entity instance which was evicted from the ready cache could not be
+     * passivated, and is discarded instead
+     *
+     * @param instance the entity instance
+     * @param cause    the cause of the error
+     */
+    @LogMessage(level = WARN)
+    @Message(id = 14145, value = "Failed to passivate entity instance %s evicted from the ready cache, discarding it")
+    void failedToPassivateEvictedEntity(EntityBeanComponentInstance instance, @Cause Throwable cause);
 }
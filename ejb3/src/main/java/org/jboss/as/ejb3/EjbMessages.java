@@ -1,6 +1,7 @@
 package org.jboss.as.ejb3;
 
 import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.Method;
 import java.rmi.RemoteException;
 import java.util.Set;
@@ -1858,4 +1859,30 @@ public interface EjbMessages {
     @Message(id=14525, value = "Transaction propagation over IIOP is not supported")
     RemoteException transactionPropagationNotSupported();
 
+    /**
+     * Creates an exception indicating that the stateful session passivation directory could not be created
+     *
+     * @param dir the directory
+     * @return a {@link RuntimeException} for the error.
+     */
+    @Message(id = 14526, value = "Could not create stateful session passivation directory %s")
+    RuntimeException failToCreatePassivationDir(File dir);
+
+    /**
+     * Creates an exception indicating that a timer was written to the timer journal after it was stopped
+     *
+     * @return an {@link IllegalStateException} for the error.
+     */
+    @Message(id = 14527, value = "The timer journal has been stopped")
+    IllegalStateException timerJournalStopped();
+
+    /**
+     * Creates an exception indicating that the files of a directory could not be listed
+     *
+     * @param dir the directory
+     * @return an {@link IOException} for the error.
+     */
+    @Message(id = 14528, value = "Could not list the files of directory %s")
+    IOException failToListDirectory(File dir);
+
 }
\ No newline at end of file
@@ -95,4 +95,35 @@ public interface Cache<T extends Identifiable> {
      * Stop the cache.
      */
     void stop();
+
+    /**
+     * @return the number of cached objects that are held in memory
+     */
+    int getCacheSize();
+
+    /**
+     * @return the number of cached objects that are passivated
+     */
+    int getPassivatedCount();
+
+    /**
+     * @return the number of times {@link #get(SessionID)} found the object in memory
+     */
+    long getHitCount();
+
+    /**
+     * @return the number of times {@link #get(SessionID)} did not find the object in memory, either because it
+     *         had to be activated or because it does not exist
+     */
+    long getMissCount();
+
+    /**
+     * @return the number of objects that have been passivated
+     */
+    long getPassivationCount();
+
+    /**
+     * @return the number of objects that have been activated
+     */
+    long getActivationCount();
 }
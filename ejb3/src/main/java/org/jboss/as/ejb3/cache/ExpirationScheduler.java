@@ -0,0 +1,257 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+
+import org.jboss.msc.inject.Injector;
+import org.jboss.msc.service.Service;
+import org.jboss.msc.service.ServiceName;
+import org.jboss.msc.service.StartContext;
+import org.jboss.msc.service.StartException;
+import org.jboss.msc.service.StopContext;
+import org.jboss.msc.value.InjectedValue;
+
+import static org.jboss.as.ejb3.EjbLogger.ROOT_LOGGER;
+
+/**
+ * A hashed timing wheel that is shared by the caches of all stateful components.
+ * <p/>
+ * A single thread advances the wheel one bucket per tick and only looks at the tasks that hash to the current
+ * bucket, so the cost of a tick is proportional to the number of tasks that are due (or one wheel revolution
+ * away from being due) rather than to the total number of scheduled tasks. Scheduling is a lock-free queue
+ * insertion; the scheduled tasks are moved into their buckets by the wheel thread itself, so the buckets need
+ * no synchronization.
+ * <p/>
+ * The wheel thread only does the bookkeeping. Due tasks are handed off to an executor, the EJB3 subsystem's
+ * default thread pool if it is installed, so a slow {@code @PreDestroy} callback of one bean does not delay the
+ * expiration of the other beans.
+ * <p/>
+ * Tasks cannot be cancelled. Callers are expected to re-check their state when the task fires and to
+ * re-schedule if the deadline has moved, which keeps at most one pending task per cached entry.
+ */
+public class ExpirationScheduler implements Service<ExpirationScheduler> {
+
+    public static final ServiceName SERVICE_NAME = ServiceName.JBOSS.append("ejb3", "statefulExpirationScheduler");
+
+    private static final long DEFAULT_TICK_MILLIS = 100;
+    private static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<Timeout>();
+    private final InjectedValue<ExecutorService> executor = new InjectedValue<ExecutorService>();
+
+    private volatile Worker worker;
+    private volatile ExecutorService taskExecutor;
+    private ExecutorService ownExecutor;
+
+    public ExpirationScheduler() {
+        this(DEFAULT_TICK_MILLIS, DEFAULT_WHEEL_SIZE);
+    }
+
+    /**
+     * @param tickMillis the duration of a tick in milliseconds
+     * @param wheelSize  the number of buckets in the wheel, must be a power of two
+     */
+    public ExpirationScheduler(final long tickMillis, final int wheelSize) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive");
+        }
+        if (wheelSize <= 0 || (wheelSize & (wheelSize - 1)) != 0) {
+            throw new IllegalArgumentException("wheelSize must be a power of two");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+    }
+
+    /**
+     * Schedules the task to be run at, or shortly after, the given deadline.
+     *
+     * @param task     the task
+     * @param deadline the deadline, in {@link System#currentTimeMillis()} time
+     */
+    public void schedule(final Runnable task, final long deadline) {
+        pending.add(new Timeout(task, deadline));
+    }
+
+    @Override
+    public synchronized void start(final StartContext context) throws StartException {
+        ExecutorService taskExecutor = executor.getOptionalValue();
+        if (taskExecutor == null) {
+            final ThreadFactory threadFactory = new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable r) {
+                    final Thread thread = new Thread(r, "EJB stateful session expiration task");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            };
+            taskExecutor = ownExecutor = Executors.newCachedThreadPool(threadFactory);
+        }
+        this.taskExecutor = taskExecutor;
+        final Worker worker = new Worker();
+        worker.setDaemon(true);
+        worker.setName("EJB stateful session expiration");
+        this.worker = worker;
+        worker.start();
+    }
+
+    @Override
+    public synchronized void stop(final StopContext context) {
+        final Worker worker = this.worker;
+        this.worker = null;
+        if (worker != null) {
+            worker.stopTask();
+        }
+        pending.clear();
+        if (ownExecutor != null) {
+            ownExecutor.shutdown();
+            ownExecutor = null;
+        }
+        taskExecutor = null;
+    }
+
+    @Override
+    public ExpirationScheduler getValue() throws IllegalStateException, IllegalArgumentException {
+        return this;
+    }
+
+    /**
+     * The executor due tasks are run on. If nothing is injected the scheduler runs the tasks on threads of its own.
+     */
+    public Injector<ExecutorService> getExecutorInjector() {
+        return executor;
+    }
+
+    private void dispatch(final Runnable task) {
+        final ExecutorService taskExecutor = this.taskExecutor;
+        if (taskExecutor == null) {
+            return;
+        }
+        try {
+            taskExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        task.run();
+                    } catch (Throwable t) {
+                        ROOT_LOGGER.expirationTaskFailed(task, t);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            ROOT_LOGGER.expirationTaskFailed(task, e);
+        }
+    }
+
+    private static final class Timeout {
+        private final Runnable task;
+        private final long deadline;
+        private long remainingRounds;
+        private Timeout next;
+
+        Timeout(final Runnable task, final long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+    }
+
+    private final class Worker extends Thread {
+
+        private volatile boolean running = true;
+        private final long startTime = System.currentTimeMillis();
+        private final Timeout[] wheel = new Timeout[wheelSize];
+        private final int mask = wheelSize - 1;
+        private long tick;
+
+        @Override
+        public void run() {
+            final List<Timeout> due = new ArrayList<Timeout>();
+            while (running) {
+                final long sleep = startTime + (tick + 1) * tickMillis - System.currentTimeMillis();
+                if (sleep > 0) {
+                    try {
+                        sleep(sleep);
+                    } catch (InterruptedException e) {
+                        running = false;
+                        break;
+                    }
+                }
+                transferPending();
+                collectDue(due);
+                for (Timeout timeout : due) {
+                    dispatch(timeout.task);
+                }
+                due.clear();
+                ++tick;
+            }
+        }
+
+        private void transferPending() {
+            Timeout timeout;
+            while ((timeout = pending.poll()) != null) {
+                final long calculated = (timeout.deadline - startTime) / tickMillis;
+                // deadlines in the past go in the current bucket, so they fire on this tick
+                final long ticks = Math.max(calculated, tick);
+                timeout.remainingRounds = (ticks - tick) / wheel.length;
+                final int index = (int) (ticks & mask);
+                timeout.next = wheel[index];
+                wheel[index] = timeout;
+            }
+        }
+
+        private void collectDue(final List<Timeout> due) {
+            final int index = (int) (tick & mask);
+            Timeout previous = null;
+            Timeout timeout = wheel[index];
+            while (timeout != null) {
+                final Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    if (previous == null) {
+                        wheel[index] = next;
+                    } else {
+                        previous.next = next;
+                    }
+                    timeout.next = null;
+                    due.add(timeout);
+                } else {
+                    --timeout.remainingRounds;
+                    previous = timeout;
+                }
+                timeout = next;
+            }
+        }
+
+        public void stopTask() {
+            running = false;
+            interrupt();
+        }
+    }
+}
@@ -21,12 +21,16 @@
  */
 package org.jboss.as.ejb3.cache;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.transaction.RollbackException;
 import javax.transaction.Synchronization;
@@ -35,7 +39,6 @@ import javax.transaction.Transaction;
 import javax.transaction.TransactionManager;
 
 import static org.jboss.as.ejb3.EjbLogger.ROOT_LOGGER;
-import static org.jboss.as.ejb3.EjbMessages.MESSAGES;
 
 import org.jboss.ejb.client.SessionID;
 import org.jboss.tm.TxUtils;
@@ -43,70 +46,89 @@ import org.jboss.tm.TxUtils;
 /**
  * Cache that handles EJB expiration. This cache can be wrapped around an existing cache to
  * provide expiration functionality.
+ * <p/>
+ * Entries are kept in a concurrent map, and an entry is handed to the shared {@link ExpirationScheduler} when it
+ * becomes inactive, so expiring sessions costs O(expired) rather than a scan of every session. An entry has at
+ * most one pending expiration task; if the entry was used again before the task fires the task simply
+ * re-schedules itself for the new deadline.
+ * <p/>
+ * If the cache is created with a maximum size it also passivates: once more than max size objects are held in
+ * memory the least recently used inactive entries are written to a {@link PassivationStore}, and they are
+ * activated again on the next {@link #get(SessionID)}. The recency order is kept in a queue that holds each
+ * inactive entry at most once; an entry that was used again after it was queued is moved to the back of the queue
+ * when it reaches the front, rather than on every use. Passivation runs on the executor of the store, never on the
+ * request thread that pushed the cache over its maximum size.
  *
  * @author Stuart Douglas
  */
 public class ExpiringCache<T extends Identifiable> implements Cache<T> {
 
-    private static final long SLEEP_TIME = 500;
-
     private final long millisecondTimeout;
     private final String beanName;
-    private final Map<SessionID, Entry> cache;
-
-    private volatile StatefulObjectFactory<T> factory;
-    private volatile ExpirationTask expiryThread;
-
-    private class ExpirationTask extends Thread {
-
-        private volatile boolean running = true;
+    private final ConcurrentMap<SessionID, Entry> cache;
+    private final ExpirationScheduler scheduler;
 
+    /**
+     * The maximum number of objects held in memory, only used if there is a passivation store
+     */
+    private final int maxSize;
+    private final PassivationStore passivationStore;
+    private final Passivator<T> passivator;
+    /**
+     * Passivation candidates, least recently used first
+     */
+    private final Queue<Entry> passivationQueue = new ConcurrentLinkedQueue<Entry>();
+    /**
+     * Set while a passivation task is queued or running, so that at most one task per cache is pending
+     */
+    private final AtomicBoolean passivationScheduled = new AtomicBoolean();
+    private final Runnable passivationTask = new Runnable() {
         @Override
         public void run() {
-            while (running) {
-
-                final List<Entry> queue = new ArrayList<Entry>();
-                final long time = System.currentTimeMillis();
-                synchronized (cache) {
-                    Iterator<Map.Entry<SessionID, Entry>> iterator = cache.entrySet().iterator();
-                    while (iterator.hasNext()) {
-                        final Map.Entry<SessionID, Entry> entry = iterator.next();
-                        if (entry.getValue().isExpired(time)) {
-                            queue.add(entry.getValue());
-                            iterator.remove();
-                        }
-                    }
-                }
-                for (Entry value : queue) {
-                    try {
-                        ROOT_LOGGER.debugf("Removing stateful bean %s - %s as it has been inactive for %d milliseconds", beanName, value.getKey(), millisecondTimeout);
-                        factory.destroyInstance(value.getValue());
-                    } catch (Exception e) {
-                        ROOT_LOGGER.errorRemovingStatefulBean(value.getKey(), e);
-                    }
-                }
-
-                try {
-                    sleep(SLEEP_TIME);
-                } catch (InterruptedException e) {
-                    running = false;
-                    return;
-                }
+            try {
+                passivateIfNecessary();
+            } finally {
+                passivationScheduled.set(false);
+            }
+            // entries released while the task was finishing may have been missed
+            if (!passivationQueue.isEmpty()) {
+                schedulePassivation();
             }
         }
+    };
 
-        public void stopTask() {
-            running = false;
-        }
-    }
+    private final AtomicInteger inMemoryCount = new AtomicInteger();
+    private final AtomicInteger passivatedCount = new AtomicInteger();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong passivations = new AtomicLong();
+    private final AtomicLong activations = new AtomicLong();
+
+    private volatile StatefulObjectFactory<T> factory;
+    private volatile boolean started;
 
     private enum State {
-        IN_USE, INACTIVE
+        IN_USE, INACTIVE, PASSIVATED, EXPIRED
     }
 
-    private final class Entry {
+    /**
+     * A cache entry. The state of an entry is guarded by the entry itself, which is only ever contended by a
+     * request thread and the expiration or passivation of the same session.
+     */
+    private final class Entry implements Runnable {
         private long lastUsed;
         private State state = State.IN_USE;
+        private boolean scheduled;
+        /**
+         * The number of times the entry has been released, used to tell whether it was used since it was queued
+         */
+        private long releases;
+        private long queuedAt;
+        private boolean queued;
+        /**
+         * Set if the entry could not be passivated, it will not be tried again
+         */
+        private boolean pinned;
         private final T value;
 
         public Entry(final T value) {
@@ -114,78 +136,301 @@ public class ExpiringCache<T extends Identifiable> implements Cache<T> {
             this.lastUsed = System.currentTimeMillis();
         }
 
-        public void setLastUsed(final long lastUsed) {
-            this.lastUsed = lastUsed;
-        }
-
         public SessionID getKey() {
             return value.getId();
         }
 
-        public long getLastUsed() {
-            return lastUsed;
+        public T getValue() {
+            return value;
         }
 
-        public boolean isExpired(long currentTimeInMillis) {
-            return state == State.INACTIVE && currentTimeInMillis > lastUsed + millisecondTimeout;
+        /**
+         * Invoked by the expiration scheduler once the deadline this entry was scheduled for has passed
+         */
+        @Override
+        public void run() {
+            expire(this);
         }
 
-        public T getValue() {
-            return value;
+        @Override
+        public String toString() {
+            return beanName + " - " + getKey();
         }
     }
 
-    public ExpiringCache(long value, TimeUnit timeUnit, final String beanName) {
+    public ExpiringCache(long value, TimeUnit timeUnit, final String beanName, final ExpirationScheduler scheduler) {
+        this(value, timeUnit, beanName, scheduler, -1, null, null);
+    }
+
+    /**
+     * Creates a cache that passivates the least recently used inactive objects once it holds more than
+     * <code>maxSize</code> objects in memory. Passivation is disabled if the store is null.
+     *
+     * @param value            the timeout after which an inactive object expires, or -1 for no timeout
+     * @param timeUnit         the unit of the timeout
+     * @param beanName         the name of the bean
+     * @param scheduler        the scheduler that expires the objects
+     * @param maxSize          the number of objects to hold in memory
+     * @param passivationStore the store passivated objects are written to, passivation runs on its executor
+     * @param passivator       detaches and re-attaches the state of the objects
+     */
+    public ExpiringCache(long value, TimeUnit timeUnit, final String beanName, final ExpirationScheduler scheduler,
+                         final int maxSize, final PassivationStore passivationStore, final Passivator<T> passivator) {
+        if (passivationStore != null && maxSize < 0) {
+            throw new IllegalArgumentException("maxSize must not be negative");
+        }
         this.beanName = beanName;
+        this.scheduler = scheduler;
+        this.maxSize = maxSize;
+        this.passivationStore = passivationStore;
+        this.passivator = passivator;
         millisecondTimeout = TimeUnit.MILLISECONDS.convert(value, timeUnit);
-        cache = new HashMap<SessionID, Entry>();
+        cache = new ConcurrentHashMap<SessionID, Entry>();
     }
 
     @Override
     public T create() {
         T obj = factory.createInstance();
         Entry entry = new Entry(obj);
-        synchronized (cache) {
-            cache.put(obj.getId(), entry);
-        }
+        cache.put(obj.getId(), entry);
+        inMemoryCount.incrementAndGet();
         return obj;
     }
 
     @Override
     public void discard(final SessionID key) {
-        synchronized (cache) {
-            cache.remove(key);
+        final Entry entry = cache.remove(key);
+        if (entry != null) {
+            final State previous;
+            synchronized (entry) {
+                previous = retire(entry);
+            }
+            if (previous == State.PASSIVATED) {
+                passivationStore.remove(beanName, key);
+                passivator.discard(entry.getValue());
+            }
         }
     }
 
     @Override
     public T get(final SessionID key) {
-        synchronized (cache) {
-            Entry val = cache.get(key);
-            if (val == null) {
+        final Entry val = cache.get(key);
+        if (val == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        final State previous;
+        boolean lost = false;
+        synchronized (val) {
+            previous = val.state;
+            if (previous == State.EXPIRED) {
+                misses.incrementAndGet();
                 return null;
             }
-            val.lastUsed = System.currentTimeMillis();
-            val.state = State.IN_USE;
+            if (previous == State.PASSIVATED && !activate(val)) {
+                retire(val);
+                lost = true;
+            } else {
+                val.lastUsed = System.currentTimeMillis();
+                val.state = State.IN_USE;
+            }
+        }
+        if (previous != State.PASSIVATED) {
+            hits.incrementAndGet();
             return val.getValue();
         }
+        misses.incrementAndGet();
+        if (lost) {
+            // the passivated state could not be read back, so the session is gone
+            cache.remove(key, val);
+            passivationStore.remove(beanName, key);
+            passivator.discard(val.getValue());
+            return null;
+        }
+        schedulePassivation();
+        return val.getValue();
     }
 
     @Override
     public void release(final T obj) {
-        synchronized (cache) {
-            Entry entry = cache.get(obj.getId());
+        final Entry entry = cache.get(obj.getId());
+        if (entry == null) {
+            ROOT_LOGGER.couldNotFindStatefulBean(obj.getId());
+            return;
+        }
+        boolean schedule = false;
+        long deadline = 0;
+        synchronized (entry) {
+            entry.lastUsed = System.currentTimeMillis();
+            entry.state = State.INACTIVE;
+            ++entry.releases;
+            if (passivationStore != null && !entry.queued && !entry.pinned) {
+                entry.queued = true;
+                entry.queuedAt = entry.releases;
+                passivationQueue.add(entry);
+            }
+            if (!entry.scheduled && started && millisecondTimeout >= 0) {
+                entry.scheduled = true;
+                schedule = true;
+                deadline = entry.lastUsed + millisecondTimeout;
+            }
+        }
+        if (schedule) {
+            scheduler.schedule(entry, deadline);
+        }
+        schedulePassivation();
+    }
 
-            if (entry == null) {
-                ROOT_LOGGER.couldNotFindStatefulBean(obj.getId());
+    private void expire(final Entry entry) {
+        final long deadline;
+        final boolean expired;
+        State previous = null;
+        synchronized (entry) {
+            entry.scheduled = false;
+            if (entry.state != State.INACTIVE && entry.state != State.PASSIVATED) {
+                // in use, it will be scheduled again when it is released
                 return;
             }
-            //this must stay within the synchronized block so the changes are visible to other threads
-            entry.lastUsed = System.currentTimeMillis();
-            entry.state = State.INACTIVE;
+            deadline = entry.lastUsed + millisecondTimeout;
+            expired = System.currentTimeMillis() >= deadline;
+            if (expired) {
+                previous = retire(entry);
+            } else {
+                // used again since it was scheduled
+                entry.scheduled = true;
+            }
+        }
+        if (!expired) {
+            scheduler.schedule(entry, deadline);
+            return;
+        }
+        cache.remove(entry.getKey(), entry);
+        try {
+            ROOT_LOGGER.debugf("Removing stateful bean %s - %s as it has been inactive for %d milliseconds", beanName, entry.getKey(), millisecondTimeout);
+            if (previous == State.PASSIVATED) {
+                // a passivated session is removed without being activated, so no pre destroy callbacks are run
+                passivationStore.remove(beanName, entry.getKey());
+                passivator.discard(entry.getValue());
+            } else {
+                factory.destroyInstance(entry.getValue());
+            }
+        } catch (Exception e) {
+            ROOT_LOGGER.errorRemovingStatefulBean(entry.getKey(), e);
+        }
+    }
+
+    /**
+     * Hands passivation to the executor of the store if the cache holds more than max size objects in memory.
+     */
+    private void schedulePassivation() {
+        if (passivationStore == null || inMemoryCount.get() <= maxSize) {
+            return;
+        }
+        if (passivationScheduled.compareAndSet(false, true)) {
+            final Executor executor = passivationStore.getExecutor();
+            try {
+                if (executor == null) {
+                    throw new RejectedExecutionException();
+                }
+                executor.execute(passivationTask);
+            } catch (RejectedExecutionException e) {
+                // the store is stopping, the entries stay in memory
+                passivationScheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * Passivates the least recently used inactive entries until no more than max size entries are held in memory,
+     * or there are no inactive entries left.
+     */
+    private void passivateIfNecessary() {
+        if (passivationStore == null) {
+            return;
+        }
+        Entry entry;
+        while (inMemoryCount.get() > maxSize && (entry = passivationQueue.poll()) != null) {
+            passivate(entry);
+        }
+    }
+
+    private void passivate(final Entry entry) {
+        synchronized (entry) {
+            entry.queued = false;
+            if (entry.state != State.INACTIVE) {
+                // in use or gone, it is queued again when it is released
+                return;
+            }
+            if (entry.queuedAt != entry.releases) {
+                // used since it was queued, so it is no longer the least recently used
+                entry.queued = true;
+                entry.queuedAt = entry.releases;
+                passivationQueue.add(entry);
+                return;
+            }
+            final Object state;
+            try {
+                state = passivator.passivate(entry.getValue());
+            } catch (Exception e) {
+                ROOT_LOGGER.failedToPassivateStatefulSession(entry, e);
+                entry.pinned = true;
+                return;
+            }
+            try {
+                passivationStore.store(beanName, entry.getKey(), state, passivator.getObjectTable(entry.getValue()));
+            } catch (Exception e) {
+                ROOT_LOGGER.failedToPassivateStatefulSession(entry, e);
+                passivationStore.remove(beanName, entry.getKey());
+                try {
+                    passivator.activate(entry.getValue(), state);
+                } catch (Exception ex) {
+                    ROOT_LOGGER.failedToActivateStatefulSession(entry, ex);
+                }
+                entry.pinned = true;
+                return;
+            }
+            entry.state = State.PASSIVATED;
+            inMemoryCount.decrementAndGet();
+            passivatedCount.incrementAndGet();
+            passivations.incrementAndGet();
         }
     }
 
+    /**
+     * Reads the state of a passivated entry back from the store. Must be called while holding the entry lock.
+     *
+     * @return false if the state could not be read, in which case the entry is still passivated
+     */
+    private boolean activate(final Entry entry) {
+        try {
+            passivator.activate(entry.getValue(), passivationStore.load(beanName, entry.getKey(), passivator.getObjectTable(entry.getValue())));
+        } catch (Exception e) {
+            ROOT_LOGGER.failedToActivateStatefulSession(entry, e);
+            return false;
+        }
+        entry.state = State.INACTIVE;
+        passivatedCount.decrementAndGet();
+        inMemoryCount.incrementAndGet();
+        activations.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Marks an entry as gone and updates the counts. Must be called while holding the entry lock.
+     *
+     * @return the state the entry was in, if it was already {@link State#EXPIRED} someone else retired it
+     */
+    private State retire(final Entry entry) {
+        final State previous = entry.state;
+        if (previous == State.PASSIVATED) {
+            passivatedCount.decrementAndGet();
+        } else if (previous != State.EXPIRED) {
+            inMemoryCount.decrementAndGet();
+        }
+        entry.state = State.EXPIRED;
+        return previous;
+    }
+
     @Override
     public void remove(final TransactionManager transactionManager, final SessionID key) {
 
@@ -197,9 +442,24 @@ public class ExpiringCache<T extends Identifiable> implements Cache<T> {
         }
 
 
-        final Entry object;
-        synchronized (cache) {
-            object = cache.remove(key);
+        final Entry object = cache.remove(key);
+        final State previous;
+        synchronized (object) {
+            if (object.state == State.PASSIVATED) {
+                // activate it so that the pre destroy callbacks run against the real instance
+                activate(object);
+            }
+            previous = retire(object);
+        }
+        if (previous == State.EXPIRED) {
+            // already expired and destroyed
+            return;
+        }
+        if (previous == State.PASSIVATED) {
+            // the state could not be read back, so there is no instance to run the pre destroy callbacks against
+            passivationStore.remove(beanName, key);
+            passivator.discard(object.getValue());
+            return;
         }
 
         if (currentTx != null && TxUtils.isActive(currentTx)) {
@@ -225,23 +485,55 @@ public class ExpiringCache<T extends Identifiable> implements Cache<T> {
     }
 
     @Override
-    public synchronized void start() {
-        if (millisecondTimeout >= 0) {
-            expiryThread = new ExpirationTask();
-            expiryThread.setDaemon(true);
-            expiryThread.start();
-            expiryThread.setName("Expiry Thread for SFSB " + beanName);
-        }
+    public void start() {
+        started = true;
     }
 
     @Override
-    public synchronized void stop() {
-        if (expiryThread != null) {
-            expiryThread.stopTask();
-        }
-        synchronized (cache) {
-            cache.clear();
+    public void stop() {
+        started = false;
+        for (Entry entry : cache.values()) {
+            final State previous;
+            synchronized (entry) {
+                previous = retire(entry);
+            }
+            if (previous == State.PASSIVATED) {
+                passivationStore.remove(beanName, entry.getKey());
+                passivator.discard(entry.getValue());
+            }
         }
+        cache.clear();
+        passivationQueue.clear();
+    }
+
+    @Override
+    public int getCacheSize() {
+        return inMemoryCount.get();
+    }
+
+    @Override
+    public int getPassivatedCount() {
+        return passivatedCount.get();
+    }
+
+    @Override
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    @Override
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    @Override
+    public long getPassivationCount() {
+        return passivations.get();
+    }
+
+    @Override
+    public long getActivationCount() {
+        return activations.get();
     }
 
     /**
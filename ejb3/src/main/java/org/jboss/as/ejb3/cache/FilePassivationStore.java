@@ -0,0 +1,229 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.cache;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.jboss.ejb.client.SessionID;
+import org.jboss.marshalling.ClassResolver;
+import org.jboss.marshalling.InputStreamByteInput;
+import org.jboss.marshalling.Marshaller;
+import org.jboss.marshalling.MarshallerFactory;
+import org.jboss.marshalling.MarshallingConfiguration;
+import org.jboss.marshalling.ModularClassResolver;
+import org.jboss.marshalling.ObjectTable;
+import org.jboss.marshalling.OutputStreamByteOutput;
+import org.jboss.marshalling.Unmarshaller;
+import org.jboss.marshalling.river.RiverMarshallerFactory;
+import org.jboss.modules.ModuleLoader;
+import org.jboss.msc.service.Service;
+import org.jboss.msc.service.ServiceName;
+import org.jboss.msc.service.StartContext;
+import org.jboss.msc.service.StopContext;
+import org.jboss.msc.value.InjectedValue;
+
+import static org.jboss.as.ejb3.EjbLogger.ROOT_LOGGER;
+import static org.jboss.as.ejb3.EjbMessages.MESSAGES;
+
+/**
+ * File based store for passivated stateful sessions, with one file per session in one directory per bean.
+ * <p/>
+ * The state is written with JBoss Marshalling, resolving classes through the module loader in the same way as
+ * {@link org.jboss.as.ejb3.timerservice.persistence.filestore.FileTimerPersistence}, and with the object table of
+ * the {@link Passivator}, so that references to objects managed by the container are not written. Passivated sessions do not
+ * survive a restart, so the files are not synced to disk and anything left over from a previous run is deleted
+ * when the store starts. Sessions are passivated on a single background thread owned by the store.
+ */
+public class FilePassivationStore implements PassivationStore, Service<FilePassivationStore> {
+
+    public static final ServiceName SERVICE_NAME = ServiceName.JBOSS.append("ejb3", "statefulPassivationStore");
+    public static final ServiceName PATH_SERVICE_NAME = SERVICE_NAME.append("path");
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final InjectedValue<ModuleLoader> moduleLoader = new InjectedValue<ModuleLoader>();
+    private final InjectedValue<String> baseDir = new InjectedValue<String>();
+    private final ConcurrentMap<String, File> directories = new ConcurrentHashMap<String, File>();
+
+    private volatile MarshallerFactory factory;
+    private volatile ClassResolver classResolver;
+    private volatile ExecutorService executor;
+
+    @Override
+    public synchronized void start(final StartContext context) {
+        this.classResolver = ModularClassResolver.getInstance(moduleLoader.getValue());
+        this.factory = new RiverMarshallerFactory();
+
+        final File baseDir = new File(this.baseDir.getValue());
+        if (baseDir.exists()) {
+            deleteContents(baseDir);
+        } else if (!baseDir.mkdirs()) {
+            throw MESSAGES.failToCreatePassivationDir(baseDir);
+        }
+
+        final ThreadFactory threadFactory = new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable r) {
+                final Thread thread = new Thread(r, "EJB stateful session passivation");
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+        executor = Executors.newSingleThreadExecutor(threadFactory);
+    }
+
+    @Override
+    public synchronized void stop(final StopContext context) {
+        executor.shutdown();
+        executor = null;
+        directories.clear();
+        factory = null;
+        classResolver = null;
+    }
+
+    @Override
+    public FilePassivationStore getValue() throws IllegalStateException, IllegalArgumentException {
+        return this;
+    }
+
+    @Override
+    public void store(final String beanName, final SessionID id, final Object state, final ObjectTable objectTable) throws IOException {
+        final FileOutputStream out = new FileOutputStream(fileName(beanName, id), false);
+        try {
+            final Marshaller marshaller = factory.createMarshaller(createConfiguration(objectTable));
+            marshaller.start(new OutputStreamByteOutput(out));
+            marshaller.writeObject(state);
+            marshaller.finish();
+        } finally {
+            close(out);
+        }
+    }
+
+    @Override
+    public Object load(final String beanName, final SessionID id, final ObjectTable objectTable) throws IOException, ClassNotFoundException {
+        final File file = fileName(beanName, id);
+        final FileInputStream in = new FileInputStream(file);
+        try {
+            final Unmarshaller unmarshaller = factory.createUnmarshaller(createConfiguration(objectTable));
+            unmarshaller.start(new InputStreamByteInput(in));
+            final Object state = unmarshaller.readObject();
+            unmarshaller.finish();
+            return state;
+        } finally {
+            close(in);
+            delete(file);
+        }
+    }
+
+    @Override
+    public void remove(final String beanName, final SessionID id) {
+        final File file = fileName(beanName, id);
+        if (file.exists()) {
+            delete(file);
+        }
+    }
+
+    @Override
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    private MarshallingConfiguration createConfiguration(final ObjectTable objectTable) {
+        final MarshallingConfiguration configuration = new MarshallingConfiguration();
+        configuration.setClassResolver(classResolver);
+        configuration.setObjectTable(objectTable);
+        return configuration;
+    }
+
+    private File fileName(final String beanName, final SessionID id) {
+        final byte[] bytes = id.getEncodedForm();
+        final char[] name = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            name[i * 2] = HEX[(bytes[i] >> 4) & 0xf];
+            name[i * 2 + 1] = HEX[bytes[i] & 0xf];
+        }
+        return new File(getDirectory(beanName), new String(name));
+    }
+
+    /**
+     * Gets the directory for a given bean, making sure it exists.
+     *
+     * @param beanName The bean name
+     * @return The directory
+     */
+    private File getDirectory(final String beanName) {
+        File dir = directories.get(beanName);
+        if (dir == null) {
+            dir = new File(baseDir.getValue(), beanName.replace(File.separator, "-"));
+            if (!dir.exists() && !dir.mkdirs()) {
+                throw MESSAGES.failToCreatePassivationDir(dir);
+            }
+            directories.put(beanName, dir);
+        }
+        return dir;
+    }
+
+    private static void deleteContents(final File dir) {
+        final File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.isDirectory()) {
+                deleteContents(file);
+            }
+            delete(file);
+        }
+    }
+
+    private static void delete(final File file) {
+        if (!file.delete()) {
+            ROOT_LOGGER.failedToDeletePassivatedState(file);
+        }
+    }
+
+    private static void close(final Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            ROOT_LOGGER.failToCloseFile(e);
+        }
+    }
+
+    public InjectedValue<ModuleLoader> getModuleLoader() {
+        return moduleLoader;
+    }
+
+    public InjectedValue<String> getBaseDir() {
+        return baseDir;
+    }
+}
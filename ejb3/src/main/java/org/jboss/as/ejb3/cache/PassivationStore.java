@@ -0,0 +1,73 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.cache;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+
+import org.jboss.ejb.client.SessionID;
+import org.jboss.marshalling.ObjectTable;
+
+/**
+ * Stores the state of passivated stateful sessions outside of the heap.
+ */
+public interface PassivationStore {
+
+    /**
+     * Writes the state of a session to the store, replacing any state previously stored for it.
+     *
+     * @param beanName the name of the bean the session belongs to
+     * @param id       the session id
+     * @param state    the state to store
+     * @param objectTable the table to write the state with, or {@code null}
+     * @throws IOException if the state could not be written
+     */
+    void store(String beanName, SessionID id, Object state, ObjectTable objectTable) throws IOException;
+
+    /**
+     * Reads the state of a session back from the store and removes it from the store.
+     *
+     * @param beanName the name of the bean the session belongs to
+     * @param id       the session id
+     * @param objectTable the table the state was written with, or {@code null}
+     * @return the stored state
+     * @throws IOException            if the state could not be read
+     * @throws ClassNotFoundException if a class of the stored state could not be loaded
+     */
+    Object load(String beanName, SessionID id, ObjectTable objectTable) throws IOException, ClassNotFoundException;
+
+    /**
+     * Removes the stored state of a session without reading it, e.g. because the session has expired.
+     *
+     * @param beanName the name of the bean the session belongs to
+     * @param id       the session id
+     */
+    void remove(String beanName, SessionID id);
+
+    /**
+     * Gets the executor that passivation runs on, so that request threads never wait for the store or for the
+     * pre-passivate callbacks of other sessions.
+     *
+     * @return the executor
+     */
+    Executor getExecutor();
+}
@@ -0,0 +1,69 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.cache;
+
+import org.jboss.marshalling.ObjectTable;
+
+/**
+ * Detaches the state of a cached object so that it can be passivated, and attaches it again on activation.
+ *
+ * @param <T> the type of the cached objects
+ */
+public interface Passivator<T> {
+
+    /**
+     * Detaches the state that should be written to the {@link PassivationStore} from the object. If the state
+     * cannot be stored the cache hands it straight back through {@link #activate(Object, Object)}. If this method
+     * throws the object is left in memory and is not passivated again.
+     *
+     * @param obj the object to passivate
+     * @return the state of the object
+     */
+    Object passivate(T obj);
+
+    /**
+     * Attaches state previously returned by {@link #passivate(Object)} to the object again. If this method throws
+     * the object is treated as lost and {@link #discard(Object)} is called for it.
+     *
+     * @param obj   the object to activate
+     * @param state the state read back from the store
+     */
+    void activate(T obj, Object state);
+
+    /**
+     * Releases a passivated object that is dropped without being activated, e.g. because it expired or its state
+     * could not be read back. Any resources that were kept for the object when it was passivated must be released.
+     *
+     * @param obj the object to discard
+     */
+    void discard(T obj);
+
+    /**
+     * Gets the object table the state of the object is written to and read back from the {@link PassivationStore}
+     * with. It writes references the state holds that must not be marshalled, e.g. to objects managed by the
+     * container, and resolves them again on activation.
+     *
+     * @param obj the object being passivated or activated
+     * @return the object table, or {@code null} to marshal the whole state
+     */
+    ObjectTable getObjectTable(T obj);
+}
@@ -0,0 +1,79 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.component.entity;
+
+import org.jboss.as.ejb3.component.entity.entitycache.BoundedReadyEntityCache;
+import org.jboss.msc.service.Service;
+import org.jboss.msc.service.ServiceName;
+import org.jboss.msc.service.StartContext;
+import org.jboss.msc.service.StartException;
+import org.jboss.msc.service.StopContext;
+
+/**
+ * Service that manages the configuration of the ready cache of entity beans. A negative max size disables the
+ * {@link BoundedReadyEntityCache}, in which case instances are released as soon as no transaction uses them anymore.
+ * The values are read when an entity component is created, so changes apply to beans that are deployed afterwards.
+ */
+public class EntityBeanCacheConfigurationService implements Service<EntityBeanCacheConfigurationService> {
+
+    public static final ServiceName SERVICE_NAME = ServiceName.JBOSS.append("ejb3", "entityBeanCacheConfiguration");
+
+    private volatile int maxSize;
+
+    private volatile BoundedReadyEntityCache.CommitOption commitOption;
+
+    public EntityBeanCacheConfigurationService(final int maxSize, final BoundedReadyEntityCache.CommitOption commitOption) {
+        this.maxSize = maxSize;
+        this.commitOption = commitOption;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(final int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public BoundedReadyEntityCache.CommitOption getCommitOption() {
+        return commitOption;
+    }
+
+    public void setCommitOption(final BoundedReadyEntityCache.CommitOption commitOption) {
+        this.commitOption = commitOption;
+    }
+
+    @Override
+    public void start(final StartContext context) throws StartException {
+
+    }
+
+    @Override
+    public void stop(final StopContext context) {
+
+    }
+
+    @Override
+    public EntityBeanCacheConfigurationService getValue() throws IllegalStateException, IllegalArgumentException {
+        return this;
+    }
+}
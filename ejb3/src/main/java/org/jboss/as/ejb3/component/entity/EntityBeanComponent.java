@@ -35,6 +35,7 @@ import javax.ejb.EJBObject;
 import org.jboss.as.ee.component.BasicComponentInstance;
 import org.jboss.as.ee.component.Component;
 import org.jboss.as.ejb3.component.EJBComponent;
+import org.jboss.as.ejb3.component.entity.entitycache.BoundedReadyEntityCache;
 import org.jboss.as.ejb3.component.entity.entitycache.ReadyEntityCache;
 import org.jboss.as.ejb3.component.entity.entitycache.ReferenceCountingEntityCache;
 import org.jboss.as.ejb3.pool.InfinitePool;
@@ -145,6 +146,10 @@ public class EntityBeanComponent extends EJBComponent {
     }
 
     protected ReadyEntityCache createEntityCache(EntityBeanComponentCreateService ejbComponentCreateService) {
+        final EntityBeanCacheConfigurationService cacheConfiguration = ejbComponentCreateService.getCacheConfiguration();
+        if (cacheConfiguration != null && cacheConfiguration.getMaxSize() >= 0) {
+            return new BoundedReadyEntityCache(this, cacheConfiguration.getMaxSize(), cacheConfiguration.getCommitOption());
+        }
         return new ReferenceCountingEntityCache(this);
     }
 
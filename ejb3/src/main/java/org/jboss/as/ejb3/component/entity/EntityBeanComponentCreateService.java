@@ -32,6 +32,7 @@ import org.jboss.as.ee.component.BasicComponent;
 import org.jboss.as.ee.component.BasicComponentCreateService;
 import org.jboss.as.ee.component.ComponentConfiguration;
 import org.jboss.as.ee.component.ComponentCreateServiceFactory;
+import org.jboss.as.ee.component.DependencyConfigurator;
 import org.jboss.as.ee.component.TCCLInterceptor;
 import org.jboss.as.ejb3.EjbMessages;
 import org.jboss.as.ejb3.component.EJBComponentCreateService;
@@ -39,10 +40,13 @@ import org.jboss.as.ejb3.component.EJBComponentCreateServiceFactory;
 import org.jboss.as.ejb3.component.InvokeMethodOnTargetInterceptor;
 import org.jboss.as.ejb3.component.interceptors.CurrentInvocationContextInterceptor;
 import org.jboss.as.ejb3.deployment.ApplicationExceptions;
+import org.jboss.as.server.deployment.DeploymentUnitProcessingException;
 import org.jboss.invocation.ImmediateInterceptorFactory;
 import org.jboss.invocation.InterceptorFactory;
 import org.jboss.invocation.Interceptors;
 import org.jboss.metadata.ejb.spec.EntityBeanMetaData;
+import org.jboss.msc.service.ServiceBuilder;
+import org.jboss.msc.value.InjectedValue;
 
 /**
  * @author Stuart Douglas
@@ -62,6 +66,7 @@ public class EntityBeanComponentCreateService extends EJBComponentCreateService
     private final InterceptorFactory ejbLoad;
     private final InterceptorFactory ejbActivate;
     private final InterceptorFactory ejbPassivate;
+    private final InjectedValue<EntityBeanCacheConfigurationService> cacheConfiguration = new InjectedValue<EntityBeanCacheConfigurationService>();
 
     public EntityBeanComponentCreateService(final ComponentConfiguration componentConfiguration, final ApplicationExceptions ejbJarConfiguration) {
         super(componentConfiguration, ejbJarConfiguration);
@@ -141,10 +146,24 @@ public class EntityBeanComponentCreateService extends EJBComponentCreateService
     public static final ComponentCreateServiceFactory FACTORY = new EJBComponentCreateServiceFactory() {
         @Override
         public BasicComponentCreateService constructService(final ComponentConfiguration configuration) {
+            // the configuration of the ready cache
+            configuration.getCreateDependencies().add(new DependencyConfigurator<EntityBeanComponentCreateService>() {
+                @Override
+                public void configureDependency(ServiceBuilder<?> serviceBuilder, EntityBeanComponentCreateService componentCreateService) throws DeploymentUnitProcessingException {
+                    serviceBuilder.addDependency(EntityBeanCacheConfigurationService.SERVICE_NAME, EntityBeanCacheConfigurationService.class, componentCreateService.cacheConfiguration);
+                }
+            });
             return new EntityBeanComponentCreateService(configuration, this.ejbJarConfiguration);
         }
     };
 
+    /**
+     * @return the configuration of the ready cache, or null if the component doesn't depend on it
+     */
+    public EntityBeanCacheConfigurationService getCacheConfiguration() {
+        return cacheConfiguration.getOptionalValue();
+    }
+
     public Class<EJBHome> getHomeClass() {
         return homeClass;
     }
@@ -124,6 +124,25 @@ public class EntityBeanComponentInstance extends EjbComponentInstance {
         }
     }
 
+    /**
+     * Invokes the ejbLoad method, to refresh the state of an instance that stays associated with its primary key
+     * across transactions
+     */
+    public synchronized void reload() {
+        try {
+            final InterceptorContext context = prepareInterceptorContext();
+            final EntityBeanComponent component = getComponent();
+            context.setMethod(component.getEjbLoadMethod());
+            ejbLoad.processInvocation(context);
+        } catch (RemoteException e) {
+            throw new WrappedRemoteException(e);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     /**
      * Invokes the ejbStore method
      */
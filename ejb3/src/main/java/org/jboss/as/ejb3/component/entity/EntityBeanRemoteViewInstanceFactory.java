@@ -91,27 +91,31 @@ public class EntityBeanRemoteViewInstanceFactory implements ViewInstanceFactory
         //the cache will do that when it is expired or removed
         entityBeanComponent.getCache().create(instance);
 
-        invokeEjbPostCreate(contextData, ejbPostCreate, instance, params);
+        try {
+            invokeEjbPostCreate(contextData, ejbPostCreate, instance, params);
 
-        //if a transaction is active we register a sync
-        //and if the transaction is rolled back we release the instance back into the pool
+            //if a transaction is active we register a sync
+            //and if the transaction is rolled back we release the instance back into the pool
 
-        final TransactionSynchronizationRegistry transactionSynchronizationRegistry = entityBeanComponent.getTransactionSynchronizationRegistry();
-        if (transactionSynchronizationRegistry.getTransactionKey() != null) {
-            transactionSynchronizationRegistry.registerInterposedSynchronization(new Synchronization() {
-                @Override
-                public void beforeCompletion() {
+            final TransactionSynchronizationRegistry transactionSynchronizationRegistry = entityBeanComponent.getTransactionSynchronizationRegistry();
+            if (transactionSynchronizationRegistry.getTransactionKey() != null) {
+                transactionSynchronizationRegistry.registerInterposedSynchronization(new Synchronization() {
+                    @Override
+                    public void beforeCompletion() {
 
-                }
+                    }
 
-                @Override
-                public void afterCompletion(final int status) {
-                    if (status != Status.STATUS_COMMITTED) {
-                        //if the transaction is rolled back we release the instance back into the pool
-                        entityBeanComponent.getPool().release(instance);
+                    @Override
+                    public void afterCompletion(final int status) {
+                        if (status != Status.STATUS_COMMITTED) {
+                            //if the transaction is rolled back we release the instance back into the pool
+                            entityBeanComponent.getPool().release(instance);
+                        }
                     }
-                }
-            });
+                });
+            }
+        } finally {
+            entityBeanComponent.getCache().handBack(instance);
         }
         return primaryKey;
     }
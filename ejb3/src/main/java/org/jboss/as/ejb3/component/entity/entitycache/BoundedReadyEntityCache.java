@@ -0,0 +1,398 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.component.entity.entitycache;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.ejb.NoSuchEntityException;
+
+import org.jboss.as.ejb3.component.entity.EntityBeanComponent;
+import org.jboss.as.ejb3.component.entity.EntityBeanComponentInstance;
+
+import static org.jboss.as.ejb3.EjbLogger.ROOT_LOGGER;
+
+/**
+ * A {@link ReadyEntityCache} which keeps entity instances associated with their identity after the transactions that
+ * used them have completed, up to a maximum number of instances. When the cache is full, the least recently used
+ * instances which are not in use are passivated and released back into the pool.
+ * <p/>
+ * Whether a cached instance is reloaded when a new transaction starts to use it depends on the {@link CommitOption}.
+ * <p/>
+ * There is at most one instance per primary key. Concurrent lookups of an identity which is not cached associate a
+ * single instance with it, the other callers wait for that association to complete.
+ */
+public class BoundedReadyEntityCache implements ReadyEntityCache {
+
+    /**
+     * The commit options of the EJB 2.1 specification (section 10.5.9) that can be used with a cache which keeps
+     * instances across transactions
+     */
+    public enum CommitOption {
+        /**
+         * The container has exclusive access to the database, so the state of a cached instance stays valid across
+         * transactions and is not reloaded
+         */
+        A,
+        /**
+         * The state of a cached instance is reloaded by calling ejbLoad when the instance is used by a new transaction
+         */
+        B,
+    }
+
+    private final EntityBeanComponent component;
+    private final int maxSize;
+    private final CommitOption commitOption;
+
+    /**
+     * The cached entries in access order, guarded by itself
+     */
+    private final LinkedHashMap<Object, CacheEntry> cache = new LinkedHashMap<Object, CacheEntry>(16, 0.75f, true);
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    public BoundedReadyEntityCache(final EntityBeanComponent component, final int maxSize, final CommitOption commitOption) {
+        this.component = component;
+        this.maxSize = maxSize;
+        this.commitOption = commitOption;
+    }
+
+    @Override
+    public void create(final EntityBeanComponentInstance instance) {
+        final Object primaryKey = instance.getPrimaryKey();
+        synchronized (cache) {
+            if (cache.containsKey(primaryKey)) {
+                throw new IllegalArgumentException("Instance for PK [" + primaryKey + "] already registerd.");
+            }
+            final CacheEntry entry = new CacheEntry(instance);
+            // handed out to the creator, until it hands the instance back
+            entry.handOuts = 1;
+            cache.put(primaryKey, entry);
+        }
+        evictIdleInstances();
+    }
+
+    @Override
+    public EntityBeanComponentInstance get(final Object key) throws NoSuchEntityException {
+        for (;;) {
+            final CacheEntry entry;
+            final boolean associate;
+            synchronized (cache) {
+                final CacheEntry existing = cache.get(key);
+                if (existing != null) {
+                    entry = existing;
+                    associate = false;
+                    // handed out again, it must not be evicted before the caller has handed it back
+                    existing.handOuts++;
+                } else {
+                    entry = new CacheEntry(null);
+                    entry.handOuts = 1;
+                    cache.put(key, entry);
+                    associate = true;
+                }
+            }
+            if (!associate) {
+                final EntityBeanComponentInstance instance = entry.awaitInstance();
+                if (instance != null) {
+                    hitCount.incrementAndGet();
+                    return instance;
+                }
+                // the association failed, try again
+                continue;
+            }
+            missCount.incrementAndGet();
+            final EntityBeanComponentInstance instance;
+            try {
+                instance = createInstance(key);
+            } catch (RuntimeException e) {
+                remove(key, entry);
+                entry.setInstance(null);
+                throw e;
+            } catch (Error e) {
+                remove(key, entry);
+                entry.setInstance(null);
+                throw e;
+            }
+            entry.setInstance(instance);
+            evictIdleInstances();
+            return instance;
+        }
+    }
+
+    @Override
+    public void reference(final EntityBeanComponentInstance instance) {
+        final CacheEntry entry = getEntry(instance);
+        if (entry.referenceCount.getAndIncrement() == 0 && entry.stale) {
+            // first use of a cached instance by a new transaction
+            entry.stale = false;
+            instance.reload();
+        }
+    }
+
+    @Override
+    public void handBack(final EntityBeanComponentInstance instance) {
+        final boolean idle;
+        synchronized (cache) {
+            final CacheEntry entry = cache.get(instance.getPrimaryKey());
+            if (entry == null || entry.instance != instance || entry.handOuts == 0) {
+                // already removed or discarded
+                return;
+            }
+            idle = --entry.handOuts == 0 && entry.referenceCount.get() == 0;
+        }
+        if (idle) {
+            evictIdleInstances();
+        }
+    }
+
+    @Override
+    public void release(final EntityBeanComponentInstance instance, final boolean transactionSuccess) {
+        final Object primaryKey = instance.getPrimaryKey();
+        if (primaryKey == null) {
+            return;
+        }
+        final CacheEntry entry = getEntry(instance);
+        if (entry.referenceCount.decrementAndGet() == 0) {
+            if (transactionSuccess && instance.isRemoved()) {
+                remove(primaryKey, entry);
+                component.getPool().release(instance);
+                return;
+            }
+            if (!transactionSuccess) {
+                //roll back unsuccessful removal
+                if (instance.isRemoved()) {
+                    instance.setRemoved(false);
+                }
+                if (commitOption == CommitOption.A) {
+                    // the state of the instance may no longer match the database, and it would not be reloaded
+                    remove(primaryKey, entry);
+                    instance.passivate();
+                    component.getPool().release(instance);
+                    return;
+                }
+            }
+            entry.stale = commitOption == CommitOption.B;
+            evictIdleInstances();
+        } else if (instance.isRemoved() && transactionSuccess) {
+            //the instance has been removed, we need to remove it from the cache
+            //even if someone is still referencing it, as their reference is no longer usable
+            remove(primaryKey, entry);
+            component.getPool().release(instance);
+        }
+    }
+
+    @Override
+    public void discard(final EntityBeanComponentInstance instance) {
+        synchronized (cache) {
+            final CacheEntry entry = cache.get(instance.getPrimaryKey());
+            if (entry != null && entry.instance == instance) {
+                cache.remove(instance.getPrimaryKey());
+            }
+        }
+        instance.discard();
+    }
+
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public void stop() {
+        final List<EntityBeanComponentInstance> idle = new ArrayList<EntityBeanComponentInstance>();
+        synchronized (cache) {
+            for (CacheEntry entry : cache.values()) {
+                if (entry.instance != null && entry.referenceCount.get() == 0) {
+                    idle.add(entry.instance);
+                }
+            }
+            cache.clear();
+        }
+        for (EntityBeanComponentInstance instance : idle) {
+            passivate(instance);
+        }
+    }
+
+    /**
+     * @return the number of instances currently associated with an identity
+     */
+    public int getCacheSize() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public CommitOption getCommitOption() {
+        return commitOption;
+    }
+
+    /**
+     * @return the number of lookups which found an instance already associated with the identity
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return the number of lookups which had to associate an instance from the pool with the identity
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return the number of instances which have been passivated to keep the cache within its maximum size
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * Passivates the least recently used instances which are not in use, until the cache is within its maximum size.
+     * Instances that are in use are never evicted, so the cache may temporarily grow beyond its maximum size.
+     * <p/>
+     * An instance which has been associated, created or found in the cache is not evicted either until every caller it
+     * was handed out to has {@link #handBack(EntityBeanComponentInstance) handed it back}, whether or not the caller
+     * referenced it in the meantime. Cached instances which are handed out again become the most recently used entries,
+     * and are the last candidates for eviction.
+     */
+    private void evictIdleInstances() {
+        List<EntityBeanComponentInstance> evicted = null;
+        synchronized (cache) {
+            final Iterator<CacheEntry> iterator = cache.values().iterator();
+            while (cache.size() > maxSize && iterator.hasNext()) {
+                final CacheEntry entry = iterator.next();
+                if (entry.instance != null && entry.handOuts == 0 && entry.referenceCount.get() == 0) {
+                    iterator.remove();
+                    if (evicted == null) {
+                        evicted = new ArrayList<EntityBeanComponentInstance>();
+                    }
+                    evicted.add(entry.instance);
+                }
+            }
+        }
+        if (evicted != null) {
+            evictionCount.addAndGet(evicted.size());
+            for (EntityBeanComponentInstance instance : evicted) {
+                passivate(instance);
+            }
+        }
+    }
+
+    private void passivate(final EntityBeanComponentInstance instance) {
+        try {
+            instance.passivate();
+        } catch (RuntimeException e) {
+            ROOT_LOGGER.failedToPassivateEvictedEntity(instance, e);
+            instance.discard();
+            return;
+        }
+        component.getPool().release(instance);
+    }
+
+    private CacheEntry getEntry(final EntityBeanComponentInstance instance) {
+        final CacheEntry entry;
+        synchronized (cache) {
+            entry = cache.get(instance.getPrimaryKey());
+        }
+        if (entry == null) {
+            throw new IllegalArgumentException("Instance [" + instance + "] not found in cache");
+        }
+        return entry;
+    }
+
+    private void remove(final Object primaryKey, final CacheEntry entry) {
+        synchronized (cache) {
+            if (cache.get(primaryKey) == entry) {
+                cache.remove(primaryKey);
+            }
+        }
+    }
+
+    private EntityBeanComponentInstance createInstance(final Object pk) {
+        final EntityBeanComponentInstance instance = component.getPool().get();
+        instance.associate(pk);
+        return instance;
+    }
+
+    private static final class CacheEntry {
+        private final AtomicInteger referenceCount = new AtomicInteger(0);
+        /**
+         * The instance, which is null until its association with the identity has completed
+         */
+        private volatile EntityBeanComponentInstance instance;
+        private boolean associated;
+        /**
+         * The number of callers the instance has been handed out to which have not handed it back yet, guarded by the
+         * cache
+         */
+        private int handOuts;
+        /**
+         * Whether the state of the instance has to be reloaded before it is used by a new transaction
+         */
+        private volatile boolean stale;
+
+        private CacheEntry(final EntityBeanComponentInstance instance) {
+            this.instance = instance;
+            this.associated = instance != null;
+        }
+
+        synchronized void setInstance(final EntityBeanComponentInstance instance) {
+            this.instance = instance;
+            this.associated = true;
+            notifyAll();
+        }
+
+        /**
+         * Waits for the association of the instance to complete
+         *
+         * @return the instance, or null if the association failed
+         */
+        synchronized EntityBeanComponentInstance awaitInstance() {
+            boolean interrupted = false;
+            try {
+                while (!associated) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+                return instance;
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
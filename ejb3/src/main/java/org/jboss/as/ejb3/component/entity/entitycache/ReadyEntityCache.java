@@ -38,7 +38,8 @@ public interface ReadyEntityCache {
      *
      * This corresponds to an ejbCreate call on the entity bean.
      *
-     * The newly created object will be marked as in use, and must be released in the normal manner
+     * The newly created object will be marked as in use, and must be released in the normal manner. It is also
+     * handed out to the caller, which must {@link #handBack(EntityBeanComponentInstance) hand it back} once done.
      *
      * @param instance The new instance
      */
@@ -56,12 +57,25 @@ public interface ReadyEntityCache {
      * Implementations are free to use a 1 to 1 instance -> pk mapping, or create multiple instances per
      * primary key.
      *
+     * Every instance returned by this method must be {@link #handBack(EntityBeanComponentInstance) handed back}
+     * once the caller no longer needs it, whether or not it has been referenced.
+     *
      * @param key the identifier of the object
      * @return the object
      * @throws javax.ejb.NoSuchEntityException if the object identity association failed
      */
     EntityBeanComponentInstance get(Object key) throws NoSuchEntityException;
 
+    /**
+     * Called once the caller of {@link #get(Object)} or {@link #create(EntityBeanComponentInstance)} no longer needs
+     * the instance it was handed, typically from a finally block. Until then the cache must not evict the instance.
+     *
+     * Handing back an instance that has since been removed from the cache has no effect.
+     *
+     * @param instance The entity
+     */
+    void handBack(EntityBeanComponentInstance instance);
+
     /**
      * Release the object from use. This will be called at transaction commit time.
      *
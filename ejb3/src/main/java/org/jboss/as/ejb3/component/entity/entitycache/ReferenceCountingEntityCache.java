@@ -47,11 +47,23 @@ public class ReferenceCountingEntityCache implements ReadyEntityCache {
     }
 
     public EntityBeanComponentInstance get(final Object key) throws NoSuchEntityException {
-        if (!cache.containsKey(key)) {
-            final EntityBeanComponentInstance instance = createInstance(key);
-            create(instance);
+        final CacheEntry cacheEntry = cache.get(key);
+        if (cacheEntry != null) {
+            return cacheEntry.instance;
         }
-        return cache.get(key).instance;
+        final EntityBeanComponentInstance instance = createInstance(key);
+        final CacheEntry existing = cache.putIfAbsent(key, new CacheEntry(instance));
+        if (existing != null) {
+            // another thread associated an instance with this identity in the meantime
+            instance.passivate();
+            component.getPool().release(instance);
+            return existing.instance;
+        }
+        return instance;
+    }
+
+    public void handBack(final EntityBeanComponentInstance instance) {
+        // instances are only ever released through their references
     }
 
     public void reference(final EntityBeanComponentInstance instance) {
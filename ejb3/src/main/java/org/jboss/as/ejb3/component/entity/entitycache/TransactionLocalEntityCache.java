@@ -119,6 +119,10 @@ public class TransactionLocalEntityCache implements ReadyEntityCache {
         }
     }
 
+    public void handBack(final EntityBeanComponentInstance instance) {
+        // instances are only ever released through their references
+    }
+
     public void reference(EntityBeanComponentInstance instance) {
         final Map<Object, CacheEntry> cache = prepareCache();
         final CacheEntry cacheEntry = cache.get(instance.getPrimaryKey());
@@ -66,6 +66,7 @@ public class EntityBeanAssociatingInterceptorFactory implements InterceptorFacto
                 final EntityBeanComponentInstance instance = component.getCache().get(primaryKey);
 
                 if(instance.isRemoved()) {
+                    component.getCache().handBack(instance);
                     throw MESSAGES.instaceWasRemoved(component.getComponentName(),primaryKey);
                 }
 
@@ -100,6 +101,7 @@ public class EntityBeanAssociatingInterceptorFactory implements InterceptorFacto
                 } finally {
                     // the StatefulSessionSynchronizationInterceptor will take care of releasing
                     context.putPrivateData(ComponentInstance.class, null);
+                    component.getCache().handBack(instance);
                 }
             }
         };
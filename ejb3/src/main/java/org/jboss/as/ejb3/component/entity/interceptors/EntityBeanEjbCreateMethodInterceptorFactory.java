@@ -130,6 +130,7 @@ public class EntityBeanEjbCreateMethodInterceptorFactory implements InterceptorF
                     if (!synchronizationRegistered && !exception) {
                         entityBeanComponent.getCache().release(instance, true);
                     }
+                    entityBeanComponent.getCache().handBack(instance);
                 }
             }
 
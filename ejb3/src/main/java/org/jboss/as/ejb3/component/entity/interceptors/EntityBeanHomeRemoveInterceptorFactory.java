@@ -50,21 +50,25 @@ public class EntityBeanHomeRemoveInterceptorFactory implements InterceptorFactor
             public Object processInvocation(final InterceptorContext context) throws Exception {
                 final EntityBeanComponent component = getComponent(context, EntityBeanComponent.class);
                 final EntityBeanComponentInstance instance = component.getCache().get(context.getParameters()[0]);
-                final Method oldMethod = context.getMethod();
-                final Object[] oldParams = context.getParameters();
                 try {
-                    context.putPrivateData(ComponentInstance.class, instance);
-                    context.setMethod(ejbRemove);
-                    context.setParameters(EMPTY);
-                    context.setTarget(instance.getInstance());
-                    instance.getInterceptor(ejbRemove).processInvocation(context);
+                    final Method oldMethod = context.getMethod();
+                    final Object[] oldParams = context.getParameters();
+                    try {
+                        context.putPrivateData(ComponentInstance.class, instance);
+                        context.setMethod(ejbRemove);
+                        context.setParameters(EMPTY);
+                        context.setTarget(instance.getInstance());
+                        instance.getInterceptor(ejbRemove).processInvocation(context);
+                    } finally {
+                        context.setMethod(oldMethod);
+                        context.setParameters(oldParams);
+                        context.setTarget(null);
+                        context.putPrivateData(ComponentInstance.class, null);
+                    }
+                    afterRemove(instance);
                 } finally {
-                    context.setMethod(oldMethod);
-                    context.setParameters(oldParams);
-                    context.setTarget(null);
-                    context.putPrivateData(ComponentInstance.class, null);
+                    component.getCache().handBack(instance);
                 }
-                afterRemove(instance);
                 return null;
             }
         };
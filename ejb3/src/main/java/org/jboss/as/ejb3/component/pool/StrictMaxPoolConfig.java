@@ -25,6 +25,7 @@ package org.jboss.as.ejb3.component.pool;
 import org.jboss.as.ejb3.pool.Pool;
 import org.jboss.as.ejb3.pool.StatelessObjectFactory;
 import org.jboss.as.ejb3.pool.strictmax.StrictMaxPool;
+import org.jboss.as.ejb3.pool.strictmax.StripedStrictMaxPool;
 
 import java.util.concurrent.TimeUnit;
 
@@ -39,6 +40,21 @@ public class StrictMaxPoolConfig extends PoolConfig {
 
     public static final TimeUnit DEFAULT_TIMEOUT_UNIT = TimeUnit.MINUTES;
 
+    public static final Strategy DEFAULT_STRATEGY = Strategy.SYNCHRONIZED;
+
+    /**
+     * The pool implementation used for the strict max pool
+     */
+    public enum Strategy {
+        /**
+         * A single FIFO list guarded by a monitor, see {@link StrictMaxPool}
+         */
+        SYNCHRONIZED,
+        /**
+         * Per processor lock-free stripes with work stealing, see {@link StripedStrictMaxPool}
+         */
+        STRIPED,
+    }
 
     private volatile int maxPoolSize;
 
@@ -46,15 +62,25 @@ public class StrictMaxPoolConfig extends PoolConfig {
 
     private volatile long timeout;
 
+    private volatile Strategy strategy;
+
     public StrictMaxPoolConfig(final String poolName, int maxSize, long timeout, TimeUnit timeUnit) {
+        this(poolName, maxSize, timeout, timeUnit, DEFAULT_STRATEGY);
+    }
+
+    public StrictMaxPoolConfig(final String poolName, int maxSize, long timeout, TimeUnit timeUnit, Strategy strategy) {
         super(poolName);
         this.maxPoolSize = maxSize;
         this.timeout = timeout;
         this.timeoutUnit = timeUnit;
+        this.strategy = strategy;
     }
 
     @Override
     public Pool<?> createPool(final StatelessObjectFactory statelessObjectFactory) {
+        if (this.strategy == Strategy.STRIPED) {
+            return new StripedStrictMaxPool(statelessObjectFactory, this.maxPoolSize, this.timeout, this.timeoutUnit);
+        }
         return new StrictMaxPool(statelessObjectFactory, this.maxPoolSize, this.timeout, this.timeoutUnit);
     }
 
@@ -82,6 +108,14 @@ public class StrictMaxPoolConfig extends PoolConfig {
         this.timeout = timeout;
     }
 
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    public void setStrategy(Strategy strategy) {
+        this.strategy = strategy;
+    }
+
     @Override
     public String toString() {
         return "StrictMaxPoolConfig{" +
@@ -89,6 +123,7 @@ public class StrictMaxPoolConfig extends PoolConfig {
                 "maxPoolSize=" + maxPoolSize +
                 ", timeoutUnit=" + timeoutUnit +
                 ", timeout=" + timeout +
+                ", strategy=" + strategy +
                 '}';
     }
 }
@@ -37,6 +37,7 @@ import org.jboss.as.ejb3.component.DefaultAccessTimeoutService;
 import org.jboss.as.ejb3.component.EJBBusinessMethod;
 import org.jboss.as.ejb3.component.session.SessionBeanComponent;
 import org.jboss.as.ejb3.concurrency.AccessTimeoutDetails;
+import org.jboss.as.ejb3.concurrency.LockStrategy;
 import org.jboss.as.ejb3.concurrency.LockableComponent;
 import org.jboss.as.ejb3.timerservice.SingletonTimedObjectInvokerImpl;
 import org.jboss.as.ejb3.timerservice.spi.TimedObjectInvoker;
@@ -74,6 +75,8 @@ public class SingletonComponent extends SessionBeanComponent implements Lockable
 
     private final DefaultAccessTimeoutService defaultAccessTimeoutProvider;
 
+    private final LockStrategy lockStrategy;
+
     private final TimedObjectInvoker timedObjectInvoker;
 
     /**
@@ -92,6 +95,7 @@ public class SingletonComponent extends SessionBeanComponent implements Lockable
         this.methodLockTypes = singletonComponentCreateService.getMethodApplicableLockTypes();
         this.methodAccessTimeouts = singletonComponentCreateService.getMethodApplicableAccessTimeouts();
         this.defaultAccessTimeoutProvider = singletonComponentCreateService.getDefaultAccessTimeoutService();
+        this.lockStrategy = singletonComponentCreateService.getLockStrategyService().getLockStrategy();
         final String deploymentName;
         if (singletonComponentCreateService.getDistinctName() == null || singletonComponentCreateService.getDistinctName().length() == 0) {
             deploymentName = singletonComponentCreateService.getApplicationName() + "." + singletonComponentCreateService.getModuleName();
@@ -194,6 +198,11 @@ public class SingletonComponent extends SessionBeanComponent implements Lockable
         return defaultAccessTimeoutProvider.getDefaultAccessTimeout();
     }
 
+    @Override
+    public LockStrategy getLockStrategy() {
+        return lockStrategy;
+    }
+
     private synchronized void destroySingletonInstance() {
         if (this.singletonComponentInstance != null) {
             singletonComponentInstance.destroy();
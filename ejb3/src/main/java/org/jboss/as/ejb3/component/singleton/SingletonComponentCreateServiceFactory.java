@@ -51,12 +51,13 @@ public class SingletonComponentCreateServiceFactory extends EJBComponentCreateSe
         if (this.ejbJarConfiguration == null) {
             throw MESSAGES.ejbJarConfigNotBeenSet(this,configuration.getComponentName());
         }
-        // setup a injection dependency to inject the DefaultAccessTimeoutService in the singleton bean
+        // setup a injection dependency to inject the DefaultAccessTimeoutService and the SingletonLockStrategyService in the singleton bean
         // component create service
         configuration.getCreateDependencies().add(new DependencyConfigurator<SingletonComponentCreateService>() {
             @Override
             public void configureDependency(ServiceBuilder<?> serviceBuilder, SingletonComponentCreateService componentCreateService) throws DeploymentUnitProcessingException {
                 serviceBuilder.addDependency(DefaultAccessTimeoutService.SINGLETON_SERVICE_NAME, DefaultAccessTimeoutService.class, componentCreateService.getDefaultAccessTimeoutInjector());
+                serviceBuilder.addDependency(SingletonLockStrategyService.SERVICE_NAME, SingletonLockStrategyService.class, componentCreateService.getLockStrategyInjector());
             }
         });
         return new SingletonComponentCreateService(configuration, this.ejbJarConfiguration, this.initOnStartup, dependsOn);
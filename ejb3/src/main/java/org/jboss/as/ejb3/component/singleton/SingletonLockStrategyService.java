@@ -0,0 +1,68 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.component.singleton;
+
+import org.jboss.as.ejb3.concurrency.LockStrategy;
+import org.jboss.msc.service.Service;
+import org.jboss.msc.service.ServiceName;
+import org.jboss.msc.service.StartContext;
+import org.jboss.msc.service.StartException;
+import org.jboss.msc.service.StopContext;
+
+/**
+ * Service that manages the {@link LockStrategy} of singleton beans with container managed concurrency. The strategy is
+ * read when a singleton component is created, so changes apply to beans that are deployed afterwards.
+ */
+public class SingletonLockStrategyService implements Service<SingletonLockStrategyService> {
+
+    public static final ServiceName SERVICE_NAME = ServiceName.JBOSS.append("ejb3", "singletonLockStrategy");
+
+    private volatile LockStrategy lockStrategy;
+
+    public SingletonLockStrategyService(final LockStrategy lockStrategy) {
+        this.lockStrategy = lockStrategy;
+    }
+
+    public LockStrategy getLockStrategy() {
+        return lockStrategy;
+    }
+
+    public void setLockStrategy(final LockStrategy lockStrategy) {
+        this.lockStrategy = lockStrategy;
+    }
+
+    @Override
+    public void start(final StartContext context) throws StartException {
+
+    }
+
+    @Override
+    public void stop(final StopContext context) {
+
+    }
+
+    @Override
+    public SingletonLockStrategyService getValue() throws IllegalStateException, IllegalArgumentException {
+        return this;
+    }
+}
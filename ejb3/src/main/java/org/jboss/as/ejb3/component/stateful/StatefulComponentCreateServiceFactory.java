@@ -25,6 +25,9 @@ package org.jboss.as.ejb3.component.stateful;
 import org.jboss.as.ee.component.BasicComponentCreateService;
 import org.jboss.as.ee.component.ComponentConfiguration;
 import org.jboss.as.ee.component.DependencyConfigurator;
+import org.jboss.as.ejb3.cache.ExpirationScheduler;
+import org.jboss.as.ejb3.cache.FilePassivationStore;
+import org.jboss.as.ejb3.cache.PassivationStore;
 import org.jboss.as.ejb3.component.DefaultAccessTimeoutService;
 import org.jboss.as.ejb3.component.EJBComponentCreateServiceFactory;
 import org.jboss.as.ejb3.component.singleton.SingletonComponentCreateService;
@@ -46,6 +49,11 @@ public class StatefulComponentCreateServiceFactory extends EJBComponentCreateSer
             @Override
             public void configureDependency(ServiceBuilder<?> serviceBuilder, StatefulSessionComponentCreateService componentCreateService) throws DeploymentUnitProcessingException {
                 serviceBuilder.addDependency(DefaultAccessTimeoutService.STATEFUL_SERVICE_NAME, DefaultAccessTimeoutService.class, componentCreateService.getDefaultAccessTimeoutInjector());
+                // the scheduler that expires the sessions of all stateful beans
+                serviceBuilder.addDependency(ExpirationScheduler.SERVICE_NAME, ExpirationScheduler.class, componentCreateService.getExpirationSchedulerInjector());
+                // the passivation threshold and the store the least recently used sessions are passivated to
+                serviceBuilder.addDependency(StatefulCacheMaxSizeService.SERVICE_NAME, StatefulCacheMaxSizeService.class, componentCreateService.getCacheMaxSizeInjector());
+                serviceBuilder.addDependency(FilePassivationStore.SERVICE_NAME, PassivationStore.class, componentCreateService.getPassivationStoreInjector());
             }
         });
         return new StatefulSessionComponentCreateService(configuration, this.ejbJarConfiguration);
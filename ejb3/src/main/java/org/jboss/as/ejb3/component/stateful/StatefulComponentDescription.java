@@ -192,6 +192,11 @@ public class StatefulComponentDescription extends SessionBeanComponentDescriptio
         return true;
     }
 
+    @Override
+    public boolean isPassivationApplicable() {
+        return true;
+    }
+
     public Method getAfterBegin() {
         return afterBegin;
     }
@@ -38,6 +38,7 @@ import org.jboss.as.ee.component.ComponentInstance;
 import org.jboss.as.ee.component.ComponentView;
 import org.jboss.as.ejb3.cache.Cache;
 import org.jboss.as.ejb3.cache.ExpiringCache;
+import org.jboss.as.ejb3.cache.Passivator;
 import org.jboss.as.ejb3.cache.StatefulObjectFactory;
 import org.jboss.as.ejb3.component.DefaultAccessTimeoutService;
 import org.jboss.as.ejb3.component.EJBBusinessMethod;
@@ -54,6 +55,7 @@ import org.jboss.invocation.InterceptorFactory;
 import org.jboss.invocation.InterceptorFactoryContext;
 import org.jboss.invocation.SimpleInterceptorFactoryContext;
 import org.jboss.logging.Logger;
+import org.jboss.marshalling.ObjectTable;
 import org.jboss.msc.service.ServiceController;
 import org.jboss.msc.service.StopContext;
 
@@ -84,6 +86,8 @@ public class StatefulSessionComponent extends SessionBeanComponent {
 
 
     private final InterceptorFactory ejb2XRemoveMethod;
+    private final InterceptorFactory prePassivate;
+    private final InterceptorFactory postActivate;
 
     /**
      * Construct a new instance.
@@ -102,12 +106,41 @@ public class StatefulSessionComponent extends SessionBeanComponent {
         this.methodAccessTimeouts = ejbComponentCreateService.getMethodApplicableAccessTimeouts();
         this.defaultAccessTimeoutProvider = ejbComponentCreateService.getDefaultAccessTimeoutService();
         this.ejb2XRemoveMethod = ejbComponentCreateService.getEjb2XRemoveMethod();
+        this.prePassivate = ejbComponentCreateService.getPrePassivate();
+        this.postActivate = ejbComponentCreateService.getPostActivate();
 
         final StatefulTimeoutInfo statefulTimeout = ejbComponentCreateService.getStatefulTimeout();
-        if (statefulTimeout != null) {
-            cache = new ExpiringCache<StatefulSessionComponentInstance>(statefulTimeout.getValue(), statefulTimeout.getTimeUnit(), ejbComponentCreateService.getComponentClass().getName());
+        final long timeout = statefulTimeout != null ? statefulTimeout.getValue() : -1;
+        final TimeUnit timeUnit = statefulTimeout != null ? statefulTimeout.getTimeUnit() : TimeUnit.MILLISECONDS;
+        final String beanName = ejbComponentCreateService.getComponentClass().getName();
+        final int cacheMaxSize = ejbComponentCreateService.getCacheMaxSize();
+        if (cacheMaxSize >= 0) {
+            cache = new ExpiringCache<StatefulSessionComponentInstance>(timeout, timeUnit, beanName, ejbComponentCreateService.getExpirationScheduler(),
+                    cacheMaxSize, ejbComponentCreateService.getPassivationStore(), new Passivator<StatefulSessionComponentInstance>() {
+                @Override
+                public Object passivate(final StatefulSessionComponentInstance instance) {
+                    instance.prePassivate();
+                    return instance.detachInstance();
+                }
+
+                @Override
+                public void activate(final StatefulSessionComponentInstance instance, final Object state) {
+                    instance.attachInstance(state);
+                    instance.postActivate();
+                }
+
+                @Override
+                public void discard(final StatefulSessionComponentInstance instance) {
+                    instance.discardPassivated();
+                }
+
+                @Override
+                public ObjectTable getObjectTable(final StatefulSessionComponentInstance instance) {
+                    return instance.getObjectTable();
+                }
+            });
         } else {
-            cache = new ExpiringCache<StatefulSessionComponentInstance>(-1, TimeUnit.MILLISECONDS, ejbComponentCreateService.getComponentClass().getName());
+            cache = new ExpiringCache<StatefulSessionComponentInstance>(timeout, timeUnit, beanName, ejbComponentCreateService.getExpirationScheduler());
         }
         cache.setStatefulObjectFactory(new StatefulObjectFactory<StatefulSessionComponentInstance>() {
             @Override
@@ -193,7 +226,10 @@ public class StatefulSessionComponent extends SessionBeanComponent {
     @Override
     protected BasicComponentInstance instantiateComponentInstance(final AtomicReference<ManagedReference> instanceReference, final Interceptor preDestroyInterceptor, final Map<Method, Interceptor> methodInterceptors, final InterceptorFactoryContext interceptorContext) {
 
-        return new StatefulSessionComponentInstance(this, instanceReference, preDestroyInterceptor, methodInterceptors, ejb2XRemoveMethod.create(interceptorContext));
+        // the passivation callbacks are created in the same context as the other chains, so that they find the same interceptor instances
+        final Interceptor prePassivateInterceptor = prePassivate == null ? null : prePassivate.create(interceptorContext);
+        final Interceptor postActivateInterceptor = postActivate == null ? null : postActivate.create(interceptorContext);
+        return new StatefulSessionComponentInstance(this, instanceReference, preDestroyInterceptor, methodInterceptors, ejb2XRemoveMethod.create(interceptorContext), prePassivateInterceptor, postActivateInterceptor);
     }
 
     /**
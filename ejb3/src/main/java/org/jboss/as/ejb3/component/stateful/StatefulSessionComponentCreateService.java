@@ -27,6 +27,8 @@ import java.lang.reflect.Method;
 import org.jboss.as.ee.component.BasicComponent;
 import org.jboss.as.ee.component.ComponentConfiguration;
 import org.jboss.as.ee.component.TCCLInterceptor;
+import org.jboss.as.ejb3.cache.ExpirationScheduler;
+import org.jboss.as.ejb3.cache.PassivationStore;
 import org.jboss.as.ejb3.component.DefaultAccessTimeoutService;
 import org.jboss.as.ejb3.component.InvokeMethodOnTargetInterceptor;
 import org.jboss.as.ejb3.component.interceptors.CurrentInvocationContextInterceptor;
@@ -50,7 +52,12 @@ public class StatefulSessionComponentCreateService extends SessionBeanComponentC
     private final Method beforeCompletionMethod;
     private final StatefulTimeoutInfo statefulTimeout;
     private final InjectedValue<DefaultAccessTimeoutService> defaultAccessTimeoutService = new InjectedValue<DefaultAccessTimeoutService>();
+    private final InjectedValue<ExpirationScheduler> expirationScheduler = new InjectedValue<ExpirationScheduler>();
+    private final InjectedValue<StatefulCacheMaxSizeService> cacheMaxSizeService = new InjectedValue<StatefulCacheMaxSizeService>();
+    private final InjectedValue<PassivationStore> passivationStore = new InjectedValue<PassivationStore>();
     private final InterceptorFactory ejb2XRemoveMethod;
+    private final InterceptorFactory prePassivate;
+    private final InterceptorFactory postActivate;
 
     /**
      * Construct a new instance.
@@ -82,6 +89,17 @@ public class StatefulSessionComponentCreateService extends SessionBeanComponentC
         } else {
             this.beforeCompletion = null;
         }
+        // the lifecycle chains are only built if the bean or its interceptors declare passivation callbacks
+        if (componentConfiguration.getPrePassivateInterceptors().isEmpty()) {
+            this.prePassivate = null;
+        } else {
+            this.prePassivate = Interceptors.getChainedInterceptorFactory(namespaceContextInterceptorFactory, CurrentInvocationContextInterceptor.FACTORY, Interceptors.getChainedInterceptorFactory(componentConfiguration.getPrePassivateInterceptors()));
+        }
+        if (componentConfiguration.getPostActivateInterceptors().isEmpty()) {
+            this.postActivate = null;
+        } else {
+            this.postActivate = Interceptors.getChainedInterceptorFactory(namespaceContextInterceptorFactory, CurrentInvocationContextInterceptor.FACTORY, Interceptors.getChainedInterceptorFactory(componentConfiguration.getPostActivateInterceptors()));
+        }
         this.statefulTimeout = componentDescription.getStatefulTimeout();
         //the interceptor chain for EJB e.x remove methods
         this.ejb2XRemoveMethod = Interceptors.getChainedInterceptorFactory(StatefulSessionSynchronizationInterceptor.FACTORY, new ImmediateInterceptorFactory(new StatefulRemoveInterceptor(false)), Interceptors.getTerminalInterceptorFactory());
@@ -110,6 +128,14 @@ public class StatefulSessionComponentCreateService extends SessionBeanComponentC
         return beforeCompletion;
     }
 
+    public InterceptorFactory getPrePassivate() {
+        return prePassivate;
+    }
+
+    public InterceptorFactory getPostActivate() {
+        return postActivate;
+    }
+
     public Method getAfterBeginMethod() {
         return afterBeginMethod;
     }
@@ -134,6 +160,30 @@ public class StatefulSessionComponentCreateService extends SessionBeanComponentC
         return this.defaultAccessTimeoutService;
     }
 
+    public ExpirationScheduler getExpirationScheduler() {
+        return expirationScheduler.getValue();
+    }
+
+    Injector<ExpirationScheduler> getExpirationSchedulerInjector() {
+        return this.expirationScheduler;
+    }
+
+    public int getCacheMaxSize() {
+        return cacheMaxSizeService.getValue().getMaxSize();
+    }
+
+    Injector<StatefulCacheMaxSizeService> getCacheMaxSizeInjector() {
+        return this.cacheMaxSizeService;
+    }
+
+    public PassivationStore getPassivationStore() {
+        return passivationStore.getValue();
+    }
+
+    Injector<PassivationStore> getPassivationStoreInjector() {
+        return this.passivationStore;
+    }
+
     public InterceptorFactory getEjb2XRemoveMethod() {
         return ejb2XRemoveMethod;
     }
@@ -36,10 +36,12 @@ import org.jboss.as.ee.component.ComponentInstance;
 import org.jboss.as.ejb3.cache.Identifiable;
 import org.jboss.as.ejb3.component.InvokeMethodOnTargetInterceptor;
 import org.jboss.as.ejb3.component.session.SessionBeanComponentInstance;
+import org.jboss.as.naming.DetachableManagedReference;
 import org.jboss.as.naming.ManagedReference;
 import org.jboss.ejb.client.SessionID;
 import org.jboss.invocation.Interceptor;
 import org.jboss.invocation.InterceptorContext;
+import org.jboss.marshalling.ObjectTable;
 
 /**
  * @author <a href="mailto:cdewolf@redhat.com">Carlo de Wolf</a>
@@ -47,13 +49,26 @@ import org.jboss.invocation.InterceptorContext;
 public class StatefulSessionComponentInstance extends SessionBeanComponentInstance implements Identifiable {
 
     private final SessionID id;
+    private final AtomicReference<ManagedReference> instanceReference;
 
     private final Interceptor afterBegin;
     private final Interceptor afterCompletion;
     private final Interceptor beforeCompletion;
+    private final Interceptor prePassivate;
+    private final Interceptor postActivate;
 
     private boolean isDiscarded = false;
 
+    /**
+     * Releases what the reference the bean instance was created with holds, kept while the instance is passivated
+     */
+    private volatile ManagedReference passivatedReference;
+
+    /**
+     * Keeps the objects managed by the container that the bean instance refers to while it is passivated
+     */
+    private final StatefulSessionObjectTable objectTable = new StatefulSessionObjectTable();
+
     private final Interceptor ejb2XRemoveInterceptor;
 
     /**
@@ -61,10 +76,16 @@ public class StatefulSessionComponentInstance extends SessionBeanComponentInstan
      *
      * @param component the component
      * @param ejb2XRemoveInterceptor
+     * @param prePassivate the pre-passivate interceptor chain, or null if there are no callbacks
+     * @param postActivate the post-activate interceptor chain, or null if there are no callbacks
      */
-    protected StatefulSessionComponentInstance(final StatefulSessionComponent component, final AtomicReference<ManagedReference> instanceReference, final Interceptor preDestroyInterceptor, final Map<Method, Interceptor> methodInterceptors, final Interceptor ejb2XRemoveInterceptor) {
+    protected StatefulSessionComponentInstance(final StatefulSessionComponent component, final AtomicReference<ManagedReference> instanceReference, final Interceptor preDestroyInterceptor, final Map<Method, Interceptor> methodInterceptors, final Interceptor ejb2XRemoveInterceptor,
+                                               final Interceptor prePassivate, final Interceptor postActivate) {
         super(component, instanceReference, preDestroyInterceptor, methodInterceptors, Collections.<Method, Interceptor>emptyMap());
         this.ejb2XRemoveInterceptor = ejb2XRemoveInterceptor;
+        this.instanceReference = instanceReference;
+        this.prePassivate = prePassivate;
+        this.postActivate = postActivate;
 
 
         final UUID uuid = UUID.randomUUID();
@@ -105,6 +126,20 @@ public class StatefulSessionComponentInstance extends SessionBeanComponentInstan
         }
     }
 
+    /**
+     * Invokes the @PrePassivate callbacks of the bean and its interceptors.
+     */
+    void prePassivate() {
+        execute(prePassivate, null);
+    }
+
+    /**
+     * Invokes the @PostActivate callbacks of the bean and its interceptors.
+     */
+    void postActivate() {
+        execute(postActivate, null);
+    }
+
     protected void discard() {
         if (!isDiscarded) {
             isDiscarded = true;
@@ -133,6 +168,80 @@ public class StatefulSessionComponentInstance extends SessionBeanComponentInstan
         }
     }
 
+    /**
+     * Detaches the bean instance so that it can be passivated. The interceptor chains look the instance up on every
+     * invocation, so they pick up the instance that is attached again by {@link #attachInstance(Object)}. Only what is
+     * needed to release the instance later, e.g. its CDI creational context, is kept, so the bean instance can be
+     * garbage collected once it has been written to the store. Interceptor instances are not detached and stay in
+     * memory.
+     *
+     * @return the bean instance
+     */
+    Object detachInstance() {
+        objectTable.clear();
+        final ManagedReference reference = instanceReference.getAndSet(null);
+        // releasing the original reference may do more than drop the instance, e.g. destroy its CDI creational context
+        if (reference instanceof DetachableManagedReference) {
+            passivatedReference = ((DetachableManagedReference) reference).detach();
+        } else {
+            // no way to release it without holding on to the instance
+            passivatedReference = reference;
+        }
+        return reference.getInstance();
+    }
+
+    /**
+     * Attaches a bean instance that has been read back from the passivation store. Releasing the instance releases
+     * what the reference it was originally created with holds.
+     *
+     * @param instance the bean instance
+     */
+    void attachInstance(final Object instance) {
+        final ManagedReference original = passivatedReference;
+        passivatedReference = null;
+        objectTable.clear();
+        instanceReference.set(new ManagedReference() {
+            @Override
+            public void release() {
+                if (original != null) {
+                    original.release();
+                }
+            }
+
+            @Override
+            public Object getInstance() {
+                return instance;
+            }
+        });
+    }
+
+    /**
+     * Releases the instance of a passivated session that is dropped without being activated. No pre destroy
+     * callbacks are run.
+     */
+    void discardPassivated() {
+        ManagedReference reference = passivatedReference;
+        passivatedReference = null;
+        objectTable.clear();
+        if (reference == null) {
+            // activation failed after the instance was attached again
+            reference = instanceReference.getAndSet(null);
+        }
+        if (reference != null) {
+            reference.release();
+        }
+    }
+
+    /**
+     * Gets the object table the detached bean instance is marshalled with, which keeps references to objects managed
+     * by the container, such as the session context, in memory instead of writing them.
+     *
+     * @return the object table
+     */
+    ObjectTable getObjectTable() {
+        return objectTable;
+    }
+
     @Override
     public StatefulSessionComponent getComponent() {
         return (StatefulSessionComponent) super.getComponent();
@@ -0,0 +1,104 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.component.stateful;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.ejb.EJBContext;
+import javax.ejb.TimerService;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.transaction.UserTransaction;
+
+import org.jboss.as.ee.component.ComponentDescription;
+import org.jboss.marshalling.Marshaller;
+import org.jboss.marshalling.ObjectTable;
+import org.jboss.marshalling.Unmarshaller;
+
+/**
+ * Object table a passivated stateful session bean instance is marshalled with. References the bean holds to objects
+ * managed by the container, such as its session context, an entity manager, the user transaction or the proxy of
+ * another bean, cannot be marshalled and would pin the session in memory. They are written as tokens instead, and the
+ * referenced objects are kept by the table until the bean is activated again, when the tokens resolve to the very
+ * same objects.
+ */
+final class StatefulSessionObjectTable implements ObjectTable {
+
+    private final List<Object> references = new ArrayList<Object>();
+
+    @Override
+    public synchronized Writer getObjectWriter(final Object object) throws IOException {
+        if (!isContainerManaged(object)) {
+            return null;
+        }
+        int index = -1;
+        for (int i = 0; i < references.size(); i++) {
+            if (references.get(i) == object) {
+                index = i;
+                break;
+            }
+        }
+        if (index == -1) {
+            index = references.size();
+            references.add(object);
+        }
+        final int token = index;
+        return new Writer() {
+            @Override
+            public void writeObject(final Marshaller marshaller, final Object object) throws IOException {
+                marshaller.writeInt(token);
+            }
+        };
+    }
+
+    @Override
+    public synchronized Object readObject(final Unmarshaller unmarshaller) throws IOException, ClassNotFoundException {
+        final int token = unmarshaller.readInt();
+        if (token < 0 || token >= references.size()) {
+            throw new InvalidObjectException("Unknown container reference " + token);
+        }
+        return references.get(token);
+    }
+
+    /**
+     * Drops the kept references, once the bean has been activated or its passivated state is discarded.
+     */
+    synchronized void clear() {
+        references.clear();
+    }
+
+    synchronized int size() {
+        return references.size();
+    }
+
+    static boolean isContainerManaged(final Object object) {
+        return object instanceof EJBContext
+                || object instanceof UserTransaction
+                || object instanceof TimerService
+                || object instanceof EntityManager
+                || object instanceof EntityManagerFactory
+                || object.getClass().getName().contains(ComponentDescription.VIEW_PROXY_NAME_MARKER);
+    }
+}
@@ -46,9 +46,9 @@ public class ContainerManagedConcurrencyInterceptor implements Interceptor {
     private static final Logger logger = Logger.getLogger(ContainerManagedConcurrencyInterceptor.class);
 
     /**
-     * A spec compliant {@link org.jboss.as.ejb3.concurrency.EJBReadWriteLock}
+     * A spec compliant lock, created by the {@link LockStrategy} of the component
      */
-    private final ReadWriteLock readWriteLock = new EJBReadWriteLock();
+    private final ReadWriteLock readWriteLock;
 
     private final LockableComponent lockableComponent;
 
@@ -57,6 +57,7 @@ public class ContainerManagedConcurrencyInterceptor implements Interceptor {
             throw MESSAGES.componentIsNull(LockableComponent.class.getName());
         }
         this.lockableComponent = component;
+        this.readWriteLock = component.getLockStrategy().createLock();
     }
 
     protected LockableComponent getLockableComponent() {
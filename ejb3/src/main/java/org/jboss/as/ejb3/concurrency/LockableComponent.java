@@ -61,4 +61,11 @@ public interface LockableComponent {
      * @return
      */
     AccessTimeoutDetails getDefaultAccessTimeout();
+
+    /**
+     * Returns the {@link LockStrategy} which creates the lock guarding the instance of the component.
+     *
+     * @return
+     */
+    LockStrategy getLockStrategy();
 }
@@ -0,0 +1,356 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.concurrency;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.jboss.as.ejb3.EjbMessages.MESSAGES;
+
+/**
+ * A {@link ReadWriteLock} for container managed concurrency which is optimized for beans that are mostly invoked
+ * through {@link javax.ejb.LockType#READ} methods.
+ * <p/>
+ * A reader registers itself by incrementing the counter of its stripe and then checks that no writer is active. The
+ * stripe is chosen per thread and the counters are padded onto separate cache lines, so readers on different cores
+ * do not contend with each other. A writer first excludes the other writers, then raises the writer flag and waits
+ * until the counters of all stripes have drained. Readers which see the flag back off and wait until the writer
+ * releases the lock, so a writer cannot be starved by a steady stream of new readers.
+ * <p/>
+ * The semantics are those of {@link EJBReadWriteLock}: the read lock is reentrant, the write lock is reentrant, the
+ * thread holding the write lock may acquire the read lock, and a thread holding a read lock which asks for the write
+ * lock gets a {@link javax.ejb.IllegalLoopbackException}.
+ */
+public class StripedEJBReadWriteLock implements ReadWriteLock {
+
+    /**
+     * The distance, in ints, between two stripe counters, so that each counter sits on its own cache line
+     */
+    private static final int PADDING = 16;
+
+    /**
+     * The number of stripes, a power of two of at least twice the number of processors
+     */
+    private static final int STRIPES;
+
+    static {
+        final int processors = Runtime.getRuntime().availableProcessors();
+        int stripes = 1;
+        while (stripes < processors * 2 && stripes < 64) {
+            stripes <<= 1;
+        }
+        STRIPES = stripes;
+    }
+
+    /**
+     * The number of read locks held, per stripe
+     */
+    private final AtomicIntegerArray readers = new AtomicIntegerArray(STRIPES * PADDING);
+
+    /**
+     * The read lock count and the stripe of the current thread. The holder is mutable so that the read lock
+     * does not allocate once a thread has used this lock.
+     */
+    private final ThreadLocal<ReadHolder> readHolder = new ThreadLocal<ReadHolder>() {
+        @Override
+        protected ReadHolder initialValue() {
+            return new ReadHolder((int) (Thread.currentThread().getId() & (STRIPES - 1)) * PADDING);
+        }
+    };
+
+    /**
+     * Excludes writers from each other, and owns the write lock hold count
+     */
+    private final ReentrantLock writerLock = new ReentrantLock();
+
+    /**
+     * Set by the writer which owns the {@link #writerLock}, from before it starts waiting for the readers
+     * until it releases the write lock
+     */
+    private volatile boolean writerActive;
+
+    /**
+     * Guards the conditions readers and writers wait on. It is only used when a writer is active.
+     */
+    private final ReentrantLock waitLock = new ReentrantLock();
+
+    private final Condition readersDrained = waitLock.newCondition();
+
+    private final Condition writerReleased = waitLock.newCondition();
+
+    private final Lock readLock = new ReadLock();
+
+    private final Lock writeLock = new WriteLock();
+
+    private static final class ReadHolder {
+        private final int index;
+        private int count;
+
+        ReadHolder(final int index) {
+            this.index = index;
+        }
+    }
+
+    private class ReadLock implements Lock {
+
+        @Override
+        public void lock() {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    acquireRead(false, 0);
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            acquireRead(false, 0);
+        }
+
+        @Override
+        public boolean tryLock() {
+            return tryAcquireRead(readHolder.get());
+        }
+
+        @Override
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            return acquireRead(true, unit.toNanos(time));
+        }
+
+        @Override
+        public void unlock() {
+            final ReadHolder holder = readHolder.get();
+            if (holder.count == 0) {
+                throw new IllegalMonitorStateException();
+            }
+            holder.count--;
+            releaseRead(holder.index);
+        }
+
+        @Override
+        public Condition newCondition() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private class WriteLock implements Lock {
+
+        @Override
+        public void lock() {
+            checkLoopback();
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    acquireWrite(false, 0);
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            checkLoopback();
+            acquireWrite(false, 0);
+        }
+
+        @Override
+        public boolean tryLock() {
+            checkLoopback();
+            try {
+                return acquireWrite(true, 0);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        @Override
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            checkLoopback();
+            return acquireWrite(true, unit.toNanos(time));
+        }
+
+        @Override
+        public void unlock() {
+            if (!writerLock.isHeldByCurrentThread()) {
+                throw new IllegalMonitorStateException();
+            }
+            if (writerLock.getHoldCount() == 1) {
+                releaseWriter();
+            }
+            writerLock.unlock();
+        }
+
+        @Override
+        public Condition newCondition() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Registers a read lock on the stripe of the current thread, unless a writer other than the current thread is active.
+     * A thread which already holds a read lock always succeeds, as the active writer is waiting for it anyway.
+     */
+    private boolean tryAcquireRead(final ReadHolder holder) {
+        readers.incrementAndGet(holder.index);
+        // the flag must be read after the increment, see acquireWrite
+        if (holder.count > 0 || !writerActive || writerLock.isHeldByCurrentThread()) {
+            holder.count++;
+            return true;
+        }
+        // back off so that the writer does not wait for us
+        releaseRead(holder.index);
+        return false;
+    }
+
+    private boolean acquireRead(final boolean timed, long nanos) throws InterruptedException {
+        final ReadHolder holder = readHolder.get();
+        while (!tryAcquireRead(holder)) {
+            waitLock.lockInterruptibly();
+            try {
+                while (writerActive) {
+                    if (!timed) {
+                        writerReleased.await();
+                    } else if (nanos <= 0) {
+                        return false;
+                    } else {
+                        nanos = writerReleased.awaitNanos(nanos);
+                    }
+                }
+            } finally {
+                waitLock.unlock();
+            }
+        }
+        return true;
+    }
+
+    private void releaseRead(final int index) {
+        readers.decrementAndGet(index);
+        if (writerActive) {
+            waitLock.lock();
+            try {
+                readersDrained.signalAll();
+            } finally {
+                waitLock.unlock();
+            }
+        }
+    }
+
+    private boolean acquireWrite(final boolean timed, long nanos) throws InterruptedException {
+        if (writerLock.isHeldByCurrentThread()) {
+            // reentrant write, the readers have already been drained
+            writerLock.lock();
+            return true;
+        }
+        if (!timed) {
+            writerLock.lockInterruptibly();
+        } else {
+            final long start = System.nanoTime();
+            if (!writerLock.tryLock(nanos, TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+            nanos -= System.nanoTime() - start;
+        }
+        boolean acquired = false;
+        try {
+            // raised before the stripes are read, so that any reader we do not see will see the flag and back off
+            writerActive = true;
+            waitLock.lockInterruptibly();
+            try {
+                while (!isDrained()) {
+                    if (!timed) {
+                        readersDrained.await();
+                    } else if (nanos <= 0) {
+                        return false;
+                    } else {
+                        nanos = readersDrained.awaitNanos(nanos);
+                    }
+                }
+            } finally {
+                waitLock.unlock();
+            }
+            acquired = true;
+            return true;
+        } finally {
+            if (!acquired) {
+                releaseWriter();
+                writerLock.unlock();
+            }
+        }
+    }
+
+    private void releaseWriter() {
+        writerActive = false;
+        waitLock.lock();
+        try {
+            writerReleased.signalAll();
+        } finally {
+            waitLock.unlock();
+        }
+    }
+
+    private boolean isDrained() {
+        for (int i = 0; i < STRIPES * PADDING; i += PADDING) {
+            if (readers.get(i) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Ensures that the current thread doesn't hold any read locks. If
+     * the thread holds any read locks, this method throws a {@link javax.ejb.IllegalLoopbackException}.
+     */
+    private void checkLoopback() {
+        if (readHolder.get().count > 0) {
+            throw MESSAGES.failToUpgradeToWriteLock();
+        }
+    }
+
+    @Override
+    public Lock readLock() {
+        return readLock;
+    }
+
+    @Override
+    public Lock writeLock() {
+        return writeLock;
+    }
+}
@@ -5,7 +5,9 @@ import org.jboss.as.ejb3.component.EJBComponent;
 import org.jboss.as.ejb3.iiop.EjbIIOPService;
 import org.jboss.msc.value.InjectedValue;
 
+import java.lang.reflect.Method;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -25,6 +27,11 @@ public class EjbDeploymentInformation {
 
     private final InjectedValue<EjbIIOPService> iorFactory;
 
+    /**
+     * map of view class name : method name and parameter type names : view method
+     */
+    private volatile Map<String, Map<String, Method>> viewMethods;
+
     public EjbDeploymentInformation(final String ejbName, final InjectedValue<EJBComponent> ejbComponent, final Map<String, InjectedValue<ComponentView>> componentViews, final ClassLoader deploymentClassLoader, final InjectedValue<EjbIIOPService> iorFactory) {
         this.ejbName = ejbName;
         this.ejbComponent = ejbComponent;
@@ -53,6 +60,56 @@ public class EjbDeploymentInformation {
         return value.getValue();
     }
 
+    /**
+     * Gets a view method from the name of the method and the comma separated names of its parameter types, which is
+     * how remote clients identify the method they invoke.
+     *
+     * @param viewName       the view class name
+     * @param methodName     the method name
+     * @param paramTypeNames the comma separated parameter type names, as returned by {@link Class#getName()}
+     * @return the method, or null if the view has no such method
+     */
+    public Method getViewMethod(final String viewName, final String methodName, final String paramTypeNames) {
+        Map<String, Map<String, Method>> viewMethods = this.viewMethods;
+        if (viewMethods == null) {
+            viewMethods = indexViewMethods();
+        }
+        final Map<String, Method> methods = viewMethods.get(viewName);
+        if (methods == null) {
+            return null;
+        }
+        return methods.get(methodKey(methodName, paramTypeNames));
+    }
+
+    /**
+     * Indexes the methods of all views, so that they can be looked up without scanning them. Should be called once
+     * the views are available.
+     */
+    Map<String, Map<String, Method>> indexViewMethods() {
+        final Map<String, Map<String, Method>> viewMethods = new HashMap<String, Map<String, Method>>();
+        final StringBuilder paramTypeNames = new StringBuilder();
+        for (Map.Entry<String, InjectedValue<ComponentView>> view : componentViews.entrySet()) {
+            final Map<String, Method> methods = new HashMap<String, Method>();
+            for (Method method : view.getValue().getValue().getViewMethods()) {
+                paramTypeNames.setLength(0);
+                for (Class<?> paramType : method.getParameterTypes()) {
+                    if (paramTypeNames.length() > 0) {
+                        paramTypeNames.append(',');
+                    }
+                    paramTypeNames.append(paramType.getName());
+                }
+                methods.put(methodKey(method.getName(), paramTypeNames.toString()), method);
+            }
+            viewMethods.put(view.getKey(), methods);
+        }
+        this.viewMethods = viewMethods;
+        return viewMethods;
+    }
+
+    private static String methodKey(final String methodName, final String paramTypeNames) {
+        return methodName + '(' + paramTypeNames + ')';
+    }
+
     public ClassLoader getDeploymentClassLoader() {
         return deploymentClassLoader;
     }
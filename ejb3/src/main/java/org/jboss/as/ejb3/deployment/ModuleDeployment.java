@@ -46,6 +46,10 @@ public class ModuleDeployment implements Service<ModuleDeployment> {
 
     @Override
     public void start(StartContext context) throws StartException {
+        // the views have been injected by now, so remote invocations can be dispatched without scanning them
+        for (EjbDeploymentInformation ejb : ejbs.values()) {
+            ejb.indexViewMethods();
+        }
         deploymentRepository.getValue().add(identifier, this);
     }
 
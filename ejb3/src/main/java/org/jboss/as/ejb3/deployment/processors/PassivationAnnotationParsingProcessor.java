@@ -0,0 +1,104 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.deployment.processors;
+
+import java.util.List;
+
+import javax.ejb.PostActivate;
+import javax.ejb.PrePassivate;
+import javax.interceptor.InvocationContext;
+
+import org.jboss.as.ee.component.Attachments;
+import org.jboss.as.ee.component.EEModuleClassDescription;
+import org.jboss.as.ee.component.EEModuleDescription;
+import org.jboss.as.ee.component.interceptors.InterceptorClassDescription;
+import org.jboss.as.ee.metadata.MetadataCompleteMarker;
+import org.jboss.as.server.deployment.DeploymentPhaseContext;
+import org.jboss.as.server.deployment.DeploymentUnit;
+import org.jboss.as.server.deployment.DeploymentUnitProcessingException;
+import org.jboss.as.server.deployment.DeploymentUnitProcessor;
+import org.jboss.as.server.deployment.annotation.CompositeIndex;
+import org.jboss.invocation.proxy.MethodIdentifier;
+import org.jboss.jandex.AnnotationInstance;
+import org.jboss.jandex.AnnotationTarget;
+import org.jboss.jandex.ClassInfo;
+import org.jboss.jandex.DotName;
+import org.jboss.jandex.MethodInfo;
+import org.jboss.jandex.Type;
+
+/**
+ * Deployment processor responsible for finding @PrePassivate and @PostActivate annotated methods in classes within a deployment.
+ */
+public class PassivationAnnotationParsingProcessor implements DeploymentUnitProcessor {
+
+    private static final DotName PRE_PASSIVATE_ANNOTATION = DotName.createSimple(PrePassivate.class.getName());
+    private static final DotName POST_ACTIVATE_ANNOTATION = DotName.createSimple(PostActivate.class.getName());
+
+    public void deploy(DeploymentPhaseContext phaseContext) throws DeploymentUnitProcessingException {
+        final DeploymentUnit deploymentUnit = phaseContext.getDeploymentUnit();
+
+        if (MetadataCompleteMarker.isMetadataComplete(deploymentUnit)) {
+            return;
+        }
+
+        final EEModuleDescription eeModuleDescription = deploymentUnit.getAttachment(Attachments.EE_MODULE_DESCRIPTION);
+        final CompositeIndex index = deploymentUnit.getAttachment(org.jboss.as.server.deployment.Attachments.COMPOSITE_ANNOTATION_INDEX);
+
+        for (DotName annotationName : new DotName[] { PRE_PASSIVATE_ANNOTATION, POST_ACTIVATE_ANNOTATION }) {
+            final List<AnnotationInstance> annotations = index.getAnnotations(annotationName);
+            for (AnnotationInstance annotation : annotations) {
+                processPassivationCallback(annotation.target(), annotationName, eeModuleDescription);
+            }
+        }
+    }
+
+    public void undeploy(final DeploymentUnit context) {
+    }
+
+    private void processPassivationCallback(final AnnotationTarget target, final DotName annotationName, final EEModuleDescription eeModuleDescription) {
+        if (!(target instanceof MethodInfo)) {
+            throw new IllegalArgumentException("@" + annotationName.local() + " is only valid on method targets.");
+        }
+        final MethodInfo methodInfo = MethodInfo.class.cast(target);
+        final ClassInfo classInfo = methodInfo.declaringClass();
+        final EEModuleClassDescription classDescription = eeModuleDescription.addOrGetLocalClassDescription(classInfo.name().toString());
+
+        // bean class callbacks take no arguments, interceptor class callbacks take the invocation context
+        final Type[] args = methodInfo.args();
+        final MethodIdentifier methodIdentifier;
+        if (args.length == 0) {
+            methodIdentifier = MethodIdentifier.getIdentifier(Void.TYPE, methodInfo.name());
+        } else if (args.length == 1 && InvocationContext.class.getName().equals(args[0].name().toString())) {
+            methodIdentifier = MethodIdentifier.getIdentifier(Void.TYPE, methodInfo.name(), InvocationContext.class);
+        } else {
+            throw new IllegalArgumentException("Invalid argument signature for method " + methodInfo.name() + " annotated with " + annotationName + " on class " + classInfo.name());
+        }
+
+        final InterceptorClassDescription.Builder builder = InterceptorClassDescription.builder(classDescription.getInterceptorClassDescription());
+        if (annotationName.equals(PRE_PASSIVATE_ANNOTATION)) {
+            builder.setPrePassivate(methodIdentifier);
+        } else {
+            builder.setPostActivate(methodIdentifier);
+        }
+        classDescription.setInterceptorClassDescription(builder.build());
+    }
+}
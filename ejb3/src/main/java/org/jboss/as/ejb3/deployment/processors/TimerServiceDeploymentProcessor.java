@@ -21,7 +21,6 @@
  */
 package org.jboss.as.ejb3.deployment.processors;
 
-import java.util.Timer;
 import java.util.concurrent.ExecutorService;
 
 import org.jboss.as.ee.component.Attachments;
@@ -37,7 +36,7 @@ import org.jboss.as.ejb3.component.EJBComponentDescription;
 import org.jboss.as.ejb3.component.interceptors.CurrentInvocationContextInterceptor;
 import org.jboss.as.ejb3.timerservice.TimerServiceImpl;
 import org.jboss.as.ejb3.timerservice.persistence.TimerPersistence;
-import org.jboss.as.ejb3.timerservice.persistence.filestore.FileTimerPersistence;
+import org.jboss.as.ejb3.timerservice.spi.TimeoutScheduler;
 import org.jboss.as.server.deployment.DeploymentPhaseContext;
 import org.jboss.as.server.deployment.DeploymentUnit;
 import org.jboss.as.server.deployment.DeploymentUnitProcessingException;
@@ -59,9 +58,11 @@ public class TimerServiceDeploymentProcessor implements DeploymentUnitProcessor
     public static final ServiceName PATH_SERVICE_NAME = ServiceName.JBOSS.append("ejb3", "timerService", "dataPath");
 
     private final ServiceName timerServiceThreadPool;
+    private final ServiceName timerPersistence;
 
-    public TimerServiceDeploymentProcessor(final ServiceName timerServiceThreadPool) {
+    public TimerServiceDeploymentProcessor(final ServiceName timerServiceThreadPool, final ServiceName timerPersistence) {
         this.timerServiceThreadPool = timerServiceThreadPool;
+        this.timerPersistence = timerPersistence;
     }
 
     @Override
@@ -84,10 +85,10 @@ public class TimerServiceDeploymentProcessor implements DeploymentUnitProcessor
                         final ServiceName serviceName = component.getServiceName().append(TimerServiceImpl.SERVICE_NAME);
                         final TimerServiceImpl service = new TimerServiceImpl(ejbComponentDescription.getScheduleMethods(), serviceName);
                         final ServiceBuilder<javax.ejb.TimerService> createBuilder = context.getServiceTarget().addService(serviceName, service);
-                        createBuilder.addDependency(TIMER_SERVICE_NAME, Timer.class, service.getTimerInjectedValue());
+                        createBuilder.addDependency(TIMER_SERVICE_NAME, TimeoutScheduler.class, service.getTimeoutSchedulerInjectedValue());
                         createBuilder.addDependency(component.getCreateServiceName(), EJBComponent.class, service.getEjbComponentInjectedValue());
                         createBuilder.addDependency(timerServiceThreadPool, ExecutorService.class, service.getExecutorServiceInjectedValue());
-                        createBuilder.addDependency(FileTimerPersistence.SERVICE_NAME, TimerPersistence.class, service.getTimerPersistence());
+                        createBuilder.addDependency(timerPersistence, TimerPersistence.class, service.getTimerPersistence());
                         createBuilder.install();
                         ejbComponentDescription.setTimerService(service);
                         //inject the timer service directly into the start service
@@ -46,9 +46,11 @@ public class SessionBeanMergingProcessor extends AbstractMergingProcessor<Sessio
                 }
             });
 
-            //now EJB remove
+            //now EJB remove, and ejbPassivate/ejbActivate which are only used by stateful beans
             final InterceptorClassDescription.Builder builder = InterceptorClassDescription.builder();
             builder.setPreDestroy(MethodIdentifier.getIdentifier(void.class, "ejbRemove"));
+            builder.setPrePassivate(MethodIdentifier.getIdentifier(void.class, "ejbPassivate"));
+            builder.setPostActivate(MethodIdentifier.getIdentifier(void.class, "ejbActivate"));
             description.addInterceptorMethodOverride(componentClass.getName(), builder.build());
 
         }
@@ -31,6 +31,7 @@ import javax.ejb.EJBException;
 import java.util.LinkedList;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A pool with a maximum size.
@@ -61,7 +62,7 @@ public class StrictMaxPool<T> extends AbstractPool<T> {
      */
     private final LinkedList<T> pool = new LinkedList<T>();
 
-    private int inUse = 0;
+    private final AtomicInteger inUse = new AtomicInteger(0);
 
     public StrictMaxPool(StatelessObjectFactory<T> factory, int maxSize, long timeout, TimeUnit timeUnit) {
         super(factory);
@@ -77,8 +78,8 @@ public class StrictMaxPool<T> extends AbstractPool<T> {
         }
 
         // If we block when maxSize instances are in use, invoke release on strictMaxSize
+        inUse.decrementAndGet();
         semaphore.release();
-        --inUse;
 
         // Let the super do any other remove stuff
         super.doRemove(ctx);
@@ -89,7 +90,7 @@ public class StrictMaxPool<T> extends AbstractPool<T> {
     }
 
     public int getAvailableCount() {
-        return maxSize - inUse;
+        return maxSize - inUse.get();
     }
 
     public int getMaxSize() {
@@ -114,6 +115,7 @@ public class StrictMaxPool<T> extends AbstractPool<T> {
         } catch (InterruptedException e) {
             throw MESSAGES.acquireSemaphoreInterrupted();
         }
+        inUse.incrementAndGet();
 
         synchronized (pool) {
             if (!pool.isEmpty()) {
@@ -124,11 +126,10 @@ public class StrictMaxPool<T> extends AbstractPool<T> {
         T bean = null;
         try {
             // Pool is empty, create an instance
-            ++inUse;
             bean = create();
         } finally {
             if (bean == null) {
-                --inUse;
+                inUse.decrementAndGet();
                 semaphore.release();
             }
         }
@@ -160,8 +161,8 @@ public class StrictMaxPool<T> extends AbstractPool<T> {
         if (destroyIt)
             destroy(obj);
         // If we block when maxSize instances are in use, invoke release on strictMaxSize
+        inUse.decrementAndGet();
         semaphore.release();
-        --inUse;
     }
 
     @Override
@@ -170,8 +171,8 @@ public class StrictMaxPool<T> extends AbstractPool<T> {
             ROOT_LOGGER.tracef("Removing instance: %s#%s", this, ctx);
         }
 
+        inUse.decrementAndGet();
         semaphore.release();
-        --inUse;
         // let the super do the other remove stuff
         super.doRemove(ctx);
     }
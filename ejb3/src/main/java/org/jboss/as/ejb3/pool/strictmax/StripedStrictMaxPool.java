@@ -0,0 +1,221 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.pool.strictmax;
+
+import static org.jboss.as.ejb3.EjbLogger.ROOT_LOGGER;
+import static org.jboss.as.ejb3.EjbMessages.MESSAGES;
+
+import org.jboss.as.ejb3.pool.AbstractPool;
+import org.jboss.as.ejb3.pool.StatelessObjectFactory;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool with a maximum size which, unlike {@link StrictMaxPool}, does not serialize callers on a single monitor.
+ * <p/>
+ * Idle instances are kept in a number of lock-free stripes (one per available processor, rounded up to a power
+ * of two). A thread returns instances to, and takes instances from, its own stripe first and only steals from the
+ * other stripes when its own is empty. The strict upper bound is enforced by a non-fair {@link Semaphore}, whose
+ * uncontended acquire and release are a single compare-and-set.
+ */
+public class StripedStrictMaxPool<T> extends AbstractPool<T> {
+
+    /**
+     * A non-fair semaphore which allows only maxSize instances to be active at a time. Any attempt to get an
+     * instance beyond that will block until an instance is freed.
+     */
+    private final Semaphore semaphore;
+    /**
+     * The maximum number of instances allowed in the pool
+     */
+    private final int maxSize;
+    /**
+     * The time to wait for the semaphore.
+     */
+    private final long timeout;
+    private final TimeUnit timeUnit;
+    /**
+     * The idle instances, spread over the stripes
+     */
+    private final ConcurrentLinkedQueue<T>[] stripes;
+    private final int stripeMask;
+    /**
+     * The number of idle instances held in all stripes
+     */
+    private final AtomicInteger pooled = new AtomicInteger(0);
+    /**
+     * The number of instances that are currently handed out
+     */
+    private final AtomicInteger inUse = new AtomicInteger(0);
+
+    @SuppressWarnings("unchecked")
+    public StripedStrictMaxPool(StatelessObjectFactory<T> factory, int maxSize, long timeout, TimeUnit timeUnit) {
+        super(factory);
+        this.maxSize = maxSize;
+        this.semaphore = new Semaphore(maxSize, false);
+        this.timeout = timeout;
+        this.timeUnit = timeUnit;
+
+        final int target = Math.min(Runtime.getRuntime().availableProcessors(), maxSize);
+        int stripeCount = 1;
+        while (stripeCount < target) {
+            stripeCount <<= 1;
+        }
+        this.stripes = new ConcurrentLinkedQueue[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            this.stripes[i] = new ConcurrentLinkedQueue<T>();
+        }
+        this.stripeMask = stripeCount - 1;
+    }
+
+    public void discard(T ctx) {
+        if (ROOT_LOGGER.isTraceEnabled()) {
+            ROOT_LOGGER.tracef("Discard instance %s#%s", this, ctx);
+        }
+
+        releasePermit();
+
+        // Let the super do any other remove stuff
+        super.doRemove(ctx);
+    }
+
+    public int getCurrentSize() {
+        return getCreateCount() - getRemoveCount();
+    }
+
+    public int getAvailableCount() {
+        return maxSize - inUse.get();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        throw MESSAGES.methodNotImplemented();
+    }
+
+    /**
+     * Get an instance without identity.
+     * Can be used by finders,create-methods, and activation
+     *
+     * @return Context /w instance
+     */
+    public T get() {
+        try {
+            boolean acquired = semaphore.tryAcquire(timeout, timeUnit);
+            if (!acquired)
+                throw MESSAGES.failedToAcquirePermit(timeout, timeUnit);
+        } catch (InterruptedException e) {
+            throw MESSAGES.acquireSemaphoreInterrupted();
+        }
+        inUse.incrementAndGet();
+
+        // try our own stripe first, then steal from the others
+        final int home = stripeIndex();
+        for (int i = 0; i < stripes.length; i++) {
+            final T bean = stripes[(home + i) & stripeMask].poll();
+            if (bean != null) {
+                pooled.decrementAndGet();
+                return bean;
+            }
+        }
+
+        T bean = null;
+        try {
+            // Pool is empty, create an instance
+            bean = create();
+        } finally {
+            if (bean == null) {
+                releasePermit();
+            }
+        }
+        return bean;
+    }
+
+    /**
+     * Return an instance after invocation.
+     * <p/>
+     * Called in 2 cases:
+     * a) Done with finder method
+     * b) Just removed
+     *
+     * @param obj
+     */
+    public void release(T obj) {
+        if (ROOT_LOGGER.isTraceEnabled()) {
+            ROOT_LOGGER.tracef("%s/%s Free instance: %s", pooled.get(), maxSize, this);
+        }
+
+        // Add the unused context back into the pool
+        if (pooled.incrementAndGet() <= maxSize) {
+            stripes[stripeIndex()].offer(obj);
+        } else {
+            pooled.decrementAndGet();
+            destroy(obj);
+        }
+        releasePermit();
+    }
+
+    @Override
+    public void remove(T ctx) {
+        if (ROOT_LOGGER.isTraceEnabled()) {
+            ROOT_LOGGER.tracef("Removing instance: %s#%s", this, ctx);
+        }
+
+        releasePermit();
+        // let the super do the other remove stuff
+        super.doRemove(ctx);
+    }
+
+    public void start() {
+    }
+
+    public void stop() {
+        for (ConcurrentLinkedQueue<T> stripe : stripes) {
+            T obj;
+            while ((obj = stripe.poll()) != null) {
+                pooled.decrementAndGet();
+                destroy(obj);
+            }
+        }
+    }
+
+    /**
+     * Decrements the in use count before handing the permit back, so that the in use count
+     * can never be observed above the maximum pool size.
+     */
+    private void releasePermit() {
+        inUse.decrementAndGet();
+        semaphore.release();
+    }
+
+    private int stripeIndex() {
+        // thread ids are handed out sequentially, so spread them before masking
+        final long id = Thread.currentThread().getId();
+        final int h = (int) (id ^ (id >>> 32));
+        return (h ^ (h >>> 16) ^ (h >>> 7)) & stripeMask;
+    }
+}
@@ -89,6 +89,11 @@ class MarshallerFactory {
                     final int byteToWrite = b & 0xff;
                     output.write(byteToWrite);
                 }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    output.write(b, off, len);
+                }
             };
             final ByteOutput byteOutput = Marshalling.createByteOutput(outputStream);
             this.delegate.start(byteOutput);
@@ -188,6 +193,11 @@ class MarshallerFactory {
                     final int byteToWrite = b & 0xff;
                     JavaSerialMarshaller.this.dataOutput.write(byteToWrite);
                 }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    JavaSerialMarshaller.this.dataOutput.write(b, off, len);
+                }
             };
             final ObjectOutputStream objectOutputStream = new ObjectOutputStream(os);
             objectOutputStream.writeObject(object);
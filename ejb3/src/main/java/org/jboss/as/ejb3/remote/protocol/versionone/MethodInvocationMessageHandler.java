@@ -27,7 +27,6 @@ import java.io.DataOutputStream;
 import java.io.IOException;
 import java.lang.reflect.Method;
 import java.util.HashMap;
-import java.util.Set;
 import java.util.concurrent.ExecutorService;
 
 import org.jboss.as.ee.component.Component;
@@ -79,13 +78,7 @@ class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHandler {
         // read the method name
         final String methodName = input.readUTF();
         // method signature
-        String[] methodParamTypes = null;
         final String signature = input.readUTF();
-        if (signature.isEmpty()) {
-            methodParamTypes = new String[0];
-        } else {
-            methodParamTypes = signature.split(String.valueOf(METHOD_PARAM_TYPE_SEPARATOR));
-        }
         // read the attachments
         final RemotingAttachments attachments = this.readAttachments(input);
 
@@ -135,16 +128,18 @@ class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHandler {
             }
             // TODO: Add a check for remote view
             final ComponentView componentView = ejbDeploymentInformation.getView(viewClassName);
-            final Method invokedMethod = this.findMethod(componentView, methodName, methodParamTypes);
+            final Method invokedMethod = ejbDeploymentInformation.getViewMethod(viewClassName, methodName, signature);
             if (invokedMethod == null) {
+                final String[] methodParamTypes = signature.isEmpty() ? new String[0] : signature.split(String.valueOf(METHOD_PARAM_TYPE_SEPARATOR));
                 this.writeNoSuchEJBMethodFailureMessage(channel, invocationId, appName, moduleName, distinctName, beanName, viewClassName, methodName, methodParamTypes);
                 return;
             }
 
-            final Object[] methodParams = new Object[methodParamTypes.length];
+            final int paramCount = invokedMethod.getParameterTypes().length;
+            final Object[] methodParams = new Object[paramCount];
             // un-marshall the method arguments
-            if (methodParamTypes.length > 0) {
-                for (int i = 0; i < methodParamTypes.length; i++) {
+            if (paramCount > 0) {
+                for (int i = 0; i < paramCount; i++) {
                     try {
                         methodParams[i] = unMarshaller.readObject();
                     } catch (ClassNotFoundException cnfe) {
@@ -260,29 +255,6 @@ class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHandler {
         }
     }
 
-    private Method findMethod(final ComponentView componentView, final String methodName, final String[] paramTypes) {
-        final Set<Method> viewMethods = componentView.getViewMethods();
-        for (final Method method : viewMethods) {
-            if (method.getName().equals(methodName)) {
-                final Class<?>[] methodParamTypes = method.getParameterTypes();
-                if (methodParamTypes.length != paramTypes.length) {
-                    continue;
-                }
-                boolean found = true;
-                for (int i = 0; i < methodParamTypes.length; i++) {
-                    if (!methodParamTypes[i].getName().equals(paramTypes[i])) {
-                        found = false;
-                        break;
-                    }
-                }
-                if (found) {
-                    return method;
-                }
-            }
-        }
-        return null;
-    }
-
     private void writeMethodInvocationResponse(final Channel channel, final short invocationId, final Object result, final RemotingAttachments attachments) throws IOException {
         final DataOutputStream outputStream = new DataOutputStream(channel.writeMessage());
         try {
@@ -54,6 +54,7 @@ import static org.jboss.as.controller.parsing.ParseUtils.unexpectedAttribute;
 import static org.jboss.as.controller.parsing.ParseUtils.unexpectedElement;
 import static org.jboss.as.ejb3.EjbMessages.MESSAGES;
 import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.ASYNC;
+import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.DATA_STORE_TYPE;
 import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT;
 import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.DEFAULT_STATEFUL_BEAN_ACCESS_TIMEOUT;
 import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.IIOP;
@@ -66,6 +67,7 @@ import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.PATH;
 import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.RELATIVE_TO;
 import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.REMOTE;
 import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.SERVICE;
+import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.STRATEGY;
 import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.STRICT_MAX_BEAN_INSTANCE_POOL;
 import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.THREAD_POOL;
 import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.THREAD_POOL_NAME;
@@ -130,6 +132,16 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
             writer.writeEndElement();
         }
 
+        // write the entity-bean element
+        if (model.hasDefined(EJB3SubsystemModel.ENTITY_BEAN_CACHE_MAX_SIZE) || model.hasDefined(EJB3SubsystemModel.ENTITY_BEAN_COMMIT_OPTION)) {
+            // <entity-bean>
+            writer.writeStartElement(EJB3SubsystemXMLElement.ENTITY_BEAN.getLocalName());
+            EJB3SubsystemRootResourceDefinition.ENTITY_BEAN_CACHE_MAX_SIZE.marshallAsAttribute(model, writer);
+            EJB3SubsystemRootResourceDefinition.ENTITY_BEAN_COMMIT_OPTION.marshallAsAttribute(model, writer);
+            // </entity-bean>
+            writer.writeEndElement();
+        }
+
         // write the mdb element
         if (model.hasDefined(EJB3SubsystemModel.DEFAULT_MDB_INSTANCE_POOL) || model.hasDefined(EJB3SubsystemModel.DEFAULT_RESOURCE_ADAPTER_NAME)) {
             // <mdb>
@@ -269,6 +281,11 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
                             this.parseSessionBean(reader, operations, ejb3SubsystemAddOperation);
                             break;
                         }
+                        case ENTITY_BEAN: {
+                            // read <entity-bean>
+                            this.parseEntityBean(reader, ejb3SubsystemAddOperation);
+                            break;
+                        }
                         case TIMER_SERVICE: {
                             parseTimerService(reader, operations);
                             break;
@@ -368,11 +385,13 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
     private void writeSingletonBean(final XMLExtendedStreamWriter writer, final ModelNode singletonBeanModel) throws XMLStreamException {
         final String defaultAccessTimeout = singletonBeanModel.get(DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT).asString();
         writer.writeAttribute(EJB3SubsystemXMLAttribute.DEFAULT_ACCESS_TIMEOUT.getLocalName(), defaultAccessTimeout);
+        EJB3SubsystemRootResourceDefinition.SINGLETON_BEAN_LOCK_STRATEGY.marshallAsAttribute(singletonBeanModel, writer);
     }
 
     private void writeStatefulBean(final XMLExtendedStreamWriter writer, final ModelNode statefulBeanModel) throws XMLStreamException {
         final String defaultAccessTimeout = statefulBeanModel.get(DEFAULT_STATEFUL_BEAN_ACCESS_TIMEOUT).asString();
         writer.writeAttribute(EJB3SubsystemXMLAttribute.DEFAULT_ACCESS_TIMEOUT.getLocalName(), defaultAccessTimeout);
+        EJB3SubsystemRootResourceDefinition.STATEFUL_BEAN_CACHE_MAX_SIZE.marshallAsAttribute(statefulBeanModel, writer);
     }
 
 
@@ -426,6 +445,7 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
         StrictMaxPoolResourceDefinition.MAX_POOL_SIZE.marshallAsAttribute(strictMaxPoolModelNode, writer);
         StrictMaxPoolResourceDefinition.INSTANCE_ACQUISITION_TIMEOUT.marshallAsAttribute(strictMaxPoolModelNode, writer);
         StrictMaxPoolResourceDefinition.INSTANCE_ACQUISITION_TIMEOUT_UNIT.marshallAsAttribute(strictMaxPoolModelNode, writer);
+        StrictMaxPoolResourceDefinition.STRATEGY.marshallAsAttribute(strictMaxPoolModelNode, writer);
     }
 
     private void writeTimerService(final XMLExtendedStreamWriter writer, final ModelNode timerServiceModel) throws XMLStreamException {
@@ -439,6 +459,7 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
             writer.writeEmptyElement(EJB3SubsystemXMLElement.DATA_STORE.getLocalName());
             TimerServiceResourceDefinition.PATH.marshallAsAttribute(timerServiceModel, writer);
             TimerServiceResourceDefinition.RELATIVE_TO.marshallAsAttribute(timerServiceModel, writer);
+            TimerServiceResourceDefinition.DATA_STORE_TYPE.marshallAsAttribute(timerServiceModel, writer);
         }
 
     }
@@ -614,6 +635,9 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
                     // found the mandatory attribute
                     missingRequiredAttributes.remove(EJB3SubsystemXMLAttribute.DEFAULT_ACCESS_TIMEOUT);
                     break;
+                case CACHE_MAX_SIZE:
+                    EJB3SubsystemRootResourceDefinition.STATEFUL_BEAN_CACHE_MAX_SIZE.parseAndSetParameter(value, ejb3SubsystemAddOperation, reader.getLocation());
+                    break;
                 default:
                     throw unexpectedAttribute(reader, i);
             }
@@ -625,6 +649,26 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
         EJB3SubsystemRootResourceDefinition.DEFAULT_STATEFUL_BEAN_ACCESS_TIMEOUT.parseAndSetParameter(defaultAccessTimeout, ejb3SubsystemAddOperation, reader.getLocation());
     }
 
+    private void parseEntityBean(final XMLExtendedStreamReader reader, final ModelNode ejb3SubsystemAddOperation) throws XMLStreamException {
+        final int count = reader.getAttributeCount();
+        for (int i = 0; i < count; i++) {
+            requireNoNamespaceAttribute(reader, i);
+            final String value = reader.getAttributeValue(i);
+            final EJB3SubsystemXMLAttribute attribute = EJB3SubsystemXMLAttribute.forName(reader.getAttributeLocalName(i));
+            switch (attribute) {
+                case CACHE_MAX_SIZE:
+                    EJB3SubsystemRootResourceDefinition.ENTITY_BEAN_CACHE_MAX_SIZE.parseAndSetParameter(value, ejb3SubsystemAddOperation, reader.getLocation());
+                    break;
+                case COMMIT_OPTION:
+                    EJB3SubsystemRootResourceDefinition.ENTITY_BEAN_COMMIT_OPTION.parseAndSetParameter(value, ejb3SubsystemAddOperation, reader.getLocation());
+                    break;
+                default:
+                    throw unexpectedAttribute(reader, i);
+            }
+        }
+        requireNoContent(reader);
+    }
+
     private void parseSingletonBean(final XMLExtendedStreamReader reader, final List<ModelNode> operations, final ModelNode ejb3SubsystemAddOperation) throws XMLStreamException {
         final int count = reader.getAttributeCount();
         final EnumSet<EJB3SubsystemXMLAttribute> missingRequiredAttributes = EnumSet.of(EJB3SubsystemXMLAttribute.DEFAULT_ACCESS_TIMEOUT);
@@ -639,6 +683,9 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
                     // found the mandatory attribute
                     missingRequiredAttributes.remove(EJB3SubsystemXMLAttribute.DEFAULT_ACCESS_TIMEOUT);
                     break;
+                case LOCK_STRATEGY:
+                    EJB3SubsystemRootResourceDefinition.SINGLETON_BEAN_LOCK_STRATEGY.parseAndSetParameter(value, ejb3SubsystemAddOperation, reader.getLocation());
+                    break;
                 default:
                     throw unexpectedAttribute(reader, i);
             }
@@ -689,6 +736,7 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
         Integer maxPoolSize = null;
         Long timeout = null;
         String unit = null;
+        String strategy = null;
         for (int i = 0; i < count; i++) {
             requireNoNamespaceAttribute(reader, i);
             final String value = reader.getAttributeValue(i);
@@ -706,6 +754,9 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
                 case INSTANCE_AQUISITION_TIMEOUT_UNIT:
                     unit = StrictMaxPoolResourceDefinition.INSTANCE_ACQUISITION_TIMEOUT_UNIT.parse(value, reader.getLocation()).asString();
                     break;
+                case STRATEGY:
+                    strategy = StrictMaxPoolResourceDefinition.STRATEGY.parse(value, reader.getLocation()).asString();
+                    break;
 
                 default:
                     throw unexpectedAttribute(reader, i);
@@ -716,7 +767,7 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
             throw missingRequired(reader, Collections.singleton(EJB3SubsystemXMLAttribute.NAME.getLocalName()));
         }
         // create and add the operation
-        operations.add(this.createAddStrictMaxBeanInstancePoolOperation(poolName, maxPoolSize, timeout, unit));
+        operations.add(this.createAddStrictMaxBeanInstancePoolOperation(poolName, maxPoolSize, timeout, unit, strategy));
     }
 
     private void parseTimerService(final XMLExtendedStreamReader reader, List<ModelNode> operations) throws XMLStreamException {
@@ -730,6 +781,7 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
 
         String dataStorePath = null;
         String dataStorePathRelativeTo = null;
+        ModelNode dataStoreType = null;
 
         final int attCount = reader.getAttributeCount();
         String threadPoolName = null;
@@ -774,6 +826,12 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
                                 }
                                 dataStorePathRelativeTo = TimerServiceResourceDefinition.RELATIVE_TO.parse(value, location).asString();
                                 break;
+                            case TYPE:
+                                if (dataStoreType != null) {
+                                    throw unexpectedAttribute(reader, i);
+                                }
+                                dataStoreType = TimerServiceResourceDefinition.DATA_STORE_TYPE.parse(value, location);
+                                break;
                             default:
                                 throw unexpectedAttribute(reader, i);
                         }
@@ -785,6 +843,9 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
                     if (dataStorePathRelativeTo != null) {
                         timerServiceAdd.get(RELATIVE_TO).set(dataStorePathRelativeTo);
                     }
+                    if (dataStoreType != null) {
+                        timerServiceAdd.get(DATA_STORE_TYPE).set(dataStoreType);
+                    }
                     requireNoContent(reader);
                     break;
                 }
@@ -903,7 +964,8 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
         }
     }
 
-    private ModelNode createAddStrictMaxBeanInstancePoolOperation(final String name, final Integer maxPoolSize, final Long timeout, final String timeoutUnit) {
+    private ModelNode createAddStrictMaxBeanInstancePoolOperation(final String name, final Integer maxPoolSize, final Long timeout, final String timeoutUnit,
+                                                                   final String strategy) {
         // create /subsystem=ejb3/strict-max-bean-instance-pool=name:add(...)
         final ModelNode addStrictMaxPoolOperation = new ModelNode();
         addStrictMaxPoolOperation.get(OP).set(ADD);
@@ -920,6 +982,9 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
         if (timeoutUnit != null) {
             addStrictMaxPoolOperation.get(INSTANCE_ACQUISITION_TIMEOUT_UNIT).set(timeoutUnit);
         }
+        if (strategy != null) {
+            addStrictMaxPoolOperation.get(STRATEGY).set(strategy);
+        }
 
         return addStrictMaxPoolOperation;
     }
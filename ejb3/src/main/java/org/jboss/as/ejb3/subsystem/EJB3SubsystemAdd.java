@@ -23,12 +23,15 @@
 package org.jboss.as.ejb3.subsystem;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import javax.transaction.TransactionManager;
 import javax.transaction.TransactionSynchronizationRegistry;
 import javax.transaction.UserTransaction;
 
 import org.jboss.as.connector.ConnectorServices;
+import org.jboss.as.ejb3.cache.ExpirationScheduler;
+import org.jboss.as.ejb3.cache.FilePassivationStore;
 import org.jboss.as.controller.AbstractBoottimeAddStepHandler;
 import org.jboss.as.controller.OperationContext;
 import org.jboss.as.controller.OperationFailedException;
@@ -53,6 +56,7 @@ import org.jboss.as.ejb3.deployment.processors.EjbResourceInjectionAnnotationPro
 import org.jboss.as.ejb3.deployment.processors.IIOPJndiBindingProcessor;
 import org.jboss.as.ejb3.deployment.processors.ImplicitLocalViewProcessor;
 import org.jboss.as.ejb3.deployment.processors.MessageDrivenComponentDescriptionFactory;
+import org.jboss.as.ejb3.deployment.processors.PassivationAnnotationParsingProcessor;
 import org.jboss.as.ejb3.deployment.processors.SessionBeanComponentDescriptionFactory;
 import org.jboss.as.ejb3.deployment.processors.SessionBeanHomeProcessor;
 import org.jboss.as.ejb3.deployment.processors.TimerServiceJndiBindingProcessor;
@@ -98,7 +102,9 @@ import org.jboss.as.security.service.SimpleSecurityManagerService;
 import org.jboss.as.server.AbstractDeploymentChainStep;
 import org.jboss.as.server.DeploymentProcessorTarget;
 import org.jboss.as.server.ServerEnvironment;
+import org.jboss.as.server.Services;
 import org.jboss.as.server.deployment.Phase;
+import org.jboss.as.server.services.path.RelativePathService;
 import org.jboss.as.txn.service.TxnServices;
 import org.jboss.com.sun.corba.se.impl.javax.rmi.RemoteObjectSubstitutionManager;
 import org.jboss.dmr.ModelNode;
@@ -106,7 +112,9 @@ import org.jboss.ejb.client.EJBClientContext;
 import org.jboss.ejb.client.naming.ejb.EjbNamingContextSetup;
 import org.jboss.ejb.client.naming.ejb.ejbURLContextFactory;
 import org.jboss.jca.core.spi.rar.ResourceAdapterRepository;
+import org.jboss.modules.ModuleLoader;
 import org.jboss.msc.service.ServiceBuilder;
+import org.jboss.msc.service.ServiceBuilder.DependencyType;
 import org.jboss.msc.service.ServiceController;
 import org.jboss.msc.service.ServiceTarget;
 import org.omg.PortableServer.POA;
@@ -117,6 +125,10 @@ import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.DEFAULT_RESOURCE_AD
 import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT;
 import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.DEFAULT_SLSB_INSTANCE_POOL;
 import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.DEFAULT_STATEFUL_BEAN_ACCESS_TIMEOUT;
+import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.ENTITY_BEAN_CACHE_MAX_SIZE;
+import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.ENTITY_BEAN_COMMIT_OPTION;
+import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.SINGLETON_BEAN_LOCK_STRATEGY;
+import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.STATEFUL_BEAN_CACHE_MAX_SIZE;
 
 /**
  * Add operation handler for the EJB3 subsystem.
@@ -127,6 +139,9 @@ class EJB3SubsystemAdd extends AbstractBoottimeAddStepHandler {
 
     static final EJB3SubsystemAdd INSTANCE = new EJB3SubsystemAdd();
 
+    private static final String PASSIVATION_STORE_PATH = "ejb3-passivation";
+    private static final String DEFAULT_THREAD_POOL_NAME = "default";
+
     private EJB3SubsystemAdd() {
         //
     }
@@ -139,7 +154,11 @@ class EJB3SubsystemAdd extends AbstractBoottimeAddStepHandler {
         model.get(DEFAULT_SLSB_INSTANCE_POOL).set(operation.get(DEFAULT_SLSB_INSTANCE_POOL));
         model.get(DEFAULT_RESOURCE_ADAPTER_NAME).set(operation.get(DEFAULT_RESOURCE_ADAPTER_NAME));
         model.get(DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT).set(operation.get(DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT));
+        model.get(SINGLETON_BEAN_LOCK_STRATEGY).set(operation.get(SINGLETON_BEAN_LOCK_STRATEGY));
         model.get(DEFAULT_STATEFUL_BEAN_ACCESS_TIMEOUT).set(operation.get(DEFAULT_STATEFUL_BEAN_ACCESS_TIMEOUT));
+        model.get(STATEFUL_BEAN_CACHE_MAX_SIZE).set(operation.get(STATEFUL_BEAN_CACHE_MAX_SIZE));
+        model.get(ENTITY_BEAN_CACHE_MAX_SIZE).set(operation.get(ENTITY_BEAN_CACHE_MAX_SIZE));
+        model.get(ENTITY_BEAN_COMMIT_OPTION).set(operation.get(ENTITY_BEAN_COMMIT_OPTION));
     }
 
     protected void performBoottime(final OperationContext context, ModelNode operation, final ModelNode model, ServiceVerificationHandler verificationHandler, List<ServiceController<?>> newControllers) throws OperationFailedException {
@@ -197,6 +216,7 @@ class EJB3SubsystemAdd extends AbstractBoottimeAddStepHandler {
                     processorTarget.addDeploymentProcessor(Phase.PARSE, Phase.PARSE_EJB_CONTEXT_BINDING, new EjbContextJndiBindingProcessor());
                     processorTarget.addDeploymentProcessor(Phase.PARSE, Phase.PARSE_EJB_TIMERSERVICE_BINDING, new TimerServiceJndiBindingProcessor());
                     processorTarget.addDeploymentProcessor(Phase.PARSE, Phase.PARSE_EJB_APPLICATION_EXCEPTION_ANNOTATION, new ApplicationExceptionAnnotationProcessor());
+                    processorTarget.addDeploymentProcessor(Phase.PARSE, Phase.PARSE_PASSIVATION_ANNOTATION, new PassivationAnnotationParsingProcessor());
                     processorTarget.addDeploymentProcessor(Phase.PARSE, Phase.PARSE_EJB_DD_INTERCEPTORS, new InterceptorClassDeploymentDescriptorProcessor());
                     processorTarget.addDeploymentProcessor(Phase.PARSE, Phase.PARSE_EJB_SECURITY_ROLE_REF_DD, new SecurityRoleRefDDProcessor());
                     processorTarget.addDeploymentProcessor(Phase.PARSE, Phase.PARSE_EJB_REMOTE_CLIENT_CONTEXT, new EjbClientContextParsingProcessor());
@@ -253,10 +273,35 @@ class EJB3SubsystemAdd extends AbstractBoottimeAddStepHandler {
             DefaultStatefulBeanAccessTimeoutWriteHandler.INSTANCE.updateOrCreateDefaultStatefulBeanAccessTimeoutService(context, model, newControllers);
         }
 
+        // always installed, as singleton components depend on it
+        SingletonBeanLockStrategyWriteHandler.INSTANCE.updateOrCreateLockStrategyService(context, model, newControllers);
+
+        // always installed, as stateful components depend on it even if passivation is disabled
+        StatefulBeanCacheMaxSizeWriteHandler.INSTANCE.updateOrCreateCacheMaxSizeService(context, model, newControllers);
+
+        // always installed, as entity components depend on it even if the ready cache is disabled
+        EntityBeanCacheWriteHandler.INSTANCE.updateOrCreateCacheConfigurationService(context, model, newControllers);
+
         final ServiceTarget serviceTarget = context.getServiceTarget();
 
         newControllers.add(context.getServiceTarget().addService(DeploymentRepository.SERVICE_NAME, new DeploymentRepository()).install());
 
+        // the timing wheel shared by the caches of all stateful beans, the expired beans are destroyed on the default thread pool
+        final ExpirationScheduler expirationScheduler = new ExpirationScheduler();
+        newControllers.add(serviceTarget.addService(ExpirationScheduler.SERVICE_NAME, expirationScheduler)
+                .addDependency(DependencyType.OPTIONAL, EJB3ThreadPoolAdd.BASE_SERVICE_NAME.append(DEFAULT_THREAD_POOL_NAME), ExecutorService.class, expirationScheduler.getExecutorInjector())
+                .setInitialMode(ServiceController.Mode.ON_DEMAND)
+                .install());
+
+        // the store stateful sessions are passivated to, under the server data directory
+        newControllers.add(RelativePathService.addService(FilePassivationStore.PATH_SERVICE_NAME, PASSIVATION_STORE_PATH, ServerEnvironment.SERVER_DATA_DIR, serviceTarget));
+        final FilePassivationStore passivationStore = new FilePassivationStore();
+        newControllers.add(serviceTarget.addService(FilePassivationStore.SERVICE_NAME, passivationStore)
+                .addDependency(Services.JBOSS_SERVICE_MODULE_LOADER, ModuleLoader.class, passivationStore.getModuleLoader())
+                .addDependency(FilePassivationStore.PATH_SERVICE_NAME, String.class, passivationStore.getBaseDir())
+                .setInitialMode(ServiceController.Mode.ON_DEMAND)
+                .install());
+
         addRemoteInvocationServices(context, newControllers, appclient);
 
         if (!appclient) {
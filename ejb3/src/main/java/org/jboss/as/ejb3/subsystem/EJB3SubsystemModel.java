@@ -47,15 +47,21 @@ public interface EJB3SubsystemModel {
 
     String MAX_POOL_SIZE = "max-pool-size";
     String STRICT_MAX_BEAN_INSTANCE_POOL = "strict-max-bean-instance-pool";
+    String STRATEGY = "strategy";
 
     String MAX_THREADS = "max-threads";
     String KEEPALIVE_TIME = "keepalive-time";
 
     String RELATIVE_TO = "relative-to";
     String PATH = "path";
+    String DATA_STORE_TYPE = "data-store-type";
 
     String DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT = "default-singleton-bean-access-timeout";
+    String SINGLETON_BEAN_LOCK_STRATEGY = "singleton-bean-lock-strategy";
     String DEFAULT_STATEFUL_BEAN_ACCESS_TIMEOUT = "default-stateful-bean-access-timeout";
+    String STATEFUL_BEAN_CACHE_MAX_SIZE = "stateful-bean-cache-max-size";
+    String ENTITY_BEAN_CACHE_MAX_SIZE = "entity-bean-cache-max-size";
+    String ENTITY_BEAN_COMMIT_OPTION = "entity-bean-commit-option";
 
     String REMOTE = "remote";
     String SERVICE = "service";
@@ -28,10 +28,14 @@ import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.SimpleResourceDefinition;
 import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
+import org.jboss.as.controller.operations.validation.EnumValidator;
+import org.jboss.as.controller.operations.validation.IntRangeValidator;
 import org.jboss.as.controller.operations.validation.LongRangeValidator;
 import org.jboss.as.controller.registry.AttributeAccess;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.controller.registry.OperationEntry;
+import org.jboss.as.ejb3.component.entity.entitycache.BoundedReadyEntityCache;
+import org.jboss.as.ejb3.concurrency.LockStrategy;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
 
@@ -63,6 +67,39 @@ public class EJB3SubsystemRootResourceDefinition extends SimpleResourceDefinitio
                     .setFlags(AttributeAccess.Flag.RESTART_NONE)
                     .build();
 
+    public static final SimpleAttributeDefinition SINGLETON_BEAN_LOCK_STRATEGY =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.SINGLETON_BEAN_LOCK_STRATEGY, ModelType.STRING, true)
+                    .setXmlName(EJB3SubsystemXMLAttribute.LOCK_STRATEGY.getLocalName())
+                    .setAllowExpression(true)
+                    .setValidator(new EnumValidator<LockStrategy>(LockStrategy.class, true, true))
+                    .setDefaultValue(new ModelNode().set(LockStrategy.REENTRANT.name()))
+                    .setFlags(AttributeAccess.Flag.RESTART_NONE)
+                    .build();
+    public static final SimpleAttributeDefinition STATEFUL_BEAN_CACHE_MAX_SIZE =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.STATEFUL_BEAN_CACHE_MAX_SIZE, ModelType.INT, true)
+                    .setXmlName(EJB3SubsystemXMLAttribute.CACHE_MAX_SIZE.getLocalName())
+                    .setAllowExpression(true)
+                    .setValidator(new IntRangeValidator(0, Integer.MAX_VALUE, true, true))
+                    .setFlags(AttributeAccess.Flag.RESTART_NONE)
+                    .build();
+
+    public static final SimpleAttributeDefinition ENTITY_BEAN_CACHE_MAX_SIZE =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.ENTITY_BEAN_CACHE_MAX_SIZE, ModelType.INT, true)
+                    .setXmlName(EJB3SubsystemXMLAttribute.CACHE_MAX_SIZE.getLocalName())
+                    .setAllowExpression(true)
+                    .setValidator(new IntRangeValidator(0, Integer.MAX_VALUE, true, true))
+                    .setFlags(AttributeAccess.Flag.RESTART_NONE)
+                    .build();
+
+    public static final SimpleAttributeDefinition ENTITY_BEAN_COMMIT_OPTION =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.ENTITY_BEAN_COMMIT_OPTION, ModelType.STRING, true)
+                    .setXmlName(EJB3SubsystemXMLAttribute.COMMIT_OPTION.getLocalName())
+                    .setAllowExpression(true)
+                    .setValidator(new EnumValidator<BoundedReadyEntityCache.CommitOption>(BoundedReadyEntityCache.CommitOption.class, true, true))
+                    .setDefaultValue(new ModelNode().set(BoundedReadyEntityCache.CommitOption.B.name()))
+                    .setFlags(AttributeAccess.Flag.RESTART_NONE)
+                    .build();
+
     public static final SimpleAttributeDefinition DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT =
             new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT, ModelType.LONG, true)
                     .setXmlName(EJB3SubsystemXMLAttribute.DEFAULT_ACCESS_TIMEOUT.getLocalName())
@@ -86,6 +123,10 @@ public class EJB3SubsystemRootResourceDefinition extends SimpleResourceDefinitio
         resourceRegistration.registerReadWriteAttribute(DEFAULT_MDB_INSTANCE_POOL, null, EJB3SubsystemDefaultPoolWriteHandler.MDB_POOL);
         resourceRegistration.registerReadWriteAttribute(DEFAULT_RESOURCE_ADAPTER_NAME, null, DefaultResourceAdapterWriteHandler.INSTANCE);
         resourceRegistration.registerReadWriteAttribute(DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT, null, DefaultSingletonBeanAccessTimeoutWriteHandler.INSTANCE);
+        resourceRegistration.registerReadWriteAttribute(SINGLETON_BEAN_LOCK_STRATEGY, null, SingletonBeanLockStrategyWriteHandler.INSTANCE);
         resourceRegistration.registerReadWriteAttribute(DEFAULT_STATEFUL_BEAN_ACCESS_TIMEOUT, null, DefaultStatefulBeanAccessTimeoutWriteHandler.INSTANCE);
+        resourceRegistration.registerReadWriteAttribute(STATEFUL_BEAN_CACHE_MAX_SIZE, null, StatefulBeanCacheMaxSizeWriteHandler.INSTANCE);
+        resourceRegistration.registerReadWriteAttribute(ENTITY_BEAN_CACHE_MAX_SIZE, null, EntityBeanCacheWriteHandler.INSTANCE);
+        resourceRegistration.registerReadWriteAttribute(ENTITY_BEAN_COMMIT_OPTION, null, EntityBeanCacheWriteHandler.INSTANCE);
     }
 }
@@ -30,6 +30,8 @@ import java.util.Map;
 public enum EJB3SubsystemXMLAttribute {
     UNKNOWN(null),
 
+    CACHE_MAX_SIZE("cache-max-size"),
+    COMMIT_OPTION("commit-option"),
     CONNECTOR_REF("connector-ref"),
     CORE_THREADS("core-threads"),
 
@@ -42,6 +44,8 @@ public enum EJB3SubsystemXMLAttribute {
 
     KEEPALIVE_TIME("keepalive-time"),
 
+    LOCK_STRATEGY("lock-strategy"),
+
     MAX_POOL_SIZE("max-pool-size"),
     MAX_THREADS("max-threads"),
 
@@ -53,7 +57,10 @@ public enum EJB3SubsystemXMLAttribute {
     RELATIVE_TO("relative-to"),
     RESOURCE_ADAPTER_NAME("resource-adapter-name"),
 
+    STRATEGY("strategy"),
+
     THREAD_POOL_NAME("thread-pool-name"),
+    TYPE("type"),
 
     USE_QUALIFIED_NAME("use-qualified-name"),
 
@@ -41,6 +41,8 @@ public enum EJB3SubsystemXMLElement {
 
     DATA_STORE("data-store"),
 
+    ENTITY_BEAN("entity-bean"),
+
     IIOP("iiop"),
 
     MDB("mdb"),
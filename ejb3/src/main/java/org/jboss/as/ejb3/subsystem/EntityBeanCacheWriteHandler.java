@@ -0,0 +1,79 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.subsystem;
+
+import java.util.List;
+
+import org.jboss.as.controller.AbstractWriteAttributeHandler;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.ejb3.component.entity.EntityBeanCacheConfigurationService;
+import org.jboss.as.ejb3.component.entity.entitycache.BoundedReadyEntityCache;
+import org.jboss.dmr.ModelNode;
+import org.jboss.msc.service.ServiceController;
+import org.jboss.msc.service.ServiceRegistry;
+
+/**
+ * Write handler for the size and the commit option of the ready cache of entity beans.
+ */
+class EntityBeanCacheWriteHandler extends AbstractWriteAttributeHandler<Void> {
+
+    static final EntityBeanCacheWriteHandler INSTANCE = new EntityBeanCacheWriteHandler();
+
+    @Override
+    protected boolean applyUpdateToRuntime(OperationContext context, ModelNode operation, String attributeName, ModelNode resolvedValue, ModelNode currentValue, HandbackHolder<Void> voidHandbackHolder) throws OperationFailedException {
+        final ModelNode model = context.readResource(PathAddress.EMPTY_ADDRESS).getModel();
+        updateOrCreateCacheConfigurationService(context, model, null);
+
+        return false;
+    }
+
+    @Override
+    protected void revertUpdateToRuntime(OperationContext context, ModelNode operation, String attributeName, ModelNode valueToRestore, ModelNode valueToRevert, Void handback) throws OperationFailedException {
+        final ModelNode restored = context.readResource(PathAddress.EMPTY_ADDRESS).getModel().clone();
+        restored.get(attributeName).set(valueToRestore);
+        updateOrCreateCacheConfigurationService(context, restored, null);
+    }
+
+    void updateOrCreateCacheConfigurationService(final OperationContext context, final ModelNode model, List<ServiceController<?>> newControllers) throws OperationFailedException {
+        final ModelNode maxSizeNode = EJB3SubsystemRootResourceDefinition.ENTITY_BEAN_CACHE_MAX_SIZE.resolveModelAttribute(context, model);
+        // instances are only kept across transactions if a max size is configured
+        final int maxSize = maxSizeNode.isDefined() ? maxSizeNode.asInt() : -1;
+        final BoundedReadyEntityCache.CommitOption commitOption = BoundedReadyEntityCache.CommitOption.valueOf(
+                EJB3SubsystemRootResourceDefinition.ENTITY_BEAN_COMMIT_OPTION.resolveModelAttribute(context, model).asString());
+        final ServiceRegistry registry = context.getServiceRegistry(true);
+        final ServiceController<?> sc = registry.getService(EntityBeanCacheConfigurationService.SERVICE_NAME);
+        if (sc != null) {
+            final EntityBeanCacheConfigurationService service = EntityBeanCacheConfigurationService.class.cast(sc.getValue());
+            service.setMaxSize(maxSize);
+            service.setCommitOption(commitOption);
+        } else {
+            // create and install the service
+            final ServiceController<?> newService = context.getServiceTarget().addService(EntityBeanCacheConfigurationService.SERVICE_NAME, new EntityBeanCacheConfigurationService(maxSize, commitOption))
+                    .install();
+            if (newControllers != null) {
+                newControllers.add(newService);
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.subsystem;
+
+import java.util.List;
+
+import org.jboss.as.controller.AbstractWriteAttributeHandler;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.ejb3.component.singleton.SingletonLockStrategyService;
+import org.jboss.as.ejb3.concurrency.LockStrategy;
+import org.jboss.dmr.ModelNode;
+import org.jboss.msc.service.ServiceController;
+import org.jboss.msc.service.ServiceRegistry;
+
+/**
+ * Write handler for the lock strategy of singleton beans with container managed concurrency.
+ */
+class SingletonBeanLockStrategyWriteHandler extends AbstractWriteAttributeHandler<Void> {
+
+    static final SingletonBeanLockStrategyWriteHandler INSTANCE = new SingletonBeanLockStrategyWriteHandler();
+
+    @Override
+    protected boolean applyUpdateToRuntime(OperationContext context, ModelNode operation, String attributeName, ModelNode resolvedValue, ModelNode currentValue, HandbackHolder<Void> voidHandbackHolder) throws OperationFailedException {
+        final ModelNode model = context.readResource(PathAddress.EMPTY_ADDRESS).getModel();
+        updateOrCreateLockStrategyService(context, model, null);
+
+        return false;
+    }
+
+    @Override
+    protected void revertUpdateToRuntime(OperationContext context, ModelNode operation, String attributeName, ModelNode valueToRestore, ModelNode valueToRevert, Void handback) throws OperationFailedException {
+        final ModelNode restored = context.readResource(PathAddress.EMPTY_ADDRESS).getModel().clone();
+        restored.get(attributeName).set(valueToRestore);
+        updateOrCreateLockStrategyService(context, restored, null);
+    }
+
+    void updateOrCreateLockStrategyService(final OperationContext context, final ModelNode model, List<ServiceController<?>> newControllers) throws OperationFailedException {
+        final LockStrategy lockStrategy = LockStrategy.valueOf(EJB3SubsystemRootResourceDefinition.SINGLETON_BEAN_LOCK_STRATEGY.resolveModelAttribute(context, model).asString());
+        final ServiceRegistry registry = context.getServiceRegistry(true);
+        final ServiceController<?> sc = registry.getService(SingletonLockStrategyService.SERVICE_NAME);
+        if (sc != null) {
+            final SingletonLockStrategyService service = SingletonLockStrategyService.class.cast(sc.getValue());
+            service.setLockStrategy(lockStrategy);
+        } else {
+            // create and install the service
+            final ServiceController<?> newService = context.getServiceTarget().addService(SingletonLockStrategyService.SERVICE_NAME, new SingletonLockStrategyService(lockStrategy))
+                    .install();
+            if (newControllers != null) {
+                newControllers.add(newService);
+            }
+        }
+    }
+}
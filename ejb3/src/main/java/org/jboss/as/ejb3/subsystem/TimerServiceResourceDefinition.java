@@ -32,11 +32,13 @@ import org.jboss.as.controller.ResourceDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.SimpleResourceDefinition;
+import org.jboss.as.controller.operations.validation.EnumValidator;
 import org.jboss.as.controller.operations.validation.ModelTypeValidator;
 import org.jboss.as.controller.operations.validation.StringLengthValidator;
 import org.jboss.as.controller.registry.AttributeAccess;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.controller.registry.OperationEntry;
+import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
 
 /**
@@ -60,6 +62,14 @@ public class TimerServiceResourceDefinition extends SimpleResourceDefinition {
                     .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
                     .build();
 
+    public static final SimpleAttributeDefinition DATA_STORE_TYPE =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.DATA_STORE_TYPE, ModelType.STRING, true)
+                    .setXmlName(EJB3SubsystemXMLAttribute.TYPE.getLocalName())
+                    .setValidator(new EnumValidator<DataStoreType>(DataStoreType.class, true, true))
+                    .setDefaultValue(new ModelNode().set(DataStoreType.FILE.name()))
+                    .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
+                    .build();
+
     public static final SimpleAttributeDefinition THREAD_POOL_NAME =
             new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.THREAD_POOL_NAME, ModelType.STRING, false)
                     .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
@@ -72,11 +82,26 @@ public class TimerServiceResourceDefinition extends SimpleResourceDefinition {
         Map<String, AttributeDefinition> map = new LinkedHashMap<String, AttributeDefinition>();
         map.put(PATH.getName(), PATH);
         map.put(RELATIVE_TO.getName(), RELATIVE_TO);
+        map.put(DATA_STORE_TYPE.getName(), DATA_STORE_TYPE);
         map.put(THREAD_POOL_NAME.getName(), THREAD_POOL_NAME);
 
         ATTRIBUTES = Collections.unmodifiableMap(map);
     }
 
+    /**
+     * How persistent timers are stored in the data store
+     */
+    public enum DataStoreType {
+        /**
+         * One file per timer, rewritten on each change, see {@link org.jboss.as.ejb3.timerservice.persistence.filestore.FileTimerPersistence}
+         */
+        FILE,
+        /**
+         * An append-only journal shared by all timers, see {@link org.jboss.as.ejb3.timerservice.persistence.journal.JournalTimerPersistence}
+         */
+        JOURNAL,
+    }
+
     private TimerServiceResourceDefinition() {
         super(EJB3SubsystemModel.TIMER_SERVICE_PATH,
                 EJB3Extension.getResourceDescriptionResolver(EJB3SubsystemModel.TIMER_SERVICE),
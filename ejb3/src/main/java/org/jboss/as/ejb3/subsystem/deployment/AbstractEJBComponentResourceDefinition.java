@@ -88,6 +88,12 @@ public abstract class AbstractEJBComponentResourceDefinition extends SimpleResou
         }
     };
 
+    // Timer attributes
+
+    public static final SimpleAttributeDefinition TIMER_LATENESS = new SimpleAttributeDefinitionBuilder("timer-lateness", ModelType.LIST, true)
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+
     // Pool attributes
 
     public static final SimpleAttributeDefinition POOL_AVAILABLE_COUNT = new SimpleAttributeDefinitionBuilder("pool-available-count", ModelType.INT, false)
@@ -119,6 +125,7 @@ public abstract class AbstractEJBComponentResourceDefinition extends SimpleResou
         resourceRegistration.registerReadOnlyAttribute(DECLARED_ROLES, handler);
         if (componentType.hasTimer()) {
             resourceRegistration.registerReadOnlyAttribute(TimerAttributeDefinition.INSTANCE, handler);
+            resourceRegistration.registerReadOnlyAttribute(TIMER_LATENESS, handler);
         }
 
         if (componentType.hasPool()) {
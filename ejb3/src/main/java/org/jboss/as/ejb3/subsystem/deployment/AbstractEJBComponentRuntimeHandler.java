@@ -29,6 +29,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import javax.ejb.TimerService;
+
 import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
 import org.jboss.as.controller.OperationContext;
 import org.jboss.as.controller.OperationFailedException;
@@ -38,6 +40,8 @@ import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
 import org.jboss.as.ejb3.component.EJBComponent;
 import org.jboss.as.ejb3.pool.Pool;
 import org.jboss.as.ejb3.security.EJBSecurityMetaData;
+import org.jboss.as.ejb3.timerservice.LatenessHistogram;
+import org.jboss.as.ejb3.timerservice.TimerServiceImpl;
 import org.jboss.dmr.ModelNode;
 import org.jboss.msc.service.ServiceController;
 import org.jboss.msc.service.ServiceName;
@@ -52,6 +56,7 @@ import static org.jboss.as.ejb3.subsystem.deployment.AbstractEJBComponentResourc
 import static org.jboss.as.ejb3.subsystem.deployment.AbstractEJBComponentResourceDefinition.POOL_REMOVE_COUNT;
 import static org.jboss.as.ejb3.subsystem.deployment.AbstractEJBComponentResourceDefinition.RUN_AS_ROLE;
 import static org.jboss.as.ejb3.subsystem.deployment.AbstractEJBComponentResourceDefinition.SECURITY_DOMAIN;
+import static org.jboss.as.ejb3.subsystem.deployment.AbstractEJBComponentResourceDefinition.TIMER_LATENESS;
 
 import static org.jboss.as.ejb3.EjbMessages.MESSAGES;
 /**
@@ -129,6 +134,16 @@ public abstract class AbstractEJBComponentRuntimeHandler<T extends EJBComponent>
             }
         } else if (componentType.hasTimer() && TimerAttributeDefinition.INSTANCE.getName().equals(attributeName)) {
             TimerAttributeDefinition.addTimers(component, context.getResult());
+        } else if (componentType.hasTimer() && TIMER_LATENESS.getName().equals(attributeName)) {
+            final TimerService timerService = component.getTimerService();
+            if (timerService instanceof TimerServiceImpl) {
+                final LatenessHistogram lateness = ((TimerServiceImpl) timerService).getLatenessHistogram();
+                final ModelNode result = context.getResult();
+                result.setEmptyList();
+                for (int i = 0; i < lateness.getBucketCount(); i++) {
+                    result.add(lateness.getCount(i));
+                }
+            }
         } else if (hasPool && POOL_AVAILABLE_COUNT.getName().equals(attributeName)) {
             int count = componentType.getPool(component).getAvailableCount();
             context.getResult().set(count);
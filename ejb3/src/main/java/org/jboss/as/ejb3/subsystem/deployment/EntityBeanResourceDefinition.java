@@ -23,8 +23,12 @@
 package org.jboss.as.ejb3.subsystem.deployment;
 
 import org.jboss.as.controller.ResourceDefinition;
+import org.jboss.as.controller.SimpleAttributeDefinition;
+import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.as.controller.registry.AttributeAccess;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.ejb3.component.entity.EntityBeanComponent;
+import org.jboss.dmr.ModelType;
 
 /**
  * {@link ResourceDefinition} for a {@link EntityBeanComponent}.
@@ -35,6 +39,17 @@ public class EntityBeanResourceDefinition extends AbstractEJBComponentResourceDe
 
     public static final EntityBeanResourceDefinition INSTANCE = new EntityBeanResourceDefinition();
 
+    // Ready cache attributes
+
+    public static final SimpleAttributeDefinition CACHE_SIZE = new SimpleAttributeDefinitionBuilder("cache-size", ModelType.INT, false)
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME).build();
+    public static final SimpleAttributeDefinition CACHE_HIT_COUNT = new SimpleAttributeDefinitionBuilder("cache-hit-count", ModelType.LONG, false)
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME).build();
+    public static final SimpleAttributeDefinition CACHE_MISS_COUNT = new SimpleAttributeDefinitionBuilder("cache-miss-count", ModelType.LONG, false)
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME).build();
+    public static final SimpleAttributeDefinition CACHE_EVICTION_COUNT = new SimpleAttributeDefinitionBuilder("cache-eviction-count", ModelType.LONG, false)
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME).build();
+
     private EntityBeanResourceDefinition() {
         super(EJBComponentType.ENTITY);
     }
@@ -42,6 +57,11 @@ public class EntityBeanResourceDefinition extends AbstractEJBComponentResourceDe
     @Override
     public void registerAttributes(ManagementResourceRegistration resourceRegistration) {
         super.registerAttributes(resourceRegistration);
-        // TODO expose anything for the cache?
+
+        final EntityBeanRuntimeHandler handler = EntityBeanRuntimeHandler.INSTANCE;
+        resourceRegistration.registerReadOnlyAttribute(CACHE_SIZE, handler);
+        resourceRegistration.registerReadOnlyAttribute(CACHE_HIT_COUNT, handler);
+        resourceRegistration.registerReadOnlyAttribute(CACHE_MISS_COUNT, handler);
+        resourceRegistration.registerReadOnlyAttribute(CACHE_EVICTION_COUNT, handler);
     }
 }
@@ -25,8 +25,15 @@ package org.jboss.as.ejb3.subsystem.deployment;
 import org.jboss.as.controller.OperationContext;
 import org.jboss.as.controller.PathAddress;
 import org.jboss.as.ejb3.component.entity.EntityBeanComponent;
+import org.jboss.as.ejb3.component.entity.entitycache.BoundedReadyEntityCache;
+import org.jboss.as.ejb3.component.entity.entitycache.ReadyEntityCache;
 import org.jboss.as.ejb3.component.messagedriven.MessageDrivenComponent;
 
+import static org.jboss.as.ejb3.subsystem.deployment.EntityBeanResourceDefinition.CACHE_EVICTION_COUNT;
+import static org.jboss.as.ejb3.subsystem.deployment.EntityBeanResourceDefinition.CACHE_HIT_COUNT;
+import static org.jboss.as.ejb3.subsystem.deployment.EntityBeanResourceDefinition.CACHE_MISS_COUNT;
+import static org.jboss.as.ejb3.subsystem.deployment.EntityBeanResourceDefinition.CACHE_SIZE;
+
 /**
  * Handles operations that provide runtime management of a {@link MessageDrivenComponent}.
  *
@@ -42,7 +49,19 @@ public class EntityBeanRuntimeHandler extends AbstractEJBComponentRuntimeHandler
 
     @Override
     protected void executeReadAttribute(String attributeName, OperationContext context, EntityBeanComponent component, PathAddress address) {
-        super.executeReadAttribute(attributeName, context, component,  address);
-        //TODO expose the cache
+        final ReadyEntityCache cache = component.getCache();
+        // only the bounded ready cache keeps statistics, the reference counting caches report zero
+        final BoundedReadyEntityCache bounded = cache instanceof BoundedReadyEntityCache ? (BoundedReadyEntityCache) cache : null;
+        if (CACHE_SIZE.getName().equals(attributeName)) {
+            context.getResult().set(bounded == null ? 0 : bounded.getCacheSize());
+        } else if (CACHE_HIT_COUNT.getName().equals(attributeName)) {
+            context.getResult().set(bounded == null ? 0L : bounded.getHitCount());
+        } else if (CACHE_MISS_COUNT.getName().equals(attributeName)) {
+            context.getResult().set(bounded == null ? 0L : bounded.getMissCount());
+        } else if (CACHE_EVICTION_COUNT.getName().equals(attributeName)) {
+            context.getResult().set(bounded == null ? 0L : bounded.getEvictionCount());
+        } else {
+            super.executeReadAttribute(attributeName, context, component, address);
+        }
     }
 }
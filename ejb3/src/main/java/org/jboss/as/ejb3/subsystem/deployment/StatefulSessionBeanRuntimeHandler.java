@@ -24,8 +24,16 @@ package org.jboss.as.ejb3.subsystem.deployment;
 
 import org.jboss.as.controller.OperationContext;
 import org.jboss.as.controller.PathAddress;
+import org.jboss.as.ejb3.cache.Cache;
 import org.jboss.as.ejb3.component.stateful.StatefulSessionComponent;
 
+import static org.jboss.as.ejb3.subsystem.deployment.StatefulSessionBeanDeploymentResourceDefinition.ACTIVATION_COUNT;
+import static org.jboss.as.ejb3.subsystem.deployment.StatefulSessionBeanDeploymentResourceDefinition.CACHE_HIT_COUNT;
+import static org.jboss.as.ejb3.subsystem.deployment.StatefulSessionBeanDeploymentResourceDefinition.CACHE_MISS_COUNT;
+import static org.jboss.as.ejb3.subsystem.deployment.StatefulSessionBeanDeploymentResourceDefinition.CACHE_SIZE;
+import static org.jboss.as.ejb3.subsystem.deployment.StatefulSessionBeanDeploymentResourceDefinition.PASSIVATED_COUNT;
+import static org.jboss.as.ejb3.subsystem.deployment.StatefulSessionBeanDeploymentResourceDefinition.PASSIVATION_COUNT;
+
 /**
  * Handles operations that provide runtime management of a {@link StatefulSessionComponent}.
  *
@@ -41,7 +49,21 @@ public class StatefulSessionBeanRuntimeHandler extends AbstractEJBComponentRunti
 
     @Override
     protected void executeReadAttribute(String attributeName, OperationContext context, StatefulSessionComponent component, PathAddress address) {
-        super.executeReadAttribute(attributeName, context, component, address);
-        //TODO expose the cache
+        final Cache<?> cache = component.getCache();
+        if (CACHE_SIZE.getName().equals(attributeName)) {
+            context.getResult().set(cache.getCacheSize());
+        } else if (PASSIVATED_COUNT.getName().equals(attributeName)) {
+            context.getResult().set(cache.getPassivatedCount());
+        } else if (CACHE_HIT_COUNT.getName().equals(attributeName)) {
+            context.getResult().set(cache.getHitCount());
+        } else if (CACHE_MISS_COUNT.getName().equals(attributeName)) {
+            context.getResult().set(cache.getMissCount());
+        } else if (PASSIVATION_COUNT.getName().equals(attributeName)) {
+            context.getResult().set(cache.getPassivationCount());
+        } else if (ACTIVATION_COUNT.getName().equals(attributeName)) {
+            context.getResult().set(cache.getActivationCount());
+        } else {
+            super.executeReadAttribute(attributeName, context, component, address);
+        }
     }
 }
@@ -0,0 +1,69 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of how late timeouts were dispatched, in power of two buckets of milliseconds. Bucket 0 counts the
+ * timeouts that were dispatched on time, bucket <code>i</code> those that were between 2<sup>i-1</sup> and
+ * 2<sup>i</sup> - 1 milliseconds late, and the last bucket everything later than that.
+ */
+public class LatenessHistogram {
+
+    private static final int BUCKETS = 17;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /**
+     * Records a dispatch.
+     *
+     * @param lateness how late the dispatch was, in milliseconds
+     */
+    public void record(final long lateness) {
+        final int bucket = lateness <= 0 ? 0 : Math.min(64 - Long.numberOfLeadingZeros(lateness), BUCKETS - 1);
+        counts.incrementAndGet(bucket);
+    }
+
+    /**
+     * @return the number of buckets
+     */
+    public int getBucketCount() {
+        return BUCKETS;
+    }
+
+    /**
+     * @param bucket the bucket
+     * @return the lowest lateness, in milliseconds, that is counted in the bucket
+     */
+    public long getLowerBound(final int bucket) {
+        return bucket == 0 ? 0 : 1L << (bucket - 1);
+    }
+
+    /**
+     * @param bucket the bucket
+     * @return the number of dispatches counted in the bucket
+     */
+    public long getCount(final int bucket) {
+        return counts.get(bucket);
+    }
+}
@@ -39,6 +39,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 
 import javax.ejb.EJBException;
@@ -68,6 +69,7 @@ import org.jboss.as.ejb3.timerservice.persistence.TimerPersistence;
 import org.jboss.as.ejb3.timerservice.schedule.CalendarBasedTimeout;
 import org.jboss.as.ejb3.timerservice.spi.ScheduleTimer;
 import org.jboss.as.ejb3.timerservice.spi.TimedObjectInvoker;
+import org.jboss.as.ejb3.timerservice.spi.TimeoutScheduler;
 import org.jboss.as.ejb3.timerservice.task.TimerTask;
 import org.jboss.invocation.InterceptorContext;
 import org.jboss.logging.Logger;
@@ -110,7 +112,25 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
 
     private final InjectedValue<ExecutorService> executorServiceInjectedValue = new InjectedValue<ExecutorService>();
 
-    private final InjectedValue<java.util.Timer> timerInjectedValue = new InjectedValue<java.util.Timer>();
+    private final InjectedValue<TimeoutScheduler> timeoutSchedulerInjectedValue = new InjectedValue<TimeoutScheduler>();
+
+    /**
+     * Hands due timeouts to the timer service thread pool, if it is still available
+     */
+    private final Executor executor = new Executor() {
+        @Override
+        public void execute(final Runnable command) {
+            final ExecutorService executor = executorServiceInjectedValue.getOptionalValue();
+            if (executor != null) {
+                executor.submit(command);
+            }
+        }
+    };
+
+    /**
+     * How late the timeouts of this timed object have been dispatched
+     */
+    private final LatenessHistogram lateness = new LatenessHistogram();
 
     /**
      * Auto timers that should be added on startup
@@ -130,9 +150,9 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
     private final Map<TimerHandle, TimerImpl> persistentWaitingOnTxCompletionTimers = new ConcurrentHashMap<TimerHandle, TimerImpl>();
 
     /**
-     * Holds the {@link java.util.concurrent.Future} of each of the timer tasks that have been scheduled
+     * Holds the {@link TimeoutScheduler.ScheduledTimeout} of each of the timer tasks that have been scheduled
      */
-    private final Map<TimerHandle, java.util.TimerTask> scheduledTimerFutures = new ConcurrentHashMap<TimerHandle, java.util.TimerTask>();
+    private final Map<TimerHandle, TimeoutScheduler.ScheduledTimeout> scheduledTimerFutures = new ConcurrentHashMap<TimerHandle, TimeoutScheduler.ScheduledTimeout>();
 
     private TransactionManager transactionManager;
 
@@ -826,34 +846,31 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
             delay = 0;
         }
         long intervalDuration = timer.getInterval();
+        final TimeoutScheduler.ScheduledTimeout scheduledTimeout;
         if (intervalDuration > 0) {
             ROOT_LOGGER.debug("Scheduling timer " + timer + " at fixed rate, starting at " + delay
                     + " milli seconds from now with repeated interval=" + intervalDuration);
             // schedule the task
-            final Task task = new Task(timerTask);
-            this.timerInjectedValue.getValue().scheduleAtFixedRate(task, delay, intervalDuration);
-            // maintain it in timerservice for future use (like cancellation)
-            this.scheduledTimerFutures.put(timer.getTimerHandle(), task);
+            scheduledTimeout = this.timeoutSchedulerInjectedValue.getValue().schedule(timerTask, executor, delay, intervalDuration, lateness);
         } else {
             ROOT_LOGGER.debug("Scheduling a single action timer " + timer + " starting at " + delay + " milli seconds from now");
             // schedule the task
-            this.timerInjectedValue.getValue().schedule(new Task(timerTask), delay);
-            // maintain it in timerservice for future use (like cancellation)
-            final Task task = new Task(timerTask);
-            this.scheduledTimerFutures.put(timer.getTimerHandle(), task);
+            scheduledTimeout = this.timeoutSchedulerInjectedValue.getValue().schedule(timerTask, executor, delay, 0, lateness);
         }
+        // maintain it in timerservice for future use (like cancellation)
+        this.scheduledTimerFutures.put(timer.getTimerHandle(), scheduledTimeout);
     }
 
     /**
-     * Cancels any scheduled {@link java.util.concurrent.Future} corresponding to the passed <code>timer</code>
+     * Cancels any scheduled {@link TimeoutScheduler.ScheduledTimeout} corresponding to the passed <code>timer</code>
      *
      * @param timer
      */
     protected void cancelTimeout(final TimerImpl timer) {
         TimerHandle handle = timer.getTimerHandle();
-        java.util.TimerTask timerTask = this.scheduledTimerFutures.get(handle);
-        if (timerTask != null) {
-            timerTask.cancel();
+        TimeoutScheduler.ScheduledTimeout scheduledTimeout = this.scheduledTimerFutures.remove(handle);
+        if (scheduledTimeout != null) {
+            scheduledTimeout.cancel();
         }
 
     }
@@ -1071,8 +1088,15 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
         return executorServiceInjectedValue;
     }
 
-    public InjectedValue<java.util.Timer> getTimerInjectedValue() {
-        return timerInjectedValue;
+    public InjectedValue<TimeoutScheduler> getTimeoutSchedulerInjectedValue() {
+        return timeoutSchedulerInjectedValue;
+    }
+
+    /**
+     * @return how late the timeouts of this timed object have been dispatched
+     */
+    public LatenessHistogram getLatenessHistogram() {
+        return lateness;
     }
 
     public InjectedValue<TimerPersistence> getTimerPersistence() {
@@ -1145,21 +1169,4 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
 
     }
 
-    private class Task extends java.util.TimerTask {
-
-        private final Runnable delegate;
-
-        public Task(final Runnable delegate) {
-            this.delegate = delegate;
-        }
-
-        @Override
-        public void run() {
-            final ExecutorService executor = executorServiceInjectedValue.getOptionalValue();
-            if (executor != null) {
-                executor.submit(delegate);
-            }
-        }
-    }
-
 }
@@ -0,0 +1,322 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+
+import org.jboss.as.ejb3.timerservice.spi.TimeoutScheduler;
+import org.jboss.msc.service.Service;
+import org.jboss.msc.service.StartContext;
+import org.jboss.msc.service.StartException;
+import org.jboss.msc.service.StopContext;
+
+import static org.jboss.as.ejb3.EjbLogger.ROOT_LOGGER;
+
+/**
+ * A {@link TimeoutScheduler} backed by a hierarchical timing wheel, shared by the timer services of all components.
+ * <p/>
+ * The innermost wheel has one bucket per tick, each outer wheel has buckets that span a whole revolution of the
+ * wheel inside it. A timeout is put in the innermost wheel that covers its deadline and is moved inwards when the
+ * wheel inside completes a revolution, so scheduling and cancelling are constant time however many timers exist,
+ * and a tick only looks at the timeouts that are due. Deadlines beyond the outermost wheel are parked in its last
+ * bucket and placed again when that bucket is cascaded.
+ * <p/>
+ * The wheels are owned by a single thread. Scheduling and cancelling only enqueue the timeout for that thread, and
+ * the timeouts that are due on a tick are handed to their executors together once the tick has been processed, so
+ * the wheel thread never runs a timeout itself.
+ */
+public class TimingWheelScheduler implements TimeoutScheduler, Service<TimeoutScheduler> {
+
+    private static final long DEFAULT_TICK_MILLIS = 10;
+
+    private static final int ROOT_BITS = 8;
+    private static final int LEVEL_BITS = 6;
+    private static final int LEVELS = 4;
+    private static final int ROOT_MASK = (1 << ROOT_BITS) - 1;
+    private static final int LEVEL_MASK = (1 << LEVEL_BITS) - 1;
+    /**
+     * The furthest a deadline can be from the current tick and still be placed exactly
+     */
+    private static final long MAX_TICKS = (1L << (ROOT_BITS + (LEVELS - 1) * LEVEL_BITS)) - 1;
+
+    private final long tickMillis;
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<Timeout>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<Timeout>();
+
+    private volatile Worker worker;
+
+    public TimingWheelScheduler() {
+        this(DEFAULT_TICK_MILLIS);
+    }
+
+    /**
+     * @param tickMillis the duration of a tick in milliseconds, timeouts are dispatched at most this late
+     */
+    public TimingWheelScheduler(final long tickMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive");
+        }
+        this.tickMillis = tickMillis;
+    }
+
+    @Override
+    public ScheduledTimeout schedule(final Runnable task, final Executor executor, final long delay, final long period, final LatenessHistogram lateness) {
+        if (period < 0) {
+            throw new IllegalArgumentException("period must not be negative");
+        }
+        final Timeout timeout = new Timeout(task, executor, System.currentTimeMillis() + Math.max(delay, 0), period, lateness);
+        pending.add(timeout);
+        return timeout;
+    }
+
+    @Override
+    public synchronized void start(final StartContext context) throws StartException {
+        final Worker worker = new Worker();
+        worker.setDaemon(true);
+        worker.setName("EJB timer service");
+        this.worker = worker;
+        worker.start();
+    }
+
+    @Override
+    public synchronized void stop(final StopContext context) {
+        final Worker worker = this.worker;
+        this.worker = null;
+        if (worker != null) {
+            worker.stopTask();
+        }
+        pending.clear();
+        cancelled.clear();
+    }
+
+    @Override
+    public TimeoutScheduler getValue() throws IllegalStateException, IllegalArgumentException {
+        return this;
+    }
+
+    private final class Timeout implements ScheduledTimeout {
+        private final Runnable task;
+        private final Executor executor;
+        private final long period;
+        private final LatenessHistogram lateness;
+        private volatile boolean cancelled;
+
+        // the following are only used by the wheel thread
+        private long deadline;
+        private int level = -1;
+        private int bucket;
+        private Timeout previous;
+        private Timeout next;
+
+        Timeout(final Runnable task, final Executor executor, final long deadline, final long period, final LatenessHistogram lateness) {
+            this.task = task;
+            this.executor = executor;
+            this.deadline = deadline;
+            this.period = period;
+            this.lateness = lateness;
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                // let the wheel thread unlink it, rather than leaving it in its bucket until it is due
+                TimingWheelScheduler.this.cancelled.add(this);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return task.toString();
+        }
+    }
+
+    private final class Worker extends Thread {
+
+        private volatile boolean running = true;
+        private final long startTime = System.currentTimeMillis();
+        private final Timeout[][] wheels = new Timeout[LEVELS][];
+        private long tick;
+
+        Worker() {
+            wheels[0] = new Timeout[1 << ROOT_BITS];
+            for (int i = 1; i < LEVELS; i++) {
+                wheels[i] = new Timeout[1 << LEVEL_BITS];
+            }
+        }
+
+        @Override
+        public void run() {
+            final List<Timeout> due = new ArrayList<Timeout>();
+            while (running) {
+                final long sleep = startTime + tick * tickMillis - System.currentTimeMillis();
+                if (sleep > 0) {
+                    try {
+                        sleep(sleep);
+                    } catch (InterruptedException e) {
+                        running = false;
+                        break;
+                    }
+                }
+                unlinkCancelled();
+                cascade();
+                transferPending();
+                collectDue(due);
+                ++tick;
+                dispatch(due);
+                due.clear();
+            }
+        }
+
+        private void unlinkCancelled() {
+            Timeout timeout;
+            while ((timeout = cancelled.poll()) != null) {
+                unlink(timeout);
+            }
+        }
+
+        /**
+         * Moves the timeouts of the next bucket of each outer wheel inwards, whenever the wheel inside it has
+         * completed a revolution.
+         */
+        private void cascade() {
+            if ((tick & ROOT_MASK) != 0) {
+                return;
+            }
+            for (int level = 1; level < LEVELS; level++) {
+                final int bucket = (int) ((tick >>> (ROOT_BITS + (level - 1) * LEVEL_BITS)) & LEVEL_MASK);
+                Timeout timeout = wheels[level][bucket];
+                wheels[level][bucket] = null;
+                while (timeout != null) {
+                    final Timeout next = timeout.next;
+                    timeout.previous = timeout.next = null;
+                    timeout.level = -1;
+                    insert(timeout);
+                    timeout = next;
+                }
+                if (bucket != 0) {
+                    break;
+                }
+            }
+        }
+
+        private void transferPending() {
+            Timeout timeout;
+            while ((timeout = pending.poll()) != null) {
+                if (!timeout.cancelled) {
+                    insert(timeout);
+                }
+            }
+        }
+
+        private void collectDue(final List<Timeout> due) {
+            final int bucket = (int) (tick & ROOT_MASK);
+            Timeout timeout = wheels[0][bucket];
+            wheels[0][bucket] = null;
+            while (timeout != null) {
+                final Timeout next = timeout.next;
+                timeout.previous = timeout.next = null;
+                timeout.level = -1;
+                if (!timeout.cancelled) {
+                    due.add(timeout);
+                }
+                timeout = next;
+            }
+        }
+
+        private void dispatch(final List<Timeout> due) {
+            final long now = System.currentTimeMillis();
+            for (Timeout timeout : due) {
+                if (timeout.lateness != null) {
+                    timeout.lateness.record(now - timeout.deadline);
+                }
+                try {
+                    timeout.executor.execute(timeout.task);
+                } catch (Throwable t) {
+                    ROOT_LOGGER.timeoutDispatchFailed(timeout, t);
+                }
+                if (timeout.period > 0 && !timeout.cancelled) {
+                    // fixed rate, so a late run does not push back the following ones
+                    timeout.deadline += timeout.period;
+                    insert(timeout);
+                }
+            }
+        }
+
+        private void insert(final Timeout timeout) {
+            long expires = Math.max((timeout.deadline - startTime + tickMillis - 1) / tickMillis, tick);
+            long ticks = expires - tick;
+            final int level;
+            final int bucket;
+            if (ticks <= ROOT_MASK) {
+                level = 0;
+                bucket = (int) (expires & ROOT_MASK);
+            } else {
+                if (ticks > MAX_TICKS) {
+                    expires = tick + MAX_TICKS;
+                    ticks = MAX_TICKS;
+                }
+                int l = 1;
+                while (l < LEVELS - 1 && ticks >= 1L << (ROOT_BITS + l * LEVEL_BITS)) {
+                    ++l;
+                }
+                level = l;
+                bucket = (int) ((expires >>> (ROOT_BITS + (level - 1) * LEVEL_BITS)) & LEVEL_MASK);
+            }
+            final Timeout head = wheels[level][bucket];
+            timeout.level = level;
+            timeout.bucket = bucket;
+            timeout.previous = null;
+            timeout.next = head;
+            if (head != null) {
+                head.previous = timeout;
+            }
+            wheels[level][bucket] = timeout;
+        }
+
+        private void unlink(final Timeout timeout) {
+            if (timeout.level < 0) {
+                // not in the wheel, either still pending or already dispatched
+                return;
+            }
+            if (timeout.previous == null) {
+                wheels[timeout.level][timeout.bucket] = timeout.next;
+            } else {
+                timeout.previous.next = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.previous = timeout.previous;
+            }
+            timeout.previous = timeout.next = null;
+            timeout.level = -1;
+        }
+
+        public void stopTask() {
+            running = false;
+            interrupt();
+        }
+    }
+}
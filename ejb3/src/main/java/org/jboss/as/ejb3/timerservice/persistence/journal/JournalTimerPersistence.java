@@ -0,0 +1,790 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.persistence.journal;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.SystemException;
+import javax.transaction.TransactionManager;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.jboss.as.ejb3.component.stateful.CurrentSynchronizationCallback;
+import org.jboss.as.ejb3.timerservice.persistence.TimerEntity;
+import org.jboss.as.ejb3.timerservice.persistence.TimerPersistence;
+import org.jboss.marshalling.InputStreamByteInput;
+import org.jboss.marshalling.Marshaller;
+import org.jboss.marshalling.MarshallerFactory;
+import org.jboss.marshalling.MarshallingConfiguration;
+import org.jboss.marshalling.ModularClassResolver;
+import org.jboss.marshalling.OutputStreamByteOutput;
+import org.jboss.marshalling.Unmarshaller;
+import org.jboss.marshalling.river.RiverMarshallerFactory;
+import org.jboss.modules.ModuleLoader;
+import org.jboss.msc.service.Service;
+import org.jboss.msc.service.ServiceName;
+import org.jboss.msc.service.StartContext;
+import org.jboss.msc.service.StartException;
+import org.jboss.msc.service.StopContext;
+import org.jboss.msc.value.InjectedValue;
+
+import static org.jboss.as.ejb3.EjbLogger.ROOT_LOGGER;
+import static org.jboss.as.ejb3.EjbMessages.MESSAGES;
+
+/**
+ * Journal based persistent timer store.
+ * <p/>
+ * Rather than rewriting a file per timer, every change to a timer is appended as a checksummed record to the
+ * current segment of a journal. The changes made by a transaction are appended when it completes and forced to
+ * disk together, and a thread that finds another one already forcing the journal waits for it and then forces
+ * everything appended in the meantime in one go, so concurrent transactions share their <code>fsync</code>s.
+ * <p/>
+ * Once enough segments have filled up, a background task rewrites the live timers of the full segments into a
+ * single snapshot segment, which supersedes every segment before it, and deletes them.
+ * <p/>
+ * On start the journal is read once, sequentially. The timers are kept in their serialized form until the timers of
+ * a timed object are first needed, as the classes of the timer info are only available once it has been deployed.
+ */
+public class JournalTimerPersistence implements TimerPersistence, Service<JournalTimerPersistence> {
+
+    public static final ServiceName SERVICE_NAME = ServiceName.JBOSS.append("ejb3", "timerService", "journalTimerPersistence");
+
+    private static final String JOURNAL_DIRECTORY = "journal";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private static final int MAGIC = 0x454a544a;
+    private static final byte VERSION = 1;
+    private static final byte SNAPSHOT = 1;
+    private static final int SEGMENT_HEADER_SIZE = 6;
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+
+    private static final long DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+    private static final int DEFAULT_COMPACTION_THRESHOLD = 4;
+
+    private final boolean createIfNotExists;
+    private final long segmentSize;
+    private final int compactionThreshold;
+    private MarshallerFactory factory;
+    private MarshallingConfiguration configuration;
+    private final InjectedValue<TransactionManager> transactionManager = new InjectedValue<TransactionManager>();
+    private final InjectedValue<TransactionSynchronizationRegistry> transactionSynchronizationRegistry = new InjectedValue<TransactionSynchronizationRegistry>();
+    private final InjectedValue<ModuleLoader> moduleLoader = new InjectedValue<ModuleLoader>();
+    private final InjectedValue<String> baseDir = new InjectedValue<String>();
+
+    /**
+     * map of timed object id : timer id : timer
+     */
+    private final ConcurrentMap<String, Map<String, TimerEntity>> timers = new ConcurrentHashMap<String, Map<String, TimerEntity>>();
+    /**
+     * map of timed object id : timer id : journal record of the timer, guarded by the lock of the timed object
+     */
+    private final ConcurrentMap<String, Map<String, byte[]>> records = new ConcurrentHashMap<String, Map<String, byte[]>>();
+    private final ConcurrentMap<String, Lock> locks = new ConcurrentHashMap<String, Lock>();
+
+    private File journalDir;
+
+    /**
+     * Guards the current segment and the segment counts
+     */
+    private final Object writeLock = new Object();
+    private Segment segment;
+    private long appended;
+    private int sealedSegments;
+
+    /**
+     * Guards the forcing of the current segment
+     */
+    private final Object forceLock = new Object();
+    private long forced;
+
+    private ExecutorService compactor;
+    private final AtomicBoolean compacting = new AtomicBoolean();
+
+    public JournalTimerPersistence(final boolean createIfNotExists) {
+        this(createIfNotExists, DEFAULT_SEGMENT_SIZE, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * @param createIfNotExists   whether to create the data store directory if it does not exist
+     * @param segmentSize         the size in bytes from which a segment is sealed and a new one started
+     * @param compactionThreshold the number of sealed segments from which they are compacted
+     */
+    public JournalTimerPersistence(final boolean createIfNotExists, final long segmentSize, final int compactionThreshold) {
+        if (segmentSize <= SEGMENT_HEADER_SIZE) {
+            throw new IllegalArgumentException("segmentSize must be larger than the segment header");
+        }
+        if (compactionThreshold < 2) {
+            throw new IllegalArgumentException("compactionThreshold must be at least 2");
+        }
+        this.createIfNotExists = createIfNotExists;
+        this.segmentSize = segmentSize;
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    @Override
+    public synchronized void start(final StartContext context) throws StartException {
+
+        final RiverMarshallerFactory factory = new RiverMarshallerFactory();
+        final MarshallingConfiguration configuration = new MarshallingConfiguration();
+        // without a module loader the classes are resolved through the thread context class loader
+        final ModuleLoader moduleLoader = this.moduleLoader.getOptionalValue();
+        if (moduleLoader != null) {
+            configuration.setClassResolver(ModularClassResolver.getInstance(moduleLoader));
+        }
+
+        this.configuration = configuration;
+        this.factory = factory;
+        final File baseDir = new File(this.baseDir.getValue());
+        if (!baseDir.exists()) {
+            if (!createIfNotExists) {
+                throw MESSAGES.timerFileStoreDirNotExist(baseDir);
+            }
+        } else if (!baseDir.isDirectory()) {
+            throw MESSAGES.invalidTimerFileStoreDir(baseDir);
+        }
+        final File journalDir = new File(baseDir, JOURNAL_DIRECTORY);
+        if (!journalDir.isDirectory() && !journalDir.mkdirs()) {
+            throw MESSAGES.failToCreateTimerFileStoreDir(journalDir);
+        }
+        this.journalDir = journalDir;
+
+        final Map<String, Map<String, byte[]>> live = new HashMap<String, Map<String, byte[]>>();
+        final File[] segments;
+        try {
+            // left behind by a compaction that did not complete
+            for (File temp : listFiles(TEMP_SUFFIX)) {
+                if (!temp.delete()) {
+                    ROOT_LOGGER.failedToDeleteTimerJournalSegment(temp);
+                }
+            }
+            segments = listSegments();
+            for (File file : segments) {
+                readSegment(file, live);
+            }
+        } catch (IOException e) {
+            throw new StartException(e);
+        }
+        records.putAll(live);
+
+        final long sequence = segments.length == 0 ? 0 : sequence(segments[segments.length - 1]) + 1;
+        final ThreadFactory threadFactory = new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable r) {
+                final Thread thread = new Thread(r, "EJB timer journal compaction");
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+        synchronized (writeLock) {
+            try {
+                segment = openSegment(sequence, false);
+            } catch (IOException e) {
+                throw new StartException(e);
+            }
+            sealedSegments = segments.length;
+            compactor = Executors.newSingleThreadExecutor(threadFactory);
+            if (sealedSegments >= compactionThreshold) {
+                scheduleCompaction();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void stop(final StopContext context) {
+        synchronized (writeLock) {
+            compactor.shutdownNow();
+            compactor = null;
+            try {
+                segment.out.close();
+            } catch (IOException e) {
+                ROOT_LOGGER.failToCloseFile(e);
+            }
+            segment = null;
+        }
+        compacting.set(false);
+        timers.clear();
+        records.clear();
+        locks.clear();
+        factory = null;
+        configuration = null;
+    }
+
+    @Override
+    public JournalTimerPersistence getValue() throws IllegalStateException, IllegalArgumentException {
+        return this;
+    }
+
+    @Override
+    public void persistTimer(final TimerEntity timerEntity) {
+        try {
+            final int status = transactionManager.getValue().getStatus();
+            if (status == Status.STATUS_MARKED_ROLLBACK || status == Status.STATUS_ROLLEDBACK ||
+                    status == Status.STATUS_ROLLING_BACK) {
+                //no need to persist anyway
+                return;
+            }
+            if (status == Status.STATUS_NO_TRANSACTION ||
+                    status == Status.STATUS_UNKNOWN || isBeforeCompletion()
+                    || status == Status.STATUS_COMMITTED) {
+                force(write(timerEntity));
+            } else {
+                // all the timers persisted by the transaction are written, and forced, together when it commits
+                final TransactionSynchronizationRegistry registry = transactionSynchronizationRegistry.getValue();
+                PersistTransactionSynchronization synchronization = (PersistTransactionSynchronization) registry.getResource(this);
+                if (synchronization == null) {
+                    synchronization = new PersistTransactionSynchronization();
+                    registry.putResource(this, synchronization);
+                    registry.registerInterposedSynchronization(synchronization);
+                }
+                synchronization.timers.add(timerEntity);
+            }
+        } catch (SystemException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void timerUndeployed(final String timedObjectId) {
+        final Lock lock = getLock(timedObjectId);
+        try {
+            lock.lock();
+            locks.remove(timedObjectId);
+            // the journal records are kept, so that the timers can be restored when it is deployed again
+            timers.remove(timedObjectId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isBeforeCompletion() {
+        final CurrentSynchronizationCallback.CallbackType type = CurrentSynchronizationCallback.get();
+        if (type != null) {
+            return type == CurrentSynchronizationCallback.CallbackType.BEFORE_COMPLETION;
+        }
+        return false;
+    }
+
+    @Override
+    public TimerEntity loadTimer(final String id, final String timedObjectId) {
+        final Lock lock = getLock(timedObjectId);
+        try {
+            lock.lock();
+            final Map<String, TimerEntity> timers = getTimers(timedObjectId);
+            return timers.get(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void removeTimer(final TimerEntity timerEntity) {
+        final String timedObjectId = timerEntity.getTimedObjectId();
+        final Lock lock = getLock(timedObjectId);
+        final long count;
+        try {
+            lock.lock();
+            //remove is not a transactional operation, as it only happens once the timer has expired
+            final Map<String, TimerEntity> timers = getTimers(timedObjectId);
+            timers.remove(timerEntity.getId());
+            final Map<String, byte[]> records = this.records.get(timedObjectId);
+            if (records == null || records.remove(timerEntity.getId()) == null) {
+                return;
+            }
+            count = append(frame(body(REMOVE, timedObjectId, timerEntity.getId(), null, null)));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lock.unlock();
+        }
+        // forced outside of the lock, so that it can share the force with other writers
+        force(count);
+    }
+
+    @Override
+    public List<TimerEntity> loadActiveTimers(final String timedObjectId) {
+        final Lock lock = getLock(timedObjectId);
+        try {
+            lock.lock();
+            final Map<String, TimerEntity> timers = getTimers(timedObjectId);
+            return new ArrayList<TimerEntity>(timers.values());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Lock getLock(final String timedObjectId) {
+        Lock lock = locks.get(timedObjectId);
+        if (lock == null) {
+            final Lock addedLock = new ReentrantLock();
+            lock = locks.putIfAbsent(timedObjectId, addedLock);
+            if (lock == null) {
+                lock = addedLock;
+            }
+        }
+        return lock;
+    }
+
+    /**
+     * Gets the timer map, restoring the timers from their journal records if necessary. Should be called under lock
+     *
+     * @param timedObjectId The timed object id
+     * @return The timers for the object
+     */
+    private Map<String, TimerEntity> getTimers(final String timedObjectId) {
+        Map<String, TimerEntity> map = timers.get(timedObjectId);
+        if (map == null) {
+            map = loadTimersFromJournal(timedObjectId);
+            timers.put(timedObjectId, map);
+        }
+        return map;
+    }
+
+    private Map<String, TimerEntity> loadTimersFromJournal(final String timedObjectId) {
+        final Map<String, TimerEntity> timers = new HashMap<String, TimerEntity>();
+        final Map<String, byte[]> records = this.records.get(timedObjectId);
+        if (records == null) {
+            //no timers exist yet
+            return timers;
+        }
+        try {
+            final Unmarshaller unmarshaller = factory.createUnmarshaller(configuration);
+            for (byte[] body : records.values()) {
+                final ByteArrayInputStream in = new ByteArrayInputStream(body);
+                // skip the record type, the timed object id and the timer id
+                final DataInputStream data = new DataInputStream(in);
+                data.readByte();
+                data.readUTF();
+                data.readUTF();
+                unmarshaller.start(new InputStreamByteInput(in));
+                final TimerEntity entity = unmarshaller.readObject(TimerEntity.class);
+                timers.put(entity.getId(), entity);
+                unmarshaller.finish();
+            }
+        } catch (Exception e) {
+            ROOT_LOGGER.failToRestoreTimersForObjectId(timedObjectId, e);
+        }
+        return timers;
+    }
+
+    /**
+     * Updates the timer map and appends the new state of the timer to the journal, without forcing it.
+     *
+     * @return the number of records appended so far
+     */
+    private long write(final TimerEntity entity) {
+        final String timedObjectId = entity.getTimedObjectId();
+        final Lock lock = getLock(timedObjectId);
+        try {
+            lock.lock();
+            final Map<String, TimerEntity> map = getTimers(timedObjectId);
+            map.put(entity.getId(), entity);
+            final byte[] body = body(PUT, timedObjectId, entity.getId(), entity, factory.createMarshaller(configuration));
+            Map<String, byte[]> records = this.records.get(timedObjectId);
+            if (records == null) {
+                records = new HashMap<String, byte[]>();
+                this.records.put(timedObjectId, records);
+            }
+            records.put(entity.getId(), body);
+            // appended under the lock of the timed object, so the journal has the changes to a timer in order
+            return append(frame(body));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static byte[] body(final byte type, final String timedObjectId, final String id, final TimerEntity entity, final Marshaller marshaller) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(type);
+        out.writeUTF(timedObjectId);
+        out.writeUTF(id);
+        out.flush();
+        if (entity != null) {
+            marshaller.start(new OutputStreamByteOutput(bytes));
+            marshaller.writeObject(entity);
+            marshaller.finish();
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Prefixes a record body with its length and checksum.
+     */
+    private static byte[] frame(final byte[] body) throws IOException {
+        final CRC32 crc = new CRC32();
+        crc.update(body);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(RECORD_HEADER_SIZE + body.length);
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(body.length);
+        out.writeInt((int) crc.getValue());
+        out.write(body);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @return the number of records appended so far
+     */
+    private long append(final byte[] record) throws IOException {
+        synchronized (writeLock) {
+            if (segment == null) {
+                throw MESSAGES.timerJournalStopped();
+            }
+            if (segment.size + record.length > segmentSize && segment.size > SEGMENT_HEADER_SIZE) {
+                roll();
+            }
+            segment.out.write(record);
+            segment.size += record.length;
+            return ++appended;
+        }
+    }
+
+    /**
+     * Forces the journal to disk, up to at least the given number of appended records. Callers that queue up while
+     * the journal is being forced are all covered by the next force.
+     */
+    private void force(final long count) {
+        synchronized (forceLock) {
+            while (forced < count) {
+                final Segment segment;
+                final long target;
+                synchronized (writeLock) {
+                    segment = this.segment;
+                    target = appended;
+                }
+                if (segment == null) {
+                    // stopped
+                    return;
+                }
+                try {
+                    segment.out.getChannel().force(false);
+                    forced = target;
+                } catch (ClosedChannelException e) {
+                    // the segment was sealed, and forced, in the meantime, so force the one that replaced it
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Seals the current segment and starts a new one. Should be called holding the write lock.
+     */
+    private void roll() throws IOException {
+        final Segment sealed = segment;
+        sealed.out.getChannel().force(false);
+        sealed.out.close();
+        segment = openSegment(sealed.sequence + 1, false);
+        if (++sealedSegments >= compactionThreshold) {
+            scheduleCompaction();
+        }
+    }
+
+    private Segment openSegment(final long sequence, final boolean snapshot) throws IOException {
+        final FileOutputStream out = new FileOutputStream(new File(journalDir, segmentName(sequence)));
+        writeSegmentHeader(out, snapshot);
+        return new Segment(sequence, out);
+    }
+
+    private static void writeSegmentHeader(final FileOutputStream out, final boolean snapshot) throws IOException {
+        final DataOutputStream header = new DataOutputStream(out);
+        header.writeInt(MAGIC);
+        header.writeByte(VERSION);
+        header.writeByte(snapshot ? SNAPSHOT : 0);
+        header.flush();
+    }
+
+    /**
+     * Replays a segment onto the given journal records. A snapshot segment replaces the records of all the segments
+     * before it. Reading stops at the first record that is truncated or does not match its checksum, which is where
+     * the server stopped writing if it was not shut down cleanly.
+     */
+    private static void readSegment(final File file, final Map<String, Map<String, byte[]>> records) throws IOException {
+        final long length = file.length();
+        if (length < SEGMENT_HEADER_SIZE) {
+            // created just before the server stopped
+            return;
+        }
+        long offset = 0;
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+                ROOT_LOGGER.corruptTimerJournalSegment(file, offset);
+                return;
+            }
+            if (in.readByte() == SNAPSHOT) {
+                records.clear();
+            }
+            offset = SEGMENT_HEADER_SIZE;
+            final CRC32 crc = new CRC32();
+            while (offset < length) {
+                final int size = in.readInt();
+                final int checksum = in.readInt();
+                if (size <= 0 || offset + RECORD_HEADER_SIZE + size > length) {
+                    ROOT_LOGGER.corruptTimerJournalSegment(file, offset);
+                    return;
+                }
+                final byte[] body = new byte[size];
+                in.readFully(body);
+                crc.reset();
+                crc.update(body);
+                if ((int) crc.getValue() != checksum) {
+                    ROOT_LOGGER.corruptTimerJournalSegment(file, offset);
+                    return;
+                }
+                replay(body, records);
+                offset += RECORD_HEADER_SIZE + size;
+            }
+        } catch (EOFException e) {
+            ROOT_LOGGER.corruptTimerJournalSegment(file, offset);
+        } finally {
+            try {
+                in.close();
+            } catch (IOException e) {
+                ROOT_LOGGER.failToCloseFile(e);
+            }
+        }
+    }
+
+    private static void replay(final byte[] body, final Map<String, Map<String, byte[]>> records) throws IOException {
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+        final byte type = in.readByte();
+        final String timedObjectId = in.readUTF();
+        final String id = in.readUTF();
+        Map<String, byte[]> timers = records.get(timedObjectId);
+        if (type == PUT) {
+            if (timers == null) {
+                timers = new HashMap<String, byte[]>();
+                records.put(timedObjectId, timers);
+            }
+            timers.put(id, body);
+        } else if (timers != null) {
+            timers.remove(id);
+            if (timers.isEmpty()) {
+                records.remove(timedObjectId);
+            }
+        }
+    }
+
+    private void scheduleCompaction() {
+        if (compactor != null && compacting.compareAndSet(false, true)) {
+            compactor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    boolean compacted = false;
+                    try {
+                        compact();
+                        compacted = true;
+                    } catch (Throwable t) {
+                        ROOT_LOGGER.timerJournalCompactionFailed(t);
+                    } finally {
+                        compacting.set(false);
+                    }
+                    if (compacted) {
+                        // segments sealed while this compaction was running
+                        synchronized (writeLock) {
+                            if (sealedSegments >= compactionThreshold) {
+                                scheduleCompaction();
+                            }
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Rewrites the live records of the sealed segments into a snapshot that takes the place of the last of them,
+     * then deletes the others. The sealed segments are never written again, so this does not hold up the writers.
+     */
+    private void compact() throws IOException {
+        final long last;
+        synchronized (writeLock) {
+            if (segment == null) {
+                // stopped
+                return;
+            }
+            last = segment.sequence - 1;
+        }
+        final List<File> sealed = new ArrayList<File>();
+        for (File file : listSegments()) {
+            if (sequence(file) <= last) {
+                sealed.add(file);
+            }
+        }
+        if (sealed.size() < 2) {
+            return;
+        }
+        final Map<String, Map<String, byte[]>> live = new LinkedHashMap<String, Map<String, byte[]>>();
+        for (File file : sealed) {
+            readSegment(file, live);
+        }
+
+        final File temp = new File(journalDir, segmentName(last) + TEMP_SUFFIX);
+        final FileOutputStream out = new FileOutputStream(temp);
+        try {
+            writeSegmentHeader(out, true);
+            for (Map<String, byte[]> timers : live.values()) {
+                for (byte[] body : timers.values()) {
+                    out.write(frame(body));
+                }
+            }
+            out.getChannel().force(false);
+        } finally {
+            out.close();
+        }
+        // the snapshot supersedes everything before it, so the older segments only need deleting once it is in place
+        if (!temp.renameTo(sealed.get(sealed.size() - 1))) {
+            if (!temp.delete()) {
+                ROOT_LOGGER.failedToDeleteTimerJournalSegment(temp);
+            }
+            throw new IOException("Could not rename " + temp);
+        }
+        for (File file : sealed.subList(0, sealed.size() - 1)) {
+            if (!file.delete()) {
+                ROOT_LOGGER.failedToDeleteTimerJournalSegment(file);
+            }
+        }
+        synchronized (writeLock) {
+            sealedSegments -= sealed.size() - 1;
+        }
+    }
+
+    private File[] listSegments() throws IOException {
+        final File[] segments = listFiles(SEGMENT_SUFFIX);
+        // the names are fixed width hexadecimal sequence numbers, so they sort in sequence order
+        Arrays.sort(segments);
+        return segments;
+    }
+
+    private File[] listFiles(final String suffix) throws IOException {
+        final File[] files = journalDir.listFiles(new SuffixFilter(suffix));
+        if (files == null) {
+            throw MESSAGES.failToListDirectory(journalDir);
+        }
+        return files;
+    }
+
+    private static String segmentName(final long sequence) {
+        return String.format("%016x", sequence) + SEGMENT_SUFFIX;
+    }
+
+    private static long sequence(final File segment) {
+        final String name = segment.getName();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()), 16);
+    }
+
+    private static final class SuffixFilter implements FilenameFilter {
+        private final String suffix;
+
+        SuffixFilter(final String suffix) {
+            this.suffix = suffix;
+        }
+
+        @Override
+        public boolean accept(final File dir, final String name) {
+            return name.endsWith(suffix);
+        }
+    }
+
+    private static final class Segment {
+        private final long sequence;
+        private final FileOutputStream out;
+        private long size = SEGMENT_HEADER_SIZE;
+
+        Segment(final long sequence, final FileOutputStream out) {
+            this.sequence = sequence;
+            this.out = out;
+        }
+    }
+
+    private final class PersistTransactionSynchronization implements Synchronization {
+
+        private final List<TimerEntity> timers = new ArrayList<TimerEntity>();
+
+        @Override
+        public void beforeCompletion() {
+
+        }
+
+        @Override
+        public void afterCompletion(final int status) {
+            if (status == Status.STATUS_COMMITTED) {
+                long count = 0;
+                for (TimerEntity timer : timers) {
+                    count = write(timer);
+                }
+                force(count);
+            }
+        }
+    }
+
+    public InjectedValue<TransactionManager> getTransactionManager() {
+        return transactionManager;
+    }
+
+    public InjectedValue<TransactionSynchronizationRegistry> getTransactionSynchronizationRegistry() {
+        return transactionSynchronizationRegistry;
+    }
+
+    public InjectedValue<ModuleLoader> getModuleLoader() {
+        return moduleLoader;
+    }
+
+    public InjectedValue<String> getBaseDir() {
+        return baseDir;
+    }
+}
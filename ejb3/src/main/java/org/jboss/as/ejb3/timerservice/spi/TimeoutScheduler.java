@@ -0,0 +1,58 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.spi;
+
+import java.util.concurrent.Executor;
+
+import org.jboss.as.ejb3.timerservice.LatenessHistogram;
+
+/**
+ * Schedules the timeouts of the EJB timer service. The scheduler only decides when a timeout is due, the timeout
+ * itself is always run by the executor it was scheduled with.
+ */
+public interface TimeoutScheduler {
+
+    /**
+     * Schedules a task.
+     *
+     * @param task     the task
+     * @param executor the executor that runs the task once it is due
+     * @param delay    the delay before the first run, in milliseconds
+     * @param period   the period between the scheduled starts of successive runs in milliseconds, or 0 to run the
+     *                 task only once
+     * @param lateness the histogram the delay between the scheduled and the actual dispatch is recorded in, may
+     *                 be null
+     * @return a handle that cancels the task
+     */
+    ScheduledTimeout schedule(Runnable task, Executor executor, long delay, long period, LatenessHistogram lateness);
+
+    /**
+     * A scheduled task.
+     */
+    interface ScheduledTimeout {
+
+        /**
+         * Cancels the task. A run that has already been handed to the executor is not interrupted.
+         */
+        void cancel();
+    }
+}
@@ -0,0 +1,351 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.cache;
+
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jboss.ejb.client.SessionID;
+import org.jboss.marshalling.ObjectTable;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the LRU passivation of {@link ExpiringCache} entries once the cache holds more than its max size
+ */
+public class ExpiringCachePassivationTestCase {
+
+    private static final AtomicLong ids = new AtomicLong();
+
+    private ExpirationScheduler scheduler;
+    private final MemoryPassivationStore store = new MemoryPassivationStore();
+    private final Set<SessionID> destroyed = new CopyOnWriteArraySet<SessionID>();
+    private final Set<SessionID> discarded = new CopyOnWriteArraySet<SessionID>();
+
+    @Before
+    public void beforeTest() throws Exception {
+        this.scheduler = new ExpirationScheduler(10, 16);
+        this.scheduler.start(null);
+    }
+
+    @After
+    public void afterTest() {
+        this.scheduler.stop(null);
+        this.store.states.clear();
+        this.store.pending.clear();
+        this.store.synchronous = true;
+        this.destroyed.clear();
+        this.discarded.clear();
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsPassivated() throws Exception {
+        final ExpiringCache<TestInstance> cache = createCache(-1, 2);
+        final TestInstance a = cache.create();
+        final TestInstance b = cache.create();
+        final TestInstance c = cache.create();
+        cache.release(a);
+        cache.release(b);
+        cache.release(c);
+
+        Assert.assertNull(a.state);
+        Assert.assertTrue(store.states.containsKey(a.getId()));
+        Assert.assertNotNull(b.state);
+        Assert.assertNotNull(c.state);
+        Assert.assertEquals(2, cache.getCacheSize());
+        Assert.assertEquals(1, cache.getPassivatedCount());
+        Assert.assertEquals(1, cache.getPassivationCount());
+    }
+
+    @Test
+    public void testGetActivatesPassivatedEntry() throws Exception {
+        final ExpiringCache<TestInstance> cache = createCache(-1, 2);
+        final TestInstance a = cache.create();
+        final TestInstance b = cache.create();
+        final TestInstance c = cache.create();
+        cache.release(a);
+        cache.release(b);
+        cache.release(c);
+
+        Assert.assertSame(a, cache.get(a.getId()));
+        Assert.assertEquals("state of " + a.getId(), a.state);
+        Assert.assertFalse(store.states.containsKey(a.getId()));
+        Assert.assertEquals(1, cache.getActivationCount());
+        Assert.assertEquals(1, cache.getMissCount());
+        // activating a pushed the cache over its max size again, so the next least recently used goes
+        Assert.assertNull(b.state);
+        Assert.assertEquals(2, cache.getCacheSize());
+
+        Assert.assertSame(c, cache.get(c.getId()));
+        Assert.assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void testRecentlyUsedEntryIsNotPassivated() throws Exception {
+        final ExpiringCache<TestInstance> cache = createCache(-1, 2);
+        final TestInstance a = cache.create();
+        final TestInstance b = cache.create();
+        cache.release(a);
+        cache.release(b);
+        // a is queued before b, but is now the most recently used
+        cache.release(cache.get(a.getId()));
+
+        final TestInstance c = cache.create();
+        cache.release(c);
+
+        Assert.assertNotNull(a.state);
+        Assert.assertNull(b.state);
+        Assert.assertNotNull(c.state);
+    }
+
+    @Test
+    public void testEntryInUseIsNotPassivated() throws Exception {
+        final ExpiringCache<TestInstance> cache = createCache(-1, 0);
+        final TestInstance a = cache.create();
+        cache.release(a);
+        Assert.assertNull(a.state);
+
+        Assert.assertSame(a, cache.get(a.getId()));
+        final TestInstance b = cache.create();
+        cache.release(b);
+
+        Assert.assertNotNull(a.state);
+        Assert.assertNull(b.state);
+    }
+
+    @Test
+    public void testFailedPassivationKeepsEntryInMemory() throws Exception {
+        final ExpiringCache<TestInstance> cache = createCache(-1, 0);
+        final TestInstance a = cache.create();
+        store.fail = true;
+        cache.release(a);
+
+        Assert.assertNotNull(a.state);
+        Assert.assertEquals(1, cache.getCacheSize());
+        Assert.assertEquals(0, cache.getPassivationCount());
+        Assert.assertSame(a, cache.get(a.getId()));
+    }
+
+    @Test
+    public void testPassivatedEntryExpires() throws Exception {
+        final ExpiringCache<TestInstance> cache = createCache(50, 0);
+        final TestInstance a = cache.create();
+        cache.release(a);
+        Assert.assertTrue(store.states.containsKey(a.getId()));
+
+        final long end = System.currentTimeMillis() + 2000;
+        while (!discarded.contains(a.getId())) {
+            if (System.currentTimeMillis() > end) {
+                Assert.fail("Session " + a.getId() + " was not expired");
+            }
+            Thread.sleep(10);
+        }
+        // the instance was never activated, so it is discarded rather than destroyed
+        Assert.assertFalse(destroyed.contains(a.getId()));
+        Assert.assertFalse(store.states.containsKey(a.getId()));
+        Assert.assertEquals(0, cache.getPassivatedCount());
+        Assert.assertNull(cache.get(a.getId()));
+    }
+
+    @Test
+    public void testDiscardRemovesPassivatedState() throws Exception {
+        final ExpiringCache<TestInstance> cache = createCache(-1, 0);
+        final TestInstance a = cache.create();
+        cache.release(a);
+        cache.discard(a.getId());
+
+        Assert.assertFalse(store.states.containsKey(a.getId()));
+        Assert.assertTrue(discarded.contains(a.getId()));
+        Assert.assertEquals(0, cache.getPassivatedCount());
+        Assert.assertNull(cache.get(a.getId()));
+    }
+
+    @Test
+    public void testPassivationRunsOnStoreExecutor() throws Exception {
+        final ExpiringCache<TestInstance> cache = createCache(-1, 1);
+        store.synchronous = false;
+        final TestInstance a = cache.create();
+        final TestInstance b = cache.create();
+        cache.release(a);
+        cache.release(b);
+
+        // the releasing thread only queues the work
+        Assert.assertNotNull(a.state);
+        Assert.assertEquals(2, cache.getCacheSize());
+        Assert.assertEquals(1, store.pending.size());
+
+        store.runPending();
+        Assert.assertNull(a.state);
+        Assert.assertNotNull(b.state);
+        Assert.assertEquals(1, cache.getCacheSize());
+        Assert.assertEquals(1, cache.getPassivationCount());
+    }
+
+    @Test
+    public void testFailedPassivationCallbackKeepsEntryInMemory() throws Exception {
+        final ExpiringCache<TestInstance> cache = createCache(-1, 0);
+        final TestInstance a = cache.create();
+        a.failPassivation = true;
+        cache.release(a);
+
+        Assert.assertNotNull(a.state);
+        Assert.assertFalse(store.states.containsKey(a.getId()));
+        Assert.assertEquals(1, cache.getCacheSize());
+        Assert.assertSame(a, cache.get(a.getId()));
+    }
+
+    @Test
+    public void testUnreadableStateIsDiscarded() throws Exception {
+        final ExpiringCache<TestInstance> cache = createCache(-1, 0);
+        final TestInstance a = cache.create();
+        cache.release(a);
+        store.states.remove(a.getId());
+
+        Assert.assertNull(cache.get(a.getId()));
+        Assert.assertTrue(discarded.contains(a.getId()));
+        Assert.assertFalse(destroyed.contains(a.getId()));
+        Assert.assertEquals(0, cache.getPassivatedCount());
+    }
+
+    private ExpiringCache<TestInstance> createCache(final long timeout, final int maxSize) {
+        final ExpiringCache<TestInstance> cache = new ExpiringCache<TestInstance>(timeout, TimeUnit.MILLISECONDS, "TestBean", scheduler,
+                maxSize, store, new Passivator<TestInstance>() {
+            @Override
+            public Object passivate(final TestInstance instance) {
+                if (instance.failPassivation) {
+                    throw new IllegalStateException("pre passivate failed for " + instance.getId());
+                }
+                final Object state = instance.state;
+                instance.state = null;
+                return state;
+            }
+
+            @Override
+            public void activate(final TestInstance instance, final Object state) {
+                instance.state = state;
+            }
+
+            @Override
+            public void discard(final TestInstance instance) {
+                discarded.add(instance.getId());
+            }
+
+            @Override
+            public ObjectTable getObjectTable(final TestInstance instance) {
+                return null;
+            }
+        });
+        cache.setStatefulObjectFactory(new StatefulObjectFactory<TestInstance>() {
+            @Override
+            public TestInstance createInstance() {
+                return new TestInstance();
+            }
+
+            @Override
+            public void destroyInstance(final TestInstance instance) {
+                destroyed.add(instance.getId());
+            }
+        });
+        cache.start();
+        return cache;
+    }
+
+    private static class MemoryPassivationStore implements PassivationStore {
+        private final Map<SessionID, Object> states = new ConcurrentHashMap<SessionID, Object>();
+        private volatile boolean fail;
+        private volatile boolean synchronous = true;
+        private final Queue<Runnable> pending = new ConcurrentLinkedQueue<Runnable>();
+
+        @Override
+        public void store(final String beanName, final SessionID id, final Object state, final ObjectTable objectTable) throws IOException {
+            if (fail) {
+                throw new NotSerializableException(state.toString());
+            }
+            states.put(id, state);
+        }
+
+        @Override
+        public Object load(final String beanName, final SessionID id, final ObjectTable objectTable) throws IOException {
+            final Object state = states.remove(id);
+            if (state == null) {
+                throw new IOException("No state stored for " + id);
+            }
+            return state;
+        }
+
+        @Override
+        public void remove(final String beanName, final SessionID id) {
+            states.remove(id);
+        }
+
+        @Override
+        public Executor getExecutor() {
+            return new Executor() {
+                @Override
+                public void execute(final Runnable command) {
+                    if (synchronous) {
+                        command.run();
+                    } else {
+                        pending.add(command);
+                    }
+                }
+            };
+        }
+
+        void runPending() {
+            Runnable task;
+            while ((task = pending.poll()) != null) {
+                task.run();
+            }
+        }
+    }
+
+    private static class TestInstance implements Identifiable {
+        private final SessionID id;
+        private volatile Object state;
+        private volatile boolean failPassivation;
+
+        TestInstance() {
+            final ByteBuffer bb = ByteBuffer.allocate(8);
+            bb.putLong(ids.incrementAndGet());
+            this.id = SessionID.createSessionID(bb.array());
+            this.state = "state of " + id;
+        }
+
+        @Override
+        public SessionID getId() {
+            return id;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+  *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.cache;
+
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jboss.ejb.client.SessionID;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the expiration of {@link ExpiringCache} entries through the shared {@link ExpirationScheduler}
+ */
+public class ExpiringCacheTestCase {
+
+    private static final AtomicLong ids = new AtomicLong();
+
+    private ExpirationScheduler scheduler;
+    private final Set<SessionID> destroyed = new CopyOnWriteArraySet<SessionID>();
+
+    @Before
+    public void beforeTest() throws Exception {
+        this.scheduler = new ExpirationScheduler(10, 16);
+        this.scheduler.start(null);
+    }
+
+    @After
+    public void afterTest() {
+        this.scheduler.stop(null);
+        this.destroyed.clear();
+    }
+
+    @Test
+    public void testInactiveEntryExpires() throws Exception {
+        final ExpiringCache<TestInstance> cache = createCache(50);
+        final TestInstance instance = cache.create();
+        cache.release(instance);
+
+        waitForDestroyed(instance.getId(), 2000);
+        Assert.assertNull(cache.get(instance.getId()));
+    }
+
+    @Test
+    public void testEntryInUseDoesNotExpire() throws Exception {
+        final ExpiringCache<TestInstance> cache = createCache(50);
+        final TestInstance instance = cache.create();
+        cache.release(instance);
+        Assert.assertSame(instance, cache.get(instance.getId()));
+
+        Thread.sleep(300);
+        Assert.assertFalse(destroyed.contains(instance.getId()));
+        Assert.assertSame(instance, cache.get(instance.getId()));
+        cache.release(instance);
+
+        waitForDestroyed(instance.getId(), 2000);
+    }
+
+    @Test
+    public void testDeadlineLongerThanWheelRevolution() throws Exception {
+        // 16 buckets of 10ms, so a 400ms timeout needs more than two revolutions
+        final ExpiringCache<TestInstance> cache = createCache(400);
+        final TestInstance instance = cache.create();
+        final long released = System.currentTimeMillis();
+        cache.release(instance);
+
+        waitForDestroyed(instance.getId(), 2000);
+        Assert.assertTrue(System.currentTimeMillis() - released >= 400);
+    }
+
+    @Test
+    public void testDiscardedEntryIsNotDestroyed() throws Exception {
+        final ExpiringCache<TestInstance> cache = createCache(20);
+        final TestInstance instance = cache.create();
+        cache.release(instance);
+        cache.discard(instance.getId());
+
+        Thread.sleep(200);
+        Assert.assertFalse(destroyed.contains(instance.getId()));
+    }
+
+    @Test
+    public void testBlockedTaskDoesNotDelayExpiration() throws Exception {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, System.currentTimeMillis());
+        try {
+            Assert.assertTrue(blocked.await(2, TimeUnit.SECONDS));
+            final ExpiringCache<TestInstance> cache = createCache(20);
+            final TestInstance instance = cache.create();
+            cache.release(instance);
+
+            waitForDestroyed(instance.getId(), 2000);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private ExpiringCache<TestInstance> createCache(final long timeout) {
+        final ExpiringCache<TestInstance> cache = new ExpiringCache<TestInstance>(timeout, TimeUnit.MILLISECONDS, "TestBean", scheduler);
+        cache.setStatefulObjectFactory(new StatefulObjectFactory<TestInstance>() {
+            @Override
+            public TestInstance createInstance() {
+                return new TestInstance();
+            }
+
+            @Override
+            public void destroyInstance(final TestInstance instance) {
+                destroyed.add(instance.getId());
+            }
+        });
+        cache.start();
+        return cache;
+    }
+
+    private void waitForDestroyed(final SessionID id, final long timeout) throws InterruptedException {
+        final long end = System.currentTimeMillis() + timeout;
+        while (!destroyed.contains(id)) {
+            if (System.currentTimeMillis() > end) {
+                Assert.fail("Session " + id + " was not expired within " + timeout + "ms");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static class TestInstance implements Identifiable {
+        private final SessionID id;
+
+        TestInstance() {
+            final ByteBuffer bb = ByteBuffer.allocate(8);
+            bb.putLong(ids.incrementAndGet());
+            this.id = SessionID.createSessionID(bb.array());
+        }
+
+        @Override
+        public SessionID getId() {
+            return id;
+        }
+    }
+}
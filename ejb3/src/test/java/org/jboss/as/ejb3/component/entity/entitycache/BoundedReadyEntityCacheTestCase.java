@@ -0,0 +1,307 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.component.entity.entitycache;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.jboss.as.ejb3.component.entity.EntityBeanComponent;
+import org.jboss.as.ejb3.component.entity.EntityBeanComponentInstance;
+import org.jboss.as.ejb3.pool.Pool;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests that {@link BoundedReadyEntityCache} never evicts an instance which has been handed out but not handed back yet,
+ * including when lookups and evictions happen concurrently, and that it does evict it once it has been handed back.
+ */
+public class BoundedReadyEntityCacheTestCase {
+
+    private EntityBeanComponent component;
+    private Pool<EntityBeanComponentInstance> pool;
+    private final Set<EntityBeanComponentInstance> passivated = Collections.newSetFromMap(new ConcurrentHashMap<EntityBeanComponentInstance, Boolean>());
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        component = mock(EntityBeanComponent.class);
+        pool = mock(Pool.class);
+        when(component.getPool()).thenReturn(pool);
+        when(pool.get()).thenAnswer(new Answer<EntityBeanComponentInstance>() {
+            @Override
+            public EntityBeanComponentInstance answer(final InvocationOnMock invocation) {
+                return createInstance();
+            }
+        });
+    }
+
+    @Test
+    public void testInstanceHandedOutByEmptyCacheIsNotEvicted() {
+        final BoundedReadyEntityCache cache = new BoundedReadyEntityCache(component, 0, BoundedReadyEntityCache.CommitOption.B);
+
+        final EntityBeanComponentInstance first = cache.get("1");
+        final EntityBeanComponentInstance second = cache.get("2");
+        assertNotSame(first, second);
+        verify(first, never()).passivate();
+        verify(second, never()).passivate();
+        assertEquals(2, cache.getCacheSize());
+
+        cache.reference(first);
+        cache.handBack(first);
+        verify(first, never()).passivate();
+        cache.release(first, true);
+        verify(first).passivate();
+        verify(pool).release(first);
+        verify(second, never()).passivate();
+        assertEquals(1, cache.getCacheSize());
+
+        cache.reference(second);
+        cache.handBack(second);
+        cache.release(second, true);
+        verify(second).passivate();
+        assertEquals(0, cache.getCacheSize());
+        assertEquals(2, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testAssociationEvictsIdleInstanceOnly() {
+        final BoundedReadyEntityCache cache = new BoundedReadyEntityCache(component, 1, BoundedReadyEntityCache.CommitOption.B);
+
+        final EntityBeanComponentInstance first = cache.get("1");
+        cache.reference(first);
+        cache.handBack(first);
+        cache.release(first, true);
+        verify(first, never()).passivate();
+        assertEquals(1, cache.getCacheSize());
+
+        // associating the second identity overflows the cache, only the idle first instance may be evicted
+        final EntityBeanComponentInstance second = cache.get("2");
+        verify(first).passivate();
+        verify(pool).release(first);
+        verify(second, never()).passivate();
+        assertEquals(1, cache.getCacheSize());
+
+        cache.reference(second);
+        cache.handBack(second);
+        cache.release(second, true);
+        verify(second, never()).passivate();
+        assertEquals(1, cache.getCacheSize());
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testInstancesInUseAreNotEvicted() {
+        final BoundedReadyEntityCache cache = new BoundedReadyEntityCache(component, 1, BoundedReadyEntityCache.CommitOption.B);
+
+        final EntityBeanComponentInstance first = cache.get("1");
+        cache.reference(first);
+        final EntityBeanComponentInstance second = cache.get("2");
+        cache.reference(second);
+        cache.handBack(first);
+        cache.handBack(second);
+        verify(first, never()).passivate();
+        verify(second, never()).passivate();
+        assertEquals(2, cache.getCacheSize());
+
+        cache.release(second, true);
+        verify(second).passivate();
+        verify(first, never()).passivate();
+        assertEquals(1, cache.getCacheSize());
+
+        cache.release(first, true);
+        verify(first, never()).passivate();
+        assertEquals(1, cache.getCacheSize());
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testCachedInstanceHandedOutAgainIsNotEvicted() {
+        final BoundedReadyEntityCache cache = new BoundedReadyEntityCache(component, 1, BoundedReadyEntityCache.CommitOption.B);
+
+        final EntityBeanComponentInstance first = cache.get("1");
+        cache.reference(first);
+        cache.handBack(first);
+        cache.release(first, true);
+
+        // a cache hit, not handed back yet when the association of the second identity overflows the cache
+        assertSame(first, cache.get("1"));
+        final EntityBeanComponentInstance second = cache.get("2");
+        verify(first, never()).passivate();
+        assertEquals(2, cache.getCacheSize());
+
+        cache.reference(first);
+        cache.handBack(first);
+        cache.release(first, true);
+        verify(first).passivate();
+        verify(second, never()).passivate();
+        assertEquals(1, cache.getCacheSize());
+    }
+
+    @Test
+    public void testUnreferencedInstanceIsEvictedOnceHandedBack() {
+        final BoundedReadyEntityCache cache = new BoundedReadyEntityCache(component, 0, BoundedReadyEntityCache.CommitOption.B);
+
+        // e.g. the caller found the instance removed, and never invoked it
+        final EntityBeanComponentInstance instance = cache.get("1");
+        verify(instance, never()).passivate();
+        assertEquals(1, cache.getCacheSize());
+
+        cache.handBack(instance);
+        verify(instance).passivate();
+        verify(pool).release(instance);
+        assertEquals(0, cache.getCacheSize());
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testInstanceHandedOutTwiceIsEvictedOnceHandedBackByBoth() {
+        final BoundedReadyEntityCache cache = new BoundedReadyEntityCache(component, 0, BoundedReadyEntityCache.CommitOption.B);
+
+        final EntityBeanComponentInstance instance = cache.get("1");
+        assertSame(instance, cache.get("1"));
+
+        cache.handBack(instance);
+        verify(instance, never()).passivate();
+        assertEquals(1, cache.getCacheSize());
+
+        cache.handBack(instance);
+        verify(instance).passivate();
+        assertEquals(0, cache.getCacheSize());
+    }
+
+    @Test
+    public void testCreatedInstanceIsEvictedOnceHandedBack() {
+        final BoundedReadyEntityCache cache = new BoundedReadyEntityCache(component, 0, BoundedReadyEntityCache.CommitOption.B);
+
+        final EntityBeanComponentInstance instance = createInstance();
+        instance.associate("1");
+        cache.create(instance);
+        verify(instance, never()).passivate();
+        assertEquals(1, cache.getCacheSize());
+
+        cache.handBack(instance);
+        verify(instance).passivate();
+        assertEquals(0, cache.getCacheSize());
+    }
+
+    @Test
+    public void testHandBackOfDiscardedInstanceIsIgnored() {
+        final BoundedReadyEntityCache cache = new BoundedReadyEntityCache(component, 0, BoundedReadyEntityCache.CommitOption.B);
+
+        final EntityBeanComponentInstance instance = cache.get("1");
+        cache.discard(instance);
+        cache.handBack(instance);
+        verify(instance, never()).passivate();
+        assertEquals(0, cache.getCacheSize());
+        assertEquals(0, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testConcurrentGetAndEviction() throws Exception {
+        final BoundedReadyEntityCache cache = new BoundedReadyEntityCache(component, 1, BoundedReadyEntityCache.CommitOption.B);
+        final int iterations = 10000;
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<?> user = executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    start.await();
+                    for (int i = 0; i < iterations; i++) {
+                        final EntityBeanComponentInstance instance = cache.get("hot");
+                        Thread.yield();
+                        cache.reference(instance);
+                        assertFalse("Instance was passivated after it was handed out", passivated.contains(instance));
+                        cache.release(instance, true);
+                        cache.handBack(instance);
+                    }
+                    return null;
+                }
+            });
+            final Future<?> evictor = executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    start.await();
+                    for (int i = 0; i < iterations; i++) {
+                        final EntityBeanComponentInstance instance = cache.get("cold" + i);
+                        cache.reference(instance);
+                        cache.release(instance, true);
+                        cache.handBack(instance);
+                    }
+                    return null;
+                }
+            });
+            start.countDown();
+            user.get(60, TimeUnit.SECONDS);
+            evictor.get(60, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private EntityBeanComponentInstance createInstance() {
+        final EntityBeanComponentInstance instance = mock(EntityBeanComponentInstance.class);
+        final AtomicReference<Object> primaryKey = new AtomicReference<Object>();
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(final InvocationOnMock invocation) {
+                primaryKey.set(invocation.getArguments()[0]);
+                return null;
+            }
+        }).when(instance).associate(any());
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(final InvocationOnMock invocation) {
+                passivated.add(instance);
+                return null;
+            }
+        }).when(instance).passivate();
+        when(instance.getPrimaryKey()).thenAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(final InvocationOnMock invocation) {
+                return primaryKey.get();
+            }
+        });
+        return instance;
+    }
+}
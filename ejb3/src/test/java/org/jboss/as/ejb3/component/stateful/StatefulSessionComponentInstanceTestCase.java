@@ -0,0 +1,195 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.component.stateful;
+
+import static org.mockito.Mockito.mock;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.Serializable;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.ejb.SessionContext;
+import javax.persistence.EntityManager;
+
+import org.jboss.as.naming.DetachableManagedReference;
+import org.jboss.as.naming.ManagedReference;
+import org.jboss.as.naming.ValueManagedReference;
+import org.jboss.invocation.Interceptor;
+import org.jboss.marshalling.InputStreamByteInput;
+import org.jboss.marshalling.Marshaller;
+import org.jboss.marshalling.MarshallingConfiguration;
+import org.jboss.marshalling.ObjectTable;
+import org.jboss.marshalling.OutputStreamByteOutput;
+import org.jboss.marshalling.Unmarshaller;
+import org.jboss.marshalling.river.RiverMarshallerFactory;
+import org.jboss.msc.value.ImmediateValue;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests detaching the bean instance of a {@link StatefulSessionComponentInstance} for passivation.
+ */
+public class StatefulSessionComponentInstanceTestCase {
+
+    @Test
+    public void testPassivatedInstanceCanBeCollected() throws Exception {
+        final StatefulSessionComponentInstance instance = createInstance(new ValueManagedReference(new ImmediateValue<Object>(new Object())));
+        final WeakReference<Object> bean = new WeakReference<Object>(instance.detachInstance());
+
+        final long end = System.currentTimeMillis() + 10000;
+        while (bean.get() != null) {
+            if (System.currentTimeMillis() > end) {
+                Assert.fail("The passivated bean instance was not garbage collected");
+            }
+            System.gc();
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void testActivatedInstanceReleasesOriginalReference() {
+        final AtomicInteger releases = new AtomicInteger();
+        final StatefulSessionComponentInstance instance = createInstance(new CountingReference(new Object(), releases));
+        final Object bean = instance.detachInstance();
+        instance.attachInstance(bean);
+        Assert.assertEquals(0, releases.get());
+
+        instance.discardPassivated();
+        Assert.assertEquals(1, releases.get());
+    }
+
+    @Test
+    public void testDiscardedPassivatedInstanceReleasesOriginalReference() {
+        final AtomicInteger releases = new AtomicInteger();
+        final StatefulSessionComponentInstance instance = createInstance(new CountingReference(new Object(), releases));
+        instance.detachInstance();
+
+        instance.discardPassivated();
+        Assert.assertEquals(1, releases.get());
+    }
+
+    @Test
+    public void testPassivatedSessionContextIsResolved() throws Exception {
+        final SessionContextBean bean = new SessionContextBean();
+        bean.context = mock(SessionContext.class);
+        bean.entityManager = mock(EntityManager.class);
+        bean.state = "state";
+        final StatefulSessionComponentInstance instance = createInstance(new ValueManagedReference(new ImmediateValue<Object>(bean)));
+
+        final byte[] passivated = marshal(instance.detachInstance(), instance.getObjectTable());
+        final SessionContextBean activated = (SessionContextBean) unmarshal(passivated, instance.getObjectTable());
+        instance.attachInstance(activated);
+
+        Assert.assertNotSame(bean, activated);
+        Assert.assertSame(bean.context, activated.context);
+        Assert.assertSame(bean.entityManager, activated.entityManager);
+        Assert.assertEquals("state", activated.state);
+        Assert.assertSame(activated, instance.getInstance());
+        // the references are only kept while the bean is passivated
+        Assert.assertEquals(0, ((StatefulSessionObjectTable) instance.getObjectTable()).size());
+    }
+
+    @Test(expected = NotSerializableException.class)
+    public void testSessionContextIsNotMarshalledWithoutObjectTable() throws Exception {
+        final SessionContextBean bean = new SessionContextBean();
+        bean.context = mock(SessionContext.class);
+        marshal(bean, null);
+    }
+
+    private static byte[] marshal(final Object object, final ObjectTable objectTable) throws IOException {
+        final MarshallingConfiguration configuration = new MarshallingConfiguration();
+        configuration.setObjectTable(objectTable);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final Marshaller marshaller = new RiverMarshallerFactory().createMarshaller(configuration);
+        marshaller.start(new OutputStreamByteOutput(out));
+        marshaller.writeObject(object);
+        marshaller.finish();
+        return out.toByteArray();
+    }
+
+    private static Object unmarshal(final byte[] bytes, final ObjectTable objectTable) throws IOException, ClassNotFoundException {
+        final MarshallingConfiguration configuration = new MarshallingConfiguration();
+        configuration.setObjectTable(objectTable);
+        final Unmarshaller unmarshaller = new RiverMarshallerFactory().createUnmarshaller(configuration);
+        unmarshaller.start(new InputStreamByteInput(new ByteArrayInputStream(bytes)));
+        final Object object = unmarshaller.readObject();
+        unmarshaller.finish();
+        return object;
+    }
+
+    private static StatefulSessionComponentInstance createInstance(final ManagedReference reference) {
+        final StatefulSessionComponent component = mock(StatefulSessionComponent.class);
+        return new StatefulSessionComponentInstance(component, new AtomicReference<ManagedReference>(reference), null,
+                Collections.<Method, Interceptor>emptyMap(), null, null, null);
+    }
+
+    private static class SessionContextBean implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private SessionContext context;
+        private EntityManager entityManager;
+        private String state;
+    }
+
+    private static class CountingReference implements DetachableManagedReference {
+        private final Object instance;
+        private final AtomicInteger releases;
+
+        CountingReference(final Object instance, final AtomicInteger releases) {
+            this.instance = instance;
+            this.releases = releases;
+        }
+
+        @Override
+        public ManagedReference detach() {
+            final AtomicInteger releases = this.releases;
+            return new ManagedReference() {
+                @Override
+                public void release() {
+                    releases.incrementAndGet();
+                }
+
+                @Override
+                public Object getInstance() {
+                    return null;
+                }
+            };
+        }
+
+        @Override
+        public void release() {
+            releases.incrementAndGet();
+        }
+
+        @Override
+        public Object getInstance() {
+            return instance;
+        }
+    }
+}
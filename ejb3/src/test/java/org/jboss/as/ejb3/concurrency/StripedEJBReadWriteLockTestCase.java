@@ -0,0 +1,237 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.concurrency;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+import javax.ejb.IllegalLoopbackException;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link StripedEJBReadWriteLock}.
+ */
+public class StripedEJBReadWriteLockTestCase {
+
+    private StripedEJBReadWriteLock lock;
+
+    @Before
+    public void beforeTest() {
+        this.lock = new StripedEJBReadWriteLock();
+    }
+
+    @Test
+    public void testIllegalLoopBack() throws Exception {
+        final Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            lock.writeLock().tryLock(1, TimeUnit.SECONDS);
+            Assert.fail("Unexpected acquired write lock");
+        } catch (IllegalLoopbackException expected) {
+            // expected
+        } finally {
+            readLock.unlock();
+        }
+        // once the read lock is released the write lock can be obtained
+        Assert.assertTrue(lock.writeLock().tryLock());
+        lock.writeLock().unlock();
+    }
+
+    @Test
+    public void testSameThreadCanGetWriteThenReadLock() throws Exception {
+        final Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            Assert.assertTrue("Could not obtain read lock when write lock was held by the same thread!", lock.readLock().tryLock(2, TimeUnit.SECONDS));
+            lock.readLock().unlock();
+            // the write lock is reentrant
+            Assert.assertTrue(writeLock.tryLock());
+            writeLock.unlock();
+        } finally {
+            writeLock.unlock();
+        }
+        Assert.assertTrue(runInOtherThread(tryLock(lock.readLock(), 0)));
+    }
+
+    @Test
+    public void testReadTimesOutWhileWriteLockHeld() throws Exception {
+        lock.writeLock().lock();
+        try {
+            Assert.assertFalse("Unexpected obtained a read lock", runInOtherThread(tryLock(lock.readLock(), 200)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Assert.assertTrue(runInOtherThread(tryLock(lock.readLock(), 200)));
+    }
+
+    @Test
+    public void testWriteTimesOutWhileReadLockHeld() throws Exception {
+        lock.readLock().lock();
+        try {
+            Assert.assertFalse("Unexpected obtained a write lock", runInOtherThread(tryLock(lock.writeLock(), 200)));
+            // the writer gave up, so new readers must not be blocked
+            Assert.assertTrue(runInOtherThread(tryLock(lock.readLock(), 0)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Test
+    public void testReentrantReadWhileWriterWaits() throws Exception {
+        final CountDownLatch writerWaiting = new CountDownLatch(1);
+        lock.readLock().lock();
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<Boolean> writer = executor.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws Exception {
+                    writerWaiting.countDown();
+                    final boolean acquired = lock.writeLock().tryLock(10, TimeUnit.SECONDS);
+                    if (acquired) {
+                        lock.writeLock().unlock();
+                    }
+                    return acquired;
+                }
+            });
+            writerWaiting.await();
+            Thread.sleep(100);
+            // a thread which already holds a read lock must not be blocked by the waiting writer
+            Assert.assertTrue(lock.readLock().tryLock(1, TimeUnit.SECONDS));
+            lock.readLock().unlock();
+            lock.readLock().unlock();
+            Assert.assertTrue(writer.get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testWritesAreExclusive() throws Exception {
+        final int threads = 8;
+        final int iterations = 20000;
+        final int[] counter = new int[2];
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final Future<?>[] futures = new Future<?>[threads];
+            for (int t = 0; t < threads; t++) {
+                futures[t] = executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        for (int i = 0; i < iterations; i++) {
+                            if (i % 10 == 0) {
+                                lock.writeLock().lock();
+                                try {
+                                    counter[0]++;
+                                    counter[1]++;
+                                } finally {
+                                    lock.writeLock().unlock();
+                                }
+                            } else {
+                                lock.readLock().lock();
+                                try {
+                                    Assert.assertEquals(counter[0], counter[1]);
+                                } finally {
+                                    lock.readLock().unlock();
+                                }
+                            }
+                        }
+                        return null;
+                    }
+                });
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        lock.readLock().lock();
+        try {
+            Assert.assertEquals(threads * iterations / 10, counter[0]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Test
+    public void testConcurrentReadersDoNotBlockEachOther() throws Exception {
+        final int threads = 8;
+        final CyclicBarrier allReading = new CyclicBarrier(threads);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final Future<?>[] futures = new Future<?>[threads];
+            for (int t = 0; t < threads; t++) {
+                futures[t] = executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        final Lock readLock = lock.readLock();
+                        Assert.assertTrue(readLock.tryLock(10, TimeUnit.SECONDS));
+                        try {
+                            // every reader holds the read lock at the same time
+                            allReading.await(10, TimeUnit.SECONDS);
+                            Assert.assertFalse("Unexpected obtained a write lock", runInOtherThread(tryLock(lock.writeLock(), 0)));
+                            allReading.await(10, TimeUnit.SECONDS);
+                        } finally {
+                            readLock.unlock();
+                        }
+                        return null;
+                    }
+                });
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        // all readers released their stripes
+        Assert.assertTrue(runInOtherThread(tryLock(lock.writeLock(), 0)));
+    }
+
+    private static Callable<Boolean> tryLock(final Lock lock, final long millis) {
+        return new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                return lock.tryLock(millis, TimeUnit.MILLISECONDS);
+            }
+        };
+    }
+
+    private static boolean runInOtherThread(final Callable<Boolean> task) throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            return executor.submit(task).get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.pool.strictmax;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.as.ejb3.pool.Pool;
+import org.jboss.as.ejb3.pool.common.MockBean;
+import org.jboss.as.ejb3.pool.common.MockFactory;
+import org.junit.Test;
+
+/**
+ * Tests that {@link StrictMaxPool} and {@link StripedStrictMaxPool} never hand out more than their maximum number of
+ * instances, nor the same instance to two threads at once, when more threads than that contend for them.
+ */
+public class StrictMaxPoolContentionTestCase {
+
+    private static final int MAX_SIZE = 4;
+    private static final int THREADS = 16;
+    private static final int INVOCATIONS_PER_THREAD = 1000;
+
+    @Test
+    public void testStrictMaxPool() throws Exception {
+        contend(new StrictMaxPool<MockBean>(new MockFactory(), MAX_SIZE, 1, TimeUnit.MINUTES));
+    }
+
+    @Test
+    public void testStripedStrictMaxPool() throws Exception {
+        contend(new StripedStrictMaxPool<MockBean>(new MockFactory(), MAX_SIZE, 1, TimeUnit.MINUTES));
+    }
+
+    private static void contend(final Pool<MockBean> pool) throws Exception {
+        pool.start();
+        final Set<MockBean> inUse = Collections.newSetFromMap(new ConcurrentHashMap<MockBean, Boolean>());
+        final AtomicInteger maxInUse = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final Future<?>[] futures = new Future<?>[THREADS];
+            for (int t = 0; t < THREADS; t++) {
+                futures[t] = executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        start.await();
+                        for (int i = 0; i < INVOCATIONS_PER_THREAD; i++) {
+                            final MockBean bean = pool.get();
+                            assertTrue("Instance handed out twice", inUse.add(bean));
+                            recordMax(maxInUse, inUse.size());
+                            inUse.remove(bean);
+                            pool.release(bean);
+                        }
+                        return null;
+                    }
+                });
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+            pool.stop();
+        }
+        assertTrue(maxInUse.get() + " instances in use", maxInUse.get() <= MAX_SIZE);
+    }
+
+    private static void recordMax(final AtomicInteger max, final int value) {
+        int current = max.get();
+        while (current < value && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+}
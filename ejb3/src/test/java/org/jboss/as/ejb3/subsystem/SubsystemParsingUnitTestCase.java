@@ -41,8 +41,17 @@ public class SubsystemParsingUnitTestCase extends AbstractSubsystemTest {
 
     @Test
     public void testParseAndMarshalModel() throws Exception {
+        parseAndMarshal("subsystem.xml");
+    }
+
+    @Test
+    public void testParseAndMarshalJournalDataStore() throws Exception {
+        parseAndMarshal("subsystem-journal.xml");
+    }
+
+    private void parseAndMarshal(final String resource) throws Exception {
         //Parse the subsystem xml and install into the first controller
-        String subsystemXml = readResource("subsystem.xml");
+        String subsystemXml = readResource(resource);
 
         AdditionalInitialization additionalInit = new AdditionalInitialization() {
 
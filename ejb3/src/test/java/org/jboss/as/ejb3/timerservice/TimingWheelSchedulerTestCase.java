@@ -0,0 +1,158 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.jboss.as.ejb3.timerservice.spi.TimeoutScheduler;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the scheduling and cancelling of timeouts on the {@link TimingWheelScheduler}
+ */
+public class TimingWheelSchedulerTestCase {
+
+    private TimingWheelScheduler scheduler;
+    private ExecutorService executor;
+
+    @Before
+    public void beforeTest() throws Exception {
+        this.scheduler = new TimingWheelScheduler(1);
+        this.scheduler.start(null);
+        this.executor = Executors.newFixedThreadPool(2);
+    }
+
+    @After
+    public void afterTest() {
+        this.scheduler.stop(null);
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    public void testSingleActionTimeout() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<Thread> thread = new AtomicReference<Thread>();
+        final long start = System.currentTimeMillis();
+        scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                thread.set(Thread.currentThread());
+                latch.countDown();
+            }
+        }, executor, 50, 0, null);
+
+        Assert.assertTrue(latch.await(2, TimeUnit.SECONDS));
+        Assert.assertTrue(System.currentTimeMillis() - start >= 50);
+        Assert.assertFalse("timeout ran on the wheel thread", "EJB timer service".equals(thread.get().getName()));
+    }
+
+    @Test
+    public void testTimeoutInOuterWheel() throws Exception {
+        // beyond a revolution of the innermost wheel, so it has to be cascaded before it fires
+        final CountDownLatch latch = new CountDownLatch(1);
+        final long start = System.currentTimeMillis();
+        scheduler.schedule(new CountDown(latch), executor, 600, 0, null);
+
+        Assert.assertTrue(latch.await(3, TimeUnit.SECONDS));
+        Assert.assertTrue(System.currentTimeMillis() - start >= 600);
+    }
+
+    @Test
+    public void testPeriodicTimeout() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(5);
+        final TimeoutScheduler.ScheduledTimeout timeout = scheduler.schedule(new CountDown(latch), executor, 0, 20, null);
+
+        Assert.assertTrue(latch.await(2, TimeUnit.SECONDS));
+        timeout.cancel();
+    }
+
+    @Test
+    public void testCancelledTimeoutDoesNotFire() throws Exception {
+        final AtomicInteger runs = new AtomicInteger();
+        final Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                runs.incrementAndGet();
+            }
+        };
+        scheduler.schedule(task, executor, 50, 0, null).cancel();
+        final TimeoutScheduler.ScheduledTimeout periodic = scheduler.schedule(task, executor, 400, 10, null);
+        Thread.sleep(100);
+        periodic.cancel();
+
+        Thread.sleep(500);
+        Assert.assertEquals(0, runs.get());
+    }
+
+    @Test
+    public void testLatenessIsRecorded() throws Exception {
+        final LatenessHistogram lateness = new LatenessHistogram();
+        final CountDownLatch latch = new CountDownLatch(3);
+        for (int i = 0; i < 3; i++) {
+            scheduler.schedule(new CountDown(latch), executor, 10 * i, 0, lateness);
+        }
+        Assert.assertTrue(latch.await(2, TimeUnit.SECONDS));
+
+        long total = 0;
+        for (int i = 0; i < lateness.getBucketCount(); i++) {
+            total += lateness.getCount(i);
+        }
+        Assert.assertEquals(3, total);
+    }
+
+    @Test
+    public void testHistogramBuckets() {
+        final LatenessHistogram lateness = new LatenessHistogram();
+        lateness.record(-5);
+        lateness.record(0);
+        lateness.record(1);
+        lateness.record(3);
+        lateness.record(Long.MAX_VALUE);
+
+        Assert.assertEquals(2, lateness.getCount(0));
+        Assert.assertEquals(1, lateness.getCount(1));
+        Assert.assertEquals(1, lateness.getCount(2));
+        Assert.assertEquals(1, lateness.getCount(lateness.getBucketCount() - 1));
+        Assert.assertEquals(2, lateness.getLowerBound(2));
+    }
+
+    private static class CountDown implements Runnable {
+        private final CountDownLatch latch;
+
+        CountDown(final CountDownLatch latch) {
+            this.latch = latch;
+        }
+
+        @Override
+        public void run() {
+            latch.countDown();
+        }
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.persistence.journal;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.transaction.Status;
+import javax.transaction.Transaction;
+import javax.transaction.TransactionManager;
+
+import org.jboss.as.ejb3.timerservice.TimerState;
+import org.jboss.as.ejb3.timerservice.persistence.TimerEntity;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the recovery and compaction of the {@link JournalTimerPersistence} journal
+ */
+public class JournalTimerPersistenceTestCase {
+
+    private static final String TIMED_OBJECT = "app.module.TimerBean";
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private JournalTimerPersistence persistence;
+
+    @Before
+    public void beforeTest() throws Exception {
+        persistence = start(16 * 1024 * 1024, 4);
+    }
+
+    @After
+    public void afterTest() {
+        if (persistence != null) {
+            persistence.stop(null);
+        }
+    }
+
+    @Test
+    public void testTimersAreRecovered() throws Exception {
+        persistence.persistTimer(new TestTimerEntity("a", TIMED_OBJECT, TimerState.ACTIVE));
+        persistence.persistTimer(new TestTimerEntity("b", TIMED_OBJECT, TimerState.ACTIVE));
+        persistence.persistTimer(new TestTimerEntity("c", "other", TimerState.ACTIVE));
+        // a later change supersedes the earlier record of the same timer
+        persistence.persistTimer(new TestTimerEntity("b", TIMED_OBJECT, TimerState.IN_TIMEOUT));
+        restart();
+
+        final Map<String, TimerEntity> timers = activeTimers(TIMED_OBJECT);
+        Assert.assertEquals(2, timers.size());
+        Assert.assertEquals(TimerState.ACTIVE, timers.get("a").getTimerState());
+        Assert.assertEquals(TimerState.IN_TIMEOUT, timers.get("b").getTimerState());
+        Assert.assertNotNull(persistence.loadTimer("c", "other"));
+    }
+
+    @Test
+    public void testRemovedTimerIsNotRecovered() throws Exception {
+        final TestTimerEntity a = new TestTimerEntity("a", TIMED_OBJECT, TimerState.ACTIVE);
+        persistence.persistTimer(a);
+        persistence.persistTimer(new TestTimerEntity("b", TIMED_OBJECT, TimerState.ACTIVE));
+        persistence.removeTimer(a);
+        Assert.assertNull(persistence.loadTimer("a", TIMED_OBJECT));
+        restart();
+
+        Assert.assertEquals(Arrays.asList("b"), Arrays.asList(activeTimers(TIMED_OBJECT).keySet().toArray()));
+    }
+
+    @Test
+    public void testCancelledTimerIsRecoveredAsCancelled() throws Exception {
+        persistence.persistTimer(new TestTimerEntity("a", TIMED_OBJECT, TimerState.ACTIVE));
+        persistence.persistTimer(new TestTimerEntity("a", TIMED_OBJECT, TimerState.CANCELED));
+        restart();
+
+        Assert.assertEquals(TimerState.CANCELED, persistence.loadTimer("a", TIMED_OBJECT).getTimerState());
+    }
+
+    @Test
+    public void testTornTailIsIgnored() throws Exception {
+        persistence.persistTimer(new TestTimerEntity("a", TIMED_OBJECT, TimerState.ACTIVE));
+        persistence.stop(null);
+        final File[] segments = segments();
+        final File last = segments[segments.length - 1];
+        // the length of a record that was only partly written when the server died
+        final FileOutputStream out = new FileOutputStream(last, true);
+        try {
+            out.write(new byte[] {0, 0, 1, 0, 0x12, 0x34});
+        } finally {
+            out.close();
+        }
+        persistence = start(16 * 1024 * 1024, 4);
+
+        Assert.assertEquals(1, activeTimers(TIMED_OBJECT).size());
+        // the journal carries on in a new segment
+        persistence.persistTimer(new TestTimerEntity("b", TIMED_OBJECT, TimerState.ACTIVE));
+        restart();
+        Assert.assertEquals(2, activeTimers(TIMED_OBJECT).size());
+    }
+
+    @Test
+    public void testRecordWithBadChecksumEndsSegment() throws Exception {
+        persistence.persistTimer(new TestTimerEntity("a", TIMED_OBJECT, TimerState.ACTIVE));
+        final File segment = segments()[0];
+        final long end = segment.length();
+        persistence.persistTimer(new TestTimerEntity("b", TIMED_OBJECT, TimerState.ACTIVE));
+        persistence.stop(null);
+        // flip a byte of the checksum of the second record
+        final RandomAccessFile file = new RandomAccessFile(segment, "rw");
+        try {
+            file.seek(end + 4);
+            final int b = file.read();
+            file.seek(end + 4);
+            file.write(b ^ 0xff);
+        } finally {
+            file.close();
+        }
+        persistence = start(16 * 1024 * 1024, 4);
+
+        final Map<String, TimerEntity> timers = activeTimers(TIMED_OBJECT);
+        Assert.assertEquals(1, timers.size());
+        Assert.assertTrue(timers.containsKey("a"));
+    }
+
+    @Test
+    public void testSealedSegmentsAreCompacted() throws Exception {
+        persistence.stop(null);
+        persistence = start(1024, 2);
+        for (int i = 0; i < 50; ++i) {
+            persistence.persistTimer(new TestTimerEntity("timer" + i, TIMED_OBJECT, TimerState.ACTIVE));
+        }
+        for (int i = 0; i < 40; ++i) {
+            persistence.removeTimer(new TestTimerEntity("timer" + i, TIMED_OBJECT, TimerState.ACTIVE));
+        }
+
+        // compaction runs in the background, leaving a snapshot and the current segment
+        final long timeout = System.currentTimeMillis() + 5000;
+        while (segments().length > 3) {
+            if (System.currentTimeMillis() > timeout) {
+                Assert.fail("Journal was not compacted, " + segments().length + " segments left");
+            }
+            Thread.sleep(10);
+        }
+        restart();
+
+        final Map<String, TimerEntity> timers = activeTimers(TIMED_OBJECT);
+        Assert.assertEquals(10, timers.size());
+        for (int i = 40; i < 50; ++i) {
+            Assert.assertTrue(timers.containsKey("timer" + i));
+        }
+    }
+
+    @Test
+    public void testWriteAfterStopFails() throws Exception {
+        persistence.stop(null);
+        try {
+            persistence.persistTimer(new TestTimerEntity("a", TIMED_OBJECT, TimerState.ACTIVE));
+            Assert.fail("Timer persisted after the journal was stopped");
+        } catch (IllegalStateException expected) {
+        } finally {
+            persistence = null;
+        }
+    }
+
+    private JournalTimerPersistence start(final long segmentSize, final int compactionThreshold) throws Exception {
+        final JournalTimerPersistence persistence = new JournalTimerPersistence(true, segmentSize, compactionThreshold);
+        persistence.getBaseDir().inject(folder.getRoot().getAbsolutePath());
+        persistence.getTransactionManager().inject(new NoTransactionManager());
+        persistence.start(null);
+        return persistence;
+    }
+
+    private void restart() throws Exception {
+        persistence.stop(null);
+        persistence = start(16 * 1024 * 1024, 4);
+    }
+
+    private Map<String, TimerEntity> activeTimers(final String timedObjectId) {
+        final List<TimerEntity> timers = persistence.loadActiveTimers(timedObjectId);
+        final Map<String, TimerEntity> map = new HashMap<String, TimerEntity>();
+        for (TimerEntity timer : timers) {
+            map.put(timer.getId(), timer);
+        }
+        return map;
+    }
+
+    private File[] segments() {
+        final File[] segments = new File(folder.getRoot(), "journal").listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(final File dir, final String name) {
+                return name.endsWith(".journal");
+            }
+        });
+        Arrays.sort(segments);
+        return segments;
+    }
+
+    private static class TestTimerEntity extends TimerEntity {
+        TestTimerEntity(final String id, final String timedObjectId, final TimerState state) {
+            this.id = id;
+            this.timedObjectId = timedObjectId;
+            this.timerState = state;
+            this.initialDate = new Date();
+            this.nextDate = initialDate;
+        }
+    }
+
+    /**
+     * Makes every timer change non-transactional, so that it is appended and forced straight away
+     */
+    private static class NoTransactionManager implements TransactionManager {
+        @Override
+        public int getStatus() {
+            return Status.STATUS_NO_TRANSACTION;
+        }
+
+        @Override
+        public void begin() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void commit() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Transaction getTransaction() {
+            return null;
+        }
+
+        @Override
+        public void resume(final Transaction tobj) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void rollback() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setRollbackOnly() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setTransactionTimeout(final int seconds) {
+        }
+
+        @Override
+        public Transaction suspend() {
+            return null;
+        }
+    }
+}
@@ -34,6 +34,7 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RUN
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUCCESS;
 
 import java.io.IOException;
+import java.net.InetAddress;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -72,6 +73,7 @@ import org.jboss.as.domain.controller.descriptions.DomainDescriptionProviders;
 import org.jboss.as.domain.controller.operations.coordination.PrepareStepHandler;
 import org.jboss.as.host.controller.RemoteDomainConnectionService.RemoteFileRepository;
 import org.jboss.as.host.controller.mgmt.MasterDomainControllerOperationHandlerService;
+import org.jboss.as.host.controller.mgmt.PeerFileTransferOperationHandlerService;
 import org.jboss.as.host.controller.mgmt.ServerToHostOperationHandlerFactoryService;
 import org.jboss.as.host.controller.operations.HttpManagementAddHandler;
 import org.jboss.as.host.controller.operations.LocalHostControllerInfoImpl;
@@ -108,6 +110,11 @@ public class DomainModelControllerService extends AbstractControllerService impl
 
     public static final ServiceName SERVICE_NAME = HostControllerBootstrap.SERVICE_NAME_BASE.append("model", "controller");
 
+    /** The number of slaves the master sends the same deployment content to at a time, the rest get it from those slaves */
+    private static final int MAX_CONTENT_TRANSFERS = Integer.parseInt(SecurityActions.getSystemProperty("jboss.domain.file-transfer.max-master-transfers", "2"));
+    /** How long, in seconds, a slave waits for another slave to receive deployment content before the master sends it anyway */
+    private static final long CONTENT_REFERRAL_TIMEOUT = Long.parseLong(SecurityActions.getSystemProperty("jboss.domain.file-transfer.referral-timeout", "60"));
+
     private HostControllerConfigurationPersister hostControllerConfigurationPersister;
     private final HostControllerEnvironment environment;
     private final LocalHostControllerInfoImpl hostControllerInfo;
@@ -290,7 +297,9 @@ public class DomainModelControllerService extends AbstractControllerService impl
                         hostControllerInfo.getRemoteDomainControllerHost(),
                         hostControllerInfo.getRemoteDomainControllertPort(),
                         hostControllerInfo.getRemoteDomainControllerSecurityRealm(),
-                        remoteFileRepository);
+                        remoteFileRepository,
+                        getNativeManagementAddress(),
+                        hostControllerInfo.getNativeManagementPort());
                 MasterDomainControllerClient masterDomainControllerClient = getFuture(clientFuture);
                 //Registers us with the master and gets down the master copy of the domain model to our DC
                 //TODO make sure that the RDCS checks env.isUseCachedDC, and if true falls through to that
@@ -302,6 +311,11 @@ public class DomainModelControllerService extends AbstractControllerService impl
                     System.exit(ExitCodes.HOST_CONTROLLER_ABORT_EXIT_CODE);
                 }
 
+                // Serve the deployment content we hold to the other slaves the master refers to us
+                ManagementRemotingServices.installManagementChannelServices(serviceTarget, ManagementRemotingServices.MANAGEMENT_ENDPOINT,
+                        new PeerFileTransferOperationHandlerService(this),
+                        DomainModelControllerService.SERVICE_NAME, ManagementRemotingServices.DOMAIN_CHANNEL, null, null);
+
             } else {
                 // TODO look at having LocalDomainControllerAdd do this, using Stage.IMMEDIATE for the steps
                 // parse the domain.xml and load the steps
@@ -309,7 +323,7 @@ public class DomainModelControllerService extends AbstractControllerService impl
                 super.boot(domainPersister.load());
 
                 ManagementRemotingServices.installManagementChannelServices(serviceTarget, ManagementRemotingServices.MANAGEMENT_ENDPOINT,
-                        new MasterDomainControllerOperationHandlerService(this, this),
+                        new MasterDomainControllerOperationHandlerService(this, this, MAX_CONTENT_TRANSFERS, CONTENT_REFERRAL_TIMEOUT),
                         DomainModelControllerService.SERVICE_NAME, ManagementRemotingServices.DOMAIN_CHANNEL, null, null);
                 serverInventory = getFuture(inventoryFuture);
             }
@@ -332,6 +346,20 @@ public class DomainModelControllerService extends AbstractControllerService impl
         }
     }
 
+    /**
+     * Get the address other hosts can reach our native management interface on, or {@code null} if it is not known,
+     * e.g. because the interface is bound to the wildcard address.
+     */
+    private InetAddress getNativeManagementAddress() {
+        try {
+            final InetAddress address = hostControllerInfo.getNetworkInterfaceBinding(hostControllerInfo.getNativeManagementInterface()).getAddress();
+            return address.isAnyLocalAddress() ? null : address;
+        } catch (Exception e) {
+            log.debugf(e, "Could not resolve the address of the native management interface");
+            return null;
+        }
+    }
+
     private <T> T getFuture(Future<T> future) {
         try {
             return future.get();
@@ -23,10 +23,12 @@
 package org.jboss.as.host.controller;
 
 import java.io.File;
+import java.io.FileFilter;
 import java.lang.annotation.Target;
 
 import org.jboss.as.controller.HashUtil;
 import org.jboss.as.domain.controller.FileRepository;
+import org.jboss.as.host.controller.mgmt.FileTransferUtil;
 import org.jboss.msc.service.Service;
 import org.jboss.msc.service.ServiceController;
 import org.jboss.msc.service.ServiceName;
@@ -43,6 +45,14 @@ import org.jboss.msc.service.StopContext;
  */
 public class LocalFileRepository implements FileRepository, Service<FileRepository> {
 
+    /** Excludes content still being transferred from the master */
+    private static final FileFilter COMPLETE_FILES = new FileFilter() {
+        @Override
+        public boolean accept(File file) {
+            return !file.getName().endsWith(FileTransferUtil.PARTIAL_FILE_SUFFIX);
+        }
+    };
+
     private final File repositoryRoot;
     private final File deploymentRoot;
     private final File configurationRoot;
@@ -68,7 +78,7 @@ public class LocalFileRepository implements FileRepository, Service<FileReposito
     /** {@inheritDoc} */
     @Override
     public File[] getDeploymentFiles(byte[] hash) {
-        return getDeploymentRoot(hash).listFiles();
+        return getDeploymentRoot(hash).listFiles(COMPLETE_FILES);
     }
 
     /** {@inheritDoc} */
@@ -28,12 +28,20 @@ import static org.jboss.as.process.protocol.ProtocolUtils.expectHeader;
 import java.io.BufferedOutputStream;
 import java.io.DataInput;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.InetAddress;
 import java.net.URI;
 import java.net.UnknownHostException;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -55,6 +63,7 @@ import org.jboss.as.domain.management.CallbackHandlerFactory;
 import org.jboss.as.domain.management.security.SecretIdentityService;
 import org.jboss.as.domain.management.security.SecurityRealmService;
 import org.jboss.as.host.controller.mgmt.DomainControllerProtocol;
+import org.jboss.as.host.controller.mgmt.FileTransferUtil;
 import org.jboss.as.process.protocol.Connection.ClosedCallback;
 import org.jboss.as.protocol.ProtocolChannelClient;
 import org.jboss.as.protocol.mgmt.AbstractManagementRequest;
@@ -93,11 +102,26 @@ import org.jboss.threads.AsyncFutureTask;
 public class RemoteDomainConnectionService implements MasterDomainControllerClient, Service<MasterDomainControllerClient>, ClosedCallback {
 
     private static final Logger log = Logger.getLogger("org.jboss.as.domain.controller");
+
+    /**
+     * Whether files are fetched with {@link DomainControllerProtocol#GET_FILE_CHUNKED_REQUEST}, which the master must
+     * support, rather than the original {@link DomainControllerProtocol#GET_FILE_REQUEST}. Compression, resuming and
+     * fetching content from other slaves all need this.
+     */
+    private static final boolean CHUNKED_FILE_TRANSFER = Boolean.parseBoolean(SecurityActions.getSystemProperty("jboss.domain.file-transfer.chunked", "false"));
+    /** Whether file content fetched from the master may be sent compressed */
+    private static final boolean COMPRESS_FILE_TRANSFER = Boolean.parseBoolean(SecurityActions.getSystemProperty("jboss.domain.file-transfer.compress", "true"));
+    /** Whether deployment content may be fetched from, and served to, other slaves the master refers us to */
+    private static final boolean PEER_FILE_TRANSFER = CHUNKED_FILE_TRANSFER
+            && Boolean.parseBoolean(SecurityActions.getSystemProperty("jboss.domain.file-transfer.peers", "true"));
     private final ModelController controller;
     private final InetAddress host;
     private final int port;
     private final String name;
     private final RemoteFileRepository remoteFileRepository;
+    /** The address other slaves can fetch deployment content from us on, {@code null} if not known */
+    private final InetAddress nativeManagementAddress;
+    private final int nativeManagementPort;
 
     private volatile ProtocolChannelClient<ManagementChannel> channelClient;
     /** Used to invoke ModelController ops on the master */
@@ -112,18 +136,23 @@ public class RemoteDomainConnectionService implements MasterDomainControllerClie
     private final InjectedValue<Endpoint> endpointInjector = new InjectedValue<Endpoint>();
     private final InjectedValue<CallbackHandlerFactory> callbackFactoryInjector = new InjectedValue<CallbackHandlerFactory>();
 
-    private RemoteDomainConnectionService(final ModelController controller, final String name, final InetAddress host, final int port, final RemoteFileRepository remoteFileRepository){
+    private RemoteDomainConnectionService(final ModelController controller, final String name, final InetAddress host, final int port,
+                                          final RemoteFileRepository remoteFileRepository, final InetAddress nativeManagementAddress,
+                                          final int nativeManagementPort){
         this.controller = controller;
         this.name = name;
         this.host = host;
         this.port = port;
         this.remoteFileRepository = remoteFileRepository;
+        this.nativeManagementAddress = nativeManagementAddress;
+        this.nativeManagementPort = nativeManagementPort;
         remoteFileRepository.setRemoteFileRepositoryExecutor(remoteFileRepositoryExecutor);
     }
 
     public static Future<MasterDomainControllerClient> install(final ServiceTarget serviceTarget, final ModelController controller,
                                                                   final String localHostName, final String remoteDcHost, final int remoteDcPort,
-                                                                  final String securityRealm, final RemoteFileRepository remoteFileRepository) {
+                                                                  final String securityRealm, final RemoteFileRepository remoteFileRepository,
+                                                                  final InetAddress nativeManagementAddress, final int nativeManagementPort) {
         RemoteDomainConnectionService service;
         try {
             service = new RemoteDomainConnectionService(
@@ -131,7 +160,9 @@ public class RemoteDomainConnectionService implements MasterDomainControllerClie
                     localHostName,
                     InetAddress.getByName(remoteDcHost),
                     remoteDcPort,
-                    remoteFileRepository);
+                    remoteFileRepository,
+                    nativeManagementAddress,
+                    nativeManagementPort);
         } catch (UnknownHostException e) {
             throw new RuntimeException(e);
         }
@@ -218,13 +249,7 @@ public class RemoteDomainConnectionService implements MasterDomainControllerClie
         }
 
         try {
-            CallbackHandler handler = null;
-            CallbackHandlerFactory handlerFactory = callbackFactoryInjector.getOptionalValue();
-            if (handlerFactory != null) {
-                handler = handlerFactory.getCallbackHandler(name);
-            }
-
-            client.connect(handler);
+            client.connect(getCallbackHandler());
             this.channelClient = client;
 
             ManagementChannel channel = client.openChannel(ManagementRemotingServices.DOMAIN_CHANNEL);
@@ -261,6 +286,11 @@ public class RemoteDomainConnectionService implements MasterDomainControllerClie
 
     }
 
+    private CallbackHandler getCallbackHandler() {
+        CallbackHandlerFactory handlerFactory = callbackFactoryInjector.getOptionalValue();
+        return handlerFactory != null ? handlerFactory.getCallbackHandler(name) : null;
+    }
+
     /** {@inheritDoc} */
     public synchronized void unregister() {
         if (!registered.get()) {
@@ -432,20 +462,66 @@ public class RemoteDomainConnectionService implements MasterDomainControllerClie
 
     }
 
+    private class ContentHeldRequest extends RegistryRequest<Void> {
+        private final String hash;
+
+        private ContentHeldRequest(final String hash) {
+            this.hash = hash;
+        }
+
+        @Override
+        public byte getOperationType() {
+            return DomainControllerProtocol.CONTENT_HELD_REQUEST;
+        }
+
+        @Override
+        protected void sendRequest(ActiveOperation.ResultHandler<Void> resultHandler, ManagementRequestContext<Void> context, FlushableDataOutput output) throws IOException {
+            output.write(DomainControllerProtocol.PARAM_HOST_ID);
+            output.writeUTF(name);
+            output.writeByte(DomainControllerProtocol.PARAM_FILE_PATH);
+            output.writeUTF(hash);
+        }
+
+        @Override
+        public void handleRequest(DataInput input, ActiveOperation.ResultHandler<Void> resultHandler, ManagementRequestContext<Void> context) throws IOException {
+            resultHandler.done(null);
+        }
+    }
+
     private class GetFileRequest extends RegistryRequest<File> {
         private final byte rootId;
         private final String filePath;
         private final FileRepository localFileRepository;
+        private final boolean acceptReferral;
+        private volatile boolean found;
+        private volatile boolean corrupt;
+        private volatile Referral referral;
 
-        private GetFileRequest(final byte rootId, final String filePath, final FileRepository localFileRepository) {
+        private GetFileRequest(final byte rootId, final String filePath, final FileRepository localFileRepository, final boolean acceptReferral) {
             this.rootId = rootId;
             this.filePath = filePath;
             this.localFileRepository = localFileRepository;
+            this.acceptReferral = acceptReferral;
+        }
+
+        /** Whether the file was found, {@code false} if it does not exist or we were referred to another host */
+        private boolean isFound() {
+            return found;
+        }
+
+        /** Whether the deployment content received did not match its hash, in which case it has been deleted */
+        private boolean isCorrupt() {
+            return corrupt;
+        }
+
+        /** The host we were referred to for the file, if any */
+        private Referral getReferral() {
+            return referral;
         }
 
         @Override
         public byte getOperationType() {
-            return DomainControllerProtocol.GET_FILE_REQUEST;
+            return CHUNKED_FILE_TRANSFER ? DomainControllerProtocol.GET_FILE_CHUNKED_REQUEST : DomainControllerProtocol.GET_FILE_REQUEST;
         }
 
         @Override
@@ -456,30 +532,36 @@ public class RemoteDomainConnectionService implements MasterDomainControllerClie
             output.writeByte(rootId);
             output.writeByte(DomainControllerProtocol.PARAM_FILE_PATH);
             output.writeUTF(filePath);
-            log.debugf("Requesting files for path %s", filePath);
+            if (!CHUNKED_FILE_TRANSFER) {
+                log.debugf("Requesting files for path %s", filePath);
+                return;
+            }
+            output.writeByte(DomainControllerProtocol.PARAM_COMPRESSED);
+            output.writeBoolean(COMPRESS_FILE_TRANSFER);
+            // Tell the master about any files left incomplete by an earlier transfer so it only sends what is missing.
+            // Only deployment content is addressed by its hash, other files may have changed on the master since.
+            final Map<String, Long> partialFiles = rootId == DomainControllerProtocol.PARAM_ROOT_ID_DEPLOYMENT
+                    ? getPartialFiles(getLocalPath()) : new HashMap<String, Long>();
+            output.writeByte(DomainControllerProtocol.PARAM_NUM_PARTIAL_FILES);
+            output.writeInt(partialFiles.size());
+            for (Map.Entry<String, Long> entry : partialFiles.entrySet()) {
+                output.writeByte(DomainControllerProtocol.PARAM_FILE_PATH);
+                output.writeUTF(entry.getKey());
+                output.writeByte(DomainControllerProtocol.PARAM_FILE_OFFSET);
+                output.writeLong(entry.getValue());
+            }
+            output.writeByte(DomainControllerProtocol.PARAM_PEER_ADDRESS);
+            output.writeUTF(PEER_FILE_TRANSFER && nativeManagementAddress != null ? nativeManagementAddress.getHostAddress() : "");
+            output.writeByte(DomainControllerProtocol.PARAM_PEER_PORT);
+            output.writeInt(nativeManagementPort);
+            output.writeByte(DomainControllerProtocol.PARAM_ACCEPT_REFERRAL);
+            output.writeBoolean(acceptReferral);
+            log.debugf("Requesting files for path %s, resuming %d partial files", filePath, partialFiles.size());
         }
 
         @Override
         public void handleRequest(DataInput input, ActiveOperation.ResultHandler<File> resultHandler, ManagementRequestContext<Void> context) throws IOException {
-            final File localPath;
-            switch (rootId) {
-                case DomainControllerProtocol.PARAM_ROOT_ID_FILE: {
-                    localPath = localFileRepository.getFile(filePath);
-                    break;
-                }
-                case DomainControllerProtocol.PARAM_ROOT_ID_CONFIGURATION: {
-                    localPath = localFileRepository.getConfigurationFile(filePath);
-                    break;
-                }
-                case DomainControllerProtocol.PARAM_ROOT_ID_DEPLOYMENT: {
-                    byte[] hash = HashUtil.hexStringToByteArray(filePath);
-                    localPath = localFileRepository.getDeploymentRoot(hash);
-                    break;
-                }
-                default: {
-                    localPath = null;
-                }
-            }
+            final File localPath = getLocalPath();
             expectHeader(input, DomainControllerProtocol.PARAM_NUM_FILES);
             int numFiles = input.readInt();
             log.debugf("Received %d files for %s", numFiles, localPath);
@@ -487,51 +569,200 @@ public class RemoteDomainConnectionService implements MasterDomainControllerClie
                 case -1: { // Not found on DC
                     break;
                 }
+                case -2: { // Held by another host the DC refers us to
+                    expectHeader(input, DomainControllerProtocol.PARAM_HOST_ID);
+                    final String hostId = input.readUTF();
+                    expectHeader(input, DomainControllerProtocol.PARAM_PEER_ADDRESS);
+                    final String peerAddress = input.readUTF();
+                    expectHeader(input, DomainControllerProtocol.PARAM_PEER_PORT);
+                    final int peerPort = input.readInt();
+                    referral = new Referral(hostId, peerAddress, peerPort);
+                    break;
+                }
                 case 0: { // Found on DC, but was an empty dir
                     if (!localPath.mkdirs()) {
                         throw new IOException("Unable to create local directory: " + localPath);
                     }
+                    found = true;
                     break;
                 }
                 default: { // Found on DC
+                    // Deployment content is checked against the hash it is addressed by
+                    final MessageDigest digest = rootId == DomainControllerProtocol.PARAM_ROOT_ID_DEPLOYMENT ? createDigest() : null;
                     for (int i = 0; i < numFiles; i++) {
                         expectHeader(input, DomainControllerProtocol.FILE_START);
                         expectHeader(input, DomainControllerProtocol.PARAM_FILE_PATH);
                         final String path = input.readUTF();
                         expectHeader(input, DomainControllerProtocol.PARAM_FILE_SIZE);
                         final long length = input.readLong();
-                        log.debugf("Received file [%s] of length %d", path, length);
-                        final File file = new File(localPath, path);
+                        long offset = 0;
+                        if (CHUNKED_FILE_TRANSFER) {
+                            expectHeader(input, DomainControllerProtocol.PARAM_FILE_OFFSET);
+                            offset = input.readLong();
+                        }
+                        log.debugf("Received file [%s] of length %d from offset %d", path, length, offset);
+                        final File file = getLocalFile(localPath, path);
                         if (!file.getParentFile().exists() && !file.getParentFile().mkdirs()) {
                             throw new IOException("Unable to create local directory " + localPath.getParent());
                         }
-                        long totalRead = 0;
+                        // Content is written to a partial file first, which is kept if the transfer fails so that
+                        // the next request can resume from it
+                        final File partialFile = getPartialFile(file);
+                        if (offset > 0 && partialFile.length() != offset) {
+                            // Discard the partial file so the next request fetches the whole file again
+                            if (partialFile.exists() && !partialFile.delete()) {
+                                log.debugf("Unable to delete partial file %s", partialFile);
+                            }
+                            throw new IOException("Cannot resume " + partialFile + " from offset " + offset);
+                        }
+                        if (offset > 0 && digest != null) {
+                            updateDigest(digest, partialFile);
+                        }
                         OutputStream fileOut = null;
                         try {
-                            fileOut = new BufferedOutputStream(new FileOutputStream(file));
-                            final byte[] buffer = new byte[8192];
-                            while (totalRead < length) {
-                                int len = Math.min((int) (length - totalRead), buffer.length);
-                                input.readFully(buffer, 0, len);
-                                fileOut.write(buffer, 0, len);
-                                totalRead += len;
+                            fileOut = new BufferedOutputStream(new FileOutputStream(partialFile, offset > 0));
+                            if (digest != null) {
+                                fileOut = new DigestOutputStream(fileOut, digest);
+                            }
+                            if (CHUNKED_FILE_TRANSFER) {
+                                FileTransferUtil.readChunks(input, length - offset, fileOut);
+                            } else {
+                                readFully(input, length, fileOut);
                             }
                         } finally {
                             if (fileOut != null) {
                                 fileOut.close();
                             }
                         }
-                        if (totalRead != length) {
-                            throw new IOException("Did not read the entire file. Missing: " + (length - totalRead));
+                        if (file.exists() && !file.delete()) {
+                            throw new IOException("Unable to replace local file " + file);
+                        }
+                        if (!partialFile.renameTo(file)) {
+                            throw new IOException("Unable to rename " + partialFile + " to " + file);
                         }
 
                         expectHeader(input, DomainControllerProtocol.FILE_END);
                     }
+                    if (digest != null && !Arrays.equals(digest.digest(), HashUtil.hexStringToByteArray(filePath))) {
+                        log.warnf("Deployment content received for %s does not match its hash, discarding it", filePath);
+                        delete(localPath);
+                        delete(getPartialFile(localPath));
+                        corrupt = true;
+                    } else {
+                        found = true;
+                    }
                 }
             }
             resultHandler.done(localPath);
         }
 
+        private File getLocalPath() {
+            switch (rootId) {
+                case DomainControllerProtocol.PARAM_ROOT_ID_FILE: {
+                    return localFileRepository.getFile(filePath);
+                }
+                case DomainControllerProtocol.PARAM_ROOT_ID_CONFIGURATION: {
+                    return localFileRepository.getConfigurationFile(filePath);
+                }
+                case DomainControllerProtocol.PARAM_ROOT_ID_DEPLOYMENT: {
+                    byte[] hash = HashUtil.hexStringToByteArray(filePath);
+                    return localFileRepository.getDeploymentRoot(hash);
+                }
+                default: {
+                    return null;
+                }
+            }
+        }
+
+        /**
+         * Resolve a path sent by the other host against the local path, rejecting anything that would end up outside it.
+         */
+        private File getLocalFile(final File localPath, final String path) throws IOException {
+            final File file = new File(localPath, path);
+            final String root = localPath.getCanonicalPath();
+            final String canonical = file.getCanonicalPath();
+            if (!canonical.equals(root) && !canonical.startsWith(root + File.separator)) {
+                throw new IOException("Invalid file path " + path + " outside of " + localPath);
+            }
+            return file;
+        }
+
+        private void readFully(final DataInput input, final long length, final OutputStream fileOut) throws IOException {
+            final byte[] buffer = new byte[8192];
+            long totalRead = 0;
+            while (totalRead < length) {
+                int len = Math.min((int) (length - totalRead), buffer.length);
+                input.readFully(buffer, 0, len);
+                fileOut.write(buffer, 0, len);
+                totalRead += len;
+            }
+        }
+
+        private MessageDigest createDigest() {
+            try {
+                return MessageDigest.getInstance("SHA-1");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private void updateDigest(final MessageDigest digest, final File file) throws IOException {
+            final InputStream in = new FileInputStream(file);
+            try {
+                final byte[] buffer = new byte[8192];
+                int len;
+                while ((len = in.read(buffer)) != -1) {
+                    digest.update(buffer, 0, len);
+                }
+            } finally {
+                in.close();
+            }
+        }
+
+        private void delete(final File file) {
+            final File[] children = file.listFiles();
+            if (children != null) {
+                for (File child : children) {
+                    delete(child);
+                }
+            }
+            if (file.exists() && !file.delete()) {
+                log.debugf("Unable to delete %s", file);
+            }
+        }
+
+        private Map<String, Long> getPartialFiles(final File localPath) {
+            final Map<String, Long> partialFiles = new HashMap<String, Long>();
+            if (localPath != null) {
+                final File partialFile = getPartialFile(localPath);
+                if (partialFile.isFile()) {
+                    partialFiles.put("", partialFile.length());
+                }
+                if (localPath.isDirectory()) {
+                    getPartialFiles(localPath, localPath, partialFiles);
+                }
+            }
+            return partialFiles;
+        }
+
+        private void getPartialFiles(final File base, final File dir, final Map<String, Long> partialFiles) {
+            final File[] children = dir.listFiles();
+            if (children == null) {
+                return;
+            }
+            for (File child : children) {
+                if (child.isDirectory()) {
+                    getPartialFiles(base, child, partialFiles);
+                } else if (child.getName().endsWith(FileTransferUtil.PARTIAL_FILE_SUFFIX)) {
+                    final String path = child.getAbsolutePath().substring(base.getAbsolutePath().length());
+                    partialFiles.put(path.substring(0, path.length() - FileTransferUtil.PARTIAL_FILE_SUFFIX.length()), child.length());
+                }
+            }
+        }
+
+        private File getPartialFile(final File file) {
+            return new File(file.getPath() + FileTransferUtil.PARTIAL_FILE_SUFFIX);
+        }
     }
 
     static class RemoteFileRepository implements FileRepository {
@@ -580,13 +811,87 @@ public class RemoteDomainConnectionService implements MasterDomainControllerClie
     private RemoteFileRepositoryExecutor remoteFileRepositoryExecutor = new RemoteFileRepositoryExecutor() {
         public File getFile(final String relativePath, final byte repoId, FileRepository localFileRepository) {
             try {
-                return new GetFileRequest(repoId, relativePath, localFileRepository).executeForResult(handler, channel, null);
+                // Deployment content is addressed by its hash, so the master may refer us to another slave holding it
+                final boolean acceptReferral = PEER_FILE_TRANSFER && repoId == DomainControllerProtocol.PARAM_ROOT_ID_DEPLOYMENT;
+                final GetFileRequest request = new GetFileRequest(repoId, relativePath, localFileRepository, acceptReferral);
+                final File file = request.executeForResult(handler, channel, null);
+                final Referral referral = request.getReferral();
+                if (referral == null) {
+                    return file;
+                }
+                final File peerFile = getFileFromPeer(referral, relativePath, repoId, localFileRepository);
+                if (peerFile != null) {
+                    new ContentHeldRequest(relativePath).executeForResult(handler, channel, null);
+                    return peerFile;
+                }
+                // Anything already received from the other host is kept, and resumed from the master
+                final GetFileRequest masterRequest = new GetFileRequest(repoId, relativePath, localFileRepository, false);
+                final File masterFile = masterRequest.executeForResult(handler, channel, null);
+                if (!masterRequest.isCorrupt()) {
+                    return masterFile;
+                }
+                // What the other host sent was bad, and has been discarded, so get all of it from the master
+                return new GetFileRequest(repoId, relativePath, localFileRepository, false).executeForResult(handler, channel, null);
             } catch (Exception e) {
                 throw new RuntimeException("Failed to get file from remote repository", e);
             }
         }
     };
 
+    /**
+     * Fetch deployment content from the native management interface of another slave. The content is only used if it
+     * matches the hash it was requested by.
+     *
+     * @return the local file, or {@code null} if the content could not be fetched from the other slave
+     */
+    private File getFileFromPeer(final Referral referral, final String relativePath, final byte repoId, final FileRepository localFileRepository) {
+        final AbstractMessageHandler<File, Void> peerHandler = new AbstractMessageHandler<File, Void>(executor) {
+        };
+        ProtocolChannelClient<ManagementChannel> client = null;
+        try {
+            final ProtocolChannelClient.Configuration<ManagementChannel> configuration = new ProtocolChannelClient.Configuration<ManagementChannel>();
+            configuration.setEndpointName("endpoint");
+            configuration.setUriScheme("remote");
+            configuration.setUri(new URI("remote://" + referral.address + ":" + referral.port));
+            configuration.setChannelFactory(new ManagementChannelFactory(ManagementChannelReceiver.createDelegating(peerHandler)));
+            client = ProtocolChannelClient.create(configuration);
+            client.connect(getCallbackHandler());
+            final ManagementChannel peerChannel = client.openChannel(ManagementRemotingServices.DOMAIN_CHANNEL);
+            peerChannel.startReceiving();
+
+            final GetFileRequest request = new GetFileRequest(repoId, relativePath, localFileRepository, false);
+            final File file = request.executeForResult(peerHandler, peerChannel, null);
+            if (request.isFound()) {
+                log.debugf("Received %s from host %s", relativePath, referral.hostId);
+                return file;
+            } else if (request.isCorrupt()) {
+                log.debugf("Host %s sent bad content for %s, getting it from the master", referral.hostId, relativePath);
+            } else {
+                log.debugf("Host %s does not hold %s, getting it from the master", referral.hostId, relativePath);
+            }
+        } catch (Exception e) {
+            log.debugf(e, "Could not get %s from host %s, getting it from the master", relativePath, referral.hostId);
+        } finally {
+            peerHandler.shutdown();
+            if (client != null) {
+                client.close();
+            }
+        }
+        return null;
+    }
+
+    private static class Referral {
+        private final String hostId;
+        private final String address;
+        private final int port;
+
+        private Referral(final String hostId, final String address, final int port) {
+            this.hostId = hostId;
+            this.address = address;
+            this.port = port;
+        }
+    }
+
     private class FutureClient extends AsyncFutureTask<MasterDomainControllerClient>{
 
         protected FutureClient() {
@@ -0,0 +1,201 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.host.controller.mgmt;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps track, on the master domain controller, of which slave host controllers hold a copy of which deployment
+ * content, so that a slave asking for content can be referred to one of them instead of fetching it from the master.
+ * <p>
+ * Only a limited number of transfers of the same content are served by the master at a time. Further requests wait
+ * for one of those transfers to complete, and are then referred to the slave that received it. This way rolling a
+ * deployment out to many hosts at once costs the master a few copies of the content, and the rest is spread over the
+ * slaves that already hold it.
+ */
+final class DeploymentContentHolders {
+
+    private final int maxTransfers;
+    private final long waitTimeout;
+    private final Map<String, Peer> peers = new HashMap<String, Peer>();
+    private final Map<String, Content> contents = new HashMap<String, Content>();
+
+    /**
+     * Create a new instance.
+     *
+     * @param maxTransfers the maximum number of transfers of the same content served by the master at a time
+     * @param waitTimeout how long a request waits for another host to receive the content before the master serves it anyway
+     * @param unit the unit of {@code waitTimeout}
+     */
+    DeploymentContentHolders(final int maxTransfers, final long waitTimeout, final TimeUnit unit) {
+        if (maxTransfers < 1) {
+            throw new IllegalArgumentException("maxTransfers must be at least 1");
+        }
+        this.maxTransfers = maxTransfers;
+        this.waitTimeout = unit.toMillis(waitTimeout);
+    }
+
+    /**
+     * Record the address of the native management interface of a host, on which it serves deployment content to
+     * other hosts.
+     *
+     * @param hostId the host
+     * @param address the address, or {@code null} or empty if the host does not serve content
+     * @param port the port
+     */
+    synchronized void setPeerAddress(final String hostId, final String address, final int port) {
+        if (address == null || address.length() == 0 || port < 0) {
+            peers.remove(hostId);
+        } else {
+            peers.put(hostId, new Peer(hostId, address, port));
+        }
+    }
+
+    /**
+     * Find where a host should get the given content from. Returns a host holding the content, or {@code null} if the
+     * master should send it, in which case {@link #transferred(String, String, boolean)} must be called once the
+     * transfer is done.
+     *
+     * @param hash the hex encoded hash of the content
+     * @param hostId the host asking for the content
+     * @return the host to fetch the content from, or {@code null} to fetch it from the master
+     * @throws InterruptedException if interrupted while waiting for another host to receive the content
+     */
+    synchronized Peer acquire(final String hash, final String hostId) throws InterruptedException {
+        final Content content = getContent(hash);
+        final long deadline = System.currentTimeMillis() + waitTimeout;
+        for (;;) {
+            final Peer peer = content.nextHolder(hostId);
+            if (peer != null) {
+                return peer;
+            }
+            final long remaining = deadline - System.currentTimeMillis();
+            if (content.transfers < maxTransfers || remaining <= 0) {
+                content.transfers++;
+                return null;
+            }
+            wait(remaining);
+        }
+    }
+
+    /**
+     * Record the end of a transfer from the master started by {@link #acquire(String, String)}.
+     *
+     * @param hash the hex encoded hash of the content
+     * @param hostId the host that received the content
+     * @param completed {@code true} if all content was sent
+     */
+    synchronized void transferred(final String hash, final String hostId, final boolean completed) {
+        final Content content = getContent(hash);
+        content.transfers--;
+        if (completed) {
+            content.addHolder(hostId);
+        }
+        notifyAll();
+    }
+
+    /**
+     * Record that a host received the given content from another host.
+     *
+     * @param hash the hex encoded hash of the content
+     * @param hostId the host holding the content
+     */
+    synchronized void held(final String hash, final String hostId) {
+        getContent(hash).addHolder(hostId);
+        notifyAll();
+    }
+
+    /**
+     * Forget about a host, e.g. because it unregistered.
+     *
+     * @param hostId the host
+     */
+    synchronized void removeHost(final String hostId) {
+        peers.remove(hostId);
+        for (Content content : contents.values()) {
+            content.holders.remove(hostId);
+        }
+    }
+
+    private Content getContent(final String hash) {
+        Content content = contents.get(hash);
+        if (content == null) {
+            content = new Content();
+            contents.put(hash, content);
+        }
+        return content;
+    }
+
+    private class Content {
+        private final List<String> holders = new ArrayList<String>();
+        private int transfers;
+        private int next;
+
+        private void addHolder(final String hostId) {
+            if (!holders.contains(hostId)) {
+                holders.add(hostId);
+            }
+        }
+
+        /** Pick the holders in turn, so that the requests are spread over all of them */
+        private Peer nextHolder(final String hostId) {
+            for (int i = 0; i < holders.size(); i++) {
+                next = next % holders.size();
+                final String holder = holders.get(next++);
+                final Peer peer = peers.get(holder);
+                if (peer != null && !holder.equals(hostId)) {
+                    return peer;
+                }
+            }
+            return null;
+        }
+    }
+
+    static final class Peer {
+        private final String hostId;
+        private final String address;
+        private final int port;
+
+        Peer(final String hostId, final String address, final int port) {
+            this.hostId = hostId;
+            this.address = address;
+            this.port = port;
+        }
+
+        String getHostId() {
+            return hostId;
+        }
+
+        String getAddress() {
+            return address;
+        }
+
+        int getPort() {
+            return port;
+        }
+    }
+}
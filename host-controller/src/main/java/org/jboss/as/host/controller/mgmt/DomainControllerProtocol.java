@@ -34,6 +34,9 @@ public interface DomainControllerProtocol extends ModelControllerProtocol {
     byte UNREGISTER_HOST_CONTROLLER_REQUEST = 0x53;
     byte GET_FILE_REQUEST = 0x55;
     byte IS_ACTIVE_REQUEST = 0x57;
+    byte CONTENT_HELD_REQUEST = 0x59;
+    /** Like {@link #GET_FILE_REQUEST}, but supports compressed chunks, resuming and referral to other hosts */
+    byte GET_FILE_CHUNKED_REQUEST = 0x5B;
 
     byte PARAM_HOST_ID = 0x20;
     byte PARAM_OK = 0x21;
@@ -44,7 +47,15 @@ public interface DomainControllerProtocol extends ModelControllerProtocol {
     byte PARAM_ROOT_ID_CONFIGURATION = 0x27;
     byte PARAM_ROOT_ID_DEPLOYMENT = 0x28;
     byte PARAM_NUM_FILES = 0x29;
+    byte PARAM_COMPRESSED = 0x2A;
+    byte PARAM_NUM_PARTIAL_FILES = 0x2B;
+    byte PARAM_PEER_ADDRESS = 0x2C;
+    byte PARAM_PEER_PORT = 0x2D;
+    byte PARAM_ACCEPT_REFERRAL = 0x2E;
     byte FILE_START = 0x30;
     byte PARAM_FILE_SIZE = 0x31;
     byte FILE_END = 0x32;
+    byte PARAM_FILE_OFFSET = 0x33;
+    byte FILE_CHUNK_RAW = 0x34;
+    byte FILE_CHUNK_DEFLATED = 0x35;
 }
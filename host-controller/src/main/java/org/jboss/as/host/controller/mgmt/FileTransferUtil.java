@@ -0,0 +1,176 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.host.controller.mgmt;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Chunked encoding of file content sent from the master domain controller to a slave host controller.
+ * <p>
+ * Each chunk is written as a {@link DomainControllerProtocol#FILE_CHUNK_RAW} or
+ * {@link DomainControllerProtocol#FILE_CHUNK_DEFLATED} header followed by the uncompressed length and, for deflated
+ * chunks, the compressed length and data. A chunk is only sent deflated if that actually makes it smaller, so content
+ * that is already compressed (such as most deployment archives) costs little more than a plain copy.
+ */
+public final class FileTransferUtil {
+
+    /** Suffix of a file whose transfer has not completed yet */
+    public static final String PARTIAL_FILE_SUFFIX = ".part";
+
+    static final int CHUNK_SIZE = 64 * 1024;
+
+    private FileTransferUtil() {
+    }
+
+    /**
+     * Write {@code length} bytes from the given stream as a sequence of chunks.
+     *
+     * @param input the stream to read from, positioned at the first byte to send
+     * @param length the number of bytes to send
+     * @param output the output to write the chunks to
+     * @param compress {@code true} if chunks may be deflated
+     * @return the number of bytes of chunk data written, not counting the chunk headers
+     * @throws IOException if reading or writing fails, or the stream ends early
+     */
+    public static long writeChunks(final InputStream input, final long length, final DataOutput output, final boolean compress) throws IOException {
+        final byte[] buffer = new byte[CHUNK_SIZE];
+        final byte[] deflated = compress ? new byte[CHUNK_SIZE] : null;
+        final Deflater deflater = compress ? new Deflater(Deflater.BEST_SPEED) : null;
+        long written = 0;
+        try {
+            long remaining = length;
+            while (remaining > 0) {
+                final int len = readChunk(input, buffer, (int) Math.min(remaining, buffer.length));
+                int deflatedLen = -1;
+                if (deflater != null) {
+                    deflater.reset();
+                    deflater.setInput(buffer, 0, len);
+                    deflater.finish();
+                    final int n = deflater.deflate(deflated, 0, deflated.length);
+                    if (deflater.finished() && n < len) {
+                        deflatedLen = n;
+                    }
+                }
+                if (deflatedLen != -1) {
+                    output.writeByte(DomainControllerProtocol.FILE_CHUNK_DEFLATED);
+                    output.writeInt(len);
+                    output.writeInt(deflatedLen);
+                    output.write(deflated, 0, deflatedLen);
+                    written += deflatedLen;
+                } else {
+                    output.writeByte(DomainControllerProtocol.FILE_CHUNK_RAW);
+                    output.writeInt(len);
+                    output.write(buffer, 0, len);
+                    written += len;
+                }
+                remaining -= len;
+            }
+        } finally {
+            if (deflater != null) {
+                deflater.end();
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Read chunks written by {@link #writeChunks(InputStream, long, DataOutput, boolean)} until {@code length}
+     * uncompressed bytes have been copied to the given stream.
+     *
+     * @param input the input to read the chunks from
+     * @param length the number of uncompressed bytes to read
+     * @param output the stream to write the uncompressed content to
+     * @throws IOException if reading or writing fails, or the chunk data is corrupt
+     */
+    public static void readChunks(final DataInput input, final long length, final OutputStream output) throws IOException {
+        final byte[] buffer = new byte[CHUNK_SIZE];
+        final byte[] deflated = new byte[CHUNK_SIZE];
+        Inflater inflater = null;
+        try {
+            long remaining = length;
+            while (remaining > 0) {
+                final byte type = input.readByte();
+                final int len = input.readInt();
+                if (len <= 0 || len > buffer.length || len > remaining) {
+                    throw new IOException("Invalid chunk length " + len);
+                }
+                if (type == DomainControllerProtocol.FILE_CHUNK_RAW) {
+                    input.readFully(buffer, 0, len);
+                } else if (type == DomainControllerProtocol.FILE_CHUNK_DEFLATED) {
+                    final int deflatedLen = input.readInt();
+                    if (deflatedLen <= 0 || deflatedLen > deflated.length) {
+                        throw new IOException("Invalid compressed chunk length " + deflatedLen);
+                    }
+                    input.readFully(deflated, 0, deflatedLen);
+                    if (inflater == null) {
+                        inflater = new Inflater();
+                    } else {
+                        inflater.reset();
+                    }
+                    inflater.setInput(deflated, 0, deflatedLen);
+                    try {
+                        int n = 0;
+                        while (n < len && !inflater.finished()) {
+                            final int r = inflater.inflate(buffer, n, len - n);
+                            if (r == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                                break;
+                            }
+                            n += r;
+                        }
+                        if (n != len) {
+                            throw new IOException("Compressed chunk expanded to " + n + " bytes, expected " + len);
+                        }
+                    } catch (DataFormatException e) {
+                        throw new IOException("Corrupt compressed chunk", e);
+                    }
+                } else {
+                    throw new IOException("Invalid chunk type " + type);
+                }
+                output.write(buffer, 0, len);
+                remaining -= len;
+            }
+        } finally {
+            if (inflater != null) {
+                inflater.end();
+            }
+        }
+    }
+
+    private static int readChunk(final InputStream input, final byte[] buffer, final int len) throws IOException {
+        int read = 0;
+        while (read < len) {
+            final int r = input.read(buffer, read, len - read);
+            if (r == -1) {
+                throw new IOException("Unexpected end of file, missing " + (len - read) + " bytes");
+            }
+            read += r;
+        }
+        return read;
+    }
+}
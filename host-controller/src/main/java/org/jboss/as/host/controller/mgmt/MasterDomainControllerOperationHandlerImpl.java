@@ -30,7 +30,9 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 
 import org.jboss.as.controller.HashUtil;
@@ -59,6 +61,7 @@ import org.jboss.as.protocol.mgmt.ManagementResponseHeader;
 import org.jboss.as.protocol.mgmt.ProtocolUtils;
 import org.jboss.as.protocol.mgmt.RequestProcessingException;
 import org.jboss.dmr.ModelNode;
+import org.jboss.logging.Logger;
 import org.jboss.remoting3.Channel;
 import org.jboss.remoting3.CloseHandler;
 import org.jboss.remoting3.MessageOutputStream;
@@ -71,10 +74,13 @@ import org.jboss.remoting3.MessageOutputStream;
  */
 public class MasterDomainControllerOperationHandlerImpl extends ManagementChannelReceiver {
 
+    private static final Logger log = Logger.getLogger("org.jboss.as.host.controller.mgmt");
+
     private final LocalOperationHandler clientHandler;
     private final ModelController controller;
     private final DomainController domainController;
     private final UnregisteredHostChannelRegistry registry;
+    private final DeploymentContentHolders contentHolders;
 
     private volatile ManagementMessageHandler proxyHandler;
 
@@ -82,10 +88,11 @@ public class MasterDomainControllerOperationHandlerImpl extends ManagementChanne
 
     public MasterDomainControllerOperationHandlerImpl(final ExecutorService executorService, final ModelController controller,
                                                       final UnregisteredHostChannelRegistry registry, final DomainController domainController,
-                                                      final ManagementChannel channel) {
+                                                      final ManagementChannel channel, final DeploymentContentHolders contentHolders) {
         this.domainController = domainController;
         this.controller = controller;
         this.registry = registry;
+        this.contentHolders = contentHolders;
         this.clientHandler = new LocalOperationHandler(controller, executorService);
         this.mgmtChannel = channel;
     }
@@ -109,7 +116,13 @@ public class MasterDomainControllerOperationHandlerImpl extends ManagementChanne
                     handler = new UnregisterOperation();
                     break;
                 case DomainControllerProtocol.GET_FILE_REQUEST:
-                    handler =  new GetFileOperation();
+                    handler =  new GetFileOperation(domainController, contentHolders, false);
+                    break;
+                case DomainControllerProtocol.GET_FILE_CHUNKED_REQUEST:
+                    handler =  new GetFileOperation(domainController, contentHolders, true);
+                    break;
+                case DomainControllerProtocol.CONTENT_HELD_REQUEST:
+                    handler = new ContentHeldOperation();
                     break;
             }
             if(handler != null) {
@@ -141,6 +154,7 @@ public class MasterDomainControllerOperationHandlerImpl extends ManagementChanne
                                     @Override
                                     public void handleClose(Channel closed, IOException exception) {
                                         handler.shutdown();
+                                        contentHolders.removeHost(hostId);
                                     }
                                 });
                             }
@@ -182,6 +196,7 @@ public class MasterDomainControllerOperationHandlerImpl extends ManagementChanne
         @Override
         void handleRequest(String hostId, DataInput input, ManagementRequestContext<Void> context) throws IOException {
             domainController.unregisterRemoteHost(hostId);
+            contentHolders.removeHost(hostId);
             final FlushableDataOutput os = writeGenericResponseHeader(context);
             try {
                 os.write(ManagementProtocol.RESPONSE_END);
@@ -193,24 +208,98 @@ public class MasterDomainControllerOperationHandlerImpl extends ManagementChanne
 
     }
 
-    private class GetFileOperation extends AbstractHostRequestHandler {
+    /**
+     * Sends a file to the requesting host. On the master deployment content is tracked in {@code contentHolders}, and
+     * the host may be referred to another host holding the content instead. On a slave serving content to another
+     * slave {@code contentHolders} is {@code null}, and only complete deployment content is sent.
+     * <p>
+     * Only a {@link DomainControllerProtocol#GET_FILE_CHUNKED_REQUEST} may ask for compression, resuming or referral;
+     * a {@link DomainControllerProtocol#GET_FILE_REQUEST} gets the files in the original layout.
+     */
+    static class GetFileOperation extends AbstractHostRequestHandler {
+
+        private final DomainController domainController;
+        private final DeploymentContentHolders contentHolders;
+        private final boolean chunked;
+
+        GetFileOperation(final DomainController domainController, final DeploymentContentHolders contentHolders, final boolean chunked) {
+            this.domainController = domainController;
+            this.contentHolders = contentHolders;
+            this.chunked = chunked;
+        }
 
         @Override
-        void handleRequest(String hostId, DataInput input, ManagementRequestContext<Void> context) throws IOException {
+        void handleRequest(final String hostId, DataInput input, ManagementRequestContext<Void> context) throws IOException {
             expectHeader(input, DomainControllerProtocol.PARAM_ROOT_ID);
             final byte rootId = input.readByte();
             expectHeader(input, DomainControllerProtocol.PARAM_FILE_PATH);
             final String filePath = input.readUTF();
+            final Map<String, Long> partialFiles = new HashMap<String, Long>();
+            boolean compress = false;
+            String peerAddress = null;
+            int peerPort = -1;
+            boolean acceptReferral = false;
+            if (chunked) {
+                expectHeader(input, DomainControllerProtocol.PARAM_COMPRESSED);
+                compress = input.readBoolean();
+                expectHeader(input, DomainControllerProtocol.PARAM_NUM_PARTIAL_FILES);
+                final int numPartial = input.readInt();
+                for (int i = 0; i < numPartial; i++) {
+                    expectHeader(input, DomainControllerProtocol.PARAM_FILE_PATH);
+                    final String path = input.readUTF();
+                    expectHeader(input, DomainControllerProtocol.PARAM_FILE_OFFSET);
+                    final long offset = input.readLong();
+                    // Only deployment content is addressed by its hash and so cannot have changed since the partial
+                    // file was written; anything else is sent again in full
+                    if (rootId == DomainControllerProtocol.PARAM_ROOT_ID_DEPLOYMENT) {
+                        partialFiles.put(path, offset);
+                    }
+                }
+                expectHeader(input, DomainControllerProtocol.PARAM_PEER_ADDRESS);
+                peerAddress = input.readUTF();
+                expectHeader(input, DomainControllerProtocol.PARAM_PEER_PORT);
+                peerPort = input.readInt();
+                expectHeader(input, DomainControllerProtocol.PARAM_ACCEPT_REFERRAL);
+                acceptReferral = input.readBoolean();
+            }
+            final boolean compressed = compress;
+            final String address = peerAddress;
+            final int port = peerPort;
+            final boolean referralAccepted = acceptReferral;
             context.executeAsync(new ManagementRequestContext.AsyncTask<Void>() {
                 @Override
                 public void execute(ManagementRequestContext<Void> context) throws Exception {
                     final File localPath = processRequest(rootId, filePath);
+                    // Hosts using the original request can neither be referred nor serve content to others
+                    final boolean tracked = chunked && contentHolders != null && rootId == DomainControllerProtocol.PARAM_ROOT_ID_DEPLOYMENT
+                            && localPath != null && localPath.exists();
+                    DeploymentContentHolders.Peer peer = null;
+                    if (tracked) {
+                        contentHolders.setPeerAddress(hostId, address, port);
+                        if (referralAccepted) {
+                            peer = contentHolders.acquire(filePath, hostId);
+                        }
+                    }
+                    boolean completed = false;
                     final FlushableDataOutput output = writeGenericResponseHeader(context);
                     try {
-                        writeResponse(localPath, output);
+                        if (peer != null) {
+                            writeReferral(peer, output);
+                            log.debugf("Referred %s to %s for deployment content %s", hostId, peer.getHostId(), filePath);
+                        } else {
+                            writeResponse(localPath, output, compressed, partialFiles);
+                        }
                         output.close();
+                        completed = true;
                     } finally {
                         StreamUtils.safeClose(output);
+                        if (tracked && peer == null) {
+                            if (referralAccepted) {
+                                contentHolders.transferred(filePath, hostId, completed);
+                            } else if (completed) {
+                                contentHolders.held(filePath, hostId);
+                            }
+                        }
                     }
                 }
             });
@@ -218,6 +307,10 @@ public class MasterDomainControllerOperationHandlerImpl extends ManagementChanne
 
         protected File processRequest(final byte rootId, final String filePath) throws RequestProcessingException {
             final FileRepository localFileRepository = domainController.getLocalFileRepository();
+            if (contentHolders == null && rootId != DomainControllerProtocol.PARAM_ROOT_ID_DEPLOYMENT) {
+                // Other hosts only get deployment content from a slave
+                return null;
+            }
 
             switch (rootId) {
                 case DomainControllerProtocol.PARAM_ROOT_ID_FILE: {
@@ -236,18 +329,34 @@ public class MasterDomainControllerOperationHandlerImpl extends ManagementChanne
             }
         }
 
-        protected void writeResponse(final File localPath, final FlushableDataOutput output) throws IOException {
+        protected void writeReferral(final DeploymentContentHolders.Peer peer, final FlushableDataOutput output) throws IOException {
+            output.writeByte(DomainControllerProtocol.PARAM_NUM_FILES);
+            output.writeInt(-2);
+            output.writeByte(DomainControllerProtocol.PARAM_HOST_ID);
+            output.writeUTF(peer.getHostId());
+            output.writeByte(DomainControllerProtocol.PARAM_PEER_ADDRESS);
+            output.writeUTF(peer.getAddress());
+            output.writeByte(DomainControllerProtocol.PARAM_PEER_PORT);
+            output.writeInt(peer.getPort());
+        }
+
+        protected void writeResponse(final File localPath, final FlushableDataOutput output, final boolean compress, final Map<String, Long> partialFiles) throws IOException {
             output.writeByte(DomainControllerProtocol.PARAM_NUM_FILES);
             if (localPath == null || !localPath.exists()) {
                 output.writeInt(-1);
             } else if (localPath.isFile()) {
                 output.writeInt(1);
-                writeFile(localPath, localPath, output);
+                writeFile(localPath, localPath, output, compress, partialFiles);
             } else {
                 final List<File> childFiles = getChildFiles(localPath);
+                if (childFiles.isEmpty() && contentHolders == null) {
+                    // A slave may not have completed its own transfer yet
+                    output.writeInt(-1);
+                    return;
+                }
                 output.writeInt(childFiles.size());
                 for (File child : childFiles) {
-                    writeFile(localPath, child, output);
+                    writeFile(localPath, child, output, compress, partialFiles);
                 }
             }
         }
@@ -261,7 +370,9 @@ public class MasterDomainControllerOperationHandlerImpl extends ManagementChanne
         private void getChildFiles(final File base, final List<File> childFiles) {
             for (File child : base.listFiles()) {
                 if (child.isFile()) {
-                    childFiles.add(child);
+                    if (!child.getName().endsWith(FileTransferUtil.PARTIAL_FILE_SUFFIX)) {
+                        childFiles.add(child);
+                    }
                 } else {
                     getChildFiles(child, childFiles);
                 }
@@ -272,19 +383,41 @@ public class MasterDomainControllerOperationHandlerImpl extends ManagementChanne
             return child.getAbsolutePath().substring(parent.getAbsolutePath().length());
         }
 
-        private void writeFile(final File localPath, final File file, final FlushableDataOutput output) throws IOException {
+        private void writeFile(final File localPath, final File file, final FlushableDataOutput output, final boolean compress, final Map<String, Long> partialFiles) throws IOException {
+            final String path = getRelativePath(localPath, file);
+            final long length = file.length();
+            // Resume from where an earlier, interrupted transfer of this file left off
+            final Long partial = partialFiles.get(path);
+            final long offset = partial != null && partial.longValue() > 0 && partial.longValue() <= length ? partial.longValue() : 0;
             output.writeByte(DomainControllerProtocol.FILE_START);
             output.writeByte(DomainControllerProtocol.PARAM_FILE_PATH);
-            output.writeUTF(getRelativePath(localPath, file));
+            output.writeUTF(path);
             output.writeByte(DomainControllerProtocol.PARAM_FILE_SIZE);
-            output.writeLong(file.length());
+            output.writeLong(length);
+            if (chunked) {
+                output.writeByte(DomainControllerProtocol.PARAM_FILE_OFFSET);
+                output.writeLong(offset);
+            }
             InputStream inputStream = null;
             try {
                 inputStream = new FileInputStream(file);
-                byte[] buffer = new byte[8192];
-                int len;
-                while ((len = inputStream.read(buffer)) != -1) {
-                    output.write(buffer, 0, len);
+                long skipped = 0;
+                while (skipped < offset) {
+                    final long n = inputStream.skip(offset - skipped);
+                    if (n <= 0) {
+                        throw new IOException("Unable to skip to offset " + offset + " of " + file);
+                    }
+                    skipped += n;
+                }
+                if (chunked) {
+                    final long sent = FileTransferUtil.writeChunks(inputStream, length - offset, output, compress);
+                    log.debugf("Sent file [%s] of length %d from offset %d as %d bytes", path, length, offset, sent);
+                } else {
+                    byte[] buffer = new byte[8192];
+                    int len;
+                    while ((len = inputStream.read(buffer)) != -1) {
+                        output.write(buffer, 0, len);
+                    }
                 }
             } finally {
                 if (inputStream != null) {
@@ -299,6 +432,24 @@ public class MasterDomainControllerOperationHandlerImpl extends ManagementChanne
         }
     }
 
+    private class ContentHeldOperation extends AbstractHostRequestHandler {
+
+        @Override
+        void handleRequest(String hostId, DataInput input, ManagementRequestContext<Void> context) throws IOException {
+            expectHeader(input, DomainControllerProtocol.PARAM_FILE_PATH);
+            final String hash = input.readUTF();
+            contentHolders.held(hash, hostId);
+            final FlushableDataOutput os = writeGenericResponseHeader(context);
+            try {
+                os.write(ManagementProtocol.RESPONSE_END);
+                os.close();
+            } finally {
+                StreamUtils.safeClose(os);
+            }
+        }
+
+    }
+
     abstract static class AbstractHostRequestHandler implements ManagementRequestHandler<ModelNode, Void> {
 
         abstract void handleRequest(final String hostId, DataInput input, ManagementRequestContext<Void> context) throws IOException;
@@ -33,6 +33,7 @@ import org.jboss.remoting3.CloseHandler;
 import org.jboss.remoting3.HandleableCloseable;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Installs {@link MasterDomainControllerOperationHandlerImpl} which handles requests from slave DC to master DC.
@@ -46,15 +47,27 @@ public class MasterDomainControllerOperationHandlerService extends AbstractModel
 
     private final DomainController domainController;
     private final UnregisteredHostChannelRegistry registry;
+    private final DeploymentContentHolders contentHolders;
 
-    public MasterDomainControllerOperationHandlerService(final DomainController domainController, final UnregisteredHostChannelRegistry registry) {
+    /**
+     * Create a new instance.
+     *
+     * @param domainController the domain controller
+     * @param registry the registry of slave host channels
+     * @param maxContentTransfers the maximum number of slaves the same deployment content is sent to at a time; other
+     *                            slaves are referred to a slave that received it
+     * @param contentReferralTimeout how long, in seconds, a slave waits to be referred before the content is sent anyway
+     */
+    public MasterDomainControllerOperationHandlerService(final DomainController domainController, final UnregisteredHostChannelRegistry registry,
+                                                         final int maxContentTransfers, final long contentReferralTimeout) {
         this.domainController = domainController;
         this.registry = registry;
+        this.contentHolders = new DeploymentContentHolders(maxContentTransfers, contentReferralTimeout, TimeUnit.SECONDS);
     }
 
     @Override
     public Channel.Key initialize(final ManagementChannel channel) {
-        final MasterDomainControllerOperationHandlerImpl handler = new MasterDomainControllerOperationHandlerImpl(getExecutor(), getController(), registry, domainController, channel);
+        final MasterDomainControllerOperationHandlerImpl handler = new MasterDomainControllerOperationHandlerImpl(getExecutor(), getController(), registry, domainController, channel, contentHolders);
         final Channel.Receiver receiver = handler;
         channel.setReceiver(receiver);
         return channel.addCloseHandler(new CloseHandler<Channel>() {
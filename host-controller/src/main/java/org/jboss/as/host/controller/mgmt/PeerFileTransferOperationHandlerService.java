@@ -0,0 +1,87 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.host.controller.mgmt;
+
+import java.io.DataInput;
+import java.io.IOException;
+
+import org.jboss.as.controller.remote.AbstractModelControllerOperationHandlerFactoryService;
+import org.jboss.as.domain.controller.DomainController;
+import org.jboss.as.protocol.mgmt.ActiveOperation;
+import org.jboss.as.protocol.mgmt.ManagementChannel;
+import org.jboss.as.protocol.mgmt.ManagementChannelReceiver;
+import org.jboss.as.protocol.mgmt.ManagementProtocol;
+import org.jboss.as.protocol.mgmt.ManagementProtocolHeader;
+import org.jboss.as.protocol.mgmt.ManagementRequestContext;
+import org.jboss.as.protocol.mgmt.ManagementRequestHandler;
+import org.jboss.as.protocol.mgmt.ManagementRequestHeader;
+import org.jboss.dmr.ModelNode;
+import org.jboss.remoting3.Channel;
+import org.jboss.remoting3.CloseHandler;
+
+/**
+ * Installed on a slave host controller to serve deployment content it holds to other slaves, which the master
+ * domain controller refers to it instead of sending the content itself.
+ */
+public class PeerFileTransferOperationHandlerService extends AbstractModelControllerOperationHandlerFactoryService {
+
+    private final DomainController domainController;
+
+    public PeerFileTransferOperationHandlerService(final DomainController domainController) {
+        this.domainController = domainController;
+    }
+
+    @Override
+    public Channel.Key initialize(final ManagementChannel channel) {
+        final MasterDomainControllerOperationHandlerImpl.LocalOperationHandler handler =
+                new MasterDomainControllerOperationHandlerImpl.LocalOperationHandler(getController(), getExecutor());
+        channel.setReceiver(new ManagementChannelReceiver() {
+            @Override
+            public void handleMessage(final Channel channel, final DataInput input, final ManagementProtocolHeader header) throws IOException {
+                if (header.getType() == ManagementProtocol.TYPE_REQUEST) {
+                    final ManagementRequestHeader request = (ManagementRequestHeader) header;
+                    final ManagementRequestHandler<ModelNode, Void> requestHandler;
+                    if (request.getOperationId() == DomainControllerProtocol.GET_FILE_CHUNKED_REQUEST) {
+                        requestHandler = new MasterDomainControllerOperationHandlerImpl.GetFileOperation(domainController, null, true);
+                    } else {
+                        requestHandler = UNSUPPORTED;
+                    }
+                    handler.runLocalRequestHandler(channel, input, request, requestHandler);
+                }
+            }
+        });
+        return channel.addCloseHandler(new CloseHandler<Channel>() {
+            @Override
+            public void handleClose(Channel closed, IOException exception) {
+                handler.shutdown();
+            }
+        });
+    }
+
+    private static final ManagementRequestHandler<ModelNode, Void> UNSUPPORTED = new ManagementRequestHandler<ModelNode, Void>() {
+        @Override
+        public void handleRequest(DataInput input, ActiveOperation.ResultHandler<ModelNode> resultHandler, ManagementRequestContext<Void> context) throws IOException {
+            throw new IOException("Only deployment content is served to other hosts");
+        }
+    };
+}
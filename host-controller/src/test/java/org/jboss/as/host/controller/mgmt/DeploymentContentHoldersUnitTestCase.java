@@ -0,0 +1,132 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.host.controller.mgmt;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * Tests which host a slave is told to fetch deployment content from.
+ */
+public class DeploymentContentHoldersUnitTestCase {
+
+    private static final String HASH = "0123456789abcdef";
+
+    @Test
+    public void testServedByMasterUpToLimit() throws Exception {
+        final DeploymentContentHolders holders = create(2, 10, TimeUnit.SECONDS);
+        Assert.assertNull(holders.acquire(HASH, "slave1"));
+        Assert.assertNull(holders.acquire(HASH, "slave2"));
+    }
+
+    @Test
+    public void testReferredToHolder() throws Exception {
+        final DeploymentContentHolders holders = create(1, 10, TimeUnit.SECONDS);
+        Assert.assertNull(holders.acquire(HASH, "slave1"));
+        holders.transferred(HASH, "slave1", true);
+        final DeploymentContentHolders.Peer peer = holders.acquire(HASH, "slave2");
+        Assert.assertNotNull(peer);
+        Assert.assertEquals("slave1", peer.getHostId());
+        Assert.assertEquals("10.0.0.1", peer.getAddress());
+        Assert.assertEquals(9999, peer.getPort());
+    }
+
+    @Test
+    public void testWaitsForTransferInProgress() throws Exception {
+        final DeploymentContentHolders holders = create(1, 10, TimeUnit.SECONDS);
+        Assert.assertNull(holders.acquire(HASH, "slave1"));
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<DeploymentContentHolders.Peer> waiting = executor.submit(new Callable<DeploymentContentHolders.Peer>() {
+                @Override
+                public DeploymentContentHolders.Peer call() throws Exception {
+                    return holders.acquire(HASH, "slave2");
+                }
+            });
+            Thread.sleep(100);
+            Assert.assertFalse(waiting.isDone());
+            holders.transferred(HASH, "slave1", true);
+            Assert.assertEquals("slave1", waiting.get(10, TimeUnit.SECONDS).getHostId());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFailedTransferLetsNextRequestThrough() throws Exception {
+        final DeploymentContentHolders holders = create(1, 10, TimeUnit.SECONDS);
+        Assert.assertNull(holders.acquire(HASH, "slave1"));
+        holders.transferred(HASH, "slave1", false);
+        Assert.assertNull(holders.acquire(HASH, "slave2"));
+    }
+
+    @Test
+    public void testServedByMasterAfterTimeout() throws Exception {
+        final DeploymentContentHolders holders = create(1, 50, TimeUnit.MILLISECONDS);
+        Assert.assertNull(holders.acquire(HASH, "slave1"));
+        Assert.assertNull(holders.acquire(HASH, "slave2"));
+    }
+
+    @Test
+    public void testReferralsSpreadOverHolders() throws Exception {
+        final DeploymentContentHolders holders = create(1, 10, TimeUnit.SECONDS);
+        Assert.assertNull(holders.acquire(HASH, "slave1"));
+        holders.transferred(HASH, "slave1", true);
+        holders.held(HASH, "slave2");
+        final String first = holders.acquire(HASH, "slave3").getHostId();
+        final String second = holders.acquire(HASH, "slave4").getHostId();
+        Assert.assertFalse(first.equals(second));
+    }
+
+    @Test
+    public void testNotReferredToItselfOrRemovedHost() throws Exception {
+        final DeploymentContentHolders holders = create(1, 50, TimeUnit.MILLISECONDS);
+        holders.held(HASH, "slave1");
+        Assert.assertNull(holders.acquire(HASH, "slave1"));
+        holders.transferred(HASH, "slave1", true);
+        holders.removeHost("slave1");
+        Assert.assertNull(holders.acquire(HASH, "slave2"));
+    }
+
+    @Test
+    public void testHostWithoutAddressNotReferredTo() throws Exception {
+        final DeploymentContentHolders holders = create(1, 10, TimeUnit.SECONDS);
+        holders.setPeerAddress("slave1", "", -1);
+        holders.held(HASH, "slave1");
+        Assert.assertNull(holders.acquire(HASH, "slave2"));
+    }
+
+    private static DeploymentContentHolders create(final int maxTransfers, final long timeout, final TimeUnit unit) {
+        final DeploymentContentHolders holders = new DeploymentContentHolders(maxTransfers, timeout, unit);
+        for (int i = 1; i <= 4; i++) {
+            holders.setPeerAddress("slave" + i, "10.0.0." + i, 9999);
+        }
+        return holders;
+    }
+}
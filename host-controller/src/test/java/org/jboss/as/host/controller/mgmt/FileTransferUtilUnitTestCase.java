@@ -0,0 +1,96 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.host.controller.mgmt;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * Tests the chunked file transfer encoding.
+ */
+public class FileTransferUtilUnitTestCase {
+
+    @Test
+    public void testCompressibleContent() throws Exception {
+        final byte[] content = new byte[3 * FileTransferUtil.CHUNK_SIZE + 17];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) ('a' + (i % 7));
+        }
+        final long sent = roundTrip(content, 0, true);
+        Assert.assertTrue("Expected compressed transfer, sent " + sent, sent < content.length / 10);
+    }
+
+    @Test
+    public void testIncompressibleContent() throws Exception {
+        final byte[] content = new byte[2 * FileTransferUtil.CHUNK_SIZE + 5];
+        new Random(42).nextBytes(content);
+        Assert.assertEquals(content.length, roundTrip(content, 0, true));
+    }
+
+    @Test
+    public void testUncompressed() throws Exception {
+        final byte[] content = new byte[FileTransferUtil.CHUNK_SIZE + 1];
+        Arrays.fill(content, (byte) 1);
+        Assert.assertEquals(content.length, roundTrip(content, 0, false));
+    }
+
+    @Test
+    public void testResumeFromOffset() throws Exception {
+        final byte[] content = new byte[2 * FileTransferUtil.CHUNK_SIZE];
+        new Random(7).nextBytes(content);
+        roundTrip(content, FileTransferUtil.CHUNK_SIZE + 3, true);
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        Assert.assertEquals(0, roundTrip(new byte[0], 0, true));
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncatedContent() throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        FileTransferUtil.writeChunks(new ByteArrayInputStream(new byte[10]), 20, new DataOutputStream(bytes), true);
+    }
+
+    private long roundTrip(final byte[] content, final int offset, final boolean compress) throws IOException {
+        final ByteArrayInputStream in = new ByteArrayInputStream(content);
+        Assert.assertEquals(offset, in.skip(offset));
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final long sent = FileTransferUtil.writeChunks(in, content.length - offset, new DataOutputStream(bytes), compress);
+
+        final DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        final ByteArrayOutputStream result = new ByteArrayOutputStream();
+        FileTransferUtil.readChunks(input, content.length - offset, result);
+        Assert.assertEquals(-1, input.read());
+        Assert.assertTrue(Arrays.equals(Arrays.copyOfRange(content, offset, content.length), result.toByteArray()));
+        return sent;
+    }
+}
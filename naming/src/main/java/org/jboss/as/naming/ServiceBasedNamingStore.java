@@ -28,6 +28,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.NavigableSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentSkipListSet;
 
 import javax.naming.Binding;
@@ -61,6 +63,12 @@ public class ServiceBasedNamingStore implements NamingStore {
 
     private ConcurrentSkipListSet<ServiceName> boundServices = new ConcurrentSkipListSet<ServiceName>();
 
+    /**
+     * The controllers of bindings that were looked up directly, by the name they were looked up with. The bound
+     * value itself is never cached, as a {@link ManagedReferenceFactory} may return a new instance for each lookup.
+     */
+    private final ConcurrentMap<String, ServiceController<?>> lookupCache = new ConcurrentHashMap<String, ServiceController<?>>();
+
     public ServiceBasedNamingStore(final ServiceRegistry serviceRegistry, final ServiceName serviceNameBase) {
         this.serviceRegistry = serviceRegistry;
         this.serviceNameBase = serviceNameBase;
@@ -70,13 +78,27 @@ public class ServiceBasedNamingStore implements NamingStore {
         if (name.isEmpty()) {
             return new NamingContext(EMPTY_NAME, this, null);
         }
-        final ServiceName lookupName = buildServiceName(name);
-        Object obj = lookup(name.toString(), lookupName);
+        final String nameString = name.toString();
+        final ServiceName lookupName;
+        ServiceController<?> controller = lookupCache.get(nameString);
+        if (controller != null && controller.getState() != ServiceController.State.REMOVED) {
+            lookupName = controller.getName();
+        } else {
+            if (controller != null) {
+                lookupCache.remove(nameString, controller);
+            }
+            lookupName = buildServiceName(name);
+            controller = serviceRegistry.getService(lookupName);
+            if (controller != null) {
+                lookupCache.put(nameString, controller);
+            }
+        }
+        Object obj = controller != null ? getValue(nameString, lookupName, controller) : null;
         if (obj == null) {
             final ServiceName lower = boundServices.lower(lookupName);
             if (lower != null && lower.isParentOf(lookupName)) {
                 // Parent might be a reference or a link
-                obj = lookup(name.toString(), lower);
+                obj = lookup(nameString, lower);
                 checkReferenceForContinuation(name, obj);
                 return new ResolveResult(obj, suffix(lower, lookupName));
             }
@@ -108,17 +130,20 @@ public class ServiceBasedNamingStore implements NamingStore {
 
     private Object lookup(final String name, final ServiceName lookupName) throws NamingException {
         final ServiceController<?> controller = serviceRegistry.getService(lookupName);
-        final Object object;
-        if (controller != null) {
-            try {
-                object = controller.getValue();
-            } catch (IllegalStateException e) {
-                //occurs if the service is not actually up
-                throw new NameNotFoundException("Error looking up " + name + ", service " + lookupName + " is not started");
-            }
-        } else {
+        if (controller == null) {
             return null;
         }
+        return getValue(name, lookupName, controller);
+    }
+
+    private Object getValue(final String name, final ServiceName lookupName, final ServiceController<?> controller) throws NamingException {
+        final Object object;
+        try {
+            object = controller.getValue();
+        } catch (IllegalStateException e) {
+            //occurs if the service is not actually up
+            throw new NameNotFoundException("Error looking up " + name + ", service " + lookupName + " is not started");
+        }
         if (object instanceof ManagedReferenceFactory) {
             try {
                 return ManagedReferenceFactory.class.cast(object).getReference().getInstance();
@@ -207,6 +232,7 @@ public class ServiceBasedNamingStore implements NamingStore {
 
     public void close() throws NamingException {
         boundServices.clear();
+        lookupCache.clear();
     }
 
     public void addNamingListener(Name target, int scope, NamingListener listener) {
@@ -221,10 +247,12 @@ public class ServiceBasedNamingStore implements NamingStore {
             throw MESSAGES.serviceAlreadyBound(serviceName);
         }
         boundServices.add(serviceName);
+        lookupCache.clear();
     }
 
     public void remove(final ServiceName serviceName) {
         boundServices.remove(serviceName);
+        lookupCache.clear();
     }
 
     protected ServiceName buildServiceName(final Name name) {
@@ -28,7 +28,20 @@ import org.jboss.msc.value.Value;
  *
  * @author Stuart Douglas
  */
-public class ValueManagedReference implements ManagedReference {
+public class ValueManagedReference implements DetachableManagedReference {
+
+    private static final ManagedReference DETACHED = new ManagedReference() {
+        @Override
+        public void release() {
+
+        }
+
+        @Override
+        public Object getInstance() {
+            return null;
+        }
+    };
+
     private final Value<Object> value;
 
     public ValueManagedReference(Value<Object> value) {
@@ -44,4 +57,10 @@ public class ValueManagedReference implements ManagedReference {
     public Object getInstance() {
         return value.getValue();
     }
+
+    @Override
+    public ManagedReference detach() {
+        // releasing this reference is a no-op, so there is nothing to keep
+        return DETACHED;
+    }
 }
@@ -33,11 +33,14 @@ import javax.naming.CompositeName;
 import javax.naming.Context;
 import javax.naming.Name;
 import javax.naming.NameClassPair;
+import javax.naming.NameNotFoundException;
 import javax.naming.NameParser;
 import javax.naming.NamingEnumeration;
 import javax.naming.NamingException;
 
+import org.jboss.msc.service.AbstractServiceListener;
 import org.jboss.msc.service.Service;
+import org.jboss.msc.service.ServiceController;
 import org.jboss.msc.service.ServiceContainer;
 import org.jboss.msc.service.ServiceName;
 import org.jboss.msc.service.StartContext;
@@ -311,6 +314,52 @@ public class ServiceBasedNamingStoreTestCase {
         assertEquals(value, obj);
     }
 
+    @Test
+    public void testLookupAfterUnbind() throws Exception {
+        final ServiceName bindingName = ServiceName.JBOSS.append("foo", "bar");
+        bindObject(bindingName, new Object());
+        assertNotNull(store.lookup(new CompositeName("foo/bar")));
+
+        unbind(bindingName);
+        try {
+            store.lookup(new CompositeName("foo/bar"));
+            fail("Should have thrown a NameNotFoundException");
+        } catch (NameNotFoundException expected) {
+        }
+    }
+
+    @Test
+    public void testLookupAfterRebind() throws Exception {
+        final ServiceName bindingName = ServiceName.JBOSS.append("foo", "bar");
+        bindObject(bindingName, "first");
+        assertEquals("first", store.lookup(new CompositeName("foo/bar")));
+
+        unbind(bindingName);
+        bindObject(bindingName, "second");
+        assertEquals("second", store.lookup(new CompositeName("foo/bar")));
+    }
+
+    @Test
+    public void testRepeatedLookups() throws Exception {
+        final String[] names = {"comp/env/jdbc/DataSource", "module/MyBean!org.example.MyBeanLocal", "global/app/module/MyBean!org.example.MyBeanLocal"};
+        for (String name : names) {
+            bindObject(buildServiceName(new CompositeName(name)), name);
+        }
+        for (int i = 0; i < 10; i++) {
+            for (String name : names) {
+                assertEquals(name, store.lookup(new CompositeName(name)));
+            }
+        }
+
+        unbind(buildServiceName(new CompositeName(names[0])));
+        try {
+            store.lookup(new CompositeName(names[0]));
+            fail("Should have thrown a NameNotFoundException");
+        } catch (NameNotFoundException expected) {
+        }
+        assertEquals(names[1], store.lookup(new CompositeName(names[1])));
+        assertEquals(names[2], store.lookup(new CompositeName(names[2])));
+    }
 
     @Test
     public void testList() throws Exception {
@@ -400,6 +449,29 @@ public class ServiceBasedNamingStoreTestCase {
         fail("Child [" + name + "] not found in [" + list + "]");
     }
 
+    private ServiceName buildServiceName(final Name name) throws NamingException {
+        ServiceName serviceName = ServiceName.JBOSS;
+        for (int i = 0; i < name.size(); i++) {
+            serviceName = serviceName.append(name.get(i));
+        }
+        return serviceName;
+    }
+
+    private void unbind(final ServiceName serviceName) throws Exception {
+        final ServiceController<?> controller = container.getService(serviceName);
+        final CountDownLatch latch = new CountDownLatch(1);
+        controller.addListener(new AbstractServiceListener<Object>() {
+            public void transition(final ServiceController<? extends Object> controller, final ServiceController.Transition transition) {
+                if (transition == ServiceController.Transition.REMOVING_to_REMOVED) {
+                    latch.countDown();
+                }
+            }
+        });
+        controller.setMode(ServiceController.Mode.REMOVE);
+        latch.await();
+        store.remove(serviceName);
+    }
+
     private void bindObject(final ServiceName serviceName, final Object value) throws Exception {
         final CountDownLatch latch = new CountDownLatch(1);
         container.addService(serviceName, new Service<ManagedReferenceFactory>() {
@@ -38,6 +38,8 @@ import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
 import org.jboss.as.controller.persistence.ConfigurationFile;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.server.controller.descriptions.ServerDescriptions;
+import org.jboss.as.server.deployment.ContentRepositoryMetricsHandler;
+import org.jboss.as.server.deployment.annotation.AnnotationIndexCacheMetricsHandler;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
 
@@ -99,6 +101,8 @@ public class ServerEnvironmentResourceDescription extends SimpleResourceDefiniti
         for (AttributeDefinition attribute : SERVER_ENV_ATTRIBUTES) {
             resourceRegistration.registerReadOnlyAttribute(attribute, osh);
         }
+        AnnotationIndexCacheMetricsHandler.registerMetrics(resourceRegistration);
+        ContentRepositoryMetricsHandler.registerMetrics(resourceRegistration);
     }
 
 
@@ -0,0 +1,105 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAME;
+
+import org.jboss.as.controller.AttributeDefinition;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.OperationStepHandler;
+import org.jboss.as.controller.SimpleAttributeDefinition;
+import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.as.controller.client.helpers.MeasurementUnit;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
+import org.jboss.as.server.deployment.repository.api.ContentRepository;
+import org.jboss.as.server.deployment.repository.impl.ContentRepositoryImpl;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.jboss.msc.service.ServiceController;
+
+/**
+ * Reads the metrics of the content added to the {@link ContentRepository}.
+ */
+public final class ContentRepositoryMetricsHandler implements OperationStepHandler {
+
+    public static final SimpleAttributeDefinition ADDED_CONTENT_COUNT = new SimpleAttributeDefinitionBuilder("added-content-count", ModelType.LONG, true)
+            .setStorageRuntime()
+            .build();
+
+    public static final SimpleAttributeDefinition ADDED_CONTENT_BYTES = new SimpleAttributeDefinitionBuilder("added-content-bytes", ModelType.LONG, true)
+            .setMeasurementUnit(MeasurementUnit.BYTES)
+            .setStorageRuntime()
+            .build();
+
+    public static final SimpleAttributeDefinition ADDED_CONTENT_TIME = new SimpleAttributeDefinitionBuilder("added-content-time", ModelType.LONG, true)
+            .setMeasurementUnit(MeasurementUnit.MILLISECONDS)
+            .setStorageRuntime()
+            .build();
+
+    public static final AttributeDefinition[] METRICS = new AttributeDefinition[] {ADDED_CONTENT_COUNT, ADDED_CONTENT_BYTES, ADDED_CONTENT_TIME};
+
+    public static final ContentRepositoryMetricsHandler INSTANCE = new ContentRepositoryMetricsHandler();
+
+    private ContentRepositoryMetricsHandler() {
+    }
+
+    /**
+     * Registers the content repository metrics on a resource.
+     *
+     * @param resourceRegistration the registration of the resource
+     */
+    public static void registerMetrics(final ManagementResourceRegistration resourceRegistration) {
+        for (AttributeDefinition metric : METRICS) {
+            resourceRegistration.registerMetric(metric, INSTANCE);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void execute(final OperationContext context, final ModelNode operation) throws OperationFailedException {
+        final String attributeName = operation.require(NAME).asString();
+        context.addStep(new OperationStepHandler() {
+            @Override
+            public void execute(final OperationContext context, final ModelNode operation) throws OperationFailedException {
+                final ServiceController<?> controller = context.getServiceRegistry(false).getService(ContentRepository.SERVICE_NAME);
+                final ModelNode result = context.getResult();
+                final Object value = controller != null && controller.getState() == ServiceController.State.UP ? controller.getValue() : null;
+                if (value instanceof ContentRepositoryImpl) {
+                    final ContentRepositoryImpl repository = (ContentRepositoryImpl) value;
+                    if (ADDED_CONTENT_COUNT.getName().equals(attributeName)) {
+                        result.set(repository.getAddedContentCount());
+                    } else if (ADDED_CONTENT_BYTES.getName().equals(attributeName)) {
+                        result.set(repository.getAddedContentBytes());
+                    } else if (ADDED_CONTENT_TIME.getName().equals(attributeName)) {
+                        result.set(repository.getAddedContentTime());
+                    }
+                } else {
+                    result.set(0L);
+                }
+                context.completeStep();
+            }
+        }, OperationContext.Stage.RUNTIME);
+        context.completeStep();
+    }
+}
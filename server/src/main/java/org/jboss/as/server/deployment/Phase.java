@@ -262,6 +262,7 @@ public enum Phase {
     public static final int PARSE_AROUNDINVOKE_ANNOTATION               = 0x3300;
     public static final int PARSE_AROUNDTIMEOUT_ANNOTATION              = 0x3400;
     public static final int PARSE_TIMEOUT_ANNOTATION                    = 0x3401;
+    public static final int PARSE_PASSIVATION_ANNOTATION                = 0x3402;
     public static final int PARSE_EJB_DD_INTERCEPTORS                   = 0x3500;
     public static final int PARSE_EJB_SECURITY_ROLE_REF_DD              = 0x3501;
     public static final int PARSE_EJB_ASSEMBLY_DESC_DD                  = 0x3600;
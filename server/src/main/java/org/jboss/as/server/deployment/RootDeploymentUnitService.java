@@ -40,6 +40,7 @@ final class RootDeploymentUnitService extends AbstractDeploymentUnitService {
     private final InjectedValue<ServerDeploymentRepository> serverDeploymentRepositoryInjector = new InjectedValue<ServerDeploymentRepository>();
     private final String name;
     private final String managementName;
+    private final byte[] contentHash;
     final InjectedValue<VirtualFile> contentsInjector = new InjectedValue<VirtualFile>();
     private final DeploymentUnit parent;
     private final ImmutableManagementResourceRegistration registration;
@@ -57,10 +58,26 @@ final class RootDeploymentUnitService extends AbstractDeploymentUnitService {
      * @param serviceVerificationHandler
      */
     public RootDeploymentUnitService(final String name, final String managementName, final DeploymentUnit parent, final ImmutableManagementResourceRegistration registration, Resource resource, final ServiceVerificationHandler serviceVerificationHandler) {
+        this(name, managementName, null, parent, registration, resource, serviceVerificationHandler);
+    }
+
+    /**
+     * Construct a new instance.
+     *
+     * @param name the deployment unit simple name
+     * @param managementName the deployment's domain-wide unique name
+     * @param contentHash the hash of the deployment contents in the content repository, or {@code null} if the contents are not managed
+     * @param parent the parent deployment unit
+     * @param registration the registration
+     * @param resource the model
+     * @param serviceVerificationHandler
+     */
+    public RootDeploymentUnitService(final String name, final String managementName, final byte[] contentHash, final DeploymentUnit parent, final ImmutableManagementResourceRegistration registration, Resource resource, final ServiceVerificationHandler serviceVerificationHandler) {
         this.serviceVerificationHandler = serviceVerificationHandler;
         assert name != null : "name is null";
         this.name = name;
         this.managementName = managementName;
+        this.contentHash = contentHash;
         this.parent = parent;
         this.registration = registration;
         this.resource = resource;
@@ -71,6 +88,9 @@ final class RootDeploymentUnitService extends AbstractDeploymentUnitService {
         deploymentUnit.putAttachment(Attachments.RUNTIME_NAME, name);
         deploymentUnit.putAttachment(Attachments.MANAGEMENT_NAME, managementName);
         deploymentUnit.putAttachment(Attachments.DEPLOYMENT_CONTENTS, contentsInjector.getValue());
+        if (contentHash != null) {
+            deploymentUnit.putAttachment(Attachments.DEPLOYMENT_HASH, contentHash);
+        }
         deploymentUnit.putAttachment(DeploymentModelUtils.REGISTRATION_ATTACHMENT, registration);
         deploymentUnit.putAttachment(DeploymentModelUtils.DEPLOYMENT_RESOURCE, resource);
         deploymentUnit.putAttachment(Attachments.SERVICE_VERIFICATION_HANDLER, serviceVerificationHandler);
@@ -51,6 +51,10 @@ public final class Services {
      * The service name of the deployment extension index service.
      */
     public static final ServiceName JBOSS_DEPLOYMENT_EXTENSION_INDEX = JBOSS_DEPLOYMENT.append("extension-index");
+    /**
+     * The service name of the annotation index cache, whose value exposes the cache hit and miss counts.
+     */
+    public static final ServiceName JBOSS_DEPLOYMENT_ANNOTATION_INDEX_CACHE = JBOSS_DEPLOYMENT.append("annotation-index-cache");
 
     /**
      * Get the service name of a top-level deployment unit.
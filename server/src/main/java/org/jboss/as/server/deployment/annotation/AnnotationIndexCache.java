@@ -0,0 +1,192 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.annotation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jboss.as.server.ServerLogger;
+import org.jboss.as.server.deployment.Attachments;
+import org.jboss.as.server.deployment.DeploymentUnit;
+import org.jboss.as.server.deployment.DeploymentUtils;
+import org.jboss.as.server.deployment.Services;
+import org.jboss.as.server.deployment.module.ResourceRoot;
+import org.jboss.as.server.deployment.repository.api.ContentRepository;
+import org.jboss.jandex.Index;
+import org.jboss.jandex.IndexReader;
+import org.jboss.jandex.IndexWriter;
+import org.jboss.vfs.VFSUtils;
+import org.jboss.vfs.VirtualFile;
+
+/**
+ * A persistent cache of the annotation indexes generated for deployments stored in the content repository.
+ * <p/>
+ * Content in the repository never changes for a given hash, so the index generated for a resource root can be reused
+ * on redeploy and on restart. The cached indexes are kept alongside the content they were generated from, and are
+ * removed together with it by {@link ContentRepository#removeContent(byte[])}. Deployments that are not stored in
+ * the repository are never cached.
+ * <p/>
+ * The cache is installed as the {@link Services#JBOSS_DEPLOYMENT_ANNOTATION_INDEX_CACHE} service. Its hit and miss
+ * counts are exposed as metrics of the server environment resource by {@link AnnotationIndexCacheMetricsHandler}.
+ */
+public final class AnnotationIndexCache {
+
+    private static final String INDEX_DIR = "annotation-index";
+    private static final String INDEX_SUFFIX = ".idx";
+
+    private final ContentRepository contentRepository;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public AnnotationIndexCache(final ContentRepository contentRepository) {
+        this.contentRepository = contentRepository;
+    }
+
+    /**
+     * Get the cached index for a resource root of a deployment.
+     *
+     * @param deploymentUnit the deployment unit the resource root belongs to
+     * @param resourceRoot the resource root
+     * @return the cached index, or {@code null} if there is none
+     */
+    Index getIndex(final DeploymentUnit deploymentUnit, final ResourceRoot resourceRoot) {
+        final File file = getIndexFile(deploymentUnit, resourceRoot);
+        if (file == null) {
+            return null;
+        }
+        if (!file.exists()) {
+            misses.incrementAndGet();
+            return null;
+        }
+        InputStream in = null;
+        try {
+            in = new BufferedInputStream(new FileInputStream(file));
+            final Index index = new IndexReader(in).read();
+            hits.incrementAndGet();
+            ServerLogger.DEPLOYMENT_LOGGER.tracef("Read cached index %s for %s", file, resourceRoot.getRoot());
+            return index;
+        } catch (Exception e) {
+            ServerLogger.DEPLOYMENT_LOGGER.debugf(e, "Discarding unreadable cached index %s", file);
+            if (!file.delete()) {
+                file.deleteOnExit();
+            }
+            misses.incrementAndGet();
+            return null;
+        } finally {
+            VFSUtils.safeClose(in);
+        }
+    }
+
+    /**
+     * Store the index generated for a resource root of a deployment. Failures are not fatal, the index will simply
+     * be generated again next time.
+     *
+     * @param deploymentUnit the deployment unit the resource root belongs to
+     * @param resourceRoot the resource root
+     * @param index the index
+     */
+    void putIndex(final DeploymentUnit deploymentUnit, final ResourceRoot resourceRoot, final Index index) {
+        final File file = getIndexFile(deploymentUnit, resourceRoot);
+        if (file == null) {
+            return;
+        }
+        final File dir = file.getParentFile();
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            ServerLogger.DEPLOYMENT_LOGGER.debugf("Could not create annotation index cache directory %s", dir);
+            return;
+        }
+        OutputStream out = null;
+        File tmp = null;
+        try {
+            tmp = File.createTempFile("index", "tmp", dir);
+            out = new BufferedOutputStream(new FileOutputStream(tmp));
+            new IndexWriter(out).write(index);
+            out.close();
+            out = null;
+            // the index files are only ever replaced by identical content, so a failed rename just loses the race
+            if (!tmp.renameTo(file) && !tmp.delete()) {
+                tmp.deleteOnExit();
+            }
+        } catch (IOException e) {
+            ServerLogger.DEPLOYMENT_LOGGER.debugf(e, "Could not cache annotation index for %s", resourceRoot.getRoot());
+            if (tmp != null && !tmp.delete()) {
+                tmp.deleteOnExit();
+            }
+        } finally {
+            VFSUtils.safeClose(out);
+        }
+    }
+
+    /**
+     * Get the number of resource roots whose index was read from the cache.
+     *
+     * @return the hit count
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Get the number of resource roots of cacheable deployments that had to be indexed.
+     *
+     * @return the miss count
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    private File getIndexFile(final DeploymentUnit deploymentUnit, final ResourceRoot resourceRoot) {
+        final DeploymentUnit topLevel = DeploymentUtils.getTopDeploymentUnit(deploymentUnit);
+        final byte[] hash = topLevel.getAttachment(Attachments.DEPLOYMENT_HASH);
+        final ResourceRoot deploymentRoot = topLevel.getAttachment(Attachments.DEPLOYMENT_ROOT);
+        if (hash == null || deploymentRoot == null) {
+            return null;
+        }
+        final VirtualFile root = resourceRoot.getRoot();
+        final String path;
+        try {
+            path = root.equals(deploymentRoot.getRoot()) ? "" : root.getPathNameRelativeTo(deploymentRoot.getRoot());
+        } catch (IllegalArgumentException e) {
+            // an additional root outside of the deployment, which may change independently of it
+            return null;
+        }
+        try {
+            final File contentDir = contentRepository.getContent(hash).getPhysicalFile().getParentFile();
+            return new File(new File(contentDir, INDEX_DIR), URLEncoder.encode("/" + path, "UTF-8") + INDEX_SUFFIX);
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        } catch (IOException e) {
+            ServerLogger.DEPLOYMENT_LOGGER.debugf(e, "Could not locate content for %s", topLevel.getName());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.annotation;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAME;
+
+import org.jboss.as.controller.AttributeDefinition;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.OperationStepHandler;
+import org.jboss.as.controller.SimpleAttributeDefinition;
+import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
+import org.jboss.as.server.deployment.Services;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.jboss.msc.service.ServiceController;
+
+/**
+ * Reads the hit and miss counts of the {@link AnnotationIndexCache}.
+ */
+public final class AnnotationIndexCacheMetricsHandler implements OperationStepHandler {
+
+    public static final SimpleAttributeDefinition HIT_COUNT = new SimpleAttributeDefinitionBuilder("annotation-index-cache-hit-count", ModelType.LONG, true)
+            .setStorageRuntime()
+            .build();
+
+    public static final SimpleAttributeDefinition MISS_COUNT = new SimpleAttributeDefinitionBuilder("annotation-index-cache-miss-count", ModelType.LONG, true)
+            .setStorageRuntime()
+            .build();
+
+    public static final AttributeDefinition[] METRICS = new AttributeDefinition[] {HIT_COUNT, MISS_COUNT};
+
+    public static final AnnotationIndexCacheMetricsHandler INSTANCE = new AnnotationIndexCacheMetricsHandler();
+
+    private AnnotationIndexCacheMetricsHandler() {
+    }
+
+    /**
+     * Registers the cache metrics on a resource.
+     *
+     * @param resourceRegistration the registration of the resource
+     */
+    public static void registerMetrics(final ManagementResourceRegistration resourceRegistration) {
+        for (AttributeDefinition metric : METRICS) {
+            resourceRegistration.registerMetric(metric, INSTANCE);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void execute(final OperationContext context, final ModelNode operation) throws OperationFailedException {
+        final String attributeName = operation.require(NAME).asString();
+        context.addStep(new OperationStepHandler() {
+            @Override
+            public void execute(final OperationContext context, final ModelNode operation) throws OperationFailedException {
+                final ServiceController<?> controller = context.getServiceRegistry(false).getService(Services.JBOSS_DEPLOYMENT_ANNOTATION_INDEX_CACHE);
+                final ModelNode result = context.getResult();
+                if (controller != null && controller.getState() == ServiceController.State.UP) {
+                    final AnnotationIndexCache cache = AnnotationIndexCache.class.cast(controller.getValue());
+                    if (HIT_COUNT.getName().equals(attributeName)) {
+                        result.set(cache.getHitCount());
+                    } else if (MISS_COUNT.getName().equals(attributeName)) {
+                        result.set(cache.getMissCount());
+                    }
+                } else {
+                    result.set(0L);
+                }
+                context.completeStep();
+            }
+        }, OperationContext.Stage.RUNTIME);
+        context.completeStep();
+    }
+}
@@ -22,9 +22,6 @@
 
 package org.jboss.as.server.deployment.annotation;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import org.jboss.as.server.deployment.DeploymentPhaseContext;
 import org.jboss.as.server.deployment.DeploymentUnit;
 import org.jboss.as.server.deployment.DeploymentUnitProcessingException;
@@ -43,6 +40,21 @@ public class AnnotationIndexProcessor implements DeploymentUnitProcessor {
 
     private static final Logger logger = Logger.getLogger(AnnotationIndexProcessor.class);
 
+    private final AnnotationIndexCache cache;
+
+    public AnnotationIndexProcessor() {
+        this(null);
+    }
+
+    /**
+     * Construct a new instance.
+     *
+     * @param cache the cache of previously generated indexes, or {@code null} to always generate them
+     */
+    public AnnotationIndexProcessor(final AnnotationIndexCache cache) {
+        this.cache = cache;
+    }
+
     /**
      * Process this deployment for annotations.  This will use an annotation indexer to create an index of all annotations
      * found in this deployment and attach it to the deployment unit context.
@@ -52,11 +64,8 @@ public class AnnotationIndexProcessor implements DeploymentUnitProcessor {
      *
      */
     public void deploy(DeploymentPhaseContext phaseContext) throws DeploymentUnitProcessingException {
-        final List<ResourceRoot> allResourceRoots = new ArrayList<ResourceRoot>();
         final DeploymentUnit deploymentUnit = phaseContext.getDeploymentUnit();
-        for (ResourceRoot resourceRoot : DeploymentUtils.allResourceRoots(deploymentUnit)) {
-            ResourceRootIndexer.indexResourceRoot(resourceRoot);
-        }
+        ResourceRootIndexer.indexResourceRoots(deploymentUnit, DeploymentUtils.allResourceRoots(deploymentUnit), cache);
     }
 
     public void undeploy(final DeploymentUnit context) {
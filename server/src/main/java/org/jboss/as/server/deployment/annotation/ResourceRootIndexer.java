@@ -1,12 +1,22 @@
 package org.jboss.as.server.deployment.annotation;
 
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.jboss.as.server.ServerLogger;
 import org.jboss.as.server.deployment.Attachments;
+import org.jboss.as.server.deployment.DeploymentUnit;
 import org.jboss.as.server.deployment.DeploymentUnitProcessingException;
 import org.jboss.as.server.deployment.module.ResourceRoot;
 import org.jboss.as.server.moduleservice.ModuleIndexBuilder;
@@ -24,10 +34,88 @@ import org.jboss.vfs.util.SuffixMatchFilter;
  */
 public class ResourceRootIndexer {
 
+    /**
+     * The maximum number of resource roots indexed at the same time, across all deployments. A value of {@code 1} indexes
+     * the roots one after another on the deploying thread.
+     */
+    private static final int INDEX_THREADS = Math.max(1, Integer.getInteger("jboss.deployment.index.threads", Runtime.getRuntime().availableProcessors()));
+
+    /**
+     * The indexing threads, shared by all deployments so that concurrent deployments do not each start their own threads.
+     * The threads are only started when needed, and stop again once they have been idle for a minute.
+     */
+    private static final ThreadPoolExecutor EXECUTOR;
+
+    static {
+        EXECUTOR = new ThreadPoolExecutor(INDEX_THREADS, INDEX_THREADS, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new IndexerThreadFactory());
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Creates and attaches the annotation index to each of the given resource roots that does not already have one.
+     * Resource roots are independent of each other, so they are indexed in parallel when more than one needs it.
+     *
+     * @param deploymentUnit the deployment unit the resource roots belong to
+     * @param resourceRoots the resource roots
+     * @param cache the cache of previously generated indexes, or {@code null} to always generate them
+     */
+    public static void indexResourceRoots(final DeploymentUnit deploymentUnit, final List<ResourceRoot> resourceRoots, final AnnotationIndexCache cache) throws DeploymentUnitProcessingException {
+        final List<ResourceRoot> unindexed = new ArrayList<ResourceRoot>();
+        for (ResourceRoot resourceRoot : resourceRoots) {
+            if (resourceRoot.getAttachment(Attachments.ANNOTATION_INDEX) == null) {
+                unindexed.add(resourceRoot);
+            }
+        }
+        if (INDEX_THREADS == 1 || unindexed.size() <= 1) {
+            for (ResourceRoot resourceRoot : unindexed) {
+                indexResourceRoot(deploymentUnit, resourceRoot, cache);
+            }
+            return;
+        }
+        final List<Future<Void>> results = new ArrayList<Future<Void>>(unindexed.size());
+        try {
+            for (final ResourceRoot resourceRoot : unindexed) {
+                results.add(EXECUTOR.submit(new Callable<Void>() {
+                    public Void call() throws DeploymentUnitProcessingException {
+                        indexResourceRoot(deploymentUnit, resourceRoot, cache);
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> result : results) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    final Throwable cause = e.getCause();
+                    if (cause instanceof DeploymentUnitProcessingException) {
+                        throw (DeploymentUnitProcessingException) cause;
+                    } else if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    } else if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new DeploymentUnitProcessingException("Failed to index deployment root for annotations", cause);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DeploymentUnitProcessingException("Interrupted while indexing deployment roots for annotations", e);
+        } finally {
+            // after a failure, do not index the remaining roots of a deployment that will not be installed
+            for (Future<Void> result : results) {
+                result.cancel(true);
+            }
+        }
+    }
+
     /**
      * Creates and attaches the annotation index to a resource root, if it has not already been attached
      */
     public static void indexResourceRoot(final ResourceRoot resourceRoot) throws DeploymentUnitProcessingException {
+        indexResourceRoot(null, resourceRoot, null);
+    }
+
+    private static void indexResourceRoot(final DeploymentUnit deploymentUnit, final ResourceRoot resourceRoot, final AnnotationIndexCache cache) throws DeploymentUnitProcessingException {
         if (resourceRoot.getAttachment(Attachments.ANNOTATION_INDEX) != null) {
             return;
         }
@@ -50,6 +138,14 @@ public class ResourceRootIndexer {
             return;
         }
 
+        if (cache != null) {
+            final Index cached = cache.getIndex(deploymentUnit, resourceRoot);
+            if (cached != null) {
+                resourceRoot.putAttachment(Attachments.ANNOTATION_INDEX, cached);
+                return;
+            }
+        }
+
         final List<String> indexIgnorePathList = resourceRoot.getAttachment(Attachments.INDEX_IGNORE_PATHS);
         final Set<String> indexIgnorePaths;
         if (indexIgnorePathList != null && !indexIgnorePathList.isEmpty()) {
@@ -58,6 +154,7 @@ public class ResourceRootIndexer {
             indexIgnorePaths = null;
         }
 
+        final long start = System.currentTimeMillis();
         final VirtualFile virtualFile = resourceRoot.getRoot();
         final Indexer indexer = new Indexer();
         try {
@@ -83,9 +180,24 @@ public class ResourceRootIndexer {
             }
             final Index index = indexer.complete();
             resourceRoot.putAttachment(Attachments.ANNOTATION_INDEX, index);
-            ServerLogger.DEPLOYMENT_LOGGER.tracef("Generated index for archive %s", virtualFile);
+            if (cache != null) {
+                cache.putIndex(deploymentUnit, resourceRoot, index);
+            }
+            ServerLogger.DEPLOYMENT_LOGGER.debugf("Generated index for archive %s from %d classes in %d ms", virtualFile, classChildren.size(), System.currentTimeMillis() - start);
         } catch (Throwable t) {
             throw new DeploymentUnitProcessingException("Failed to index deployment root for annotations", t);
         }
     }
-}
\ No newline at end of file
+
+    private static final class IndexerThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        public Thread newThread(final Runnable r) {
+            final Thread thread = new Thread(r, "Annotation Indexer " + count.incrementAndGet());
+            thread.setDaemon(true);
+            // the thread outlives the deployment that happened to start it
+            thread.setContextClassLoader(ResourceRootIndexer.class.getClassLoader());
+            return thread;
+        }
+    }
+}
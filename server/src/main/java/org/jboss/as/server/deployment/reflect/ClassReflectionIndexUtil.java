@@ -47,16 +47,7 @@ public class ClassReflectionIndexUtil {
      * @return
      */
     public static Method findMethod(final DeploymentReflectionIndex deploymentReflectionIndex, final Class<?> clazz, final MethodIdentifier methodIdentifier) {
-        Class<?> c = clazz;
-        while (c != null) {
-            final ClassReflectionIndex<?> index = deploymentReflectionIndex.getClassIndex(c);
-            final Method method = index.getMethod(methodIdentifier);
-            if(method != null) {
-                return method;
-            }
-            c = c.getSuperclass();
-        }
-        return null;
+        return deploymentReflectionIndex.findMethod(clazz, methodIdentifier);
     }
 
     /**
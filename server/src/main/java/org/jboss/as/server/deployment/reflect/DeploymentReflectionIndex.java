@@ -22,17 +22,26 @@
 
 package org.jboss.as.server.deployment.reflect;
 
+import java.lang.reflect.Method;
 import java.security.Permission;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.jboss.invocation.proxy.MethodIdentifier;
 
 /**
  * A reflection index for a deployment.
+ * <p/>
+ * The index is safe for concurrent use by the deployment processors; class indexes are built lazily on first
+ * access without holding a lock over the whole index.
  *
  * @author <a href="mailto:david.lloyd@redhat.com">David M. Lloyd</a>
  */
 public final class DeploymentReflectionIndex {
-    private final Map<Class<?>, ClassReflectionIndex<?>> classes = new HashMap<Class<?>, ClassReflectionIndex<?>>();
+    private static final Object NO_METHOD = new Object();
+
+    private final ConcurrentMap<Class<?>, ClassReflectionIndex<?>> classes = new ConcurrentHashMap<Class<?>, ClassReflectionIndex<?>>();
+    private final ConcurrentMap<Class<?>, ConcurrentMap<MethodIdentifier, Object>> resolvedMethods = new ConcurrentHashMap<Class<?>, ConcurrentMap<MethodIdentifier, Object>>();
 
     DeploymentReflectionIndex() {
     }
@@ -59,15 +68,50 @@ public final class DeploymentReflectionIndex {
      * @return the index
      */
     @SuppressWarnings({"unchecked"})
-    public synchronized <T> ClassReflectionIndex<T> getClassIndex(Class<T> clazz) {
-        try {
-            ClassReflectionIndex<T> index = (ClassReflectionIndex<T>) classes.get(clazz);
+    public <T> ClassReflectionIndex<T> getClassIndex(Class<T> clazz) {
+        ClassReflectionIndex<T> index = (ClassReflectionIndex<T>) classes.get(clazz);
+        if (index == null) {
+            final ClassReflectionIndex<T> newIndex;
+            try {
+                newIndex = new ClassReflectionIndex<T>(clazz, this);
+            } catch (Throwable e) {
+                throw new RuntimeException("Error getting reflective information for " + clazz + " with ClassLoader " + clazz.getClassLoader(), e);
+            }
+            // two threads may race to index the same class; the first one wins and the other copy is discarded
+            index = (ClassReflectionIndex<T>) classes.putIfAbsent(clazz, newIndex);
             if (index == null) {
-                classes.put(clazz, index = new ClassReflectionIndex<T>(clazz, this));
+                index = newIndex;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Find a method on the given class or one of its superclasses, remembering the result so that later lookups
+     * of the same signature do not walk the hierarchy again.
+     *
+     * @param clazz the class to start the search from
+     * @param methodIdentifier the method identifier
+     * @return the method, or {@code null} if no such method exists in the hierarchy
+     */
+    Method findMethod(final Class<?> clazz, final MethodIdentifier methodIdentifier) {
+        ConcurrentMap<MethodIdentifier, Object> methods = resolvedMethods.get(clazz);
+        if (methods == null) {
+            final ConcurrentMap<MethodIdentifier, Object> newMethods = new ConcurrentHashMap<MethodIdentifier, Object>();
+            methods = resolvedMethods.putIfAbsent(clazz, newMethods);
+            if (methods == null) {
+                methods = newMethods;
             }
-            return index;
-        } catch (Throwable e) {
-            throw new RuntimeException("Error getting reflective information for " + clazz + " with ClassLoader " + clazz.getClassLoader(), e);
         }
+        final Object cached = methods.get(methodIdentifier);
+        if (cached != null) {
+            return cached == NO_METHOD ? null : (Method) cached;
+        }
+        Method method = null;
+        for (Class<?> c = clazz; c != null && method == null; c = c.getSuperclass()) {
+            method = getClassIndex(c).getMethod(methodIdentifier);
+        }
+        methods.putIfAbsent(methodIdentifier, method == null ? NO_METHOD : method);
+        return method;
     }
 }
@@ -0,0 +1,103 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.mgmt;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAME;
+
+import org.jboss.as.controller.AttributeDefinition;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.OperationStepHandler;
+import org.jboss.as.controller.SimpleAttributeDefinition;
+import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.as.controller.client.helpers.MeasurementUnit;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
+import org.jboss.as.server.mgmt.domain.HttpManagement;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.jboss.msc.service.ServiceController;
+
+/**
+ * Reads the request metrics of the HTTP management interface, on a standalone server or a host controller.
+ */
+public final class HttpManagementMetricsHandler implements OperationStepHandler {
+
+    public static final SimpleAttributeDefinition REQUEST_COUNT = new SimpleAttributeDefinitionBuilder("request-count", ModelType.LONG, true)
+            .setStorageRuntime()
+            .build();
+
+    public static final SimpleAttributeDefinition TOTAL_REQUEST_TIME = new SimpleAttributeDefinitionBuilder("total-request-time", ModelType.LONG, true)
+            .setMeasurementUnit(MeasurementUnit.MILLISECONDS)
+            .setStorageRuntime()
+            .build();
+
+    public static final SimpleAttributeDefinition MAX_REQUEST_TIME = new SimpleAttributeDefinitionBuilder("max-request-time", ModelType.LONG, true)
+            .setMeasurementUnit(MeasurementUnit.MILLISECONDS)
+            .setStorageRuntime()
+            .build();
+
+    public static final AttributeDefinition[] METRICS = new AttributeDefinition[] {REQUEST_COUNT, TOTAL_REQUEST_TIME, MAX_REQUEST_TIME};
+
+    public static final HttpManagementMetricsHandler INSTANCE = new HttpManagementMetricsHandler();
+
+    private HttpManagementMetricsHandler() {
+    }
+
+    /**
+     * Registers the request metrics on the HTTP management interface resource.
+     *
+     * @param resourceRegistration the registration of the HTTP management interface resource
+     */
+    public static void registerMetrics(final ManagementResourceRegistration resourceRegistration) {
+        for (AttributeDefinition metric : METRICS) {
+            resourceRegistration.registerMetric(metric, INSTANCE);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void execute(final OperationContext context, final ModelNode operation) throws OperationFailedException {
+        final String attributeName = operation.require(NAME).asString();
+        context.addStep(new OperationStepHandler() {
+            @Override
+            public void execute(final OperationContext context, final ModelNode operation) throws OperationFailedException {
+                final ServiceController<?> controller = context.getServiceRegistry(false).getService(HttpManagementService.SERVICE_NAME);
+                final ModelNode result = context.getResult();
+                if (controller != null && controller.getState() == ServiceController.State.UP) {
+                    final HttpManagement management = HttpManagement.class.cast(controller.getValue());
+                    if (REQUEST_COUNT.getName().equals(attributeName)) {
+                        result.set(management.getRequestCount());
+                    } else if (TOTAL_REQUEST_TIME.getName().equals(attributeName)) {
+                        result.set(management.getTotalRequestTime());
+                    } else if (MAX_REQUEST_TIME.getName().equals(attributeName)) {
+                        result.set(management.getMaxRequestTime());
+                    }
+                } else {
+                    result.set(0L);
+                }
+                context.completeStep();
+            }
+        }, OperationContext.Stage.RUNTIME);
+        context.completeStep();
+    }
+}
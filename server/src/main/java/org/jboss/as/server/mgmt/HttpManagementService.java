@@ -24,7 +24,11 @@ package org.jboss.as.server.mgmt;
 
 import java.net.BindException;
 import java.net.InetSocketAddress;
+import java.security.AccessController;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.jboss.as.controller.ModelController;
 import org.jboss.as.controller.client.ModelControllerClient;
@@ -43,6 +47,7 @@ import org.jboss.msc.service.StartContext;
 import org.jboss.msc.service.StartException;
 import org.jboss.msc.service.StopContext;
 import org.jboss.msc.value.InjectedValue;
+import org.jboss.threads.JBossThreadFactory;
 
 /**
  * A service which launches the domain HTTP API and serverManagement.
@@ -52,6 +57,8 @@ import org.jboss.msc.value.InjectedValue;
 public class HttpManagementService implements Service<HttpManagement> {
     public static final ServiceName SERVICE_NAME = ServiceName.JBOSS.append("serverManagement", "controller", "management", "http");
 
+    private static final int MAX_REQUEST_THREADS = Math.max(1, Integer.getInteger("jboss.management.http.max-threads", 10));
+
     private final InjectedValue<ModelController> modelControllerValue = new InjectedValue<ModelController>();
     private final InjectedValue<SocketBinding> injectedSocketBindingValue = new InjectedValue<SocketBinding>();
     private final InjectedValue<SocketBinding> injectedSecureSocketBindingValue = new InjectedValue<SocketBinding>();
@@ -61,7 +68,8 @@ public class HttpManagementService implements Service<HttpManagement> {
     private final InjectedValue<Integer> securePortValue = new InjectedValue<Integer>();
     private final InjectedValue<ExecutorService> executorServiceValue = new InjectedValue<ExecutorService>();
     private final InjectedValue<SecurityRealmService> securityRealmServiceValue = new InjectedValue<SecurityRealmService>();
-    private ManagementHttpServer serverManagement;
+    private volatile ManagementHttpServer serverManagement;
+    private ThreadPoolExecutor requestExecutor;
     private SocketBindingManager socketBindingManager;
     private boolean useUnmanagedBindings = false;
     private ManagedBinding basicManagedBinding;
@@ -109,6 +117,24 @@ public class HttpManagementService implements Service<HttpManagement> {
             }
             return binding;
         }
+
+        @Override
+        public long getRequestCount() {
+            final ManagementHttpServer server = serverManagement;
+            return server == null ? 0 : server.getRequestCount();
+        }
+
+        @Override
+        public long getTotalRequestTime() {
+            final ManagementHttpServer server = serverManagement;
+            return server == null ? 0 : server.getTotalRequestTime();
+        }
+
+        @Override
+        public long getMaxRequestTime() {
+            final ManagementHttpServer server = serverManagement;
+            return server == null ? 0 : server.getMaxRequestTime();
+        }
     };
 
     /**
@@ -150,8 +176,12 @@ public class HttpManagementService implements Service<HttpManagement> {
             }
         }
 
+        // requests get their own bounded pool, so a burst of slow management requests cannot grow the thread count without limit
+        requestExecutor = new ThreadPoolExecutor(MAX_REQUEST_THREADS, MAX_REQUEST_THREADS, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new JBossThreadFactory(new ThreadGroup("HttpManagementService-requests"), Boolean.FALSE, null, "%G - %t", null, null, AccessController.getContext()));
+        requestExecutor.allowCoreThreadTimeOut(true);
         try {
-            serverManagement = ManagementHttpServer.create(bindAddress, secureBindAddress, 50, modelControllerClient, executorService, securityRealmService);
+            serverManagement = ManagementHttpServer.create(bindAddress, secureBindAddress, 50, modelControllerClient, requestExecutor, securityRealmService);
             serverManagement.start();
 
             // Register the now-created sockets with the SBM
@@ -184,8 +214,10 @@ public class HttpManagementService implements Service<HttpManagement> {
                 sb.append(" ").append(bindAddress);
             if (secureBindAddress != null)
                 sb.append(" ").append(secureBindAddress);
+            shutdownRequestExecutor();
             throw new StartException(sb.toString(), e);
         } catch (Exception e) {
+            shutdownRequestExecutor();
             throw new StartException("Failed to start serverManagement socket", e);
         }
     }
@@ -201,6 +233,7 @@ public class HttpManagementService implements Service<HttpManagement> {
                 serverManagement.stop();
             } finally {
                 serverManagement = null;
+                shutdownRequestExecutor();
 
                 // Unregister sockets from the SBM
                 if (socketBindingManager != null) {
@@ -220,6 +253,13 @@ public class HttpManagementService implements Service<HttpManagement> {
         }
     }
 
+    private void shutdownRequestExecutor() {
+        if (requestExecutor != null) {
+            requestExecutor.shutdown();
+            requestExecutor = null;
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -37,4 +37,19 @@ public interface HttpManagement {
 
     NetworkInterfaceBinding getHttpsNetworkInterfaceBinding();
 
+    /**
+     * @return the number of management API requests handled since the interface was started
+     */
+    long getRequestCount();
+
+    /**
+     * @return the total time spent handling management API requests, in milliseconds
+     */
+    long getTotalRequestTime();
+
+    /**
+     * @return the time taken by the slowest management API request, in milliseconds
+     */
+    long getMaxRequestTime();
+
 }
@@ -0,0 +1,145 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.annotation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.jboss.as.server.deployment.Attachments;
+import org.jboss.as.server.deployment.DeploymentUnit;
+import org.jboss.as.server.deployment.module.ResourceRoot;
+import org.jboss.as.server.deployment.repository.impl.ContentRepositoryImpl;
+import org.jboss.jandex.DotName;
+import org.jboss.jandex.Index;
+import org.jboss.jandex.Indexer;
+import org.jboss.vfs.VFS;
+import org.jboss.vfs.VirtualFile;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the {@link AnnotationIndexCache}, and that removing content from the repository evicts its cached indexes.
+ */
+public class AnnotationIndexCacheTestCase {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private ContentRepositoryImpl repository;
+    private AnnotationIndexCache cache;
+    private byte[] hash;
+    private DeploymentUnit deploymentUnit;
+    private ResourceRoot resourceRoot;
+
+    @Before
+    public void setUp() throws Exception {
+        repository = new ContentRepositoryImpl(folder.newFolder("content")) {
+        };
+        cache = new AnnotationIndexCache(repository);
+        hash = repository.addContent(new ByteArrayInputStream(new byte[] { 1, 2, 3 }));
+
+        final VirtualFile deploymentRoot = VFS.getChild(folder.newFolder("deployment").toURI());
+        deploymentUnit = mock(DeploymentUnit.class);
+        when(deploymentUnit.getAttachment(Attachments.DEPLOYMENT_HASH)).thenReturn(hash);
+        when(deploymentUnit.getAttachment(Attachments.DEPLOYMENT_ROOT)).thenReturn(new ResourceRoot(deploymentRoot, null));
+        resourceRoot = new ResourceRoot(deploymentRoot.getChild("lib/test.jar"), null);
+    }
+
+    @Test
+    public void testCachedIndexIsReused() throws Exception {
+        assertNull(cache.getIndex(deploymentUnit, resourceRoot));
+        assertEquals(1, cache.getMissCount());
+
+        cache.putIndex(deploymentUnit, resourceRoot, createIndex());
+        final Index cached = cache.getIndex(deploymentUnit, resourceRoot);
+        assertNotNull(cached);
+        assertNotNull(cached.getClassByName(DotName.createSimple(AnnotationIndexCacheTestCase.class.getName())));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testCorruptIndexIsDiscarded() throws Exception {
+        cache.putIndex(deploymentUnit, resourceRoot, createIndex());
+        final File[] files = getIndexDir().listFiles();
+        assertEquals(1, files.length);
+        final FileOutputStream out = new FileOutputStream(files[0]);
+        try {
+            out.write(new byte[] { 0, 1, 2, 3 });
+        } finally {
+            out.close();
+        }
+
+        assertNull(cache.getIndex(deploymentUnit, resourceRoot));
+        assertFalse(files[0].exists());
+        assertEquals(0, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testRemoveContentEvictsCachedIndexes() throws Exception {
+        cache.putIndex(deploymentUnit, resourceRoot, createIndex());
+        assertTrue(getIndexDir().isDirectory());
+
+        repository.removeContent(hash);
+        assertFalse(getIndexDir().exists());
+        assertFalse(repository.hasContent(hash));
+    }
+
+    @Test
+    public void testDeploymentOutsideRepositoryIsNotCached() throws Exception {
+        when(deploymentUnit.getAttachment(Attachments.DEPLOYMENT_HASH)).thenReturn(null);
+        cache.putIndex(deploymentUnit, resourceRoot, createIndex());
+        assertNull(cache.getIndex(deploymentUnit, resourceRoot));
+        assertEquals(0, cache.getHitCount());
+        assertEquals(0, cache.getMissCount());
+    }
+
+    private File getIndexDir() throws IOException {
+        return new File(repository.getContent(hash).getPhysicalFile().getParentFile(), "annotation-index");
+    }
+
+    private static Index createIndex() throws Exception {
+        final Indexer indexer = new Indexer();
+        final InputStream in = AnnotationIndexCacheTestCase.class.getResourceAsStream(AnnotationIndexCacheTestCase.class.getSimpleName() + ".class");
+        try {
+            indexer.index(in);
+        } finally {
+            in.close();
+        }
+        return indexer.complete();
+    }
+}
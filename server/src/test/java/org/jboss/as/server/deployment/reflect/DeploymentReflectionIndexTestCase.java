@@ -0,0 +1,173 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.reflect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.jboss.invocation.proxy.MethodIdentifier;
+import org.junit.Test;
+
+/**
+ * Tests concurrent use of the {@link DeploymentReflectionIndex}.
+ */
+public class DeploymentReflectionIndexTestCase {
+
+    private static final int THREADS = 8;
+
+    public static class Base {
+        public String inherited(int i) {
+            return String.valueOf(i);
+        }
+    }
+
+    public static class Child extends Base {
+        public void own() {
+        }
+    }
+
+    @Test
+    public void testFindMethodInHierarchy() throws Exception {
+        final DeploymentReflectionIndex index = DeploymentReflectionIndex.create();
+        final MethodIdentifier inherited = MethodIdentifier.getIdentifier(String.class, "inherited", int.class);
+        final Method method = ClassReflectionIndexUtil.findMethod(index, Child.class, inherited);
+        assertEquals(Base.class.getDeclaredMethod("inherited", int.class), method);
+        assertSame(method, ClassReflectionIndexUtil.findMethod(index, Child.class, inherited));
+
+        final MethodIdentifier missing = MethodIdentifier.getIdentifier(void.class, "missing");
+        assertNull(ClassReflectionIndexUtil.findMethod(index, Child.class, missing));
+        assertNull(ClassReflectionIndexUtil.findMethod(index, Child.class, missing));
+        assertNotNull(ClassReflectionIndexUtil.findMethod(index, Child.class, MethodIdentifier.getIdentifier(void.class, "own")));
+    }
+
+    @Test
+    public void testConcurrentAccessReturnsSingleIndex() throws Exception {
+        final DeploymentReflectionIndex index = DeploymentReflectionIndex.create();
+        final List<Class<?>> classes = collectClasses(500);
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<List<ClassReflectionIndex<?>>>> results = new ArrayList<Future<List<ClassReflectionIndex<?>>>>();
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(new Callable<List<ClassReflectionIndex<?>>>() {
+                    public List<ClassReflectionIndex<?>> call() throws Exception {
+                        start.await();
+                        final List<ClassReflectionIndex<?>> indexes = new ArrayList<ClassReflectionIndex<?>>();
+                        for (Class<?> clazz : classes) {
+                            indexes.add(index.getClassIndex(clazz));
+                        }
+                        return indexes;
+                    }
+                }));
+            }
+            start.countDown();
+            final List<ClassReflectionIndex<?>> first = results.get(0).get();
+            for (Future<List<ClassReflectionIndex<?>>> result : results) {
+                final List<ClassReflectionIndex<?>> indexes = result.get();
+                for (int i = 0; i < indexes.size(); i++) {
+                    assertSame(first.get(i), indexes.get(i));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testConcurrentFindMethodResolvesEveryMethod() throws Exception {
+        final DeploymentReflectionIndex index = DeploymentReflectionIndex.create();
+        final List<Class<?>> classes = collectClasses(500);
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final List<Callable<List<Method>>> tasks = new ArrayList<Callable<List<Method>>>();
+            for (int i = 0; i < THREADS; i++) {
+                final int offset = i * classes.size() / THREADS;
+                tasks.add(new Callable<List<Method>>() {
+                    public List<Method> call() {
+                        // every thread visits all classes, starting at a different point, the way the deployment phases do
+                        final List<Method> methods = new ArrayList<Method>();
+                        for (int j = 0; j < classes.size(); j++) {
+                            final Class<?> clazz = classes.get((j + offset) % classes.size());
+                            for (Method method : index.getClassIndex(clazz).getMethods()) {
+                                methods.add(ClassReflectionIndexUtil.findMethod(index, clazz, MethodIdentifier.getIdentifierForMethod(method)));
+                            }
+                        }
+                        return methods;
+                    }
+                });
+            }
+            final List<Future<List<Method>>> results = executor.invokeAll(tasks);
+            final Set<Method> first = new HashSet<Method>(results.get(0).get());
+            assertFalse(first.contains(null));
+            for (Future<List<Method>> result : results) {
+                assertEquals(first, new HashSet<Method>(result.get()));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<Class<?>> collectClasses(final int max) {
+        final Set<Class<?>> classes = new LinkedHashSet<Class<?>>();
+        final List<Class<?>> queue = new ArrayList<Class<?>>();
+        queue.add(java.util.concurrent.ConcurrentHashMap.class);
+        queue.add(javax.swing.JTable.class);
+        queue.add(java.net.URLClassLoader.class);
+        for (int i = 0; i < queue.size() && classes.size() < max; i++) {
+            final Class<?> clazz = queue.get(i);
+            if (clazz.isPrimitive() || clazz.isArray() || !classes.add(clazz)) {
+                continue;
+            }
+            try {
+                for (Field field : clazz.getDeclaredFields()) {
+                    queue.add(field.getType());
+                }
+                for (Method method : clazz.getDeclaredMethods()) {
+                    queue.add(method.getReturnType());
+                }
+            } catch (Throwable ignored) {
+                // not every type can be introspected
+            }
+            if (clazz.getSuperclass() != null) {
+                queue.add(clazz.getSuperclass());
+            }
+        }
+        return new ArrayList<Class<?>>(classes);
+    }
+}
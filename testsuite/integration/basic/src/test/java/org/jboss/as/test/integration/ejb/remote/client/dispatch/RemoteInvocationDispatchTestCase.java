@@ -0,0 +1,79 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.test.integration.ejb.remote.client.dispatch;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.ejb.client.EJBClient;
+import org.jboss.ejb.client.StatelessEJBLocator;
+import org.jboss.shrinkwrap.api.Archive;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Tests that remote invocations of overloaded methods are dispatched to the method the client invoked, including when
+ * the same methods are invoked repeatedly.
+ */
+@RunWith(Arquillian.class)
+@RunAsClient
+public class RemoteInvocationDispatchTestCase {
+
+    private static final String MODULE_NAME = "ejb-remote-dispatch";
+
+    private static final int INVOCATIONS = 10;
+
+    @Deployment
+    public static Archive<?> createDeployment() {
+        final JavaArchive jar = ShrinkWrap.create(JavaArchive.class, MODULE_NAME + ".jar");
+        jar.addPackage(RemoteInvocationDispatchTestCase.class.getPackage());
+        return jar;
+    }
+
+    @Test
+    public void testOverloadedMethods() throws Exception {
+        final OverloadedRemote bean = lookup();
+        for (int i = 0; i < INVOCATIONS; i++) {
+            Assert.assertEquals("describe()", bean.describe());
+            Assert.assertEquals("describe(text)", bean.describe("text"));
+            Assert.assertEquals("describe(3 values)", bean.describe(new int[] {1, 2, 3}));
+            Assert.assertEquals("describe(" + i + ", 2 values, text)", bean.describe(i, new int[] {1, 2}, "text"));
+        }
+    }
+
+    @Test
+    public void testNullArguments() throws Exception {
+        final OverloadedRemote bean = lookup();
+        Assert.assertEquals("describe(null)", bean.describe((String) null));
+        Assert.assertEquals("describe(null, 0 values, null)", bean.describe(null, new int[0], null));
+    }
+
+    private OverloadedRemote lookup() {
+        final StatelessEJBLocator<OverloadedRemote> locator = new StatelessEJBLocator<OverloadedRemote>(OverloadedRemote.class, "", MODULE_NAME, OverloadedBean.class.getSimpleName(), "");
+        final OverloadedRemote bean = EJBClient.createProxy(locator);
+        Assert.assertNotNull("Received a null proxy", bean);
+        return bean;
+    }
+}
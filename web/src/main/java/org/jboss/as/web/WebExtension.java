@@ -37,6 +37,7 @@ import org.jboss.as.controller.registry.AttributeAccess.Storage;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.controller.registry.OperationEntry;
 import org.jboss.as.web.deployment.ServletDeploymentStats;
+import org.jboss.as.web.deployment.SessionDeploymentStats;
 import org.jboss.dmr.ModelType;
 import org.jboss.logging.Logger;
 
@@ -181,6 +182,7 @@ public class WebExtension implements Extension {
         container.registerReadWriteAttribute(Constants.WELCOME_FILE, null, new WriteAttributeHandlers. ListValidatatingHandler(new StringLengthValidator(1, false), true), Storage.CONFIGURATION);
 
         final ManagementResourceRegistration deployments = subsystem.registerDeploymentModel(WebSubsystemDescriptionProviders.DEPLOYMENT);
+        SessionDeploymentStats.register(deployments);
         final ManagementResourceRegistration servlets = deployments.registerSubModel(PathElement.pathElement("servlet"), WebSubsystemDescriptionProviders.SERVLET);
         ServletDeploymentStats.register(servlets);
     }
@@ -705,7 +705,30 @@ class WebSubsystemDescriptions {
         final ModelNode node = new ModelNode();
 
         node.get(DESCRIPTION).set(bundle.getString("web.deployment"));
-        node.get(ATTRIBUTES).setEmptyObject();
+        node.get(ATTRIBUTES, "marshalled-session-attributes", DESCRIPTION).set(bundle.getString("web.deployment.marshalled-session-attributes"));
+        node.get(ATTRIBUTES, "marshalled-session-attributes", TYPE).set(ModelType.LONG);
+        node.get(ATTRIBUTES, "marshalled-session-attribute-bytes", DESCRIPTION).set(bundle.getString("web.deployment.marshalled-session-attribute-bytes"));
+        node.get(ATTRIBUTES, "marshalled-session-attribute-bytes", TYPE).set(ModelType.LONG);
+        node.get(ATTRIBUTES, "session-attribute-marshal-time", DESCRIPTION).set(bundle.getString("web.deployment.session-attribute-marshal-time"));
+        node.get(ATTRIBUTES, "session-attribute-marshal-time", TYPE).set(ModelType.LONG);
+        node.get(ATTRIBUTES, "local-session-ownership-acquisitions", DESCRIPTION).set(bundle.getString("web.deployment.local-session-ownership-acquisitions"));
+        node.get(ATTRIBUTES, "local-session-ownership-acquisitions", TYPE).set(ModelType.LONG);
+        node.get(ATTRIBUTES, "local-session-ownership-acquisition-time", DESCRIPTION).set(bundle.getString("web.deployment.local-session-ownership-acquisition-time"));
+        node.get(ATTRIBUTES, "local-session-ownership-acquisition-time", TYPE).set(ModelType.LONG);
+        node.get(ATTRIBUTES, "cluster-session-ownership-acquisitions", DESCRIPTION).set(bundle.getString("web.deployment.cluster-session-ownership-acquisitions"));
+        node.get(ATTRIBUTES, "cluster-session-ownership-acquisitions", TYPE).set(ModelType.LONG);
+        node.get(ATTRIBUTES, "cluster-session-ownership-acquisition-time", DESCRIPTION).set(bundle.getString("web.deployment.cluster-session-ownership-acquisition-time"));
+        node.get(ATTRIBUTES, "cluster-session-ownership-acquisition-time", TYPE).set(ModelType.LONG);
+        node.get(ATTRIBUTES, "session-ownership-yields", DESCRIPTION).set(bundle.getString("web.deployment.session-ownership-yields"));
+        node.get(ATTRIBUTES, "session-ownership-yields", TYPE).set(ModelType.LONG);
+        node.get(ATTRIBUTES, "snapshot-batches", DESCRIPTION).set(bundle.getString("web.deployment.snapshot-batches"));
+        node.get(ATTRIBUTES, "snapshot-batches", TYPE).set(ModelType.LONG);
+        node.get(ATTRIBUTES, "max-snapshot-batch-size", DESCRIPTION).set(bundle.getString("web.deployment.max-snapshot-batch-size"));
+        node.get(ATTRIBUTES, "max-snapshot-batch-size", TYPE).set(ModelType.LONG);
+        node.get(ATTRIBUTES, "average-snapshot-replication-lag", DESCRIPTION).set(bundle.getString("web.deployment.average-snapshot-replication-lag"));
+        node.get(ATTRIBUTES, "average-snapshot-replication-lag", TYPE).set(ModelType.LONG);
+        node.get(ATTRIBUTES, "max-snapshot-replication-lag", DESCRIPTION).set(bundle.getString("web.deployment.max-snapshot-replication-lag"));
+        node.get(ATTRIBUTES, "max-snapshot-replication-lag", TYPE).set(ModelType.LONG);
         node.get(OPERATIONS); // placeholder
 
         node.get(CHILDREN, "servlet", DESCRIPTION).set(bundle.getString("web.deployment.servlet"));
@@ -0,0 +1,158 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.web.deployment;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.Manager;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.OperationStepHandler;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
+import org.jboss.as.web.WebSubsystemServices;
+import org.jboss.as.web.session.DistributableSessionManagerMBean;
+import org.jboss.dmr.ModelNode;
+import org.jboss.msc.service.ServiceController;
+
+/**
+ * Session replication metrics of a web deployment.
+ */
+public class SessionDeploymentStats {
+
+    public static final String MARSHALLED_SESSION_ATTRIBUTES = "marshalled-session-attributes";
+    public static final String MARSHALLED_SESSION_ATTRIBUTE_BYTES = "marshalled-session-attribute-bytes";
+    public static final String SESSION_ATTRIBUTE_MARSHAL_TIME = "session-attribute-marshal-time";
+    public static final String LOCAL_SESSION_OWNERSHIP_ACQUISITIONS = "local-session-ownership-acquisitions";
+    public static final String LOCAL_SESSION_OWNERSHIP_ACQUISITION_TIME = "local-session-ownership-acquisition-time";
+    public static final String CLUSTER_SESSION_OWNERSHIP_ACQUISITIONS = "cluster-session-ownership-acquisitions";
+    public static final String CLUSTER_SESSION_OWNERSHIP_ACQUISITION_TIME = "cluster-session-ownership-acquisition-time";
+    public static final String SESSION_OWNERSHIP_YIELDS = "session-ownership-yields";
+    public static final String SNAPSHOT_BATCHES = "snapshot-batches";
+    public static final String MAX_SNAPSHOT_BATCH_SIZE = "max-snapshot-batch-size";
+    public static final String AVERAGE_SNAPSHOT_REPLICATION_LAG = "average-snapshot-replication-lag";
+    public static final String MAX_SNAPSHOT_REPLICATION_LAG = "max-snapshot-replication-lag";
+
+    public static void register(final ManagementResourceRegistration registration) {
+
+        registration.registerMetric(MARSHALLED_SESSION_ATTRIBUTES, new AbstractMetricsHandler() {
+            @Override
+            long handle(final DistributableSessionManagerMBean manager) {
+                return manager.getMarshalledAttributeCount();
+            }
+        });
+        registration.registerMetric(MARSHALLED_SESSION_ATTRIBUTE_BYTES, new AbstractMetricsHandler() {
+            @Override
+            long handle(final DistributableSessionManagerMBean manager) {
+                return manager.getMarshalledAttributeBytes();
+            }
+        });
+        registration.registerMetric(SESSION_ATTRIBUTE_MARSHAL_TIME, new AbstractMetricsHandler() {
+            @Override
+            long handle(final DistributableSessionManagerMBean manager) {
+                return manager.getAttributeMarshalTime();
+            }
+        });
+        registration.registerMetric(LOCAL_SESSION_OWNERSHIP_ACQUISITIONS, new AbstractMetricsHandler() {
+            @Override
+            long handle(final DistributableSessionManagerMBean manager) {
+                return manager.getLocalOwnershipAcquisitionCount();
+            }
+        });
+        registration.registerMetric(LOCAL_SESSION_OWNERSHIP_ACQUISITION_TIME, new AbstractMetricsHandler() {
+            @Override
+            long handle(final DistributableSessionManagerMBean manager) {
+                return manager.getLocalOwnershipAcquisitionTime();
+            }
+        });
+        registration.registerMetric(CLUSTER_SESSION_OWNERSHIP_ACQUISITIONS, new AbstractMetricsHandler() {
+            @Override
+            long handle(final DistributableSessionManagerMBean manager) {
+                return manager.getClusterOwnershipAcquisitionCount();
+            }
+        });
+        registration.registerMetric(CLUSTER_SESSION_OWNERSHIP_ACQUISITION_TIME, new AbstractMetricsHandler() {
+            @Override
+            long handle(final DistributableSessionManagerMBean manager) {
+                return manager.getClusterOwnershipAcquisitionTime();
+            }
+        });
+        registration.registerMetric(SESSION_OWNERSHIP_YIELDS, new AbstractMetricsHandler() {
+            @Override
+            long handle(final DistributableSessionManagerMBean manager) {
+                return manager.getOwnershipYieldCount();
+            }
+        });
+        registration.registerMetric(SNAPSHOT_BATCHES, new AbstractMetricsHandler() {
+            @Override
+            long handle(final DistributableSessionManagerMBean manager) {
+                return manager.getSnapshotBatchCount();
+            }
+        });
+        registration.registerMetric(MAX_SNAPSHOT_BATCH_SIZE, new AbstractMetricsHandler() {
+            @Override
+            long handle(final DistributableSessionManagerMBean manager) {
+                return manager.getMaxSnapshotBatchSize();
+            }
+        });
+        registration.registerMetric(AVERAGE_SNAPSHOT_REPLICATION_LAG, new AbstractMetricsHandler() {
+            @Override
+            long handle(final DistributableSessionManagerMBean manager) {
+                return manager.getAverageSnapshotReplicationLag();
+            }
+        });
+        registration.registerMetric(MAX_SNAPSHOT_REPLICATION_LAG, new AbstractMetricsHandler() {
+            @Override
+            long handle(final DistributableSessionManagerMBean manager) {
+                return manager.getMaxSnapshotReplicationLag();
+            }
+        });
+    }
+
+    abstract static class AbstractMetricsHandler implements OperationStepHandler {
+
+        abstract long handle(DistributableSessionManagerMBean manager);
+
+        @Override
+        public void execute(final OperationContext context, final ModelNode operation) throws OperationFailedException {
+            final ModelNode model = context.readResource(PathAddress.EMPTY_ADDRESS).getModel();
+
+            final String host = model.require("virtual-host").asString();
+            final String path = model.require("context-root").asString();
+
+            context.addStep(new OperationStepHandler() {
+                @Override
+                public void execute(final OperationContext context, final ModelNode operation) throws OperationFailedException {
+                    final ServiceController<?> controller = context.getServiceRegistry(false).getService(WebSubsystemServices.deploymentServiceName(host, path));
+                    if (controller != null) {
+                        final Context webContext = Context.class.cast(controller.getValue());
+                        final Manager manager = webContext.getManager();
+                        // Only distributable web applications replicate their sessions
+                        context.getResult().set((manager instanceof DistributableSessionManagerMBean) ? handle((DistributableSessionManagerMBean) manager) : 0);
+                    }
+                    context.completeStep();
+                }
+            }, OperationContext.Stage.RUNTIME);
+            context.completeStep();
+        }
+    }
+
+}
@@ -70,6 +70,10 @@ public abstract class AbstractSessionManager extends ManagerBase implements Sess
     protected long timeSinceLastReset = 0;
     /** Cumulative time spent in backgroundProcess */
     protected AtomicLong processingTime = new AtomicLong();
+    /** Time in ms spent in the last call to backgroundProcess */
+    protected AtomicLong lastProcessingTime = new AtomicLong();
+    /** Maximum time in ms spent in a single call to backgroundProcess */
+    protected AtomicLong maxProcessingTime = new AtomicLong();
     /** Maximum time in ms a now expired session has been alive */
     protected AtomicInteger maxAliveTime = new AtomicInteger();
     /** Average time in ms a now expired session has been alive */
@@ -133,7 +137,12 @@ public abstract class AbstractSessionManager extends ManagerBase implements Sess
 
                 processExpirationPassivation();
 
-                processingTime.addAndGet(System.currentTimeMillis() - start);
+                long elapsed = System.currentTimeMillis() - start;
+                processingTime.addAndGet(elapsed);
+                lastProcessingTime.set(elapsed);
+                if (elapsed > maxProcessingTime.get()) {
+                    maxProcessingTime.set(elapsed);
+                }
             }
         }
     }
@@ -230,6 +239,8 @@ public abstract class AbstractSessionManager extends ManagerBase implements Sess
         createdCounter.set(0);
         expiredCounter.set(0);
         processingTime.set(0);
+        lastProcessingTime.set(0);
+        maxProcessingTime.set(0);
         maxAliveTime.set(0);
         averageAliveTime.set(0);
         duplicates.set(0);
@@ -241,6 +252,16 @@ public abstract class AbstractSessionManager extends ManagerBase implements Sess
         return this.timeSinceLastReset;
     }
 
+    @Override
+    public long getLastProcessingTime() {
+        return this.lastProcessingTime.get();
+    }
+
+    @Override
+    public long getMaxProcessingTime() {
+        return this.maxProcessingTime.get();
+    }
+
     @Override
     public long getActiveSessionCount() {
         return calcActiveSessions();
@@ -342,7 +363,7 @@ public abstract class AbstractSessionManager extends ManagerBase implements Sess
      * @return the size of the sessions map + the size of the unloaded sessions map - the count of passivated sessions
      */
     protected int calcActiveSessions() {
-        localActiveCounter.set(sessions.size());
+        updateLocalActiveCounter();
         int active = localActiveCounter.get();
         int maxLocal = maxLocalActiveCounter.get();
         while (active > maxLocal) {
@@ -363,6 +384,14 @@ public abstract class AbstractSessionManager extends ManagerBase implements Sess
         return count;
     }
 
+    /**
+     * Brings {@link #localActiveCounter} up to date with the sessions map before the active sessions are calculated.
+     * Subclasses that maintain the counter as sessions are added and removed can override this to avoid counting the map.
+     */
+    protected void updateLocalActiveCounter() {
+        localActiveCounter.set(sessions.size());
+    }
+
     /** Get the total number of active sessions */
     protected abstract int getTotalActiveSessions();
 }
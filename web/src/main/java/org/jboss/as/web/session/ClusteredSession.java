@@ -467,6 +467,9 @@ public abstract class ClusteredSession<O extends OutgoingDistributableSessionDat
         }
         checkAlwaysReplicateTimestamp();
         sessionMetadataDirty();
+        if (this.realId != null && this.manager != null) {
+            this.manager.sessionMaxInactiveIntervalChanged(this.realId);
+        }
     }
 
     @Override
@@ -968,6 +971,7 @@ public abstract class ClusteredSession<O extends OutgoingDistributableSessionDat
         // TODO -- get rid of these field and delegate to metadata
         this.id = md.getId();
         this.creationTime = md.getCreationTime();
+        int previousMaxInactiveInterval = this.maxInactiveInterval;
         this.maxInactiveInterval = md.getMaxInactiveInterval();
         this.isNew = md.isNew();
         this.isValid = md.isValid();
@@ -976,6 +980,11 @@ public abstract class ClusteredSession<O extends OutgoingDistributableSessionDat
         // Get our id without any jvmRoute appended
         parseRealId(id);
 
+        // The timeout may have been changed on another node
+        if (this.maxInactiveInterval != previousMaxInactiveInterval) {
+            this.manager.sessionMaxInactiveIntervalChanged(this.realId);
+        }
+
         // We no longer know if we have an activationListener
         hasActivationListener = null;
 
@@ -1774,6 +1783,14 @@ public abstract class ClusteredSession<O extends OutgoingDistributableSessionDat
         }
     }
 
+    /**
+     * Marks this session as needing replication again, since the batch that replicated it was rolled back.
+     */
+    synchronized void replicationRolledBack() {
+        this.sessionMetadataDirty = true;
+        this.requireFullReplication();
+    }
+
     private void requireFullReplication() {
         this.fullReplicationRequired = true;
         this.fullReplicationWindow = System.currentTimeMillis() + FULL_REPLICATION_WINDOW_LENGTH;
@@ -66,4 +66,12 @@ public interface ClusteredSessionManager<O extends OutgoingDistributableSessionD
      * Gets the <code>DistributedCacheManager</code> through which we interact with the distributed cache.
      */
     DistributedCacheManager<O> getDistributedCacheManager();
+
+    /**
+     * Notifies the manager that the maximum inactive interval of a session changed, so that the session is checked for
+     * expiration in time.
+     *
+     * @param realId the session id, minus any jvmRoute
+     */
+    void sessionMaxInactiveIntervalChanged(String realId);
 }
@@ -64,6 +64,9 @@ import org.jboss.as.clustering.web.LocalDistributableSessionManager;
 import org.jboss.as.clustering.web.OutgoingAttributeGranularitySessionData;
 import org.jboss.as.clustering.web.OutgoingDistributableSessionData;
 import org.jboss.as.clustering.web.OutgoingSessionGranularitySessionData;
+import org.jboss.as.clustering.web.SessionAttributeMarshallingStatistics;
+import org.jboss.as.clustering.web.SessionOwnershipStatistics;
+import org.jboss.as.clustering.web.SessionOwnershipSupport;
 import org.jboss.as.web.session.notification.ClusteredSessionNotificationCapability;
 import org.jboss.as.web.session.notification.ClusteredSessionNotificationCause;
 import org.jboss.as.web.session.notification.ClusteredSessionNotificationPolicy;
@@ -85,6 +88,20 @@ public class DistributableSessionManager<O extends OutgoingDistributableSessionD
     private static final String info = "DistributableSessionManager/1.0";
 
     private static final int TOTAL_PERMITS = Integer.MAX_VALUE;
+    /**
+     * Every this many runs, the background process checks all sessions instead of only those the expiration index reports as
+     * due. This catches sessions whose deadline moved earlier without the index being told.
+     */
+    private static final int FULL_SWEEP_INTERVAL = 60;
+    /**
+     * Whether interval snapshots of all web applications are replicated from a single shared thread.
+     */
+    private static final boolean SHARED_SNAPSHOT_THREAD = AccessController.doPrivileged(new PrivilegedAction<Boolean>() {
+        @Override
+        public Boolean run() {
+            return Boolean.valueOf(System.getProperty("jboss.web.clustered.session.snapshot.shared", "false"));
+        }
+    }).booleanValue();
     @SuppressWarnings("unchecked")
     private static ContextClassLoaderSwitcher switcher = (ContextClassLoaderSwitcher) AccessController.doPrivileged(ContextClassLoaderSwitcher.INSTANTIATOR);
     private static final DistributedCacheManagerFactory defaultFactory = findDefaultFactory();
@@ -139,6 +156,14 @@ public class DistributableSessionManager<O extends OutgoingDistributableSessionD
     private final Map<String, OwnedSessionUpdate> unloadedSessions = new ConcurrentHashMap<String, OwnedSessionUpdate>();
     /** Sessions that have been created but not yet loaded. Used to ensure concurrent threads trying to load the same session */
     private final ConcurrentMap<String, ClusteredSession<O>> embryonicSessions = new ConcurrentHashMap<String, ClusteredSession<O>>();
+    /** Number of entries in the unloaded sessions map */
+    private final AtomicInteger unloadedCount = new AtomicInteger();
+    /** Ids of local and unloaded sessions by the time they next need to be checked for expiration or passivation */
+    private final SessionExpirationIndex expirationIndex = new SessionExpirationIndex();
+    /** Number of runs of the background process since start */
+    private volatile int processCount = 0;
+    /** Number of sessions checked by the last run of the background process */
+    private volatile int lastProcessedSessionCount = 0;
 
     public DistributableSessionManager(Container host, JBossWebMetaData metaData, ServiceRegistry registry) throws ClusteringNotSupportedException {
         this(defaultFactory, host, metaData, registry);
@@ -278,6 +303,9 @@ public class DistributableSessionManager<O extends OutgoingDistributableSessionD
             case INTERVAL: {
                 int interval = this.getSnapshotInterval();
                 if (interval > 0) {
+                    if (SHARED_SNAPSHOT_THREAD) {
+                        return new SharedIntervalSnapshotManager(this, ctxPath, interval, this.distributedCacheManager.getBatchingManager());
+                    }
                     return new IntervalSnapshotManager(this, ctxPath, interval);
                 }
                 log.warn("Snapshot mode set to 'interval' but snapshotInterval is < 1 or was not specified, using 'instant'");
@@ -327,7 +355,8 @@ public class DistributableSessionManager<O extends OutgoingDistributableSessionD
                 int maxLife = md == null ? getMaxInactiveInterval() : md.getMaxInactiveInterval();
 
                 OwnedSessionUpdate osu = new OwnedSessionUpdate(owner, lastMod, maxLife, false);
-                unloadedSessions.put(realId, osu);
+                addToUnloadedSessions(realId, osu);
+                scheduleExpirationCheck(realId);
             }
 
             if (passivate) {
@@ -463,8 +492,12 @@ public class DistributableSessionManager<O extends OutgoingDistributableSessionD
         // Clean up maps
         this.sessions.clear();
         this.unloadedSessions.clear();
+        this.expirationIndex.clear();
 
+        this.localActiveCounter.set(0);
+        this.unloadedCount.set(0);
         this.passivatedCount.set(0);
+        this.processCount = 0;
 
         // Notify our interested LifecycleListeners
         this.lifecycle.fireLifecycleEvent(STOP_EVENT, this);
@@ -545,13 +578,13 @@ public class DistributableSessionManager<O extends OutgoingDistributableSessionD
 
                 // Put the session in the unloadedSessions map. This will
                 // expose the session to regular invalidation.
-                Object obj = unloadedSessions.put(realId, new OwnedSessionUpdate(null, session.getLastAccessedTimeInternal(), session.getMaxInactiveInterval(), true));
+                Object obj = addToUnloadedSessions(realId, new OwnedSessionUpdate(null, session.getLastAccessedTimeInternal(), session.getMaxInactiveInterval(), true));
                 if (obj == null) {
                     log.tracef("New session %s added to unloaded session map", realId);
                 } else {
                     log.tracef("Updated timestamp for unloaded session %s", realId);
                 }
-                sessions.remove(realId);
+                removeFromSessions(realId);
             }
         } else {
             log.tracef("processSessionPassivation():  could not find session %s", realId);
@@ -715,7 +748,8 @@ public class DistributableSessionManager<O extends OutgoingDistributableSessionD
                 // from the distributed store; i.e. it's been invalidated elsewhere
                 // So we need to clean up
                 // TODO what about notifications?
-                this.sessions.remove(realId);
+                removeFromSessions(realId);
+                this.expirationIndex.cancel(realId);
             }
         }
 
@@ -789,7 +823,8 @@ public class DistributableSessionManager<O extends OutgoingDistributableSessionD
                 // from the distributed cache
                 SessionInvalidationTracker.sessionInvalidated(realId, this);
 
-                sessions.remove(realId);
+                removeFromSessions(realId);
+                this.expirationIndex.cancel(realId);
                 this.getReplicationStatistics().removeStats(realId);
 
                 // Compute how long this session has been alive, and update
@@ -843,7 +878,8 @@ public class DistributableSessionManager<O extends OutgoingDistributableSessionD
                 // from the distributed cache
                 SessionInvalidationTracker.sessionInvalidated(realId, this);
 
-                sessions.remove(realId);
+                removeFromSessions(realId);
+                this.expirationIndex.cancel(realId);
                 this.getReplicationStatistics().removeStats(realId);
 
                 // Compute how long this session has been alive, and update
@@ -934,10 +970,12 @@ public class DistributableSessionManager<O extends OutgoingDistributableSessionD
         }
 
         String realId = session.getRealId();
-        Object existing = sessions.put(realId, session);
-        unloadedSessions.remove(realId);
+        Object existing = addToSessions(realId, session);
+        removeFromUnloadedSessions(realId);
 
         if (!session.equals(existing)) {
+            scheduleExpirationCheck(realId);
+
             if (replicate) {
                 storeSession(session);
             }
@@ -1014,6 +1052,98 @@ public class DistributableSessionManager<O extends OutgoingDistributableSessionD
         return this.maxPassivatedCount.get();
     }
 
+    @Override
+    public int getLastProcessedSessionCount() {
+        return this.lastProcessedSessionCount;
+    }
+
+    @Override
+    public int getScheduledSessionCount() {
+        return this.expirationIndex.size();
+    }
+
+    @Override
+    public long getMarshalledAttributeCount() {
+        SessionAttributeMarshallingStatistics statistics = this.distributedCacheManager.getSessionAttributeMarshallingStatistics();
+        return (statistics != null) ? statistics.getMarshalledCount() : 0;
+    }
+
+    @Override
+    public long getMarshalledAttributeBytes() {
+        SessionAttributeMarshallingStatistics statistics = this.distributedCacheManager.getSessionAttributeMarshallingStatistics();
+        return (statistics != null) ? statistics.getMarshalledBytes() : 0;
+    }
+
+    @Override
+    public long getAttributeMarshalTime() {
+        SessionAttributeMarshallingStatistics statistics = this.distributedCacheManager.getSessionAttributeMarshallingStatistics();
+        return (statistics != null) ? statistics.getMarshalTime() : 0;
+    }
+
+    @Override
+    public long getLocalOwnershipAcquisitionCount() {
+        SessionOwnershipStatistics statistics = this.getSessionOwnershipStatistics();
+        return (statistics != null) ? statistics.getLocalAcquisitionCount() : 0;
+    }
+
+    @Override
+    public long getLocalOwnershipAcquisitionTime() {
+        SessionOwnershipStatistics statistics = this.getSessionOwnershipStatistics();
+        return (statistics != null) ? statistics.getLocalAcquisitionTime() : 0;
+    }
+
+    @Override
+    public long getClusterOwnershipAcquisitionCount() {
+        SessionOwnershipStatistics statistics = this.getSessionOwnershipStatistics();
+        return (statistics != null) ? statistics.getClusterAcquisitionCount() : 0;
+    }
+
+    @Override
+    public long getClusterOwnershipAcquisitionTime() {
+        SessionOwnershipStatistics statistics = this.getSessionOwnershipStatistics();
+        return (statistics != null) ? statistics.getClusterAcquisitionTime() : 0;
+    }
+
+    @Override
+    public long getOwnershipYieldCount() {
+        SessionOwnershipStatistics statistics = this.getSessionOwnershipStatistics();
+        return (statistics != null) ? statistics.getYieldCount() : 0;
+    }
+
+    private SessionOwnershipStatistics getSessionOwnershipStatistics() {
+        SessionOwnershipSupport support = this.distributedCacheManager.getSessionOwnershipSupport();
+        return (support != null) ? support.getSessionOwnershipStatistics() : null;
+    }
+
+    @Override
+    public long getSnapshotBatchCount() {
+        SharedIntervalSnapshotManager manager = this.getSharedIntervalSnapshotManager();
+        return (manager != null) ? manager.getBatchCount() : 0;
+    }
+
+    @Override
+    public int getMaxSnapshotBatchSize() {
+        SharedIntervalSnapshotManager manager = this.getSharedIntervalSnapshotManager();
+        return (manager != null) ? manager.getMaxBatchSize() : 0;
+    }
+
+    @Override
+    public long getAverageSnapshotReplicationLag() {
+        SharedIntervalSnapshotManager manager = this.getSharedIntervalSnapshotManager();
+        return (manager != null) ? manager.getAverageReplicationLag() : 0;
+    }
+
+    @Override
+    public long getMaxSnapshotReplicationLag() {
+        SharedIntervalSnapshotManager manager = this.getSharedIntervalSnapshotManager();
+        return (manager != null) ? manager.getMaxReplicationLag() : 0;
+    }
+
+    private SharedIntervalSnapshotManager getSharedIntervalSnapshotManager() {
+        SnapshotManager manager = this.snapshotManager;
+        return (manager instanceof SharedIntervalSnapshotManager) ? (SharedIntervalSnapshotManager) manager : null;
+    }
+
     @Override
     public long getPassivationMaxIdleTime() {
         return this.passivationMaxIdleTime;
@@ -1075,11 +1205,12 @@ public class DistributableSessionManager<O extends OutgoingDistributableSessionD
     @Override
     public void notifyRemoteInvalidation(String realId) {
         // Remove the session from our local map
-        ClusteredSession<O> session = cast(this.sessions.remove(realId));
+        ClusteredSession<O> session = removeFromSessions(realId);
+        this.expirationIndex.cancel(realId);
         if (session == null) {
             // We weren't managing the session anyway. But remove it
             // from the list of cached sessions we haven't loaded
-            if (unloadedSessions.remove(realId) != null) {
+            if (removeFromUnloadedSessions(realId) != null) {
                 log.tracef("Removed entry for session %s from unloaded session map", realId);
             }
 
@@ -1159,13 +1290,14 @@ public class DistributableSessionManager<O extends OutgoingDistributableSessionD
         } else {
             int maxLife = metadata == null ? getMaxInactiveInterval() : metadata.getMaxInactiveInterval();
 
-            Object existing = unloadedSessions.put(realId, new OwnedSessionUpdate(dataOwner, timestamp, maxLife, false));
+            Object existing = addToUnloadedSessions(realId, new OwnedSessionUpdate(dataOwner, timestamp, maxLife, false));
             if (existing == null) {
                 calcActiveSessions();
                 log.tracef("New session %s added to unloaded session map", realId);
             } else {
                 log.tracef("Updated timestamp for unloaded session %s", realId);
             }
+            scheduleExpirationCheck(realId);
         }
 
         return updated;
@@ -1180,132 +1312,70 @@ public class DistributableSessionManager<O extends OutgoingDistributableSessionD
         long passivationMax = passivationMaxIdleTime * 1000L;
         long passivationMin = passivationMinIdleTime * 1000L;
 
-        log.trace("processExpirationPassivation(): Looking for sessions that have expired ...");
-        log.tracef("processExpirationPassivation(): active sessions = %d", calcActiveSessions());
-        log.tracef("processExpirationPassivation(): expired sessions = %d", expiredCounter.get());
-        if (passivate) {
-            log.tracef("processExpirationPassivation(): passivated count = %d", getPassivatedSessionCount());
+        boolean trace = log.isTraceEnabled();
+        if (trace) {
+            log.trace("processExpirationPassivation(): Looking for sessions that have expired ...");
+            log.tracef("processExpirationPassivation(): active sessions = %d", calcActiveSessions());
+            log.tracef("processExpirationPassivation(): expired sessions = %d", expiredCounter.get());
+            if (passivate) {
+                log.tracef("processExpirationPassivation(): passivated count = %d", getPassivatedSessionCount());
+            }
         }
 
+        // Usually only the sessions the expiration index reports as due need checking. Passivating
+        // sessions to get below maxActiveAllowed needs every session ordered by last access though,
+        // and a periodic full sweep guards against deadlines that moved without the index knowing
+        boolean overLimit = passivate && (maxActiveAllowed > 0) && (passivationMin > 0) && (calcActiveSessions() >= maxActiveAllowed);
+        int count = this.processCount;
+        this.processCount = count + 1;
+        boolean fullSweep = overLimit || (count % FULL_SWEEP_INTERVAL == 0);
+
+        // Ids of the sessions checked by this run, which get rescheduled once we're done
+        List<String> checked = fullSweep ? new ArrayList<String>() : this.expirationIndex.drain(System.currentTimeMillis());
+
         // Holder for sessions or OwnedSessionUpdates that survive expiration,
         // sorted by last acccessed time
         TreeSet<PassivationCheck> passivationChecks = new TreeSet<PassivationCheck>();
 
+        // We may have not gotten replication of a timestamp for requests
+        // that occurred w/in maxUnreplicatedInterval of the previous
+        // request. So we add a grace period to avoid flushing a session early
+        // and permanently losing part of its node structure in JBoss Cache.
+        long maxUnrep = maxUnreplicatedInterval < 0 ? 60 : maxUnreplicatedInterval;
+
         try {
             // Don't track sessions invalidated via this method as if they
             // were going to be re-requested by the thread
             SessionInvalidationTracker.suspend();
 
-            // First, handle the sessions we are actively managing
-            for (Session s: this.sessions.values()) {
-                if (!this.started) return;
-
-                boolean likelyExpired = false;
-                String realId = null;
-
-                try {
-                    ClusteredSession<O> session = cast(s);
-
-                    realId = session.getRealId();
-                    likelyExpired = expire;
-
-                    if (expire) {
-                        // JBAS-2403. Check for outdated sessions where we think
-                        // the local copy has timed out. If found, refresh the
-                        // session from the cache in case that might change the timeout
-                        likelyExpired = (session.isValid(false) == false);
-                        if (likelyExpired && this.outdatedSessionChecker.isSessionOutdated(session)) {
-                            // With JBC, every time we get a notification from the distributed
-                            // cache of an update, we get the latest timestamp. So
-                            // we shouldn't need to do a full session load here. A load
-                            // adds a risk of an unintended data gravitation. However,
-                            // with a database instead of JBC we don't get notifications
-
-                            // JBAS-2792 don't assign the result of loadSession to session
-                            // just update the object from the cache or fall through if
-                            // the session has been removed from the cache
-                            loadSession(session.getRealId());
-                        }
-
-                        // Do a normal invalidation check that will expire the
-                        // session if it has timed out
-                        // DON'T SYNCHRONIZE on session here -- isValid() and
-                        // expire() are meant to be multi-threaded and synchronize
-                        // properly internally; synchronizing externally can lead
-                        // to deadlocks!!
-                        if (!session.isValid())
-                            continue;
-
-                        likelyExpired = false;
-                    }
-
-                    // we now have a valid session; store it so we can check later
-                    // if we need to passivate it
-                    if (passivate) {
-                        passivationChecks.add(new PassivationCheck(session));
-                    }
-
-                } catch (Exception e) {
-                    if (likelyExpired) {
-                        // JBAS-7397 clean up
-                        bruteForceCleanup(realId, e);
-                    } else {
-                        log.errorf(e, "processExpirationPassivation(): failed handling %s with exception: %s", realId, e);
-                    }
+            if (fullSweep) {
+                // First, handle the sessions we are actively managing
+                for (Map.Entry<String, Session> entry : this.sessions.entrySet()) {
+                    if (!this.started) return;
 
+                    checked.add(entry.getKey());
+                    checkSession(entry.getValue(), expire, passivate, passivationChecks);
                 }
-            }
-
-            // Next, handle any unloaded sessions
-
-            // We may have not gotten replication of a timestamp for requests
-            // that occurred w/in maxUnreplicatedInterval of the previous
-            // request. So we add a grace period to avoid flushing a session early
-            // and permanently losing part of its node structure in JBoss Cache.
-            long maxUnrep = maxUnreplicatedInterval < 0 ? 60 : maxUnreplicatedInterval;
-
-            for (Map.Entry<String, OwnedSessionUpdate> entry : this.unloadedSessions.entrySet()) {
-                if (!this.started) return;
 
-                String realId = entry.getKey();
-                OwnedSessionUpdate osu = entry.getValue();
-                boolean likelyExpired = false;
+                // Next, handle any unloaded sessions
+                for (Map.Entry<String, OwnedSessionUpdate> entry : this.unloadedSessions.entrySet()) {
+                    if (!this.started) return;
 
-                long now = System.currentTimeMillis();
-                long elapsed = (now - osu.getUpdateTime());
-                try {
-                    likelyExpired = expire && osu.getMaxInactive() >= 1 && elapsed >= (osu.getMaxInactive() + maxUnrep) * 1000L;
-                    if (likelyExpired) {
-                        // if (osu.passivated && osu.owner == null)
-                        if (osu.isPassivated()) {
-                            // Passivated session needs to be expired. A call to
-                            // findSession will bring it out of passivation
-                            Session session = findSession(realId);
-                            if (session != null) {
-                                session.isValid(); // will expire
-                                continue;
-                            }
-                        }
+                    checked.add(entry.getKey());
+                    checkUnloadedSession(entry.getKey(), entry.getValue(), expire, passivate, maxUnrep, passivationChecks);
+                }
+            } else {
+                for (String realId : checked) {
+                    if (!this.started) return;
 
-                        // If we get here either !osu.passivated, or we don't own
-                        // the session or the session couldn't be reactivated (invalidated by user).
-                        // Either way, do a cleanup
-                        this.distributedCacheManager.removeSessionLocal(realId, osu.getOwner());
-                        unloadedSessions.remove(realId);
-                        this.getReplicationStatistics().removeStats(realId);
-
-                    } else if (passivate && !osu.isPassivated()) {
-                        // we now have a valid session; store it so we can check later
-                        // if we need to passivate it
-                        passivationChecks.add(new PassivationCheck(realId, osu));
-                    }
-                } catch (Exception e) {
-                    // JBAS-7397 Don't try forever
-                    if (likelyExpired) {
-                        // JBAS-7397
-                        bruteForceCleanup(realId, e);
+                    Session session = this.sessions.get(realId);
+                    if (session != null) {
+                        checkSession(session, expire, passivate, passivationChecks);
                     } else {
-                        log.errorf(e, "processExpirationPassivation(): failed handling unloaded session %s", realId);
+                        OwnedSessionUpdate osu = this.unloadedSessions.get(realId);
+                        if (osu != null) {
+                            checkUnloadedSession(realId, osu, expire, passivate, maxUnrep, passivationChecks);
+                        }
                     }
                 }
             }
@@ -1339,20 +1409,171 @@ public class DistributableSessionManager<O extends OutgoingDistributableSessionD
                     }
                 }
             }
+
+            // Schedule the next check of whatever survived
+            for (String realId : checked) {
+                scheduleExpirationCheck(realId);
+            }
+            this.lastProcessedSessionCount = checked.size();
         } catch (Exception ex) {
             log.error("processExpirationPassivation(): failed with exception: " + ex, ex);
         } finally {
             SessionInvalidationTracker.resume();
         }
 
-        log.trace("processExpirationPassivation(): Completed ...");
-        log.tracef("processExpirationPassivation(): active sessions = %d", calcActiveSessions());
-        log.tracef("processExpirationPassivation(): expired sessions = %d", expiredCounter.get());
-        if (passivate) {
-            log.tracef("processExpirationPassivation(): passivated count = %d", getPassivatedSessionCount());
+        if (trace) {
+            log.trace("processExpirationPassivation(): Completed ...");
+            log.tracef("processExpirationPassivation(): active sessions = %d", calcActiveSessions());
+            log.tracef("processExpirationPassivation(): expired sessions = %d", expiredCounter.get());
+            if (passivate) {
+                log.tracef("processExpirationPassivation(): passivated count = %d", getPassivatedSessionCount());
+            }
         }
     }
 
+    /**
+     * Expires the given locally managed session if it has timed out, otherwise adds it to the passivation candidates.
+     */
+    private void checkSession(Session s, boolean expire, boolean passivate, Set<PassivationCheck> passivationChecks) {
+        boolean likelyExpired = false;
+        String realId = null;
+
+        try {
+            ClusteredSession<O> session = cast(s);
+
+            realId = session.getRealId();
+            likelyExpired = expire;
+
+            if (expire) {
+                // JBAS-2403. Check for outdated sessions where we think
+                // the local copy has timed out. If found, refresh the
+                // session from the cache in case that might change the timeout
+                likelyExpired = (session.isValid(false) == false);
+                if (likelyExpired && this.outdatedSessionChecker.isSessionOutdated(session)) {
+                    // With JBC, every time we get a notification from the distributed
+                    // cache of an update, we get the latest timestamp. So
+                    // we shouldn't need to do a full session load here. A load
+                    // adds a risk of an unintended data gravitation. However,
+                    // with a database instead of JBC we don't get notifications
+
+                    // JBAS-2792 don't assign the result of loadSession to session
+                    // just update the object from the cache or fall through if
+                    // the session has been removed from the cache
+                    loadSession(session.getRealId());
+                }
+
+                // Do a normal invalidation check that will expire the
+                // session if it has timed out
+                // DON'T SYNCHRONIZE on session here -- isValid() and
+                // expire() are meant to be multi-threaded and synchronize
+                // properly internally; synchronizing externally can lead
+                // to deadlocks!!
+                if (!session.isValid())
+                    return;
+
+                likelyExpired = false;
+            }
+
+            // we now have a valid session; store it so we can check later
+            // if we need to passivate it
+            if (passivate) {
+                passivationChecks.add(new PassivationCheck(session));
+            }
+
+        } catch (Exception e) {
+            if (likelyExpired) {
+                // JBAS-7397 clean up
+                bruteForceCleanup(realId, e);
+            } else {
+                log.errorf(e, "processExpirationPassivation(): failed handling %s with exception: %s", realId, e);
+            }
+        }
+    }
+
+    /**
+     * Cleans up the given unloaded session if it has timed out, otherwise adds it to the passivation candidates.
+     */
+    private void checkUnloadedSession(String realId, OwnedSessionUpdate osu, boolean expire, boolean passivate, long maxUnrep, Set<PassivationCheck> passivationChecks) {
+        boolean likelyExpired = false;
+
+        long now = System.currentTimeMillis();
+        long elapsed = (now - osu.getUpdateTime());
+        try {
+            likelyExpired = expire && osu.getMaxInactive() >= 1 && elapsed >= (osu.getMaxInactive() + maxUnrep) * 1000L;
+            if (likelyExpired) {
+                // if (osu.passivated && osu.owner == null)
+                if (osu.isPassivated()) {
+                    // Passivated session needs to be expired. A call to
+                    // findSession will bring it out of passivation
+                    Session session = findSession(realId);
+                    if (session != null) {
+                        session.isValid(); // will expire
+                        return;
+                    }
+                }
+
+                // If we get here either !osu.passivated, or we don't own
+                // the session or the session couldn't be reactivated (invalidated by user).
+                // Either way, do a cleanup
+                this.distributedCacheManager.removeSessionLocal(realId, osu.getOwner());
+                removeFromUnloadedSessions(realId);
+                this.getReplicationStatistics().removeStats(realId);
+
+            } else if (passivate && !osu.isPassivated()) {
+                // we now have a valid session; store it so we can check later
+                // if we need to passivate it
+                passivationChecks.add(new PassivationCheck(realId, osu));
+            }
+        } catch (Exception e) {
+            // JBAS-7397 Don't try forever
+            if (likelyExpired) {
+                // JBAS-7397
+                bruteForceCleanup(realId, e);
+            } else {
+                log.errorf(e, "processExpirationPassivation(): failed handling unloaded session %s", realId);
+            }
+        }
+    }
+
+    /**
+     * Schedules the next expiration or passivation check of the local or unloaded session with the given id for the earliest
+     * time it could time out. Sessions that can neither expire nor be passivated are left to the periodic full sweep.
+     */
+    private void scheduleExpirationCheck(String realId) {
+        long due = Long.MAX_VALUE;
+        boolean passivate = isPassivationEnabled();
+        ClusteredSession<O> session = cast(this.sessions.get(realId));
+        if (session != null) {
+            long lastAccessed = session.getLastAccessedTimeInternal();
+            int maxInactive = session.getMaxInactiveInterval();
+            if (maxInactiveInterval >= 0 && maxInactive >= 0) {
+                due = lastAccessed + maxInactive * 1000L;
+            }
+            if (passivate && passivationMaxIdleTime >= 0) {
+                due = Math.min(due, lastAccessed + passivationMaxIdleTime * 1000L);
+            }
+        } else {
+            OwnedSessionUpdate osu = this.unloadedSessions.get(realId);
+            if (osu == null) return;
+
+            long maxUnrep = maxUnreplicatedInterval < 0 ? 60 : maxUnreplicatedInterval;
+            if (maxInactiveInterval >= 0 && osu.getMaxInactive() >= 1) {
+                due = osu.getUpdateTime() + (osu.getMaxInactive() + maxUnrep) * 1000L;
+            }
+            if (passivate && !osu.isPassivated() && passivationMaxIdleTime >= 0) {
+                due = Math.min(due, osu.getUpdateTime() + passivationMaxIdleTime * 1000L);
+            }
+        }
+        if (due != Long.MAX_VALUE) {
+            this.expirationIndex.schedule(realId, due);
+        }
+    }
+
+    @Override
+    public void sessionMaxInactiveIntervalChanged(String realId) {
+        scheduleExpirationCheck(realId);
+    }
+
     /**
      * Loads a session from the distributed store. If an existing session with the id is already under local management, that
      * session's internal state will be updated from the distributed store. Otherwise a new session will be created and added to
@@ -1489,7 +1710,7 @@ public class DistributableSessionManager<O extends OutgoingDistributableSessionD
             log.errorf(e, "processExpirationPassivation(): Caught exception during brute force cleanup of unloaded session %s  Session will be removed from Manager but may still exist in distributed cache", realId);
         } finally {
             // Get rid of our refs even if distributed store fails
-            unloadedSessions.remove(realId);
+            removeFromUnloadedSessions(realId);
             this.getReplicationStatistics().removeStats(realId);
         }
     }
@@ -1506,7 +1727,47 @@ public class DistributableSessionManager<O extends OutgoingDistributableSessionD
 
     @Override
     protected int getTotalActiveSessions() {
-        return localActiveCounter.get() + unloadedSessions.size() - passivatedCount.get();
+        return localActiveCounter.get() + unloadedCount.get() - passivatedCount.get();
+    }
+
+    /**
+     * The local active counter is maintained by {@link #addToSessions(String, ClusteredSession)} and
+     * {@link #removeFromSessions(String)}, so there is no need to count the sessions map.
+     */
+    @Override
+    protected void updateLocalActiveCounter() {
+    }
+
+    private Session addToSessions(String realId, ClusteredSession<O> session) {
+        Session existing = this.sessions.put(realId, session);
+        if (existing == null) {
+            localActiveCounter.incrementAndGet();
+        }
+        return existing;
+    }
+
+    private ClusteredSession<O> removeFromSessions(String realId) {
+        Session session = this.sessions.remove(realId);
+        if (session != null) {
+            localActiveCounter.decrementAndGet();
+        }
+        return cast(session);
+    }
+
+    private OwnedSessionUpdate addToUnloadedSessions(String realId, OwnedSessionUpdate osu) {
+        OwnedSessionUpdate existing = this.unloadedSessions.put(realId, osu);
+        if (existing == null) {
+            unloadedCount.incrementAndGet();
+        }
+        return existing;
+    }
+
+    private OwnedSessionUpdate removeFromUnloadedSessions(String realId) {
+        OwnedSessionUpdate osu = this.unloadedSessions.remove(realId);
+        if (osu != null) {
+            unloadedCount.decrementAndGet();
+        }
+        return osu;
     }
 
     /**
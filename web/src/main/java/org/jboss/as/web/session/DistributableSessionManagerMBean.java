@@ -183,6 +183,85 @@ public interface DistributableSessionManagerMBean extends SessionManagerMBean {
      */
     long getPassivationMinIdleTime();
 
+    /**
+     * Gets the number of sessions that were checked for expiration or passivation by the last run of the background process.
+     *
+     * @return
+     */
+    int getLastProcessedSessionCount();
+
+    /**
+     * Gets the number of sessions with a scheduled expiration or passivation check.
+     *
+     * @return
+     */
+    int getScheduledSessionCount();
+
+    /**
+     * Gets the number of session attribute values serialized for replication, or 0 if the distributed cache does not collect
+     * marshalling statistics.
+     */
+    long getMarshalledAttributeCount();
+
+    /**
+     * Gets the total size, in bytes, of the session attribute values serialized for replication.
+     */
+    long getMarshalledAttributeBytes();
+
+    /**
+     * Gets the total time, in milliseconds, spent serializing session attribute values for replication.
+     */
+    long getAttributeMarshalTime();
+
+    /**
+     * Gets the number of times this node took ownership of a session without a request to the cluster, or 0 if the distributed
+     * cache does not track session ownership. The lock manager tracking ownership is shared by all web applications using the
+     * same cache container, so this and the other ownership statistics cover all of them.
+     */
+    long getLocalOwnershipAcquisitionCount();
+
+    /**
+     * Gets the total time, in milliseconds, spent taking ownership of sessions without a request to the cluster.
+     */
+    long getLocalOwnershipAcquisitionTime();
+
+    /**
+     * Gets the number of times this node took ownership of a session from the cluster.
+     */
+    long getClusterOwnershipAcquisitionCount();
+
+    /**
+     * Gets the total time, in milliseconds, spent taking ownership of sessions from the cluster.
+     */
+    long getClusterOwnershipAcquisitionTime();
+
+    /**
+     * Gets the number of times this node gave up ownership of a session to another node.
+     */
+    long getOwnershipYieldCount();
+
+    /**
+     * Gets the number of cache transactions used to replicate interval snapshots of this application's sessions, or 0 unless
+     * interval snapshots are replicated from the shared thread.
+     */
+    long getSnapshotBatchCount();
+
+    /**
+     * Gets the largest number of sessions, of this and other applications using the same cache, replicated in one interval
+     * snapshot cache transaction.
+     */
+    int getMaxSnapshotBatchSize();
+
+    /**
+     * Gets the average time, in milliseconds, between a session being modified and its interval snapshot being replicated.
+     */
+    long getAverageSnapshotReplicationLag();
+
+    /**
+     * Gets the longest time, in milliseconds, between a session being modified and its interval snapshot being replicated.
+     */
+    long getMaxSnapshotReplicationLag();
+
     /**
      * Gets the number of duplicated session ids generated.
      */
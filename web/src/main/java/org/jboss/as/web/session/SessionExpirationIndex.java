@@ -0,0 +1,116 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.web.session;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Index of sessions by the time at which they next need to be checked for expiration or passivation, so that the
+ * background process of a {@link DistributableSessionManager} only visits the sessions which are due.
+ * <p/>
+ * Times are truncated into buckets of {@link #RESOLUTION} milliseconds. A session is indexed under a single time, the
+ * earliest one it was scheduled for, and accesses to the session do not update the index. Instead, a session that is
+ * found to be still alive when it comes due is scheduled again from its current state. A session is therefore never
+ * checked later than the time it was scheduled for, though it may be checked earlier.
+ */
+class SessionExpirationIndex {
+
+    static final long RESOLUTION = 1000L;
+
+    /** Session ids by bucket. May contain ids which have since been rescheduled or cancelled. */
+    private final TreeMap<Long, List<String>> buckets = new TreeMap<Long, List<String>>();
+
+    /** The bucket each scheduled session id is indexed under */
+    private final Map<String, Long> scheduled = new HashMap<String, Long>();
+
+    /**
+     * Schedules a check of a session at the given time, unless the session is already scheduled at the same or an
+     * earlier time.
+     *
+     * @param realId the session id, minus any jvmRoute
+     * @param time the time, in ms since the epoch, at which the session must be checked
+     */
+    synchronized void schedule(String realId, long time) {
+        Long bucket = Long.valueOf(time / RESOLUTION);
+        Long current = this.scheduled.get(realId);
+        if (current != null && current.longValue() <= bucket.longValue()) return;
+
+        this.scheduled.put(realId, bucket);
+        List<String> ids = this.buckets.get(bucket);
+        if (ids == null) {
+            ids = new ArrayList<String>();
+            this.buckets.put(bucket, ids);
+        }
+        ids.add(realId);
+    }
+
+    /**
+     * Removes any scheduled check of a session.
+     *
+     * @param realId the session id, minus any jvmRoute
+     */
+    synchronized void cancel(String realId) {
+        this.scheduled.remove(realId);
+    }
+
+    /**
+     * Removes and returns the ids of the sessions that are due for a check. The caller is responsible for scheduling the
+     * sessions which survive the check again.
+     *
+     * @param now the current time, in ms since the epoch
+     * @return the session ids, never <code>null</code>
+     */
+    synchronized List<String> drain(long now) {
+        List<String> due = new ArrayList<String>();
+        Iterator<Map.Entry<Long, List<String>>> entries = this.buckets.headMap(Long.valueOf(now / RESOLUTION), true).entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Long, List<String>> entry = entries.next();
+            for (String realId : entry.getValue()) {
+                // Skip ids that were cancelled, or moved to an earlier bucket and already drained
+                if (entry.getKey().equals(this.scheduled.get(realId))) {
+                    this.scheduled.remove(realId);
+                    due.add(realId);
+                }
+            }
+            entries.remove();
+        }
+        return due;
+    }
+
+    /**
+     * Gets the number of sessions with a scheduled check.
+     */
+    synchronized int size() {
+        return this.scheduled.size();
+    }
+
+    synchronized void clear() {
+        this.buckets.clear();
+        this.scheduled.clear();
+    }
+}
@@ -142,6 +142,16 @@ public interface SessionManagerMBean {
      */
     void setProcessingTime(long processingTime);
 
+    /**
+     * Gets the number of milliseconds spent in the last call to the <code>Manager.backgroundProcess()</code> method.
+     */
+    long getLastProcessingTime();
+
+    /**
+     * Gets the maximum number of milliseconds spent in a single call to the <code>Manager.backgroundProcess()</code> method.
+     */
+    long getMaxProcessingTime();
+
     /**
      * Outputs the replication statistics as an HTML table, with one row per session.
      */
@@ -0,0 +1,379 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.web.session;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.clustering.web.BatchingManager;
+import org.jboss.as.clustering.web.OutgoingDistributableSessionData;
+import org.jboss.logging.Logger;
+
+/**
+ * A snapshot manager that collects all modified sessions over a given period of time and distributes them en bloc, like
+ * {@link IntervalSnapshotManager}, but for all web applications at once instead of from a thread per application.
+ * <p>
+ * All started instances share a single tick, which runs at the shortest of their intervals; an instance whose interval
+ * is longer has its sessions replicated on the first tick after its interval elapsed. On each tick, the sessions of all
+ * due web applications that use the same {@link BatchingManager}, i.e. the same cache, are replicated together in
+ * batches of up to {@link #MAX_BATCH_SIZE} sessions, each in a single cache transaction.
+ * <p>
+ * If any session of a batch fails to replicate, the batch is rolled back and its sessions are replicated again one by one,
+ * so that the failure does not affect the other sessions.
+ */
+public class SharedIntervalSnapshotManager extends SnapshotManager {
+    /** The maximum number of sessions replicated within one cache transaction */
+    public static final int MAX_BATCH_SIZE = 100;
+
+    private static final Logger log = Logger.getLogger(SharedIntervalSnapshotManager.class);
+
+    private static final List<SharedIntervalSnapshotManager> managers = new CopyOnWriteArrayList<SharedIntervalSnapshotManager>();
+    private static ScheduledExecutorService executor;
+    private static ScheduledFuture<?> future;
+    private static int tick;
+
+    private final int interval;
+    private final BatchingManager batchingManager;
+
+    // The modified sessions, and the time each was first queued
+    private final Map<ClusteredSession<? extends OutgoingDistributableSessionData>, Long> sessions = new LinkedHashMap<ClusteredSession<? extends OutgoingDistributableSessionData>, Long>();
+
+    private volatile boolean processingAllowed = false;
+    // Time of the last tick that processed this instance, in nanoseconds; only used by the distributor thread
+    private long lastProcessed;
+
+    // statistics, only updated by the distributor thread
+    private volatile long batchCount;
+    private volatile long replicatedCount;
+    private volatile int maxBatchSize;
+    private volatile long totalReplicationLag;
+    private volatile long maxReplicationLag;
+
+    public SharedIntervalSnapshotManager(SessionManager manager, String path, int interval, BatchingManager batchingManager) {
+        super(manager, path);
+        this.interval = interval;
+        this.batchingManager = batchingManager;
+    }
+
+    /**
+     * Store the modified session for the distributor thread
+     */
+    @Override
+    public void snapshot(ClusteredSession<? extends OutgoingDistributableSessionData> session) {
+        synchronized (this.sessions) {
+            if (!this.sessions.containsKey(session)) {
+                this.sessions.put(session, Long.valueOf(System.currentTimeMillis()));
+            }
+        }
+    }
+
+    /**
+     * Start the snapshot manager
+     */
+    @Override
+    public synchronized void start() {
+        if (this.processingAllowed) {
+            return;
+        }
+        this.processingAllowed = true;
+        this.lastProcessed = System.nanoTime();
+        register(this);
+    }
+
+    /**
+     * Stop the snapshot manager
+     */
+    @Override
+    public synchronized void stop() {
+        if (!this.processingAllowed) {
+            return;
+        }
+        this.processingAllowed = false;
+        unregister(this);
+        synchronized (this.sessions) {
+            this.sessions.clear();
+        }
+    }
+
+    /**
+     * Distribute the modified sessions of all started instances whose interval elapsed
+     */
+    static void processDueSessions() {
+        long now = System.nanoTime();
+        List<SharedIntervalSnapshotManager> due = new ArrayList<SharedIntervalSnapshotManager>();
+        for (SharedIntervalSnapshotManager manager : managers) {
+            if (now - manager.lastProcessed >= TimeUnit.MILLISECONDS.toNanos(manager.interval)) {
+                manager.lastProcessed = now;
+                due.add(manager);
+            }
+        }
+        processSessions(due);
+    }
+
+    /**
+     * Distribute all modified sessions of the given instances, in batches shared by the instances using the same batching
+     * manager
+     */
+    static void processSessions(Collection<SharedIntervalSnapshotManager> managers) {
+        Map<BatchingManager, List<QueuedSession>> groups = new IdentityHashMap<BatchingManager, List<QueuedSession>>();
+        for (SharedIntervalSnapshotManager manager : managers) {
+            List<QueuedSession> group = groups.get(manager.batchingManager);
+            if (group == null) {
+                group = new ArrayList<QueuedSession>();
+                groups.put(manager.batchingManager, group);
+            }
+            manager.drainSessions(group);
+        }
+        for (Map.Entry<BatchingManager, List<QueuedSession>> entry : groups.entrySet()) {
+            BatchingManager batchingManager = entry.getKey();
+            List<QueuedSession> toProcess = entry.getValue();
+            for (int start = 0; start < toProcess.size(); start += MAX_BATCH_SIZE) {
+                List<QueuedSession> batch = toProcess.subList(start, Math.min(start + MAX_BATCH_SIZE, toProcess.size()));
+                try {
+                    replicate(batchingManager, batch);
+                } catch (Throwable e) {
+                    log.error("Caught exception replicating sessions", e);
+                }
+                recordBatch(batch);
+            }
+        }
+    }
+
+    private void drainSessions(List<QueuedSession> toProcess) {
+        synchronized (this.sessions) {
+            for (Map.Entry<ClusteredSession<? extends OutgoingDistributableSessionData>, Long> entry : this.sessions.entrySet()) {
+                toProcess.add(new QueuedSession(this, entry.getKey(), entry.getValue().longValue()));
+            }
+            this.sessions.clear();
+        }
+    }
+
+    private static void replicate(BatchingManager batchingManager, List<QueuedSession> batch) {
+        boolean failed = false;
+        boolean endBatch = false;
+        try {
+            if (!batchingManager.isBatchInProgress()) {
+                batchingManager.startBatch();
+                endBatch = true;
+            }
+            for (int i = 0; !failed && (i < batch.size()); ++i) {
+                QueuedSession queued = batch.get(i);
+                // Confirm its web application hasn't been stopped
+                if (!queued.manager.processingAllowed) continue;
+                try {
+                    long lastReplicated = queued.session.getLastReplicated();
+                    // A failure to replicate is not thrown, but leaves the batch marked for rollback
+                    failed = queued.store() && (queued.session.getLastReplicated() == lastReplicated);
+                } catch (Exception e) {
+                    failed = true;
+                }
+            }
+            if (failed) {
+                batchingManager.setBatchRollbackOnly();
+            }
+        } catch (Exception e) {
+            failed = true;
+            log.error("Caught exception replicating sessions", e);
+        } finally {
+            if (endBatch) {
+                try {
+                    batchingManager.endBatch();
+                } catch (RuntimeException e) {
+                    failed = true;
+                    log.error("Caught exception replicating sessions", e);
+                }
+            }
+        }
+
+        if (failed && endBatch) {
+            // Retry the sessions of the rolled back batch individually
+            for (QueuedSession queued : batch) {
+                if (!queued.manager.processingAllowed) continue;
+                queued.session.replicationRolledBack();
+                try {
+                    queued.store();
+                } catch (Exception e) {
+                    queued.manager.getLog().error("Caught exception processing session " + queued.session.getRealId(), e);
+                }
+            }
+        }
+    }
+
+    private static void recordBatch(List<QueuedSession> batch) {
+        long now = System.currentTimeMillis();
+        // Count, total lag and max lag of the sessions of each web application
+        Map<SharedIntervalSnapshotManager, long[]> statistics = new IdentityHashMap<SharedIntervalSnapshotManager, long[]>();
+        for (QueuedSession queued : batch) {
+            long[] values = statistics.get(queued.manager);
+            if (values == null) {
+                values = new long[3];
+                statistics.put(queued.manager, values);
+            }
+            long lag = now - queued.queued;
+            values[0] += 1;
+            values[1] += lag;
+            values[2] = Math.max(values[2], lag);
+        }
+        for (Map.Entry<SharedIntervalSnapshotManager, long[]> entry : statistics.entrySet()) {
+            SharedIntervalSnapshotManager manager = entry.getKey();
+            long[] values = entry.getValue();
+            manager.batchCount += 1;
+            manager.replicatedCount += values[0];
+            manager.maxBatchSize = Math.max(manager.maxBatchSize, batch.size());
+            manager.totalReplicationLag += values[1];
+            manager.maxReplicationLag = Math.max(manager.maxReplicationLag, values[2]);
+            manager.getLog().debugf("Replicated %d sessions in a batch of %d, average lag %d ms", values[0], batch.size(), values[1] / values[0]);
+        }
+    }
+
+    /**
+     * Returns the number of cache transactions used to replicate sessions of this web application.
+     */
+    public long getBatchCount() {
+        return this.batchCount;
+    }
+
+    /**
+     * Returns the number of sessions replicated.
+     */
+    public long getReplicatedSessionCount() {
+        return this.replicatedCount;
+    }
+
+    /**
+     * Returns the largest number of sessions, of this and other web applications, replicated in one cache transaction with
+     * sessions of this web application.
+     */
+    public int getMaxBatchSize() {
+        return this.maxBatchSize;
+    }
+
+    /**
+     * Returns the average time in milliseconds between a session being modified and replicated.
+     */
+    public long getAverageReplicationLag() {
+        long count = this.replicatedCount;
+        return (count > 0) ? this.totalReplicationLag / count : 0;
+    }
+
+    /**
+     * Returns the longest time in milliseconds between a session being modified and replicated.
+     */
+    public long getMaxReplicationLag() {
+        return this.maxReplicationLag;
+    }
+
+    private static synchronized void register(SharedIntervalSnapshotManager manager) {
+        managers.add(manager);
+        if (executor == null) {
+            executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable task) {
+                    Thread thread = new Thread(task, "ClusteredSessionDistributor");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        schedule();
+    }
+
+    private static synchronized void unregister(SharedIntervalSnapshotManager manager) {
+        managers.remove(manager);
+        if (managers.isEmpty()) {
+            future.cancel(false);
+            future = null;
+            executor.shutdown();
+            executor = null;
+        } else {
+            schedule();
+        }
+    }
+
+    /**
+     * (Re)schedule the shared tick at the shortest interval of the started instances
+     */
+    private static void schedule() {
+        int shortest = Integer.MAX_VALUE;
+        for (SharedIntervalSnapshotManager manager : managers) {
+            shortest = Math.min(shortest, manager.interval);
+        }
+        if ((future != null) && (shortest == tick)) {
+            return;
+        }
+        if (future != null) {
+            future.cancel(false);
+        }
+        tick = shortest;
+        future = executor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    // Exceptions must not escape, or the executor will not run this task again
+                    processDueSessions();
+                } catch (Throwable e) {
+                    log.error("Caught exception processing sessions", e);
+                }
+            }
+        }, tick, tick, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * A modified session waiting to be replicated
+     */
+    private static class QueuedSession {
+        final SharedIntervalSnapshotManager manager;
+        final ClusteredSession<? extends OutgoingDistributableSessionData> session;
+        final long queued;
+
+        QueuedSession(SharedIntervalSnapshotManager manager, ClusteredSession<? extends OutgoingDistributableSessionData> session, long queued) {
+            this.manager = manager;
+            this.session = session;
+            this.queued = queued;
+        }
+
+        /**
+         * Store the session, with the class loader of its web application as context class loader
+         */
+        boolean store() {
+            SessionManager sessionManager = this.manager.getManager();
+            Thread thread = Thread.currentThread();
+            ClassLoader loader = thread.getContextClassLoader();
+            try {
+                thread.setContextClassLoader(sessionManager.getContainer().getLoader().getClassLoader());
+                return sessionManager.storeSession(this.session);
+            } finally {
+                thread.setContextClassLoader(loader);
+            }
+        }
+    }
+}
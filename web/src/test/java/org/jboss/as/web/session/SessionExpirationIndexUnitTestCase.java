@@ -0,0 +1,102 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.web.session;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Unit tests of {@link SessionExpirationIndex}.
+ */
+public class SessionExpirationIndexUnitTestCase {
+
+    private static final long NOW = 1000000L;
+
+    @Test
+    public void testDrainReturnsOnlyDueSessions() {
+        SessionExpirationIndex index = new SessionExpirationIndex();
+        index.schedule("a", NOW - 5000);
+        index.schedule("b", NOW);
+        index.schedule("c", NOW + 5000);
+        assertEquals(3, index.size());
+
+        List<String> due = index.drain(NOW);
+        Collections.sort(due);
+        assertEquals(Arrays.asList("a", "b"), due);
+        assertEquals(1, index.size());
+
+        assertTrue(index.drain(NOW).isEmpty());
+        assertEquals(Arrays.asList("c"), index.drain(NOW + 5000));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void testScheduleOnlyMovesEarlier() {
+        SessionExpirationIndex index = new SessionExpirationIndex();
+        index.schedule("a", NOW + 5000);
+        index.schedule("a", NOW + 10000);
+        assertEquals(Arrays.asList("a"), index.drain(NOW + 5000));
+
+        index.schedule("b", NOW + 10000);
+        index.schedule("b", NOW - 5000);
+        assertEquals(1, index.size());
+        assertEquals(Arrays.asList("b"), index.drain(NOW));
+        // The stale entry in the later bucket must not be returned again
+        assertTrue(index.drain(NOW + 10000).isEmpty());
+    }
+
+    @Test
+    public void testCancel() {
+        SessionExpirationIndex index = new SessionExpirationIndex();
+        index.schedule("a", NOW);
+        index.schedule("b", NOW);
+        index.cancel("a");
+        assertEquals(1, index.size());
+        assertEquals(Arrays.asList("b"), index.drain(NOW));
+
+        // A cancelled session can be scheduled again
+        index.schedule("a", NOW + 5000);
+        assertEquals(Arrays.asList("a"), index.drain(NOW + 5000));
+    }
+
+    @Test
+    public void testNeverLate() {
+        SessionExpirationIndex index = new SessionExpirationIndex();
+        // Truncation to the resolution may return a session early, but never late
+        index.schedule("a", NOW + SessionExpirationIndex.RESOLUTION - 1);
+        assertEquals(Arrays.asList("a"), index.drain(NOW));
+    }
+
+    @Test
+    public void testClear() {
+        SessionExpirationIndex index = new SessionExpirationIndex();
+        index.schedule("a", NOW);
+        index.clear();
+        assertEquals(0, index.size());
+        assertTrue(index.drain(NOW).isEmpty());
+    }
+}
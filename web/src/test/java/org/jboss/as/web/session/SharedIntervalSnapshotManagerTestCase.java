@@ -0,0 +1,183 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2012, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.web.session;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.catalina.Container;
+import org.apache.catalina.Loader;
+import org.jboss.as.clustering.web.BatchingManager;
+import org.jboss.as.clustering.web.OutgoingDistributableSessionData;
+import org.junit.Test;
+
+/**
+ * Unit tests of {@link SharedIntervalSnapshotManager}.
+ */
+public class SharedIntervalSnapshotManagerTestCase {
+    // Long enough for the shared tick not to process the sessions while a test runs
+    private static final int INTERVAL = 60000;
+
+    private final SessionManager manager = createSessionManager();
+    private final BatchingManager batchingManager = mock(BatchingManager.class);
+    private final SharedIntervalSnapshotManager snapshotManager = new SharedIntervalSnapshotManager(this.manager, "/test", INTERVAL, this.batchingManager);
+
+    @Test
+    public void testBatches() throws Exception {
+        List<ClusteredSession<? extends OutgoingDistributableSessionData>> sessions = this.createSessions(250);
+        for (ClusteredSession<? extends OutgoingDistributableSessionData> session : sessions) {
+            this.snapshotManager.snapshot(session);
+        }
+        // Queued twice, replicated once
+        this.snapshotManager.snapshot(sessions.get(0));
+
+        this.snapshotManager.start();
+        try {
+            SharedIntervalSnapshotManager.processSessions(Collections.singletonList(this.snapshotManager));
+        } finally {
+            this.snapshotManager.stop();
+        }
+
+        verify(this.batchingManager, times(3)).startBatch();
+        verify(this.batchingManager, times(3)).endBatch();
+        verify(this.batchingManager, never()).setBatchRollbackOnly();
+        for (ClusteredSession<? extends OutgoingDistributableSessionData> session : sessions) {
+            verify(this.manager).storeSession(session);
+        }
+        assertEquals(3, this.snapshotManager.getBatchCount());
+        assertEquals(250, this.snapshotManager.getReplicatedSessionCount());
+        assertEquals(SharedIntervalSnapshotManager.MAX_BATCH_SIZE, this.snapshotManager.getMaxBatchSize());
+    }
+
+    @Test
+    public void testFailedBatch() throws Exception {
+        List<ClusteredSession<? extends OutgoingDistributableSessionData>> sessions = this.createSessions(3);
+        ClusteredSession<? extends OutgoingDistributableSessionData> failing = sessions.get(1);
+        // Replication did not happen
+        when(failing.getLastReplicated()).thenReturn(0L);
+        for (ClusteredSession<? extends OutgoingDistributableSessionData> session : sessions) {
+            this.snapshotManager.snapshot(session);
+        }
+
+        this.snapshotManager.start();
+        try {
+            SharedIntervalSnapshotManager.processSessions(Collections.singletonList(this.snapshotManager));
+        } finally {
+            this.snapshotManager.stop();
+        }
+
+        verify(this.batchingManager).setBatchRollbackOnly();
+        verify(this.batchingManager).endBatch();
+        // The rest of the batch is skipped, then every session is replicated again on its own
+        verify(this.manager, times(2)).storeSession(sessions.get(0));
+        verify(this.manager, times(2)).storeSession(failing);
+        verify(this.manager, times(1)).storeSession(sessions.get(2));
+        for (ClusteredSession<? extends OutgoingDistributableSessionData> session : sessions) {
+            verify(session).replicationRolledBack();
+        }
+    }
+
+    @Test
+    public void testSharedBatches() throws Exception {
+        SessionManager otherManager = createSessionManager();
+        SharedIntervalSnapshotManager sameCache = new SharedIntervalSnapshotManager(otherManager, "/same", INTERVAL, this.batchingManager);
+        BatchingManager otherBatchingManager = mock(BatchingManager.class);
+        SharedIntervalSnapshotManager otherCache = new SharedIntervalSnapshotManager(otherManager, "/other", INTERVAL, otherBatchingManager);
+
+        List<ClusteredSession<? extends OutgoingDistributableSessionData>> sessions = this.createSessions(this.manager, 30);
+        for (ClusteredSession<? extends OutgoingDistributableSessionData> session : sessions) {
+            this.snapshotManager.snapshot(session);
+        }
+        List<ClusteredSession<? extends OutgoingDistributableSessionData>> sameCacheSessions = this.createSessions(otherManager, 30);
+        for (ClusteredSession<? extends OutgoingDistributableSessionData> session : sameCacheSessions) {
+            sameCache.snapshot(session);
+        }
+        List<ClusteredSession<? extends OutgoingDistributableSessionData>> otherCacheSessions = this.createSessions(otherManager, 10);
+        for (ClusteredSession<? extends OutgoingDistributableSessionData> session : otherCacheSessions) {
+            otherCache.snapshot(session);
+        }
+
+        this.snapshotManager.start();
+        sameCache.start();
+        otherCache.start();
+        try {
+            SharedIntervalSnapshotManager.processSessions(Arrays.asList(this.snapshotManager, sameCache, otherCache));
+        } finally {
+            this.snapshotManager.stop();
+            sameCache.stop();
+            otherCache.stop();
+        }
+
+        // The sessions of both applications using the same cache are replicated in one transaction
+        verify(this.batchingManager, times(1)).startBatch();
+        verify(this.batchingManager, times(1)).endBatch();
+        verify(otherBatchingManager, times(1)).startBatch();
+        verify(otherBatchingManager, times(1)).endBatch();
+        for (ClusteredSession<? extends OutgoingDistributableSessionData> session : sessions) {
+            verify(this.manager).storeSession(session);
+        }
+        for (ClusteredSession<? extends OutgoingDistributableSessionData> session : sameCacheSessions) {
+            verify(otherManager).storeSession(session);
+        }
+        for (ClusteredSession<? extends OutgoingDistributableSessionData> session : otherCacheSessions) {
+            verify(otherManager).storeSession(session);
+        }
+        assertEquals(1, this.snapshotManager.getBatchCount());
+        assertEquals(30, this.snapshotManager.getReplicatedSessionCount());
+        assertEquals(60, this.snapshotManager.getMaxBatchSize());
+        assertEquals(1, sameCache.getBatchCount());
+        assertEquals(60, sameCache.getMaxBatchSize());
+        assertEquals(1, otherCache.getBatchCount());
+        assertEquals(10, otherCache.getMaxBatchSize());
+    }
+
+    private static SessionManager createSessionManager() {
+        SessionManager manager = mock(SessionManager.class);
+        Container container = mock(Container.class);
+        Loader loader = mock(Loader.class);
+        when(manager.getContainer()).thenReturn(container);
+        when(container.getLoader()).thenReturn(loader);
+        when(loader.getClassLoader()).thenReturn(SharedIntervalSnapshotManagerTestCase.class.getClassLoader());
+        return manager;
+    }
+
+    private List<ClusteredSession<? extends OutgoingDistributableSessionData>> createSessions(int count) {
+        return this.createSessions(this.manager, count);
+    }
+
+    private List<ClusteredSession<? extends OutgoingDistributableSessionData>> createSessions(SessionManager manager, int count) {
+        List<ClusteredSession<? extends OutgoingDistributableSessionData>> sessions = new ArrayList<ClusteredSession<? extends OutgoingDistributableSessionData>>(count);
+        for (int i = 0; i < count; ++i) {
+            @SuppressWarnings("unchecked")
+            ClusteredSession<OutgoingDistributableSessionData> session = mock(ClusteredSession.class);
+            when(session.getLastReplicated()).thenReturn(0L, 1L);
+            when(manager.storeSession(session)).thenReturn(true);
+            sessions.add(session);
+        }
+        return sessions;
+    }
+}
@@ -94,6 +94,9 @@ public class MockClusteredSessionManager extends MockSessionManager implements
         return ReplicationTrigger.SET_AND_NON_PRIMITIVE_GET;
     }
 
+    public void sessionMaxInactiveIntervalChanged(String realId) {
+    }
+
     public void removeLocal(Session session) {
     }
 
@@ -30,6 +30,7 @@ import org.jboss.as.clustering.web.BatchingManager;
 import org.jboss.as.clustering.web.DistributedCacheManager;
 import org.jboss.as.clustering.web.IncomingDistributableSessionData;
 import org.jboss.as.clustering.web.OutgoingDistributableSessionData;
+import org.jboss.as.clustering.web.SessionAttributeMarshallingStatistics;
 import org.jboss.as.clustering.web.SessionOwnershipSupport;
 
 /**
@@ -143,6 +144,10 @@ public class MockDistributedCacheManager implements DistributedCacheManager<Outg
         return null;
     }
 
+    public SessionAttributeMarshallingStatistics getSessionAttributeMarshallingStatistics() {
+        return null;
+    }
+
     public boolean isLocal(String realId) {
         return false;
     }
@@ -21,6 +21,7 @@
  */
 package org.jboss.as.weld.injection;
 
+import org.jboss.as.naming.DetachableManagedReference;
 import org.jboss.as.naming.ManagedReference;
 
 import javax.enterprise.context.spi.CreationalContext;
@@ -29,7 +30,7 @@ import java.util.Map;
 /**
 * @author Stuart Douglas
 */
-class WeldManagedReference implements ManagedReference {
+class WeldManagedReference implements DetachableManagedReference {
     private final CreationalContext<?> context;
     private final Object instance;
     private final WeldEEInjection injectionTarget;
@@ -68,6 +69,22 @@ class WeldManagedReference implements ManagedReference {
         return instance;
     }
 
+    @Override
+    public ManagedReference detach() {
+        final CreationalContext<?> context = this.context;
+        return new ManagedReference() {
+            @Override
+            public void release() {
+                context.release();
+            }
+
+            @Override
+            public Object getInstance() {
+                return null;
+            }
+        };
+    }
+
     public CreationalContext<?> getContext() {
         return context;
     }